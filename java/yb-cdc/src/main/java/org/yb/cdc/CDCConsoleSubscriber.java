@@ -14,14 +14,22 @@
 package org.yb.cdc;
 
 import org.apache.log4j.*;
+import org.yb.cdc.metrics.PrometheusEndpoint;
 
 public class CDCConsoleSubscriber {
   private static final Logger LOG = Logger.getLogger(CDCConsoleSubscriber.class);
 
   private ConcurrentLogConnector connector;
+  private PrometheusEndpoint prometheusEndpoint;
 
   public CDCConsoleSubscriber(CmdLineOpts cmdLineOpts, OutputClient opClient) throws Exception {
     connector = new ConcurrentLogConnector(cmdLineOpts, opClient);
+    connector.getMetrics().registerMBeans();
+    if (cmdLineOpts.prometheusMetricsPort > 0) {
+      prometheusEndpoint =
+          new PrometheusEndpoint(connector.getMetrics(), cmdLineOpts.prometheusMetricsPort);
+      LOG.info("Serving the CDC metrics at port " + cmdLineOpts.prometheusMetricsPort);
+    }
   }
 
   public void run() {
@@ -37,6 +45,10 @@ public class CDCConsoleSubscriber {
   public void close() {
     try {
       connector.close();
+      // Frees the metrics port, the metrics are no longer updated after the connector is closed.
+      if (prometheusEndpoint != null) {
+        prometheusEndpoint.stop();
+      }
     } catch (Exception e) {
       System.exit(0);
     }
@@ -17,6 +17,7 @@ import org.apache.commons.cli.*;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.log4j.Logger;
 import org.yb.client.AsyncYBClient;
+import org.yb.client.StreamCompression;
 
 public class CmdLineOpts {
   private static final String DEFAULT_MASTER_ADDRESS = "127.0.0.1:7100";
@@ -32,6 +33,16 @@ public class CmdLineOpts {
   public String clientCertFile;
   public String clientKeyFile;
   public int maxTablets = AsyncYBClient.DEFAULT_MAX_TABLETS;
+  // Bytes of GetChanges responses held in memory until their records are applied.
+  public long maxBufferedBytes = ConcurrentPoller.DEFAULT_MAX_BUFFERED_BYTES;
+  // Number of tablets to take the initial snapshot of at the same time.
+  public int snapshotConcurrency = 8;
+  // Bytes of snapshot batches held in memory until their records are applied.
+  public long snapshotMaxBufferedBytes = 256L * 1024 * 1024;
+  // Port to serve the metrics in the Prometheus format at, not served if 0.
+  public int prometheusMetricsPort = 0;
+  // Compression of the connections to the cluster, which should enable stream compression.
+  public StreamCompression streamCompression = StreamCompression.NONE;
 
   // Config file path to be provided from command line.
   public String configFile = "";
@@ -114,6 +125,27 @@ public class CmdLineOpts {
       .concat(lineSeparator)
       .concat("  --max_tablets").concat(lineSeparator)
       .concat("    Maximum number of tablets the client can poll for, default is 10")
+      .concat(lineSeparator)
+      .concat("  --max_buffered_bytes").concat(lineSeparator)
+      .concat("    Maximum bytes of polled changes held in memory before they are applied, " +
+              "default is 64MB")
+      .concat(lineSeparator)
+      .concat("  --snapshot_concurrency").concat(lineSeparator)
+      .concat("    Number of tablets to take the initial snapshot of at the same time, " +
+              "default is 8")
+      .concat(lineSeparator)
+      .concat("  --snapshot_max_buffered_bytes").concat(lineSeparator)
+      .concat("    Maximum bytes of snapshot batches held in memory before they are applied, " +
+              "default is 256MB")
+      .concat(lineSeparator)
+      .concat("  --prometheus_metrics_port").concat(lineSeparator)
+      .concat("    Port to serve the CDC metrics at /metrics in the Prometheus format, " +
+              "not served by default")
+      .concat(lineSeparator)
+      .concat("  --stream_compression").concat(lineSeparator)
+      .concat("    Compression of the connections to the cluster, one of none, gzip, snappy " +
+              "or lz4, default is none. Not supported by clusters run with " +
+              "--enable_stream_compression=false")
       .concat(lineSeparator);
 
     public static CmdLineOpts createFromArgs(String[] args) throws Exception {
@@ -156,6 +188,24 @@ public class CmdLineOpts {
       options.addOption("max_tablets", true, "Maximum number of tablets the client can " +
         "poll for");
 
+      // Memory budget of the polled changes, default is 64MB.
+      options.addOption("max_buffered_bytes", true, "Maximum bytes of polled changes held " +
+        "in memory before they are applied");
+
+      // Concurrency and memory budget of the initial snapshot.
+      options.addOption("snapshot_concurrency", true, "Number of tablets to take the " +
+        "initial snapshot of at the same time");
+      options.addOption("snapshot_max_buffered_bytes", true, "Maximum bytes of snapshot " +
+        "batches held in memory before they are applied");
+
+      // Port of the Prometheus metrics endpoint, the metrics are also exposed over JMX.
+      options.addOption("prometheus_metrics_port", true, "Port to serve the CDC metrics at " +
+        "in the Prometheus format");
+
+      // Compression of the RPC connections, default is none.
+      options.addOption("stream_compression", true, "Compression of the connections to the " +
+        "cluster, one of none, gzip, snappy or lz4");
+
       // The interval at which the changes should be poplled at.
       options.addOption("polling_interval", true,
         "Interval at which the changes should be polled at");
@@ -257,6 +307,44 @@ public class CmdLineOpts {
         maxTablets = Integer.parseInt(commandLine.getOptionValue("max_tablets"));
       }
 
+      if (commandLine.hasOption("max_buffered_bytes")) {
+        maxBufferedBytes = Long.parseLong(commandLine.getOptionValue("max_buffered_bytes"));
+        if (maxBufferedBytes <= 0) {
+          throw new Exception("Expected a positive value for --max_buffered_bytes");
+        }
+      }
+
+      if (commandLine.hasOption("snapshot_concurrency")) {
+        snapshotConcurrency = Integer.parseInt(
+          commandLine.getOptionValue("snapshot_concurrency"));
+        if (snapshotConcurrency <= 0) {
+          throw new Exception("Expected a positive value for --snapshot_concurrency");
+        }
+      }
+
+      if (commandLine.hasOption("snapshot_max_buffered_bytes")) {
+        snapshotMaxBufferedBytes = Long.parseLong(
+          commandLine.getOptionValue("snapshot_max_buffered_bytes"));
+        if (snapshotMaxBufferedBytes <= 0) {
+          throw new Exception("Expected a positive value for --snapshot_max_buffered_bytes");
+        }
+      }
+
+      if (commandLine.hasOption("prometheus_metrics_port")) {
+        prometheusMetricsPort = Integer.parseInt(
+          commandLine.getOptionValue("prometheus_metrics_port"));
+      }
+
+      if (commandLine.hasOption("stream_compression")) {
+        try {
+          streamCompression = StreamCompression.fromString(
+            commandLine.getOptionValue("stream_compression"));
+        } catch (IllegalArgumentException e) {
+          throw new Exception("Expected one of none, gzip, snappy or lz4 for " +
+                              "--stream_compression");
+        }
+      }
+
       if (commandLine.hasOption("polling_interval")) {
         pollingInterval = Integer.parseInt(commandLine.getOptionValue("polling_interval"));
       }
@@ -16,6 +16,9 @@ package org.yb.cdc;
 import com.google.common.net.HostAndPort;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.log4j.Logger;
+import org.yb.cdc.metrics.CDCMetrics;
+import org.yb.cdc.util.Checkpoint;
+import org.yb.cdc.util.MemoryBudget;
 import org.yb.client.*;
 import org.yb.master.MasterDdlOuterClass;
 import org.yb.util.ServerInfo;
@@ -58,6 +61,11 @@ public class ConcurrentLogConnector {
 
   private boolean stopExecution = false;
   private int pollingInterval;
+  // Shared by the pollers, so the changes in memory are bounded whatever the number of tablets.
+  private final MemoryBudget memoryBudget;
+  private final CDCMetrics metrics = new CDCMetrics();
+  private int snapshotConcurrency;
+  private long snapshotMaxBufferedBytes;
 
   public ConcurrentLogConnector(CmdLineOpts opts, OutputClient opClient) throws Exception {
     InputStream input = new FileInputStream(opts.configFile);
@@ -69,6 +77,9 @@ public class ConcurrentLogConnector {
     clientKeyFile = opts.clientKeyFile;
 
     pollingInterval = opts.pollingInterval;
+    memoryBudget = new MemoryBudget(opts.maxBufferedBytes);
+    snapshotConcurrency = opts.snapshotConcurrency;
+    snapshotMaxBufferedBytes = opts.snapshotMaxBufferedBytes;
 
     // Load a properties file.
     prop.load(input);
@@ -98,7 +109,11 @@ public class ConcurrentLogConnector {
                 prop.getProperty("operation.timeout.ms")))
               .defaultSocketReadTimeoutMs(Integer.parseInt(
                 prop.getProperty("socket.read.timeout.ms")))
+              .streamCompression(opts.streamCompression)
               .build();
+    if (opts.streamCompression != StreamCompression.NONE) {
+      metrics.setCompressionStats(client.getCompressionStats());
+    }
 
     syncClient = new YBClient(client);
     concurrency = Integer.parseInt(prop.getProperty("num.io.threads"));
@@ -154,6 +169,19 @@ public class ConcurrentLogConnector {
     for (int i = 0; i < concurrency; i++) {
       tableIdsToTabletIdsMapList.add(new HashMap<>());
     }
+    // The snapshot is taken by a separate phase, and streaming starts where it was taken.
+    Map<String, Checkpoint> snapshotCheckpoints = Collections.emptyMap();
+    if (enableSnapshot) {
+      SnapshotBootstrapper bootstrapper = new SnapshotBootstrapper(
+          client, outputClient, streamId, snapshotConcurrency,
+          new MemoryBudget(snapshotMaxBufferedBytes), metrics);
+      for (LocatedTablet tablet : tabletLocations) {
+        bootstrapper.addTablet(table, new String(tablet.getTabletId()));
+      }
+      snapshotCheckpoints = bootstrapper.run();
+    }
+    final Map<String, Checkpoint> streamingCheckpoints = snapshotCheckpoints;
+
     int i = 0;
     for (String tableId : tableIds) {
       for (LocatedTablet tablet : tabletLocations) {
@@ -168,9 +196,17 @@ public class ConcurrentLogConnector {
     List<Runnable> runnables = tableIdsToTabletIdsMapList.stream().map(
             tableIdsToTabletIds -> {
                 try {
-                  return new ConcurrentPoller(syncClient, client, outputClient, streamId,
-                                              tableIdsToTabletIds, 2, format, stopExecution,
-                                              enableSnapshot);
+                  ConcurrentPoller poller = new ConcurrentPoller(
+                      syncClient, client, outputClient, streamId, tableIdsToTabletIds, 2, format,
+                      stopExecution, false /* enableSnapshot */, memoryBudget, metrics);
+                  tableIdsToTabletIds.values().forEach(tabletIds -> tabletIds.forEach(
+                      tabletId -> {
+                        Checkpoint cp = streamingCheckpoints.get(tabletId);
+                        if (cp != null) {
+                          poller.setCheckpoint(tabletId, cp);
+                        }
+                      }));
+                  return poller;
                 } catch (IOException e) {
                   e.printStackTrace();
                 }
@@ -194,7 +230,12 @@ public class ConcurrentLogConnector {
     }
   }
 
+  public CDCMetrics getMetrics() {
+    return metrics;
+  }
+
   public void close() {
     stopExecution = true;
+    metrics.close();
   }
 }
@@ -16,36 +16,70 @@ package org.yb.cdc;
 import com.stumbleupon.async.Callback;
 import com.stumbleupon.async.Deferred;
 import org.apache.log4j.Logger;
+import org.yb.cdc.metrics.CDCMetrics;
+import org.yb.cdc.metrics.TabletMetrics;
 import org.yb.cdc.util.Checkpoint;
+import org.yb.cdc.util.MemoryBudget;
 import org.yb.client.*;
 
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+/**
+ * Polls the changes of a set of tablets and applies them to the output client. Each round sends one
+ * GetChanges request per tablet, with at most {@code concurrency} requests in flight, and applies
+ * the records of the responses on the polling thread while the other requests are in flight. A
+ * tablet has at most one response in memory, since its next request is sent from the checkpoint of
+ * the applied response, and the responses of all the pollers of a connector are held within a
+ * shared memory budget, so a snapshot of any size is streamed in a fixed heap.
+ *
+ * The tablet locations are refreshed from the master every TABLET_REFRESH_INTERVAL_MS, which
+ * also refreshes the leaders cached by the client. A tablet gone from the master, e.g. split, is
+ * polled until a response has no changes and doesn't advance its checkpoint, or the tablet server
+ * no longer has it, and the new tablets within its partition then start from its final
+ * checkpoint, so the changes of the children follow those of the parent.
+ */
 public class ConcurrentPoller {
   private static final Logger LOG = Logger.getLogger(ConcurrentPoller.class);
+  // Memory budget used when the poller is not given the budget of its connector.
+  public static final long DEFAULT_MAX_BUFFERED_BYTES = 64L * 1024 * 1024;
+  private static final long TABLET_REFRESH_INTERVAL_MS = 30000;
+  private static final long TABLET_REFRESH_TIMEOUT_MS = 30000;
+  // Requests without a response in this time are given up on and sent again in the next round.
+  private static final long RESPONSE_TIMEOUT_MS = 120000;
+  // Metrics of the pollers not given the metrics of their connector, shared so that they don't
+  // each start a rate updater that nothing closes.
+  private static CDCMetrics defaultMetrics;
+
   private final String streamId;
   private final AsyncYBClient asyncYBClient;
   private final OutputClient outputClient;
-  private final Semaphore requestBarrier;
+  private final MemoryBudget memoryBudget;
+  private final CDCMetrics metrics;
   private final String format;
   private boolean stopExecution;
   private boolean enableSnapshot;
 
-  static final AbstractMap.SimpleImmutableEntry<String, String> END_PAIR =
-      new AbstractMap.SimpleImmutableEntry("", "");
-
   int concurrency;
 
   List<AbstractMap.SimpleImmutableEntry<String, String>> listTabletIdTableIdPair;
   Map<String, Checkpoint> checkPointMap;
   Map<String, YBTable> tableIdToTable;
-  AtomicInteger requestNum;
-  BlockingQueue<AbstractMap.SimpleImmutableEntry<String, String>> queue;
-  List<Deferred<GetChangesResponse>> deferredList;
+  // Responses and failures of the requests in flight, in order of arrival. Unbounded, so that the
+  // callbacks never block, even on the late results of the requests given up on.
+  BlockingQueue<TabletResult> completed = new LinkedBlockingQueue<>();
+  // Tablets of the requests in flight in the current round, by request id.
+  Map<Long, String> inFlightRequests = new HashMap<>();
+  long nextRequestId;
+  // Partitions of the polled tablets, as of the last refresh.
+  Map<String, Partition> tabletPartitions = new HashMap<>();
+  // Tablets gone from the master, polled until they have no more changes.
+  Set<String> retiringTablets = new HashSet<>();
+  // New tablets waiting for the tablet they were split from to retire, keyed by the parent.
+  Map<String, List<String>> pendingChildren = new HashMap<>();
+  long lastRefreshTimeMs;
 
   YBClient synClient;
 
@@ -58,17 +92,39 @@ public class ConcurrentPoller {
                           String format,
                           boolean stopExecution,
                           boolean enableSnapshot) throws IOException {
+    this(synClient, client, outputClient, streamId, tableIdsToTabletIds, concurrency, format,
+         stopExecution, enableSnapshot, new MemoryBudget(DEFAULT_MAX_BUFFERED_BYTES),
+         defaultMetrics());
+  }
+
+  private static synchronized CDCMetrics defaultMetrics() {
+    if (defaultMetrics == null) {
+      defaultMetrics = new CDCMetrics();
+    }
+    return defaultMetrics;
+  }
+
+  public ConcurrentPoller(YBClient synClient,
+                          AsyncYBClient client,
+                          OutputClient outputClient,
+                          String streamId,
+                          Map<String, List<String>> tableIdsToTabletIds,
+                          int concurrency,
+                          String format,
+                          boolean stopExecution,
+                          boolean enableSnapshot,
+                          MemoryBudget memoryBudget,
+                          CDCMetrics metrics) throws IOException {
     this.synClient = synClient;
     this.asyncYBClient = client;
     this.streamId = streamId;
     this.format = format;
     checkPointMap = new ConcurrentHashMap<>();
     tableIdToTable = new ConcurrentHashMap<>();
-    requestBarrier = new Semaphore(concurrency);
-    requestNum = new AtomicInteger();
     this.outputClient = outputClient;
     this.concurrency = concurrency;
-    deferredList = new ArrayList<>();
+    this.memoryBudget = memoryBudget;
+    this.metrics = metrics;
     this.stopExecution = stopExecution;
     this.enableSnapshot = enableSnapshot;
 
@@ -83,8 +139,7 @@ public class ConcurrentPoller {
     listTabletIdTableIdPair = tableIdsToTabletIds.entrySet().stream()
       .flatMap(e -> e.getValue().stream()
         .map(v -> new AbstractMap.SimpleImmutableEntry<>(v, e.getKey())))
-      .collect(Collectors.toList());
-    queue = new LinkedBlockingQueue();
+      .collect(Collectors.toCollection(ArrayList::new));
     initOffset();
   }
 
@@ -107,138 +162,328 @@ public class ConcurrentPoller {
         "".getBytes(), finalWriteId, 0)));
   }
 
+  /**
+   * Sets the checkpoint to poll a tablet from, e.g. the one at which its snapshot was taken.
+   * @param tabletId tablet of the poller.
+   * @param checkpoint checkpoint to send with the next request of the tablet.
+   */
+  public void setCheckpoint(String tabletId, Checkpoint checkpoint) {
+    checkPointMap.put(tabletId, checkpoint);
+  }
+
   public void poll() throws Exception {
-    final List result = new ArrayList();
-    queue.addAll(listTabletIdTableIdPair);
-    queue.add(END_PAIR);
-    while (true) {
+    if (System.currentTimeMillis() - lastRefreshTimeMs >= TABLET_REFRESH_INTERVAL_MS) {
+      refreshTablets();
+    }
+
+    Iterator<AbstractMap.SimpleImmutableEntry<String, String>> tablets =
+        listTabletIdTableIdPair.iterator();
+    int totalException = 0;
+    // Failures of the retiring tablets are expected, so they don't count as errors.
+    int numActive = listTabletIdTableIdPair.size() - retiringTablets.size();
+    List<String> retired = new ArrayList<>();
+    while (tablets.hasNext() || !inFlightRequests.isEmpty()) {
       if (stopExecution) {
         // This signals the CDCConsoleSubscriber to stop polling further and exit.
         LOG.info("Signal received to close the CDCConsoleSubscriber, exiting...");
         System.exit(0);
       }
 
-      requestBarrier.acquireUninterruptibly();
-      final AbstractMap.SimpleImmutableEntry<String, String> entry = queue.take();
-      if (entry.equals(END_PAIR)) {
-        requestBarrier.release();
-        break;
+      // Send requests while there is room for their responses. With no requests in flight, the
+      // budget is held by other pollers, which release it as they apply their responses.
+      while (tablets.hasNext() && inFlightRequests.size() < concurrency) {
+        if (inFlightRequests.isEmpty()) {
+          memoryBudget.awaitRoom();
+        } else if (!memoryBudget.hasRoom()) {
+          break;
+        }
+        sendRequest(tablets.next());
+      }
+
+      TabletResult result = completed.poll(RESPONSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      if (result == null) {
+        for (String tabletId : inFlightRequests.values()) {
+          LOG.error("GetChanges for tablet " + tabletId + " got no response in " +
+                    RESPONSE_TIMEOUT_MS + " ms");
+          metrics.tablet(tabletId).recordError();
+          if (!retiringTablets.contains(tabletId)) {
+            ++totalException;
+          }
+        }
+        inFlightRequests.clear();
+        continue;
+      }
+      if (inFlightRequests.remove(result.requestId) == null) {
+        // Late result of a request that was given up on.
+        memoryBudget.release(result.bytes);
+        continue;
+      }
+      boolean retiring = retiringTablets.contains(result.tabletId);
+      if (result.error != null) {
+        if (retiring && isTabletNotFound(result.error)) {
+          LOG.warn("Tablet " + result.tabletId + " is gone from the tablet servers, its changes " +
+                   "after checkpoint " + checkPointMap.get(result.tabletId) + " are not polled");
+          retired.add(result.tabletId);
+        } else if (!retiring) {
+          ++totalException;
+        }
+        // Other failures of a retiring tablet, e.g. timeouts or leader changes, are retried in
+        // the next round, since its changes would be lost once it retires.
+      } else {
+        Checkpoint previous = checkPointMap.get(result.tabletId);
+        try {
+          applyResponse(result);
+        } finally {
+          memoryBudget.release(result.bytes);
+        }
+        if (retiring && result.response.getRecordCount() == 0 &&
+            isSameOpId(previous, Checkpoint.from(result.response))) {
+          retired.add(result.tabletId);
+        }
+      }
+    }
+    retired.forEach(this::retireTablet);
+
+    if (numActive > 0) {
+      if (totalException == numActive) {
+        LOG.error("Unable to poll further, all the nodes returned error");
+        System.exit(1);
+      }
+    }
+  }
+
+  /**
+   * @return whether the request failed because the tablet server no longer has the tablet, e.g.
+   * it was deleted after being split.
+   */
+  private static boolean isTabletNotFound(Exception e) {
+    // The client retries the error until the deadline, so it may come as the cause of the failure.
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (t instanceof CDCErrorException) {
+        CdcService.CDCErrorPB error = ((CDCErrorException) t).getCDCError();
+        return error != null && error.getCode() == CdcService.CDCErrorPB.Code.TABLET_NOT_FOUND;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isSameOpId(Checkpoint a, Checkpoint b) {
+    return a.getTerm() == b.getTerm() && a.getIndex() == b.getIndex();
+  }
+
+  /**
+   * Refreshes the tablets of the tables from the master. Tablets gone from the master start
+   * retiring, and the new tablets within their partitions wait for them to retire.
+   */
+  private void refreshTablets() {
+    lastRefreshTimeMs = System.currentTimeMillis();
+    for (YBTable table : tableIdToTable.values()) {
+      List<LocatedTablet> locations;
+      try {
+        locations = asyncYBClient.refreshTabletLocations(table, TABLET_REFRESH_TIMEOUT_MS)
+            .join(TABLET_REFRESH_TIMEOUT_MS);
+      } catch (Exception e) {
+        LOG.warn("Unable to refresh the tablets of table " + table.getName(), e);
+        continue;
+      }
+
+      Map<String, Partition> located = new HashMap<>();
+      for (LocatedTablet tablet : locations) {
+        located.put(new String(tablet.getTabletId()), tablet.getPartition());
+      }
+      Set<String> polled = new HashSet<>();
+      listTabletIdTableIdPair.stream()
+          .filter(entry -> entry.getValue().equals(table.getTableId()))
+          .forEach(entry -> polled.add(entry.getKey()));
+
+      for (String tabletId : polled) {
+        if (located.containsKey(tabletId)) {
+          tabletPartitions.put(tabletId, located.get(tabletId));
+        } else if (retiringTablets.add(tabletId)) {
+          LOG.info("Tablet " + tabletId + " is gone from the master, polling its last changes");
+        }
       }
-      final Checkpoint cp = checkPointMap.get(entry.getKey());
-      final YBTable table = tableIdToTable.get(entry.getValue());
 
-      LOG.debug("Polling table: " + table + " tablet: " + entry.getKey() +
-               " with checkpoint " + cp);
-      Callback resCallback = new HandleResponse(table, entry.getKey(), result, requestBarrier);
-      Callback errCallback = new HandleFailure(requestBarrier);
+      for (Map.Entry<String, Partition> entry : located.entrySet()) {
+        String tabletId = entry.getKey();
+        if (polled.contains(tabletId) || isPendingChild(tabletId)) {
+          continue;
+        }
+        // Only the poller of the tablet that was split adopts the new tablet.
+        String parentId = findParent(polled, entry.getValue());
+        if (parentId != null) {
+          LOG.info("Tablet " + tabletId + " was split from tablet " + parentId);
+          tabletPartitions.put(tabletId, entry.getValue());
+          pendingChildren.computeIfAbsent(parentId, k -> new ArrayList<>()).add(tabletId);
+        }
+      }
+    }
+  }
 
-      Deferred<GetChangesResponse> response = asyncYBClient.getChangesCDCSDK(
-        table, streamId, entry.getKey() /*tabletId*/,
-        cp.getTerm(), cp.getIndex(), cp.getKey(), cp.getWriteId(), cp.getSnapshotTime());
+  private boolean isPendingChild(String tabletId) {
+    return pendingChildren.values().stream().anyMatch(children -> children.contains(tabletId));
+  }
 
-      response.addCallback(resCallback);
-      response.addErrback(errCallback);
+  /**
+   * @return the retiring tablet whose partition contains the given one, null if none.
+   */
+  private String findParent(Set<String> polled, Partition partition) {
+    byte[] start = partition.getPartitionKeyStart();
+    for (String tabletId : polled) {
+      Partition parent = tabletPartitions.get(tabletId);
+      if (!retiringTablets.contains(tabletId) || parent == null) {
+        continue;
+      }
+      if (Bytes.memcmp(start, parent.getPartitionKeyStart()) >= 0 &&
+          (parent.isEndPartition() || Bytes.memcmp(start, parent.getPartitionKeyEnd()) < 0)) {
+        return tabletId;
+      }
+    }
+    return null;
+  }
 
-      deferredList.add(response);
+  /**
+   * Stops polling a tablet that has no more changes, and starts polling the tablets split from
+   * it from its final checkpoint.
+   */
+  private void retireTablet(String tabletId) {
+    AbstractMap.SimpleImmutableEntry<String, String> entry = listTabletIdTableIdPair.stream()
+        .filter(e -> e.getKey().equals(tabletId)).findFirst().get();
+    listTabletIdTableIdPair.remove(entry);
+    retiringTablets.remove(tabletId);
+    tabletPartitions.remove(tabletId);
+    metrics.remove(tabletId);
+    Checkpoint cp = checkPointMap.remove(tabletId);
+
+    List<String> children = pendingChildren.remove(tabletId);
+    if (children == null) {
+      LOG.info("Stopped polling tablet " + tabletId + " at checkpoint " + cp);
+      return;
     }
+    for (String childId : children) {
+      LOG.info("Polling tablet " + childId + " from the final checkpoint " + cp + " of tablet " +
+               tabletId);
+      checkPointMap.put(childId, cp);
+      listTabletIdTableIdPair.add(new AbstractMap.SimpleImmutableEntry<>(childId,
+                                                                         entry.getValue()));
+    }
+  }
+
+  private void sendRequest(AbstractMap.SimpleImmutableEntry<String, String> entry) {
+    final Checkpoint cp = checkPointMap.get(entry.getKey());
+    final YBTable table = tableIdToTable.get(entry.getValue());
+
+    LOG.debug("Polling table: " + table + " tablet: " + entry.getKey() +
+             " with checkpoint " + cp);
+    long requestId = nextRequestId++;
+    inFlightRequests.put(requestId, entry.getKey());
+    Deferred<GetChangesResponse> response = asyncYBClient.getChangesCDCSDK(
+      table, streamId, entry.getKey() /*tabletId*/,
+      cp.getTerm(), cp.getIndex(), cp.getKey(), cp.getWriteId(), cp.getSnapshotTime());
+
+    TabletMetrics tabletMetrics = metrics.tablet(entry.getKey());
+    long sendTimeNanos = System.nanoTime();
+    response.addCallbacks(
+        new HandleResponse(requestId, table, entry.getKey(), tabletMetrics, sendTimeNanos),
+        new HandleFailure(requestId, table, entry.getKey(), tabletMetrics));
+  }
 
-    AtomicInteger totalException = new AtomicInteger();
-    deferredList.forEach(getChangesResponseDeferred -> {
+  /**
+   * Applies the records of the response and advances the checkpoint of the tablet once all of them
+   * have been applied, so the next request of the tablet acknowledges only applied records.
+   */
+  private void applyResponse(TabletResult result) {
+    long startTimeNanos = System.nanoTime();
+    long commitTime = 0;
+    for (CdcService.CDCSDKProtoRecordPB record : result.response.getRecords()) {
       try {
-        getChangesResponseDeferred.join(120000);
+        outputClient.applyChange(result.table, record);
       } catch (Exception e) {
-        totalException.getAndIncrement();
         e.printStackTrace();
+        return;
       }
-    });
+      if (record.getRowMessage().getCommitTime() != 0) {
+        commitTime = record.getRowMessage().getCommitTime();
+      }
+    }
 
-    if (listTabletIdTableIdPair.size() > 0) {
-      if (totalException.get() == listTabletIdTableIdPair.size()) {
-        LOG.error("Unable to poll further, all the nodes returned error");
-        System.exit(1);
-      } else {
+    Checkpoint cp = Checkpoint.from(result.response);
+    checkPointMap.put(result.tabletId, cp);
+    metrics.tablet(result.tabletId).recordApplied(System.nanoTime() - startTimeNanos, commitTime,
+                                                  cp);
+    LOG.debug("For tablet " + result.tabletId + " got the checkpoint " + cp);
+  }
 
-      }
+  static final class TabletResult {
+    final long requestId;
+    final YBTable table;
+    final String tabletId;
+    final GetChangesResponse response;
+    final Exception error;
+    // Serialized size of the response, charged to the memory budget.
+    final long bytes;
+
+    TabletResult(long requestId, YBTable table, String tabletId, GetChangesResponse response,
+                 Exception error) {
+      this.requestId = requestId;
+      this.table = table;
+      this.tabletId = tabletId;
+      this.response = response;
+      this.error = error;
+      this.bytes = response == null ? 0 : response.getResponseSize();
     }
   }
 
   final class HandleFailure implements Callback<Void, Exception> {
-    private final Semaphore barrier;
+    private final long requestId;
+    private final YBTable table;
+    private final String tabletId;
+    private final TabletMetrics tabletMetrics;
 
-    HandleFailure(Semaphore barrier) {
-      this.barrier = barrier;
+    HandleFailure(long requestId, YBTable table, String tabletId, TabletMetrics tabletMetrics) {
+      this.requestId = requestId;
+      this.table = table;
+      this.tabletId = tabletId;
+      this.tabletMetrics = tabletMetrics;
     }
 
     @Override
-    public Void call(Exception e) throws Exception {
-      barrier.release();
-      LOG.debug("Releasing the requestbarrier" + barrier.availablePermits());
-
-      e.printStackTrace();
+    public Void call(Exception e) {
+      tabletMetrics.recordError();
+      LOG.error("GetChanges failed for tablet " + tabletId, e);
       if (e instanceof CDCErrorException) {
         LOG.error("The error code is " +
                  ((CDCErrorException) e).getCDCError().getCode().getNumber());
       }
-      if (e instanceof CDCErrorException &&
-          ((CDCErrorException) e).getCDCError().getCode().getNumber() == 25) {
-        LOG.error("Got the GetChangesResponse errback, error code is ");
-      }
 
-      // TODO: Check all the exception here and throw only non-retryable exception as
-      // This is last chance for the application to retry.
-      throw e;
+      // The tablet is polled again in the next round, unless it is retiring and gone.
+      completed.add(new TabletResult(requestId, table, tabletId, null, e));
+      return null;
     }
   }
 
   final class HandleResponse implements Callback<Void, GetChangesResponse> {
-    private final List<CdcService.CDCSDKProtoRecordPB> result;
+    private final long requestId;
     private final YBTable table;
     private final String tabletId;
-    private final Semaphore barrier;
+    private final TabletMetrics tabletMetrics;
+    private final long sendTimeNanos;
 
-    HandleResponse(YBTable table, String tabletId,
-                   List<CdcService.CDCSDKProtoRecordPB> result,
-                   Semaphore barrier) {
-      this.result = result;
+    HandleResponse(long requestId, YBTable table, String tabletId, TabletMetrics tabletMetrics,
+                   long sendTimeNanos) {
+      this.requestId = requestId;
       this.table = table;
       this.tabletId = tabletId;
-      this.barrier = barrier;
+      this.tabletMetrics = tabletMetrics;
+      this.sendTimeNanos = sendTimeNanos;
     }
 
     public Void call(final GetChangesResponse response) {
-        return callPROTO(response);
-    }
-
-    public Void callPROTO(final GetChangesResponse response) {
-      boolean noError = true;
-
-      for (CdcService.CDCSDKProtoRecordPB record : response
-        .getResp()
-        .getCdcSdkProtoRecordsList()) {
-        try {
-          outputClient.applyChange(table, record);
-          result.add(record);
-        } catch (Exception e) {
-          e.printStackTrace();
-          noError = false;
-          break;
-        }
-      }
-
-      Checkpoint cp = null;
-      if (noError) {
-        cp = new Checkpoint(
-          response.getTerm(),
-          response.getIndex(),
-          response.getKey(),
-          response.getWriteId(),
-          response.getSnapshotTime());
-
-        checkPointMap.put(tabletId, cp);
-        LOG.debug("For tablet " + this.tabletId + " got the checkpoint " + cp);
-      }
-
-      barrier.release();
+      TabletResult result = new TabletResult(requestId, table, tabletId, response, null);
+      tabletMetrics.recordResponse(System.nanoTime() - sendTimeNanos,
+                                   response.getRecordCount(), result.bytes);
+      memoryBudget.charge(result.bytes);
+      completed.add(result);
       return null;
     }
 
@@ -0,0 +1,253 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package org.yb.cdc;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.log4j.Logger;
+import org.yb.cdc.metrics.CDCMetrics;
+import org.yb.cdc.metrics.TabletMetrics;
+import org.yb.cdc.util.Checkpoint;
+import org.yb.cdc.util.MemoryBudget;
+import org.yb.client.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Initial snapshot of the tablets of a stream, taken before streaming the changes. Each worker
+ * thread pulls the snapshot batches of one tablet after another, so the tablets proceed
+ * independently and a slow tablet only holds up its own worker. The batches in memory are bounded
+ * by a memory budget of the snapshot, separate from the one of streaming.
+ *
+ * A tablet is in snapshot while its checkpoint has a write id of -1, starting from the
+ * (-1, -1) checkpoint. The checkpoint of the last snapshot batch is the point at which the
+ * snapshot was taken, so streaming resumes from it without missing or repeating changes.
+ */
+public class SnapshotBootstrapper {
+  private static final Logger LOG = Logger.getLogger(SnapshotBootstrapper.class);
+  private static final int MAX_RETRIES = 5;
+  private static final long RETRY_DELAY_MS = 1000;
+  private static final long GET_CHANGES_TIMEOUT_MS = 120000;
+  private static final long PROGRESS_REPORT_INTERVAL_MS = 10000;
+
+  private final AsyncYBClient asyncYBClient;
+  private final OutputClient outputClient;
+  private final String streamId;
+  private final int concurrency;
+  private final MemoryBudget memoryBudget;
+  private final CDCMetrics metrics;
+
+  private final Map<String, YBTable> tabletIdToTable = new LinkedHashMap<>();
+  private final BlockingQueue<String> pendingTablets = new LinkedBlockingQueue<>();
+  private final Map<String, TabletProgress> progress = new ConcurrentHashMap<>();
+  private final Map<String, Checkpoint> checkpoints = new ConcurrentHashMap<>();
+  private long startTimeMs;
+
+  /**
+   * @param asyncYBClient client to get the changes with.
+   * @param outputClient client to apply the snapshot records to.
+   * @param streamId DB stream ID.
+   * @param concurrency number of tablets to take the snapshot of at the same time.
+   * @param memoryBudget budget of the snapshot batches held in memory.
+   * @param metrics metrics of the tablets.
+   */
+  public SnapshotBootstrapper(AsyncYBClient asyncYBClient,
+                              OutputClient outputClient,
+                              String streamId,
+                              int concurrency,
+                              MemoryBudget memoryBudget,
+                              CDCMetrics metrics) {
+    this.asyncYBClient = asyncYBClient;
+    this.outputClient = outputClient;
+    this.streamId = streamId;
+    this.concurrency = concurrency;
+    this.memoryBudget = memoryBudget;
+    this.metrics = metrics;
+  }
+
+  public void addTablet(YBTable table, String tabletId) {
+    tabletIdToTable.put(tabletId, table);
+  }
+
+  /**
+   * Takes the snapshot of all the added tablets.
+   * @return checkpoints to stream the changes of the tablets from.
+   * @throws Exception if the snapshot of a tablet fails.
+   */
+  public Map<String, Checkpoint> run() throws Exception {
+    startTimeMs = System.currentTimeMillis();
+    pendingTablets.addAll(tabletIdToTable.keySet());
+    LOG.info(String.format("Taking the snapshot of %d tablets, %d at a time",
+                           tabletIdToTable.size(), concurrency));
+
+    int numWorkers = Math.min(concurrency, tabletIdToTable.size());
+    ExecutorService workers = Executors.newFixedThreadPool(Math.max(numWorkers, 1),
+        new ThreadFactoryBuilder().setNameFormat("snapshot-%d").build());
+    ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("snapshot-progress").setDaemon(true).build());
+    reporter.scheduleAtFixedRate(this::reportProgress, PROGRESS_REPORT_INTERVAL_MS,
+                                 PROGRESS_REPORT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < numWorkers; ++i) {
+        futures.add(workers.submit(this::snapshotTablets));
+      }
+      for (Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          // Stop the other workers before the first failure is rethrown.
+          pendingTablets.clear();
+          workers.shutdownNow();
+          if (e.getCause() instanceof Exception) {
+            throw (Exception) e.getCause();
+          }
+          // Errors, e.g. OutOfMemoryError, are rethrown wrapped with the worker's stack.
+          throw e;
+        }
+      }
+    } finally {
+      reporter.shutdownNow();
+      workers.shutdownNow();
+    }
+
+    reportProgress();
+    LOG.info(String.format("Snapshot of %d tablets completed in %d s", tabletIdToTable.size(),
+                           (System.currentTimeMillis() - startTimeMs) / 1000));
+    return checkpoints;
+  }
+
+  private Void snapshotTablets() throws Exception {
+    String tabletId;
+    while ((tabletId = pendingTablets.poll()) != null) {
+      snapshotTablet(tabletId);
+    }
+    return null;
+  }
+
+  private void snapshotTablet(String tabletId) throws Exception {
+    final YBTable table = tabletIdToTable.get(tabletId);
+    final TabletProgress tabletProgress = new TabletProgress();
+    final TabletMetrics tabletMetrics = metrics.tablet(tabletId);
+    progress.put(tabletId, tabletProgress);
+    Checkpoint cp = new Checkpoint(-1, -1, "".getBytes(), -1, 0);
+
+    do {
+      memoryBudget.awaitRoom();
+      long sendTimeNanos = System.nanoTime();
+      GetChangesResponse response = getChanges(table, tabletId, cp, tabletMetrics);
+      long bytes = response.getResponseSize();
+      int numRecords = response.getRecordCount();
+      tabletMetrics.recordResponse(System.nanoTime() - sendTimeNanos, numRecords, bytes);
+      memoryBudget.charge(bytes);
+      long applyTimeNanos = System.nanoTime();
+      try {
+        for (CdcService.CDCSDKProtoRecordPB record : response.getRecords()) {
+          outputClient.applyChange(table, record);
+        }
+      } finally {
+        memoryBudget.release(bytes);
+      }
+      tabletProgress.records.addAndGet(numRecords);
+      tabletProgress.bytes.addAndGet(bytes);
+      cp = Checkpoint.from(response);
+      // Snapshot records are read at the snapshot time, so they don't count towards the lag.
+      tabletMetrics.recordApplied(System.nanoTime() - applyTimeNanos, 0 /* commitTime */, cp);
+      LOG.debug("For tablet " + tabletId + " got the snapshot checkpoint " + cp);
+    } while (cp.getWriteId() == -1);
+
+    tabletProgress.endTimeMs = System.currentTimeMillis();
+    checkpoints.put(tabletId, cp);
+    LOG.info(String.format("Snapshot of tablet %s completed with %d records, streaming from %s",
+                           tabletId, tabletProgress.records.get(), cp));
+  }
+
+  private GetChangesResponse getChanges(YBTable table, String tabletId, Checkpoint cp,
+                                        TabletMetrics tabletMetrics) throws Exception {
+    for (int attempt = 1; ; ++attempt) {
+      try {
+        return asyncYBClient.getChangesCDCSDK(
+            table, streamId, tabletId, cp.getTerm(), cp.getIndex(), cp.getKey(),
+            cp.getWriteId(), cp.getSnapshotTime()).join(GET_CHANGES_TIMEOUT_MS);
+      } catch (Exception e) {
+        tabletMetrics.recordError();
+        if (attempt == MAX_RETRIES) {
+          LOG.error("Unable to get the snapshot of tablet " + tabletId, e);
+          throw e;
+        }
+        LOG.warn(String.format("Failed to get the snapshot of tablet %s, attempt %d of %d",
+                               tabletId, attempt, MAX_RETRIES), e);
+        Thread.sleep(RETRY_DELAY_MS * attempt);
+      }
+    }
+  }
+
+  /**
+   * Logs the progress of the tablets in snapshot and the estimated time to complete. The tablets
+   * of a table are of similar size, so the estimates are based on the number of records of the
+   * tablets that have completed, and are unknown until the first one does.
+   */
+  private void reportProgress() {
+    long nowMs = System.currentTimeMillis();
+    long completedTablets = 0;
+    long completedRecords = 0;
+    long totalRecords = 0;
+    long totalBytes = 0;
+    for (TabletProgress tabletProgress : progress.values()) {
+      totalRecords += tabletProgress.records.get();
+      totalBytes += tabletProgress.bytes.get();
+      if (tabletProgress.endTimeMs != 0) {
+        ++completedTablets;
+        completedRecords += tabletProgress.records.get();
+      }
+    }
+    long recordsPerTablet = completedTablets == 0 ? 0 : completedRecords / completedTablets;
+
+    for (Map.Entry<String, TabletProgress> entry : progress.entrySet()) {
+      TabletProgress tabletProgress = entry.getValue();
+      if (tabletProgress.endTimeMs != 0) {
+        continue;
+      }
+      long records = tabletProgress.records.get();
+      String estimate = "";
+      if (recordsPerTablet > records && records > 0) {
+        long elapsedMs = nowMs - tabletProgress.startTimeMs;
+        estimate = String.format(", ~%d%% done, ETA %d s", records * 100 / recordsPerTablet,
+                                 (recordsPerTablet - records) * elapsedMs / records / 1000);
+      }
+      LOG.info(String.format("Snapshot of tablet %s: %d records%s", entry.getKey(), records,
+                             estimate));
+    }
+
+    String estimate = "";
+    if (completedTablets > 0 && completedTablets < tabletIdToTable.size()) {
+      long expectedRecords = recordsPerTablet * tabletIdToTable.size();
+      long remainingRecords = Math.max(expectedRecords - totalRecords, 0);
+      long elapsedMs = nowMs - startTimeMs;
+      estimate = String.format(", ETA %d s",
+                               remainingRecords * elapsedMs / Math.max(totalRecords, 1) / 1000);
+    }
+    LOG.info(String.format("Snapshot progress: %d/%d tablets completed, %d records, %d MB%s",
+                           completedTablets, tabletIdToTable.size(), totalRecords,
+                           totalBytes / (1024 * 1024), estimate));
+  }
+
+  private static final class TabletProgress {
+    final long startTimeMs = System.currentTimeMillis();
+    final AtomicLong records = new AtomicLong();
+    final AtomicLong bytes = new AtomicLong();
+    volatile long endTimeMs;
+  }
+}
@@ -0,0 +1,309 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.yb.cdc.metrics;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.log4j.Logger;
+import org.yb.client.CompressionStats;
+
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-tablet and aggregate metrics of a connector. Counters and latencies are recorded by the
+ * pollers, rates are updated every RATE_INTERVAL_MS. The metrics are exposed over JMX once
+ * registered, and in the Prometheus text format by format(). The metrics are closed once no longer
+ * recorded, to stop the rate updates and unregister them.
+ */
+public class CDCMetrics implements CDCMetricsMXBean, Closeable {
+  private static final Logger LOG = Logger.getLogger(CDCMetrics.class);
+  private static final long RATE_INTERVAL_MS = 10000;
+  private static final String DOMAIN = "org.yb.cdc";
+
+  private final Map<String, TabletMetrics> tablets = new ConcurrentSkipListMap<>();
+  final LatencyHistogram getChangesLatency = new LatencyHistogram();
+  final LatencyHistogram sinkLatency = new LatencyHistogram();
+  // Counts of the removed tablets, so that the aggregate counters never go back.
+  private final LongAdder removedRecords = new LongAdder();
+  private final LongAdder removedBytes = new LongAdder();
+  private final LongAdder removedErrors = new LongAdder();
+  private boolean registerMBeans;
+  // Stats of the compressed connections of the client, null if not compressed.
+  private volatile CompressionStats compressionStats;
+
+  private final ScheduledExecutorService rateUpdater = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setNameFormat("cdc-metrics").setDaemon(true).build());
+
+  public CDCMetrics() {
+    rateUpdater.scheduleAtFixedRate(this::updateRates, RATE_INTERVAL_MS, RATE_INTERVAL_MS,
+                                    TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Registers the aggregate metrics over JMX, and the metrics of the tablets as they are added.
+   */
+  public synchronized void registerMBeans() {
+    registerMBeans = true;
+    register("type=CDCMetrics", this);
+    tablets.forEach((tabletId, metrics) -> register(tabletObjectName(tabletId), metrics));
+  }
+
+  /**
+   * @param tabletId tablet ID.
+   * @return the metrics of the tablet, added on first use.
+   */
+  public TabletMetrics tablet(String tabletId) {
+    TabletMetrics metrics = tablets.get(tabletId);
+    if (metrics != null) {
+      return metrics;
+    }
+    synchronized (this) {
+      metrics = tablets.get(tabletId);
+      if (metrics == null) {
+        metrics = new TabletMetrics(this);
+        tablets.put(tabletId, metrics);
+        if (registerMBeans) {
+          register(tabletObjectName(tabletId), metrics);
+        }
+      }
+      return metrics;
+    }
+  }
+
+  /**
+   * Removes the metrics of a tablet that is no longer polled, e.g. split, from JMX and format().
+   * Its counts remain in the aggregates.
+   * @param tabletId tablet ID.
+   */
+  public synchronized void remove(String tabletId) {
+    TabletMetrics metrics = tablets.remove(tabletId);
+    if (metrics == null) {
+      return;
+    }
+    removedRecords.add(metrics.getRecords());
+    removedBytes.add(metrics.getBytes());
+    removedErrors.add(metrics.getErrors());
+    if (registerMBeans) {
+      unregister(tabletObjectName(tabletId));
+    }
+  }
+
+  /**
+   * Stops updating the rates, and unregisters the metrics from JMX.
+   */
+  @Override
+  public synchronized void close() {
+    rateUpdater.shutdownNow();
+    if (registerMBeans) {
+      registerMBeans = false;
+      unregister("type=CDCMetrics");
+      tablets.keySet().forEach(tabletId -> unregister(tabletObjectName(tabletId)));
+    }
+  }
+
+  public void setCompressionStats(CompressionStats compressionStats) {
+    this.compressionStats = compressionStats;
+  }
+
+  private static String tabletObjectName(String tabletId) {
+    return "type=TabletMetrics,tablet=" + ObjectName.quote(tabletId);
+  }
+
+  private static void register(String properties, Object mbean) {
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(
+          mbean, new ObjectName(DOMAIN + ":" + properties));
+    } catch (Exception e) {
+      LOG.warn("Unable to register the metrics " + properties + " over JMX", e);
+    }
+  }
+
+  private static void unregister(String properties) {
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(
+          new ObjectName(DOMAIN + ":" + properties));
+    } catch (Exception e) {
+      LOG.warn("Unable to unregister the metrics " + properties + " from JMX", e);
+    }
+  }
+
+  private void updateRates() {
+    tablets.values().forEach(metrics -> metrics.updateRates(RATE_INTERVAL_MS / 1000.0));
+  }
+
+  @Override
+  public int getNumTablets() {
+    return tablets.size();
+  }
+
+  @Override
+  public long getRecords() {
+    return removedRecords.sum() +
+           tablets.values().stream().mapToLong(TabletMetrics::getRecords).sum();
+  }
+
+  @Override
+  public long getBytes() {
+    return removedBytes.sum() +
+           tablets.values().stream().mapToLong(TabletMetrics::getBytes).sum();
+  }
+
+  @Override
+  public long getErrors() {
+    return removedErrors.sum() +
+           tablets.values().stream().mapToLong(TabletMetrics::getErrors).sum();
+  }
+
+  @Override
+  public double getRecordsPerSec() {
+    return tablets.values().stream().mapToDouble(TabletMetrics::getRecordsPerSec).sum();
+  }
+
+  @Override
+  public double getBytesPerSec() {
+    return tablets.values().stream().mapToDouble(TabletMetrics::getBytesPerSec).sum();
+  }
+
+  @Override
+  public double getMaxLagSecs() {
+    return tablets.values().stream().mapToDouble(TabletMetrics::getLagSecs).max().orElse(0);
+  }
+
+  @Override
+  public double getMeanGetChangesLatencyMillis() {
+    return getChangesLatency.getMeanMillis();
+  }
+
+  @Override
+  public double getMeanSinkLatencyMillis() {
+    return sinkLatency.getMeanMillis();
+  }
+
+  @Override
+  public double getRpcSendCompressionRatio() {
+    CompressionStats stats = compressionStats;
+    return stats == null ? 1 : stats.getSendRatio();
+  }
+
+  @Override
+  public double getRpcReceiveCompressionRatio() {
+    CompressionStats stats = compressionStats;
+    return stats == null ? 1 : stats.getReceiveRatio();
+  }
+
+  /**
+   * @return the metrics of the tablets in the Prometheus text format. Aggregates are left to
+   * the queries, e.g. sum(rate(yb_cdc_records_total[1m])).
+   */
+  public String format() {
+    StringBuilder sb = new StringBuilder();
+    appendCounter(sb, "yb_cdc_records_total", "Records received.", TabletMetrics::getRecords);
+    appendCounter(sb, "yb_cdc_bytes_total", "Bytes of GetChanges responses received.",
+                  TabletMetrics::getBytes);
+    appendCounter(sb, "yb_cdc_errors_total", "Failed GetChanges requests.",
+                  TabletMetrics::getErrors);
+    appendGauge(sb, "yb_cdc_lag_seconds", "Time since the commit of the last applied change, " +
+                "or since the last response once caught up.", TabletMetrics::getLagSecs);
+    appendGauge(sb, "yb_cdc_checkpoint_term", "Term of the checkpoint.",
+                TabletMetrics::getCheckpointTerm);
+    appendGauge(sb, "yb_cdc_checkpoint_index", "Index of the checkpoint.",
+                TabletMetrics::getCheckpointIndex);
+    appendHistogram(sb, "yb_cdc_get_changes_latency_seconds", "Latency of GetChanges requests.",
+                    TabletMetrics::getChangesLatencyHistogram);
+    appendHistogram(sb, "yb_cdc_sink_latency_seconds", "Time to apply the records of a response.",
+                    TabletMetrics::getSinkLatencyHistogram);
+    CompressionStats stats = compressionStats;
+    if (stats != null) {
+      appendCompression(sb, stats);
+    }
+    return sb.toString();
+  }
+
+  private static void appendCompression(StringBuilder sb, CompressionStats stats) {
+    String name = "yb_cdc_rpc_bytes_total";
+    appendHeader(sb, name, "Bytes of the RPCs, before compression when sent and after " +
+                 "decompression when received, or as compressed over the connections.", "counter");
+    sb.append(name).append("{direction=\"sent\",compressed=\"false\"} ")
+      .append(stats.getBytesSent()).append('\n');
+    sb.append(name).append("{direction=\"sent\",compressed=\"true\"} ")
+      .append(stats.getCompressedBytesSent()).append('\n');
+    sb.append(name).append("{direction=\"received\",compressed=\"false\"} ")
+      .append(stats.getBytesReceived()).append('\n');
+    sb.append(name).append("{direction=\"received\",compressed=\"true\"} ")
+      .append(stats.getCompressedBytesReceived()).append('\n');
+    name = "yb_cdc_rpc_compression_seconds_total";
+    appendHeader(sb, name, "Time spent compressing the sent RPCs and decompressing the " +
+                 "received ones.", "counter");
+    sb.append(name).append("{direction=\"sent\"} ")
+      .append(stats.getCompressNanos() / 1e9).append('\n');
+    sb.append(name).append("{direction=\"received\"} ")
+      .append(stats.getDecompressNanos() / 1e9).append('\n');
+  }
+
+  private interface Value {
+    Number get(TabletMetrics metrics);
+  }
+
+  private interface Histogram {
+    LatencyHistogram get(TabletMetrics metrics);
+  }
+
+  private static void appendHeader(StringBuilder sb, String name, String help, String type) {
+    sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private void appendCounter(StringBuilder sb, String name, String help, Value value) {
+    appendHeader(sb, name, help, "counter");
+    appendValues(sb, name, value);
+  }
+
+  private void appendGauge(StringBuilder sb, String name, String help, Value value) {
+    appendHeader(sb, name, help, "gauge");
+    appendValues(sb, name, value);
+  }
+
+  private void appendValues(StringBuilder sb, String name, Value value) {
+    tablets.forEach((tabletId, metrics) ->
+        sb.append(name).append("{tablet=\"").append(tabletId).append("\"} ")
+          .append(value.get(metrics)).append('\n'));
+  }
+
+  private void appendHistogram(StringBuilder sb, String name, String help, Histogram histogram) {
+    appendHeader(sb, name, help, "histogram");
+    tablets.forEach((tabletId, metrics) -> {
+      LatencyHistogram latencies = histogram.get(metrics);
+      long[] counts = new long[LatencyHistogram.BUCKETS_SECS.length + 1];
+      latencies.addCumulativeCounts(counts);
+      for (int i = 0; i < counts.length; ++i) {
+        String bound = i < LatencyHistogram.BUCKETS_SECS.length ?
+            String.valueOf(LatencyHistogram.BUCKETS_SECS[i]) : "+Inf";
+        sb.append(name).append("_bucket{tablet=\"").append(tabletId).append("\",le=\"")
+          .append(bound).append("\"} ").append(counts[i]).append('\n');
+      }
+      sb.append(name).append("_sum{tablet=\"").append(tabletId).append("\"} ")
+        .append(latencies.getSumSecs()).append('\n');
+      sb.append(name).append("_count{tablet=\"").append(tabletId).append("\"} ")
+        .append(latencies.getCount()).append('\n');
+    });
+  }
+}
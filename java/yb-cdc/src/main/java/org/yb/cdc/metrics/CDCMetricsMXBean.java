@@ -0,0 +1,42 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.yb.cdc.metrics;
+
+/**
+ * Metrics of the CDC of all the tablets, registered as org.yb.cdc:type=CDCMetrics.
+ */
+public interface CDCMetricsMXBean {
+  int getNumTablets();
+
+  long getRecords();
+
+  long getBytes();
+
+  long getErrors();
+
+  double getRecordsPerSec();
+
+  double getBytesPerSec();
+
+  double getMaxLagSecs();
+
+  double getMeanGetChangesLatencyMillis();
+
+  double getMeanSinkLatencyMillis();
+
+  double getRpcSendCompressionRatio();
+
+  double getRpcReceiveCompressionRatio();
+}
@@ -0,0 +1,70 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.yb.cdc.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with the fixed buckets exported to Prometheus. Thread safe, so the RPC
+ * callbacks and the polling threads record into it without locking.
+ */
+public class LatencyHistogram {
+  // Upper bounds of the buckets, in seconds.
+  static final double[] BUCKETS_SECS = {
+    0.001, 0.002, 0.005, 0.01, 0.02, 0.05, 0.1, 0.2, 0.5, 1, 2, 5, 10, 30, 60
+  };
+
+  // Number of latencies in each bucket, the last one being the +Inf bucket.
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS_SECS.length + 1);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sumNanos = new LongAdder();
+
+  public void record(long latencyNanos) {
+    double latencySecs = latencyNanos / 1e9;
+    int bucket = 0;
+    while (bucket < BUCKETS_SECS.length && latencySecs > BUCKETS_SECS[bucket]) {
+      ++bucket;
+    }
+    counts.incrementAndGet(bucket);
+    count.increment();
+    sumNanos.add(latencyNanos);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public double getSumSecs() {
+    return sumNanos.sum() / 1e9;
+  }
+
+  public double getMeanMillis() {
+    long n = count.sum();
+    return n == 0 ? 0 : sumNanos.sum() / 1e6 / n;
+  }
+
+  /**
+   * Adds the cumulative bucket counts, as exported to Prometheus, to the given array.
+   * @param cumulativeCounts array of BUCKETS_SECS.length + 1 counts, the last one for +Inf.
+   */
+  void addCumulativeCounts(long[] cumulativeCounts) {
+    long total = 0;
+    for (int i = 0; i < cumulativeCounts.length; ++i) {
+      total += counts.get(i);
+      cumulativeCounts[i] += total;
+    }
+  }
+}
@@ -0,0 +1,163 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.yb.cdc.metrics;
+
+import org.yb.cdc.util.Checkpoint;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the CDC of one tablet. Lag is the time since the commit of the last applied change.
+ * Once a GetChanges response returns no changes, i.e. the tablet is caught up, it is the time since
+ * that response instead, so the lag of a caught-up tablet keeps growing if its requests fail or it
+ * is no longer polled. The client has no way to get the latest op id of a tablet, so the lag isn't
+ * measured in ops.
+ */
+public class TabletMetrics implements TabletMetricsMXBean {
+  private final CDCMetrics parent;
+
+  private final LongAdder records = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LatencyHistogram getChangesLatency = new LatencyHistogram();
+  private final LatencyHistogram sinkLatency = new LatencyHistogram();
+
+  private volatile long checkpointTerm;
+  private volatile long checkpointIndex;
+  // Physical commit time of the last applied change, 0 if caught up.
+  private volatile long lastCommitTimeMicros;
+  // Time of the last response, or of the creation of the metrics before the first one.
+  private volatile long lastResponseTimeMicros = System.currentTimeMillis() * 1000;
+
+  // Rates over the last update interval, see CDCMetrics.
+  private volatile double recordsPerSec;
+  private volatile double bytesPerSec;
+  private long lastRecords;
+  private long lastBytes;
+
+  TabletMetrics(CDCMetrics parent) {
+    this.parent = parent;
+  }
+
+  /**
+   * Records a GetChanges response.
+   * @param latencyNanos time from sending the request to getting the response.
+   * @param numRecords number of records of the response.
+   * @param numBytes serialized size of the response.
+   */
+  public void recordResponse(long latencyNanos, long numRecords, long numBytes) {
+    getChangesLatency.record(latencyNanos);
+    parent.getChangesLatency.record(latencyNanos);
+    records.add(numRecords);
+    bytes.add(numBytes);
+    lastResponseTimeMicros = System.currentTimeMillis() * 1000;
+    if (numRecords == 0) {
+      lastCommitTimeMicros = 0;
+    }
+  }
+
+  public void recordError() {
+    errors.increment();
+  }
+
+  /**
+   * Records the application of the records of a response by the output client.
+   * @param latencyNanos time taken to apply all the records.
+   * @param commitTime hybrid commit time of the last applied change, 0 if unknown.
+   * @param checkpoint checkpoint of the tablet after the records.
+   */
+  public void recordApplied(long latencyNanos, long commitTime, Checkpoint checkpoint) {
+    sinkLatency.record(latencyNanos);
+    parent.sinkLatency.record(latencyNanos);
+    if (commitTime != 0) {
+      // The physical part of a hybrid time is in the bits above the 12 logical bits.
+      lastCommitTimeMicros = commitTime >>> 12;
+    }
+    checkpointTerm = checkpoint.getTerm();
+    checkpointIndex = checkpoint.getIndex();
+  }
+
+  void updateRates(double intervalSecs) {
+    long curRecords = records.sum();
+    long curBytes = bytes.sum();
+    recordsPerSec = (curRecords - lastRecords) / intervalSecs;
+    bytesPerSec = (curBytes - lastBytes) / intervalSecs;
+    lastRecords = curRecords;
+    lastBytes = curBytes;
+  }
+
+  LatencyHistogram getChangesLatencyHistogram() {
+    return getChangesLatency;
+  }
+
+  LatencyHistogram getSinkLatencyHistogram() {
+    return sinkLatency;
+  }
+
+  @Override
+  public long getRecords() {
+    return records.sum();
+  }
+
+  @Override
+  public long getBytes() {
+    return bytes.sum();
+  }
+
+  @Override
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  @Override
+  public double getRecordsPerSec() {
+    return recordsPerSec;
+  }
+
+  @Override
+  public double getBytesPerSec() {
+    return bytesPerSec;
+  }
+
+  @Override
+  public double getLagSecs() {
+    long sinceMicros = lastCommitTimeMicros;
+    if (sinceMicros == 0) {
+      // Caught up as of the last response, changes committed since then may not be polled yet.
+      sinceMicros = lastResponseTimeMicros;
+    }
+    return Math.max(System.currentTimeMillis() * 1000 - sinceMicros, 0) / 1e6;
+  }
+
+  @Override
+  public long getCheckpointTerm() {
+    return checkpointTerm;
+  }
+
+  @Override
+  public long getCheckpointIndex() {
+    return checkpointIndex;
+  }
+
+  @Override
+  public double getMeanGetChangesLatencyMillis() {
+    return getChangesLatency.getMeanMillis();
+  }
+
+  @Override
+  public double getMeanSinkLatencyMillis() {
+    return sinkLatency.getMeanMillis();
+  }
+}
@@ -0,0 +1,74 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package org.yb.cdc.util;
+
+/**
+ * Bytes of GetChanges responses held in memory until the output client has applied their records,
+ * shared by all the pollers of a connector. The size of a response is only known once it arrives,
+ * so pollers wait for the budget before sending a request and the arriving response is charged
+ * without blocking. The memory used is therefore bounded by the budget plus the responses of the
+ * requests in flight.
+ */
+public class MemoryBudget {
+  private final long maxBytes;
+  private long usedBytes;
+
+  public MemoryBudget(long maxBytes) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("Memory budget should be positive: " + maxBytes);
+    }
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * @return true if there is room for more responses.
+   */
+  public synchronized boolean hasRoom() {
+    return usedBytes < maxBytes;
+  }
+
+  /**
+   * Waits until there is room for more responses.
+   */
+  public synchronized void awaitRoom() throws InterruptedException {
+    while (usedBytes >= maxBytes) {
+      wait();
+    }
+  }
+
+  /**
+   * Charges an arrived response, never blocks.
+   * @param bytes size of the response.
+   */
+  public synchronized void charge(long bytes) {
+    usedBytes += bytes;
+  }
+
+  /**
+   * Releases a response once its records have been applied.
+   * @param bytes size of the response.
+   */
+  public synchronized void release(long bytes) {
+    usedBytes -= bytes;
+    notifyAll();
+  }
+
+  public synchronized long getUsedBytes() {
+    return usedBytes;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+}
@@ -0,0 +1,191 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package org.yb.cdc.metrics;
+
+import static org.yb.AssertionWrappers.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+import org.yb.cdc.util.Checkpoint;
+import org.yb.client.CompressionStats;
+
+@RunWith(value = YBTestRunner.class)
+public class TestCDCMetrics {
+  private static final long NANOS_PER_MILLI = 1000000;
+
+  private final CDCMetrics metrics = new CDCMetrics();
+
+  @After
+  public void tearDown() {
+    metrics.close();
+  }
+
+  // Hybrid time of the given physical time, with the 12 logical bits.
+  private static long hybridTime(long timeMillis) {
+    return (timeMillis * 1000) << 12;
+  }
+
+  private static Checkpoint checkpoint(long term, long index) {
+    return new Checkpoint(term, index, "".getBytes(), 0, 0);
+  }
+
+  @Test
+  public void testLagOfAppliedChanges() {
+    TabletMetrics tablet = metrics.tablet("tablet1");
+    tablet.recordResponse(NANOS_PER_MILLI, 10, 1000);
+    tablet.recordApplied(NANOS_PER_MILLI, hybridTime(System.currentTimeMillis() - 5000),
+                         checkpoint(1, 10));
+    assertEquals(5.0, tablet.getLagSecs(), 0.5);
+
+    // Changes without a commit time keep the lag of the last one that had it.
+    tablet.recordResponse(NANOS_PER_MILLI, 10, 1000);
+    tablet.recordApplied(NANOS_PER_MILLI, 0 /* commitTime */, checkpoint(1, 20));
+    assertEquals(5.0, tablet.getLagSecs(), 0.5);
+
+    // Failures don't reset the lag of the changes not yet polled.
+    tablet.recordError();
+    assertEquals(5.0, tablet.getLagSecs(), 0.5);
+    assertEquals(5.0, metrics.getMaxLagSecs(), 0.5);
+  }
+
+  @Test
+  public void testLagOnceCaughtUp() throws Exception {
+    TabletMetrics tablet = metrics.tablet("tablet1");
+    tablet.recordResponse(NANOS_PER_MILLI, 10, 1000);
+    tablet.recordApplied(NANOS_PER_MILLI, hybridTime(System.currentTimeMillis() - 5000),
+                         checkpoint(1, 10));
+    tablet.recordResponse(NANOS_PER_MILLI, 0, 100);
+    tablet.recordApplied(NANOS_PER_MILLI, 0 /* commitTime */, checkpoint(1, 10));
+    assertTrue("Lag of a caught-up tablet: " + tablet.getLagSecs(), tablet.getLagSecs() < 0.5);
+
+    // Lag grows from the last response while the requests fail, or the tablet isn't polled.
+    Thread.sleep(200);
+    tablet.recordError();
+    tablet.recordError();
+    assertTrue("Lag of a failing tablet: " + tablet.getLagSecs(), tablet.getLagSecs() >= 0.2);
+    assertEquals(2L, tablet.getErrors());
+
+    // And drops back once a response arrives.
+    tablet.recordResponse(NANOS_PER_MILLI, 0, 100);
+    assertTrue("Lag after a response: " + tablet.getLagSecs(), tablet.getLagSecs() < 0.2);
+  }
+
+  @Test
+  public void testLagBeforeFirstResponse() throws Exception {
+    TabletMetrics tablet = metrics.tablet("tablet1");
+    Thread.sleep(200);
+    // A tablet whose requests never succeed lags from the start of its metrics.
+    tablet.recordError();
+    assertTrue("Lag of a tablet never polled: " + tablet.getLagSecs(),
+               tablet.getLagSecs() >= 0.2);
+  }
+
+  @Test
+  public void testAggregates() {
+    TabletMetrics tablet1 = metrics.tablet("tablet1");
+    TabletMetrics tablet2 = metrics.tablet("tablet2");
+    assertSame(tablet1, metrics.tablet("tablet1"));
+    tablet1.recordResponse(2 * NANOS_PER_MILLI, 10, 1000);
+    tablet2.recordResponse(4 * NANOS_PER_MILLI, 5, 500);
+    tablet2.recordError();
+
+    assertEquals(2, metrics.getNumTablets());
+    assertEquals(15L, metrics.getRecords());
+    assertEquals(1500L, metrics.getBytes());
+    assertEquals(1L, metrics.getErrors());
+    assertEquals(3.0, metrics.getMeanGetChangesLatencyMillis(), 1e-9);
+    assertEquals(1.0, metrics.getRpcSendCompressionRatio(), 0);
+  }
+
+  @Test
+  public void testRemove() {
+    TabletMetrics parent = metrics.tablet("parent");
+    parent.recordResponse(NANOS_PER_MILLI, 10, 1000);
+    parent.recordError();
+    metrics.tablet("child").recordResponse(NANOS_PER_MILLI, 5, 500);
+
+    metrics.remove("parent");
+    metrics.remove("unknown");
+    assertEquals(1, metrics.getNumTablets());
+    assertFalse(metrics.format().contains("parent"));
+    // Aggregates keep the counts of the removed tablet.
+    assertEquals(15L, metrics.getRecords());
+    assertEquals(1500L, metrics.getBytes());
+    assertEquals(1L, metrics.getErrors());
+
+    // A tablet polled again starts from new metrics.
+    assertNotSame(parent, metrics.tablet("parent"));
+    assertEquals(0L, metrics.tablet("parent").getRecords());
+  }
+
+  @Test
+  public void testFormat() {
+    TabletMetrics tablet1 = metrics.tablet("tablet1");
+    TabletMetrics tablet2 = metrics.tablet("tablet2");
+    tablet1.recordResponse(3 * NANOS_PER_MILLI, 10, 1000);
+    tablet1.recordApplied(30 * NANOS_PER_MILLI, hybridTime(System.currentTimeMillis()),
+                          checkpoint(2, 42));
+    tablet1.recordResponse(300 * NANOS_PER_MILLI, 5, 500);
+    tablet2.recordError();
+
+    List<String> lines = Arrays.asList(metrics.format().split("\n"));
+    assertTrue(lines.contains("# HELP yb_cdc_records_total Records received."));
+    assertTrue(lines.contains("# TYPE yb_cdc_records_total counter"));
+    assertTrue(lines.contains("yb_cdc_records_total{tablet=\"tablet1\"} 15"));
+    assertTrue(lines.contains("yb_cdc_records_total{tablet=\"tablet2\"} 0"));
+    assertTrue(lines.contains("yb_cdc_bytes_total{tablet=\"tablet1\"} 1500"));
+    assertTrue(lines.contains("yb_cdc_errors_total{tablet=\"tablet2\"} 1"));
+    assertTrue(lines.contains("# TYPE yb_cdc_lag_seconds gauge"));
+    assertTrue(lines.contains("yb_cdc_checkpoint_term{tablet=\"tablet1\"} 2"));
+    assertTrue(lines.contains("yb_cdc_checkpoint_index{tablet=\"tablet1\"} 42"));
+
+    // Cumulative buckets, then the sum and count.
+    String latency = "yb_cdc_get_changes_latency_seconds";
+    assertTrue(lines.contains("# TYPE " + latency + " histogram"));
+    assertTrue(lines.contains(latency + "_bucket{tablet=\"tablet1\",le=\"0.002\"} 0"));
+    assertTrue(lines.contains(latency + "_bucket{tablet=\"tablet1\",le=\"0.005\"} 1"));
+    assertTrue(lines.contains(latency + "_bucket{tablet=\"tablet1\",le=\"0.2\"} 1"));
+    assertTrue(lines.contains(latency + "_bucket{tablet=\"tablet1\",le=\"0.5\"} 2"));
+    assertTrue(lines.contains(latency + "_bucket{tablet=\"tablet1\",le=\"+Inf\"} 2"));
+    assertTrue(lines.contains(latency + "_sum{tablet=\"tablet1\"} 0.303"));
+    assertTrue(lines.contains(latency + "_count{tablet=\"tablet1\"} 2"));
+    assertTrue(lines.contains(latency + "_count{tablet=\"tablet2\"} 0"));
+    assertTrue(lines.contains("yb_cdc_sink_latency_seconds_bucket{tablet=\"tablet1\"," +
+                              "le=\"0.05\"} 1"));
+
+    // Every sample has a name declared by a TYPE line above it.
+    String type = null;
+    for (String line : lines) {
+      if (line.startsWith("# TYPE ")) {
+        type = line.split(" ")[2];
+      } else if (!line.startsWith("#")) {
+        assertNotNull(type);
+        assertTrue(line, line.startsWith(type + "{") || line.startsWith(type + "_"));
+        assertTrue(line, line.matches("[a-z_]+\\{[^}]*\\} [-+0-9.E]+"));
+      }
+    }
+
+    // Compression is only reported once the client compresses its connections.
+    assertFalse(metrics.format().contains("yb_cdc_rpc_bytes_total"));
+    metrics.setCompressionStats(new CompressionStats());
+    lines = Arrays.asList(metrics.format().split("\n"));
+    assertTrue(lines.contains("yb_cdc_rpc_bytes_total{direction=\"sent\",compressed=\"true\"} 0"));
+    assertTrue(lines.contains("yb_cdc_rpc_compression_seconds_total{direction=\"received\"} 0.0"));
+  }
+}
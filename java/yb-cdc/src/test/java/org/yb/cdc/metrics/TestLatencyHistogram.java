@@ -0,0 +1,108 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package org.yb.cdc.metrics;
+
+import static org.yb.AssertionWrappers.*;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+@RunWith(value = YBTestRunner.class)
+public class TestLatencyHistogram {
+  private static final long NANOS_PER_MILLI = 1000000;
+
+  private static long[] cumulativeCounts(LatencyHistogram histogram) {
+    long[] counts = new long[LatencyHistogram.BUCKETS_SECS.length + 1];
+    histogram.addCumulativeCounts(counts);
+    return counts;
+  }
+
+  @Test
+  public void testEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0L, histogram.getCount());
+    assertEquals(0.0, histogram.getSumSecs(), 0);
+    assertEquals(0.0, histogram.getMeanMillis(), 0);
+    for (long count : cumulativeCounts(histogram)) {
+      assertEquals(0L, count);
+    }
+  }
+
+  @Test
+  public void testBuckets() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    // Bounds are inclusive, as Prometheus "le" buckets.
+    histogram.record(1 * NANOS_PER_MILLI);
+    histogram.record(1 * NANOS_PER_MILLI + 1);
+    histogram.record(150 * NANOS_PER_MILLI);
+    histogram.record(60000 * NANOS_PER_MILLI);
+    histogram.record(61000 * NANOS_PER_MILLI);
+
+    long[] counts = cumulativeCounts(histogram);
+    // 0.001, 0.002, ..., 0.1, 0.2, ..., 60, +Inf.
+    assertEquals(1L, counts[0]);
+    assertEquals(2L, counts[1]);
+    assertEquals(2L, counts[6]);
+    assertEquals(3L, counts[7]);
+    assertEquals(4L, counts[LatencyHistogram.BUCKETS_SECS.length - 1]);
+    assertEquals(5L, counts[LatencyHistogram.BUCKETS_SECS.length]);
+    for (int i = 1; i < counts.length; ++i) {
+      assertTrue(counts[i] >= counts[i - 1]);
+    }
+
+    assertEquals(5L, histogram.getCount());
+    assertEquals(121.152, histogram.getSumSecs(), 1e-6);
+    assertEquals(121152.0 / 5, histogram.getMeanMillis(), 1e-3);
+  }
+
+  @Test
+  public void testAddCumulativeCounts() {
+    LatencyHistogram first = new LatencyHistogram();
+    LatencyHistogram second = new LatencyHistogram();
+    first.record(3 * NANOS_PER_MILLI);
+    second.record(3 * NANOS_PER_MILLI);
+    second.record(300 * NANOS_PER_MILLI);
+
+    // Counts of several histograms add up, e.g. for the aggregate of the tablets.
+    long[] counts = new long[LatencyHistogram.BUCKETS_SECS.length + 1];
+    first.addCumulativeCounts(counts);
+    second.addCumulativeCounts(counts);
+    assertEquals(0L, counts[1]);
+    assertEquals(2L, counts[2]);
+    assertEquals(2L, counts[7]);
+    assertEquals(3L, counts[8]);
+    assertEquals(3L, counts[LatencyHistogram.BUCKETS_SECS.length]);
+  }
+
+  @Test
+  public void testConcurrentRecords() throws Exception {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; ++i) {
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 10000; ++j) {
+          histogram.record(5 * NANOS_PER_MILLI);
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(40000L, histogram.getCount());
+    assertEquals(40000L, cumulativeCounts(histogram)[2]);
+    assertEquals(5.0, histogram.getMeanMillis(), 1e-9);
+  }
+}
@@ -0,0 +1,124 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package org.yb.cdc.util;
+
+import static org.yb.AssertionWrappers.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+@RunWith(value = YBTestRunner.class)
+public class TestMemoryBudget {
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testChargeAndRelease() {
+    MemoryBudget budget = new MemoryBudget(100);
+    assertEquals(100L, budget.getMaxBytes());
+    assertTrue(budget.hasRoom());
+
+    budget.charge(60);
+    assertEquals(60L, budget.getUsedBytes());
+    assertTrue(budget.hasRoom());
+
+    // Arrived responses are charged even past the budget.
+    budget.charge(70);
+    assertEquals(130L, budget.getUsedBytes());
+    assertFalse(budget.hasRoom());
+
+    budget.release(60);
+    assertEquals(70L, budget.getUsedBytes());
+    assertTrue(budget.hasRoom());
+    budget.charge(30);
+    assertFalse(budget.hasRoom());
+    budget.release(100);
+    assertEquals(0L, budget.getUsedBytes());
+    assertTrue(budget.hasRoom());
+  }
+
+  @Test
+  public void testInvalidBudget() {
+    for (long maxBytes : new long[] {0, -1}) {
+      try {
+        new MemoryBudget(maxBytes);
+        fail("Expected IllegalArgumentException for " + maxBytes);
+      } catch (IllegalArgumentException e) {
+        // Expected.
+      }
+    }
+  }
+
+  @Test
+  public void testAwaitRoom() throws Exception {
+    MemoryBudget budget = new MemoryBudget(100);
+    // Returns at once while there is room.
+    budget.charge(99);
+    budget.awaitRoom();
+
+    budget.charge(51);
+    Future<?> waiter = executor.submit(() -> {
+      budget.awaitRoom();
+      return null;
+    });
+    try {
+      waiter.get(200, TimeUnit.MILLISECONDS);
+      fail("awaitRoom returned without room");
+    } catch (TimeoutException e) {
+      // Expected.
+    }
+    // Still no room.
+    budget.release(40);
+    try {
+      waiter.get(200, TimeUnit.MILLISECONDS);
+      fail("awaitRoom returned without room");
+    } catch (TimeoutException e) {
+      // Expected.
+    }
+    budget.release(20);
+    waiter.get(10, TimeUnit.SECONDS);
+    assertEquals(90L, budget.getUsedBytes());
+  }
+
+  @Test
+  public void testAwaitRoomInterrupted() throws Exception {
+    MemoryBudget budget = new MemoryBudget(10);
+    budget.charge(10);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    Future<?> waiter = executor.submit(() -> {
+      try {
+        budget.awaitRoom();
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+    });
+    Thread.sleep(100);
+    waiter.cancel(true /* mayInterruptIfRunning */);
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    assertEquals(10L, budget.getUsedBytes());
+  }
+}
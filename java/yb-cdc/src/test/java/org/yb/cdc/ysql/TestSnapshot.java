@@ -17,12 +17,26 @@ import org.apache.log4j.Logger;
 import org.junit.runner.RunWith;
 import org.yb.cdc.CdcService;
 import org.yb.cdc.CdcService.RowMessage.Op;
+import org.yb.cdc.ConcurrentPoller;
+import org.yb.cdc.OutputClient;
+import org.yb.cdc.SnapshotBootstrapper;
 import org.yb.cdc.common.CDCBaseClass;
 import org.yb.cdc.common.ExpectedRecord3Proto;
+import org.yb.cdc.metrics.CDCMetrics;
 import org.yb.cdc.util.CDCSubscriber;
+import org.yb.cdc.util.Checkpoint;
+import org.yb.cdc.util.MemoryBudget;
 import org.yb.cdc.util.TestUtils;
+import org.yb.client.AsyncYBClient;
+import org.yb.client.LocatedTablet;
+import org.yb.client.YBClient;
+import org.yb.client.YBTable;
 
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.yb.AssertionWrappers.*;
 import org.junit.Before;
@@ -261,4 +275,101 @@ public class TestSnapshot extends CDCBaseClass {
       fail();
     }
   }
+
+  /**
+   * Takes the snapshot with SnapshotBootstrapper while rows are being inserted, then streams from
+   * the checkpoints of the snapshot with ConcurrentPoller. Every row is expected exactly once,
+   * either as a snapshot read or as a streamed insert.
+   */
+  @Test
+  public void testSnapshotThenStreamingHandoff() throws Exception {
+    TestUtils.runSqlScript(connection, "cdc_large_snapshot.sql");
+    String tableId = new CDCSubscriber(getMasterAddresses()).getTableId();
+
+    AsyncYBClient asyncClient = new AsyncYBClient.AsyncYBClientBuilder(getMasterAddresses())
+      .defaultAdminOperationTimeoutMs(30000)
+      .defaultOperationTimeoutMs(30000)
+      .defaultSocketReadTimeoutMs(30000)
+      .build();
+    YBClient syncClient = new YBClient(asyncClient);
+    ExecutorService writer = Executors.newSingleThreadExecutor();
+    AtomicBoolean stopWriting = new AtomicBoolean();
+    CDCMetrics metrics = new CDCMetrics();
+    try {
+      YBTable table = syncClient.openTableByUUID(tableId);
+      String streamId =
+        syncClient.createCDCStream(table, "yugabyte", "proto", "IMPLICIT").getStreamId();
+
+      // Keys of the applied snapshot reads and streamed inserts.
+      List<Integer> snapshotKeys = Collections.synchronizedList(new ArrayList<>());
+      List<Integer> streamedKeys = Collections.synchronizedList(new ArrayList<>());
+      OutputClient outputClient = (t, record) -> {
+        CdcService.RowMessage row = record.getRowMessage();
+        if (row.getOp() == Op.READ) {
+          snapshotKeys.add(row.getNewTuple(0).getDatumInt32());
+        } else if (row.getOp() == Op.INSERT) {
+          streamedKeys.add(row.getNewTuple(0).getDatumInt32());
+        }
+      };
+
+      // Rows inserted while the snapshot is being taken land on either side of its checkpoint.
+      // The connection is used only by the writer until it stops.
+      Future<?> writes = writer.submit(() -> {
+        try (Statement writeStatement = connection.createStatement()) {
+          for (int key = 10001; !stopWriting.get(); ++key) {
+            writeStatement.execute(String.format("INSERT INTO test VALUES (%d, 1, 2);", key));
+          }
+        }
+        return null;
+      });
+
+      SnapshotBootstrapper bootstrapper = new SnapshotBootstrapper(
+        asyncClient, outputClient, streamId, 2, new MemoryBudget(16 * 1024 * 1024), metrics);
+      Map<String, List<String>> tableIdToTabletIds = new HashMap<>();
+      for (LocatedTablet tablet : table.getTabletsLocations(30000)) {
+        String tabletId = new String(tablet.getTabletId());
+        bootstrapper.addTablet(table, tabletId);
+        tableIdToTabletIds.computeIfAbsent(tableId, k -> new ArrayList<>()).add(tabletId);
+      }
+      Map<String, Checkpoint> checkpoints = bootstrapper.run();
+      Thread.sleep(1000);
+      stopWriting.set(true);
+      writes.get(60, TimeUnit.SECONDS);
+
+      Set<Integer> expectedKeys = new HashSet<>();
+      try (ResultSet rs = statement.executeQuery("SELECT a FROM test")) {
+        while (rs.next()) {
+          expectedKeys.add(rs.getInt(1));
+        }
+      }
+      assertTrue(expectedKeys.size() > 5000);
+
+      ConcurrentPoller poller = new ConcurrentPoller(
+        syncClient, asyncClient, outputClient, streamId, tableIdToTabletIds, 2, "proto",
+        false /* stopExecution */, false /* enableSnapshot */, new MemoryBudget(16 * 1024 * 1024),
+        metrics);
+      checkpoints.forEach(poller::setCheckpoint);
+      long deadlineMs = System.currentTimeMillis() + 60000;
+      while (snapshotKeys.size() + streamedKeys.size() < expectedKeys.size() &&
+             System.currentTimeMillis() < deadlineMs) {
+        poller.poll();
+        Thread.sleep(100);
+      }
+
+      // No gaps: every row is either in the snapshot or streamed after it.
+      Set<Integer> seenKeys = new HashSet<>(snapshotKeys);
+      seenKeys.addAll(streamedKeys);
+      assertEquals(expectedKeys, seenKeys);
+      // No duplicates: rows of the snapshot are not streamed again, and each row comes once.
+      assertEquals(expectedKeys.size(), snapshotKeys.size() + streamedKeys.size());
+      assertFalse(streamedKeys.isEmpty());
+      LOG.info(String.format("Got %d rows in the snapshot and %d rows streamed after it",
+                             snapshotKeys.size(), streamedKeys.size()));
+    } finally {
+      stopWriting.set(true);
+      writer.shutdownNow();
+      metrics.close();
+      syncClient.close();
+    }
+  }
 }
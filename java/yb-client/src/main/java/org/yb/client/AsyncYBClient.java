@@ -286,6 +286,9 @@ public class AsyncYBClient implements AutoCloseable {
 
   private final int numTabletsInTable;
 
+  private final StreamCompression streamCompression;
+  private final CompressionStats compressionStats = new CompressionStats();
+
   private AsyncYBClient(AsyncYBClientBuilder b) {
     this.channelFactory = b.createChannelFactory();
     this.masterAddresses = b.masterAddresses;
@@ -300,6 +303,7 @@ public class AsyncYBClient implements AutoCloseable {
     this.clientPort = b.clientPort;
     this.defaultSocketReadTimeoutMs = b.defaultSocketReadTimeoutMs;
     this.numTabletsInTable = b.numTablets;
+    this.streamCompression = b.streamCompression;
   }
 
   /**
@@ -449,7 +453,7 @@ public class AsyncYBClient implements AutoCloseable {
       @Override
       public GetChangesResponse call(GetChangesResponse o) throws Exception {
         if (o != null) {
-          if (o.getResp().hasError()) {
+          if (o.hasError()) {
           }
         }
         return o;
@@ -1371,6 +1375,19 @@ public class AsyncYBClient implements AutoCloseable {
     return defaultSocketReadTimeoutMs;
   }
 
+  public StreamCompression getStreamCompression() {
+    return streamCompression;
+  }
+
+  /**
+   * Get the bytes and time spent compressing the connections of this client, all zero unless
+   * stream compression is enabled.
+   * @return the compression stats
+   */
+  public CompressionStats getCompressionStats() {
+    return compressionStats;
+  }
+
   <R> Deferred<R> sendRpcToTablet(final YRpc<R> request) {
     if (cannotRetryRequest(request)) {
       return tooManyAttemptsOrTimeout(request, null);
@@ -1849,7 +1866,7 @@ public class AsyncYBClient implements AutoCloseable {
 
   private Deferred<List<LocatedTablet>> loopLocateTable(final String tableId,
       final byte[] startPartitionKey, final byte[] endPartitionKey, final List<LocatedTablet> ret,
-      final DeadlineTracker deadlineTracker) {
+      final DeadlineTracker deadlineTracker, final YBTable tableToCache) {
     if (deadlineTracker.timedOut()) {
       return Deferred.fromError(new NonRecoverableException(
           "Took too long getting the list of tablets, " + deadlineTracker));
@@ -1866,6 +1883,13 @@ public class AsyncYBClient implements AutoCloseable {
             if (response.getTabletLocationsCount() == 0) {
               Deferred.fromResult(ret);
             }
+            if (tableToCache != null) {
+              try {
+                discoverTablets(tableToCache, response);
+              } catch (NonRecoverableException e) {
+                return Deferred.fromError(e);
+              }
+            }
             byte[] lastEndPartition = startPartitionKey;
             for (MasterClientOuterClass.TabletLocationsPB tabletPb :
                      response.getTabletLocationsList()) {
@@ -1887,7 +1911,7 @@ public class AsyncYBClient implements AutoCloseable {
               return Deferred.fromResult(ret);
             } else {
               return loopLocateTable(tableId, lastEndPartition, endPartitionKey, ret,
-                  deadlineTracker);
+                  deadlineTracker, tableToCache);
             }
           }
         });
@@ -1911,7 +1935,26 @@ public class AsyncYBClient implements AutoCloseable {
     final List<LocatedTablet> ret = Lists.newArrayList();
     final DeadlineTracker deadlineTracker = new DeadlineTracker();
     deadlineTracker.setDeadline(deadline);
-    return loopLocateTable(tableId, startPartitionKey, endPartitionKey, ret, deadlineTracker);
+    return loopLocateTable(tableId, startPartitionKey, endPartitionKey, ret, deadlineTracker,
+        null /* tableToCache */);
+  }
+
+  /**
+   * Get all the tablets of a table from the master and refresh their cached locations, so that
+   * requests are sent to the current leaders and the tablets created by splits are known without
+   * waiting for errors from the tablet servers.
+   * @param table the table to locate tablets from
+   * @param deadline max time spent in milliseconds for the deferred result of this method to
+   *         get called back, if deadline is reached, the deferred result will get erred back
+   * @return a deferred object that yields a list of the tablets in the table
+   */
+  public Deferred<List<LocatedTablet>> refreshTabletLocations(final YBTable table,
+                                                             long deadline) {
+    checkIsClosed();
+    final DeadlineTracker deadlineTracker = new DeadlineTracker();
+    deadlineTracker.setDeadline(deadline);
+    return loopLocateTable(table.getTableId(), null, null, Lists.<LocatedTablet>newArrayList(),
+        deadlineTracker, table);
   }
 
   /**
@@ -2482,6 +2525,10 @@ public class AsyncYBClient implements AutoCloseable {
                 defaultSocketReadTimeoutMs,
                 TimeUnit.MILLISECONDS));
       }
+      if (streamCompression != StreamCompression.NONE) {
+        super.addLast("compression",
+            new CompressedStreamHandler(streamCompression, compressionStats));
+      }
       super.addLast("yb-handler", client);
 
       return client;
@@ -2964,6 +3011,8 @@ public class AsyncYBClient implements AutoCloseable {
 
     private int numTablets = DEFAULT_MAX_TABLETS;
 
+    private StreamCompression streamCompression = StreamCompression.NONE;
+
     /**
      * Creates a new builder for a client that will connect to the specified masters.
      * @param masterAddresses comma-separated list of "host:port" pairs of the masters
@@ -3124,6 +3173,19 @@ public class AsyncYBClient implements AutoCloseable {
       return this;
     }
 
+    /**
+     * Sets the compression of the connections to the masters and tablet servers.
+     * Optional.
+     * If not provided, defaults to NONE.
+     * The servers support it unless they run with --enable_stream_compression=false.
+     * @param compression the compression algorithm.
+     * @return this builder
+     */
+    public AsyncYBClientBuilder streamCompression(StreamCompression compression) {
+      this.streamCompression = Preconditions.checkNotNull(compression);
+      return this;
+    }
+
     /**
      * Creates the channel factory for Netty. The user can specify the executors, but
      * if they don't, we'll use a simple thread pool.
@@ -31,6 +31,7 @@
 //
 package org.yb.client;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 import org.yb.annotations.InterfaceAudience;
@@ -120,6 +121,28 @@ final class CallResponse {
     return subslice(this.message, 0, mainLength);
   }
 
+  /**
+   * Gives a view of the main protobuf message in the buffer, so that it is parsed without being
+   * copied out first. The view is only valid until the response is decoded, as the buffer is
+   * reused for the next responses, and the response should not have sidecars.
+   * @return A buffer positioned at the main protobuf message and limited to it.
+   * @throws IllegalArgumentException If the recorded size for the main message
+   * is not within reasonable limits as defined by
+   * {@link YRpc#checkArrayLength(ChannelBuffer, long)}.
+   * @throws IllegalStateException If the main message was already read or if
+   * the response has sidecars.
+   */
+  public ByteBuffer getPBMessageView() {
+    if (this.message != null || this.header.getSidecarOffsetsCount() != 0) {
+      throw new IllegalStateException("Main protobuf message can't be viewed in the buffer");
+    }
+    final int length = Bytes.readVarInt32(buf);
+    YRpc.checkArrayLength(buf, length);
+    final ByteBuffer view = buf.toByteBuffer(buf.readerIndex(), length);
+    buf.skipBytes(length);
+    return view;
+  }
+
   /**
    * @param sidecar The index of the sidecar to retrieve.
    * @return A slice pointing to the desired sidecar.
@@ -175,6 +198,7 @@ final class CallResponse {
     if (buf.hasArray()) {  // Zero copy.
       payload = buf.array();
       offset = buf.arrayOffset() + buf.readerIndex();
+      buf.skipBytes(length);
     } else {  // We have to copy the entire payload out of the buffer :(
       payload = new byte[length];
       buf.readBytes(payload);
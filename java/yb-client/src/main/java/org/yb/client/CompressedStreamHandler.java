@@ -0,0 +1,290 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.yb.client;
+
+import java.io.IOException;
+import java.util.function.IntUnaryOperator;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelHandler;
+import org.xerial.snappy.Snappy;
+import org.yb.annotations.InterfaceAudience;
+
+/**
+ * Compresses the RPC connection to a server, in the format of src/yb/rpc/compressed_stream.cc.
+ * The connection starts with the "YB" header followed by the identifier of the algorithm, after
+ * which everything sent and received is compressed. Gzip compresses the connection as one zlib
+ * stream, flushed after each write. Snappy and LZ4 compress blocks, so the data is split into
+ * chunks that are compressed separately and preceded by their 2-byte compressed length.
+ *
+ * Writes are compressed on the thread that sends them, under a lock, so that the compressed
+ * chunks are queued to the channel in the order of the compressor. Reads are only decompressed on
+ * the I/O thread of the channel.
+ */
+@InterfaceAudience.Private
+class CompressedStreamHandler extends SimpleChannelHandler {
+  private static final int CHUNK_HEADER_LEN = 2;
+  private static final int MAX_CHUNK_LEN = 0xFFFF;
+
+  private final StreamCompression compression;
+  private final Codec codec;
+  private final CompressionStats stats;
+
+  CompressedStreamHandler(StreamCompression compression, CompressionStats stats) {
+    this.compression = compression;
+    this.stats = stats;
+    switch (compression) {
+      case GZIP:
+        codec = new GzipCodec();
+        break;
+      case SNAPPY:
+        codec = new SnappyCodec();
+        break;
+      case LZ4:
+        codec = new LZ4Codec();
+        break;
+      default:
+        throw new IllegalArgumentException("Not a compressed stream: " + compression);
+    }
+  }
+
+  @Override
+  public void channelConnected(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+    // The header goes below the compression, ahead of the RPC header written by TabletClient.
+    ChannelBuffer header = ChannelBuffers.wrappedBuffer(new byte[] {'Y', 'B', compression.getId()});
+    Channels.write(ctx, Channels.future(ctx.getChannel()), header);
+    super.channelConnected(ctx, e);
+  }
+
+  @Override
+  public void writeRequested(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+    ChannelBuffer buf = (ChannelBuffer) e.getMessage();
+    synchronized (codec) {
+      long startNanos = System.nanoTime();
+      int bytes = buf.readableBytes();
+      ChannelBuffer compressed = codec.compress(buf);
+      stats.recordCompress(bytes, compressed.readableBytes(), System.nanoTime() - startNanos);
+      Channels.write(ctx, e.getFuture(), compressed, e.getRemoteAddress());
+    }
+  }
+
+  @Override
+  public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+    ChannelBuffer buf = (ChannelBuffer) e.getMessage();
+    long startNanos = System.nanoTime();
+    int compressedBytes = buf.readableBytes();
+    ChannelBuffer decompressed = codec.decompress(buf);
+    stats.recordDecompress(compressedBytes, decompressed.readableBytes(),
+                           System.nanoTime() - startNanos);
+    if (decompressed.readable()) {
+      Channels.fireMessageReceived(ctx, decompressed, e.getRemoteAddress());
+    }
+  }
+
+  private abstract static class Codec {
+    /**
+     * @param buf data to send.
+     * @return the data to send over the connection.
+     */
+    abstract ChannelBuffer compress(ChannelBuffer buf) throws IOException;
+
+    /**
+     * @param buf data received over the connection, consumed entirely.
+     * @return the data decompressed so far, possibly empty.
+     */
+    abstract ChannelBuffer decompress(ChannelBuffer buf) throws IOException;
+  }
+
+  private static final class GzipCodec extends Codec {
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final Inflater inflater = new Inflater();
+    private final byte[] deflateBuf = new byte[64 * 1024];
+    private final byte[] inflateBuf = new byte[64 * 1024];
+
+    @Override
+    ChannelBuffer compress(ChannelBuffer buf) {
+      deflater.setInput(toArray(buf));
+      ChannelBuffer out = ChannelBuffers.dynamicBuffer(buf.readableBytes() / 2 + 64);
+      int len;
+      do {
+        // Flushing after each write lets the server decompress it without waiting for more.
+        len = deflater.deflate(deflateBuf, 0, deflateBuf.length, Deflater.SYNC_FLUSH);
+        out.writeBytes(deflateBuf, 0, len);
+      } while (len == deflateBuf.length);
+      return out;
+    }
+
+    @Override
+    ChannelBuffer decompress(ChannelBuffer buf) throws IOException {
+      inflater.setInput(toArray(buf));
+      ChannelBuffer out = ChannelBuffers.dynamicBuffer(2 * buf.readableBytes() + 64);
+      try {
+        for (;;) {
+          int len = inflater.inflate(inflateBuf);
+          out.writeBytes(inflateBuf, 0, len);
+          // A full buffer may leave output of the consumed input behind, so inflate once more.
+          if (len < inflateBuf.length && inflater.needsInput()) {
+            break;
+          }
+          if (len == 0 && (inflater.finished() || inflater.needsDictionary())) {
+            throw new IOException("Unexpected end of the compressed stream");
+          }
+        }
+      } catch (DataFormatException e) {
+        throw new IOException("Unable to decompress the stream", e);
+      }
+      return out;
+    }
+  }
+
+  /**
+   * Codec of the block compression algorithms, the compressed length of a chunk should fit in
+   * the 2-byte chunk header.
+   */
+  private abstract static class ChunkedCodec extends Codec {
+    private final int maxChunkLen;
+    private final byte[] compressBuf;
+    // Received data that doesn't make a whole chunk yet.
+    private final ChannelBuffer pending = ChannelBuffers.dynamicBuffer(MAX_CHUNK_LEN);
+
+    ChunkedCodec(IntUnaryOperator maxCompressedLen) {
+      maxChunkLen = findMaxChunkLen(maxCompressedLen);
+      compressBuf = new byte[maxCompressedLen.applyAsInt(maxChunkLen)];
+    }
+
+    /**
+     * @return compressed length.
+     */
+    abstract int compressChunk(byte[] src, int srcOff, int srcLen, byte[] dest) throws IOException;
+
+    /**
+     * Decompresses a chunk and appends it to the output.
+     */
+    abstract void decompressChunk(byte[] src, int srcOff, int srcLen, ChannelBuffer out)
+        throws IOException;
+
+    // Largest length that compresses to at most MAX_CHUNK_LEN bytes, found as the server does.
+    private static int findMaxChunkLen(IntUnaryOperator maxCompressedLen) {
+      int l = 1;
+      int r = MAX_CHUNK_LEN;
+      while (r > l) {
+        int m = (l + r + 1) / 2;
+        if (maxCompressedLen.applyAsInt(m) > MAX_CHUNK_LEN) {
+          r = m - 1;
+        } else {
+          l = m;
+        }
+      }
+      return l;
+    }
+
+    @Override
+    ChannelBuffer compress(ChannelBuffer buf) throws IOException {
+      byte[] src = toArray(buf);
+      ChannelBuffer out = ChannelBuffers.dynamicBuffer(src.length / 2 + CHUNK_HEADER_LEN);
+      for (int off = 0; off < src.length; off += maxChunkLen) {
+        int len = compressChunk(src, off, Math.min(maxChunkLen, src.length - off), compressBuf);
+        out.writeShort(len);
+        out.writeBytes(compressBuf, 0, len);
+      }
+      return out;
+    }
+
+    @Override
+    ChannelBuffer decompress(ChannelBuffer buf) throws IOException {
+      pending.writeBytes(buf);
+      ChannelBuffer out = ChannelBuffers.dynamicBuffer(2 * pending.readableBytes() + 64);
+      while (pending.readableBytes() >= CHUNK_HEADER_LEN) {
+        int len = pending.getUnsignedShort(pending.readerIndex());
+        if (pending.readableBytes() < CHUNK_HEADER_LEN + len) {
+          break;
+        }
+        int off = pending.arrayOffset() + pending.readerIndex() + CHUNK_HEADER_LEN;
+        decompressChunk(pending.array(), off, len, out);
+        pending.skipBytes(CHUNK_HEADER_LEN + len);
+      }
+      pending.discardReadBytes();
+      return out;
+    }
+  }
+
+  private static final class SnappyCodec extends ChunkedCodec {
+    SnappyCodec() {
+      super(Snappy::maxCompressedLength);
+    }
+
+    @Override
+    int compressChunk(byte[] src, int srcOff, int srcLen, byte[] dest) throws IOException {
+      return Snappy.compress(src, srcOff, srcLen, dest, 0);
+    }
+
+    @Override
+    void decompressChunk(byte[] src, int srcOff, int srcLen, ChannelBuffer out)
+        throws IOException {
+      int len = Snappy.uncompressedLength(src, srcOff, srcLen);
+      out.ensureWritableBytes(len);
+      Snappy.uncompress(src, srcOff, srcLen, out.array(), out.arrayOffset() + out.writerIndex());
+      out.writerIndex(out.writerIndex() + len);
+    }
+  }
+
+  private static final class LZ4Codec extends ChunkedCodec {
+    private static final LZ4Factory FACTORY = LZ4Factory.fastestInstance();
+
+    private final LZ4Compressor compressor = FACTORY.fastCompressor();
+    private final LZ4SafeDecompressor decompressor = FACTORY.safeDecompressor();
+
+    LZ4Codec() {
+      super(FACTORY.fastCompressor()::maxCompressedLength);
+    }
+
+    @Override
+    int compressChunk(byte[] src, int srcOff, int srcLen, byte[] dest) {
+      return compressor.compress(src, srcOff, srcLen, dest, 0, dest.length);
+    }
+
+    @Override
+    void decompressChunk(byte[] src, int srcOff, int srcLen, ChannelBuffer out)
+        throws IOException {
+      // LZ4 blocks don't store their length, but a chunk is never longer than its header allows.
+      out.ensureWritableBytes(MAX_CHUNK_LEN);
+      try {
+        int len = decompressor.decompress(src, srcOff, srcLen, out.array(),
+                                          out.arrayOffset() + out.writerIndex(), MAX_CHUNK_LEN);
+        out.writerIndex(out.writerIndex() + len);
+      } catch (LZ4Exception e) {
+        throw new IOException("Unable to decompress the stream", e);
+      }
+    }
+  }
+
+  private static byte[] toArray(ChannelBuffer buf) {
+    byte[] bytes = new byte[buf.readableBytes()];
+    buf.readBytes(bytes);
+    return bytes;
+  }
+}
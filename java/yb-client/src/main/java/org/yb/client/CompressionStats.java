@@ -0,0 +1,110 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.yb.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.yb.annotations.InterfaceAudience;
+import org.yb.annotations.InterfaceStability;
+
+/**
+ * Bytes and time spent compressing the RPC connections of a client, over all its connections.
+ * Time is measured on the threads doing the compression, so it approximates the CPU spent on it.
+ */
+@InterfaceAudience.Public
+@InterfaceStability.Evolving
+public class CompressionStats {
+  private final AtomicLong bytesSent = new AtomicLong();
+  private final AtomicLong compressedBytesSent = new AtomicLong();
+  private final AtomicLong compressNanos = new AtomicLong();
+  private final AtomicLong bytesReceived = new AtomicLong();
+  private final AtomicLong compressedBytesReceived = new AtomicLong();
+  private final AtomicLong decompressNanos = new AtomicLong();
+
+  void recordCompress(long bytes, long compressedBytes, long nanos) {
+    bytesSent.addAndGet(bytes);
+    compressedBytesSent.addAndGet(compressedBytes);
+    compressNanos.addAndGet(nanos);
+  }
+
+  void recordDecompress(long compressedBytes, long bytes, long nanos) {
+    compressedBytesReceived.addAndGet(compressedBytes);
+    bytesReceived.addAndGet(bytes);
+    decompressNanos.addAndGet(nanos);
+  }
+
+  /**
+   * @return bytes of the RPCs sent, before compression.
+   */
+  public long getBytesSent() {
+    return bytesSent.get();
+  }
+
+  /**
+   * @return bytes sent over the connections, after compression.
+   */
+  public long getCompressedBytesSent() {
+    return compressedBytesSent.get();
+  }
+
+  public long getCompressNanos() {
+    return compressNanos.get();
+  }
+
+  /**
+   * @return bytes of the RPC responses received, after decompression.
+   */
+  public long getBytesReceived() {
+    return bytesReceived.get();
+  }
+
+  /**
+   * @return bytes received over the connections, before decompression.
+   */
+  public long getCompressedBytesReceived() {
+    return compressedBytesReceived.get();
+  }
+
+  public long getDecompressNanos() {
+    return decompressNanos.get();
+  }
+
+  /**
+   * @return ratio of the bytes sent to the bytes sent over the connections, 1 if none were sent.
+   */
+  public double getSendRatio() {
+    long compressed = compressedBytesSent.get();
+    return compressed == 0 ? 1 : (double) bytesSent.get() / compressed;
+  }
+
+  /**
+   * @return ratio of the bytes received to the bytes received over the connections, 1 if none
+   * were received.
+   */
+  public double getReceiveRatio() {
+    long compressed = compressedBytesReceived.get();
+    return compressed == 0 ? 1 : (double) bytesReceived.get() / compressed;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("sent %d bytes as %d (%.2fx) in %d ms, " +
+                         "received %d bytes as %d (%.2fx) in %d ms",
+                         getBytesSent(), getCompressedBytesSent(), getSendRatio(),
+                         getCompressNanos() / 1000000, getBytesReceived(),
+                         getCompressedBytesReceived(), getReceiveRatio(),
+                         getDecompressNanos() / 1000000);
+  }
+}
@@ -14,7 +14,11 @@
 package org.yb.client;
 
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.Message;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.protobuf.WireFormat;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.yb.Opid;
 import org.yb.cdc.CdcService;
@@ -22,6 +26,12 @@ import org.yb.util.Pair;
 import org.yb.cdc.CdcService.GetChangesRequestPB;
 import org.yb.cdc.CdcService.GetChangesResponsePB;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
 public class GetChangesRequest extends YRpc<GetChangesResponse> {
   private final String streamId;
 
@@ -58,7 +68,7 @@ public class GetChangesRequest extends YRpc<GetChangesResponse> {
       CdcService.CDCSDKCheckpointPB.Builder checkpointBuilder =
               CdcService.CDCSDKCheckpointPB.newBuilder();
       checkpointBuilder.setIndex(this.index).setTerm(this.term)
-      .setKey(ByteString.copyFrom(this.key)).setWriteId(this.write_id)
+      .setKey(UnsafeByteOperations.unsafeWrap(this.key)).setWriteId(this.write_id)
         .setSnapshotTime(this.time);
       builder.setFromCdcSdkCheckpoint(checkpointBuilder.build());
     }
@@ -76,13 +86,53 @@ public class GetChangesRequest extends YRpc<GetChangesResponse> {
   @Override
   Pair<GetChangesResponse, Object> deserialize(
           CallResponse callResponse, String uuid) throws Exception {
+    final ByteBuffer message = callResponse.getPBMessageView();
+    final int responseSize = message.remaining();
     final GetChangesResponsePB.Builder respBuilder = GetChangesResponsePB.newBuilder();
-    readProtobuf(callResponse.getPBMessage(), respBuilder);
+    final List<ByteString> records = new ArrayList<>();
+    readResponse(message, respBuilder, records);
     GetChangesResponse response = new GetChangesResponse(
-            deadlineTracker.getElapsedMillis(), uuid, respBuilder.build(),
+            deadlineTracker.getElapsedMillis(), uuid, respBuilder.build(), records, responseSize,
       respBuilder.getCdcSdkCheckpointBuilder().getKey().toByteArray(),
       respBuilder.getCdcSdkCheckpointBuilder().getWriteId());
     return new Pair<GetChangesResponse, Object>(
             response, respBuilder.hasError() ? respBuilder.getError() : null);
   }
+
+  /**
+   * Parses the response straight from the view of the RPC buffer, without copying the whole
+   * message out first. Nothing may alias the view, as the buffer is reused once the response is
+   * decoded: each record is copied out still serialized, in a single array, and is only parsed as
+   * it is iterated, see {@link GetChangesResponse#getRecords()}. The other fields, including the
+   * checkpoint key, are copied and parsed into the builder.
+   */
+  private static void readResponse(ByteBuffer message, GetChangesResponsePB.Builder respBuilder,
+                                   List<ByteString> records) {
+    final CodedInputStream input = CodedInputStream.newInstance(message);
+    final ByteArrayOutputStream otherFields = new ByteArrayOutputStream();
+    final CodedOutputStream otherFieldsOutput = CodedOutputStream.newInstance(otherFields);
+    try {
+      while (true) {
+        final int tag = input.readTag();
+        if (tag == 0) {
+          break;
+        }
+        if (WireFormat.getTagFieldNumber(tag) ==
+                GetChangesResponsePB.CDC_SDK_PROTO_RECORDS_FIELD_NUMBER &&
+            WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+          records.add(input.readBytes());
+        } else {
+          input.skipField(tag, otherFieldsOutput);
+        }
+      }
+      otherFieldsOutput.flush();
+      respBuilder.mergeFrom(otherFields.toByteArray());
+      if (!respBuilder.isInitialized()) {
+        throw new RuntimeException("Could not deserialize the response," +
+                " incompatible RPC? Error is: " + respBuilder.getInitializationErrorString());
+      }
+    } catch (IOException e) {
+      throw new InvalidResponseException("Invalid RPC response: length=" + message.limit(), e);
+    }
+  }
 }
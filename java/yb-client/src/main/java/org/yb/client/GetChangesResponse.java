@@ -13,28 +13,112 @@
 
 package org.yb.client;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
 import org.yb.annotations.InterfaceAudience;
 import org.yb.cdc.CdcService;
 import org.yb.cdc.CdcService.GetChangesResponsePB;
 import org.yb.util.Pair;
 
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Response of GetChanges. The records are kept serialized and parsed as they are iterated with
+ * {@link #getRecords()}, so a large response holds one array per record rather than the objects
+ * of all its records, and a record is garbage once the sink is done with it.
+ * {@link #getResp()} gives the whole response, parsing all the records at once and keeping them
+ * along with their serialized copies, so the other fields are read without it, e.g.
+ * {@link #hasError()}.
+ */
 @InterfaceAudience.Public
 public class GetChangesResponse extends YRpcResponse {
+  // Response without the records.
   private final GetChangesResponsePB resp;
+  private final List<ByteString> records;
+  private final int responseSize;
+  private GetChangesResponsePB fullResp;
 
   private byte[] key;
   private int writeId;
 
   GetChangesResponse(long ellapsedMillis, String uuid,
-                     GetChangesResponsePB resp, byte[] key, int writeId) {
+                     GetChangesResponsePB resp, List<ByteString> records, int responseSize,
+                     byte[] key, int writeId) {
     super(ellapsedMillis, uuid);
     this.key = key;
     this.writeId = writeId;
     this.resp = resp;
+    this.records = records;
+    this.responseSize = responseSize;
+  }
+
+  /**
+   * @return the response with all its records parsed, prefer {@link #getRecords()} to iterate
+   * the records of large responses. The parsed response is kept until the response is garbage.
+   */
+  public synchronized GetChangesResponsePB getResp() {
+    if (fullResp == null) {
+      GetChangesResponsePB.Builder builder = resp.toBuilder();
+      for (CdcService.CDCSDKProtoRecordPB record : getRecords()) {
+        builder.addCdcSdkProtoRecords(record);
+      }
+      fullResp = builder.build();
+    }
+    return fullResp;
+  }
+
+  /**
+   * @return the records of the response, each parsed as it is iterated.
+   */
+  public Iterable<CdcService.CDCSDKProtoRecordPB> getRecords() {
+    if (records.isEmpty()) {
+      return resp.getCdcSdkProtoRecordsList();
+    }
+    return () -> new Iterator<CdcService.CDCSDKProtoRecordPB>() {
+      private final Iterator<ByteString> serialized = records.iterator();
+
+      @Override
+      public boolean hasNext() {
+        return serialized.hasNext();
+      }
+
+      @Override
+      public CdcService.CDCSDKProtoRecordPB next() {
+        return parseRecord(serialized.next());
+      }
+    };
+  }
+
+  public boolean hasError() {
+    return resp.hasError();
+  }
+
+  public CdcService.CDCErrorPB getError() {
+    return resp.getError();
+  }
+
+  public int getRecordCount() {
+    return records.isEmpty() ? resp.getCdcSdkProtoRecordsCount() : records.size();
+  }
+
+  /**
+   * @return the serialized size of the response, including the records.
+   */
+  public int getResponseSize() {
+    return responseSize;
   }
 
-  public GetChangesResponsePB getResp() {
-    return resp;
+  private static CdcService.CDCSDKProtoRecordPB parseRecord(ByteString record) {
+    // The record's array is immutable, so the bytes fields of the record share it.
+    CodedInputStream input = record.newCodedInput();
+    input.enableAliasing(true);
+    try {
+      return CdcService.CDCSDKProtoRecordPB.parseFrom(input);
+    } catch (IOException e) {
+      throw new InvalidResponseException("Invalid CDC record: length=" + record.size(), e);
+    }
   }
 
   public byte[] getKey() {
@@ -46,15 +130,15 @@ public class GetChangesResponse extends YRpcResponse {
   }
 
   public long getTerm() {
-    return getResp().getCdcSdkCheckpoint().getTerm();
+    return resp.getCdcSdkCheckpoint().getTerm();
   }
 
   public long getIndex() {
-    return getResp().getCdcSdkCheckpoint().getIndex();
+    return resp.getCdcSdkCheckpoint().getIndex();
   }
 
   public long getSnapshotTime() {
-    return getResp().getCdcSdkCheckpoint().getSnapshotTime();
+    return resp.getCdcSdkCheckpoint().getSnapshotTime();
   }
 
 }
@@ -0,0 +1,56 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.yb.client;
+
+import org.yb.annotations.InterfaceAudience;
+import org.yb.annotations.InterfaceStability;
+
+/**
+ * Compression of the RPC connections to the masters and tablet servers. The client opens each
+ * connection with a header naming the algorithm, and the server then compresses its side of the
+ * connection with the same algorithm, without sending a header back. The servers accept the header
+ * unless started with --enable_stream_compression=false, it is true by default. A server that
+ * doesn't know the algorithm of the header treats the connection as a plain RPC stream and reads
+ * the header as the regular connection header, which it rejects, so the connection fails rather
+ * than falling back to no compression.
+ */
+@InterfaceAudience.Public
+@InterfaceStability.Evolving
+public enum StreamCompression {
+  NONE((byte) 0),
+  GZIP((byte) 'G'),
+  SNAPPY((byte) 'S'),
+  LZ4((byte) 'L');
+
+  // Identifier of the algorithm in the connection header, see src/yb/rpc/compressed_stream.cc.
+  private final byte id;
+
+  StreamCompression(byte id) {
+    this.id = id;
+  }
+
+  byte getId() {
+    return id;
+  }
+
+  public static StreamCompression fromString(String name) {
+    for (StreamCompression compression : values()) {
+      if (compression.name().equalsIgnoreCase(name)) {
+        return compression;
+      }
+    }
+    throw new IllegalArgumentException("Unknown stream compression: " + name);
+  }
+}
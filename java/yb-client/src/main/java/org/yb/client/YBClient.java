@@ -1522,6 +1522,14 @@ public class YBClient implements AutoCloseable {
     return asyncClient.getDefaultAdminOperationTimeoutMs();
   }
 
+  /**
+   * Get the bytes and time spent compressing the connections of this client.
+   * @return the compression stats
+   */
+  public CompressionStats getCompressionStats() {
+    return asyncClient.getCompressionStats();
+  }
+
   /**
    * Builder class to use in order to connect to YB.
    * All the parameters beyond those in the constructors are optional.
@@ -1671,6 +1679,17 @@ public class YBClient implements AutoCloseable {
       return this;
     }
 
+    /**
+     * Sets the compression of the connections to the masters and tablet servers.
+     * Optional.
+     * If not provided, defaults to NONE.
+     * The servers support it unless they run with --enable_stream_compression=false.
+     */
+    public YBClientBuilder streamCompression(StreamCompression compression) {
+      clientBuilder.streamCompression(compression);
+      return this;
+    }
+
     /**
      * Creates a new client that connects to the masters.
      * Doesn't block and won't throw an exception if the masters don't exist.
@@ -0,0 +1,316 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package org.yb.client;
+
+import static org.yb.AssertionWrappers.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.embedder.CodecEmbedderException;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.jboss.netty.handler.codec.embedder.EncoderEmbedder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+@RunWith(value = YBTestRunner.class)
+public class TestCompressedStreamHandler {
+  private static final StreamCompression[] COMPRESSIONS = {
+      StreamCompression.GZIP, StreamCompression.SNAPPY, StreamCompression.LZ4
+  };
+  private static final int MAX_CHUNK_LEN = 0xFFFF;
+
+  private final Random random = new Random(42);
+
+  /**
+   * Client side of a compressed connection, collecting what it sends over the connection.
+   */
+  private static final class Sender {
+    final CompressionStats stats = new CompressionStats();
+    final EncoderEmbedder<ChannelBuffer> embedder;
+    final byte[] header;
+
+    Sender(StreamCompression compression) {
+      embedder = new EncoderEmbedder<>(new CompressedStreamHandler(compression, stats));
+      header = toArray(embedder.poll());
+    }
+
+    byte[] send(byte[] data) {
+      assertTrue(embedder.offer(ChannelBuffers.wrappedBuffer(data)));
+      return toArray(embedder.poll());
+    }
+  }
+
+  /**
+   * Receiving side of a compressed connection, collecting what it decompresses.
+   */
+  private static final class Receiver {
+    final CompressionStats stats = new CompressionStats();
+    final DecoderEmbedder<ChannelBuffer> embedder;
+    final ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+    Receiver(StreamCompression compression) {
+      embedder = new DecoderEmbedder<>(new CompressedStreamHandler(compression, stats));
+      // The header written on connecting, not part of what is received.
+      embedder.poll();
+    }
+
+    void receive(byte[] data, int off, int len) {
+      embedder.offer(ChannelBuffers.wrappedBuffer(data, off, len));
+      ChannelBuffer buf;
+      while ((buf = embedder.poll()) != null) {
+        byte[] bytes = toArray(buf);
+        assertTrue("Empty reads are not passed on", bytes.length > 0);
+        received.write(bytes, 0, bytes.length);
+      }
+    }
+
+    void receive(byte[] data) {
+      receive(data, 0, data.length);
+    }
+  }
+
+  private static byte[] toArray(ChannelBuffer buf) {
+    byte[] bytes = new byte[buf.readableBytes()];
+    buf.readBytes(bytes);
+    return bytes;
+  }
+
+  private static byte[] concat(List<byte[]> arrays) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    arrays.forEach(array -> out.write(array, 0, array.length));
+    return out.toByteArray();
+  }
+
+  private byte[] randomBytes(int len) {
+    byte[] bytes = new byte[len];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+
+  // Text-like data, as RPCs mostly are, that compresses well.
+  private byte[] compressibleBytes(int len) {
+    byte[] bytes = new byte[len];
+    String[] words = {"tablet", "yugabyte", "record", "checkpoint", " ", "0123", "\n"};
+    int off = 0;
+    while (off < len) {
+      byte[] word = words[random.nextInt(words.length)].getBytes();
+      int n = Math.min(word.length, len - off);
+      System.arraycopy(word, 0, bytes, off, n);
+      off += n;
+    }
+    return bytes;
+  }
+
+  private List<byte[]> messages() {
+    // Sizes around the chunk length and the inflate buffer, and well past them.
+    return Arrays.asList(
+        compressibleBytes(100), new byte[] {1}, randomBytes(MAX_CHUNK_LEN - 100),
+        compressibleBytes(300 * 1024), randomBytes(200 * 1024), randomBytes(3),
+        compressibleBytes(64 * 1024));
+  }
+
+  // Lengths of the chunks of a snappy or LZ4 stream.
+  private static List<Integer> chunkLengths(byte[] stream) {
+    List<Integer> lengths = new ArrayList<>();
+    ChannelBuffer buf = ChannelBuffers.wrappedBuffer(stream);
+    while (buf.readable()) {
+      int len = buf.readUnsignedShort();
+      lengths.add(len);
+      buf.skipBytes(len);
+    }
+    return lengths;
+  }
+
+  @Test
+  public void testHeader() {
+    assertArrayEquals(new byte[] {'Y', 'B', 'G'}, new Sender(StreamCompression.GZIP).header);
+    assertArrayEquals(new byte[] {'Y', 'B', 'S'}, new Sender(StreamCompression.SNAPPY).header);
+    assertArrayEquals(new byte[] {'Y', 'B', 'L'}, new Sender(StreamCompression.LZ4).header);
+    try {
+      new CompressedStreamHandler(StreamCompression.NONE, new CompressionStats());
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void testRoundTrip() {
+    for (StreamCompression compression : COMPRESSIONS) {
+      Sender sender = new Sender(compression);
+      Receiver receiver = new Receiver(compression);
+      List<byte[]> messages = messages();
+      long compressedBytes = 0;
+      for (byte[] message : messages) {
+        // Each write is received whole once its compressed bytes are.
+        byte[] compressed = sender.send(message);
+        compressedBytes += compressed.length;
+        receiver.receive(compressed);
+        assertEquals(compression.toString(), message.length, receiver.received.size());
+        assertArrayEquals(compression.toString(), message, receiver.received.toByteArray());
+        receiver.received.reset();
+      }
+
+      long bytes = concat(messages).length;
+      assertEquals(bytes, sender.stats.getBytesSent());
+      assertEquals(compressedBytes, sender.stats.getCompressedBytesSent());
+      assertTrue(compression + " didn't compress: " + sender.stats.getSendRatio(),
+                 sender.stats.getSendRatio() > 1.5);
+      assertEquals(compressedBytes, receiver.stats.getCompressedBytesReceived());
+      assertEquals(bytes, receiver.stats.getBytesReceived());
+    }
+  }
+
+  @Test
+  public void testMultiChunkWrites() {
+    for (StreamCompression compression :
+         new StreamCompression[] {StreamCompression.SNAPPY, StreamCompression.LZ4}) {
+      Sender sender = new Sender(compression);
+      byte[] message = randomBytes(5 * MAX_CHUNK_LEN);
+      byte[] compressed = sender.send(message);
+      // Incompressible data takes more than a chunk per MAX_CHUNK_LEN bytes.
+      List<Integer> lengths = chunkLengths(compressed);
+      assertTrue(compression + " chunks: " + lengths, lengths.size() > 5);
+      for (int len : lengths) {
+        assertTrue(len > 0 && len <= MAX_CHUNK_LEN);
+      }
+
+      Receiver receiver = new Receiver(compression);
+      receiver.receive(compressed);
+      assertArrayEquals(message, receiver.received.toByteArray());
+    }
+  }
+
+  @Test
+  public void testReadsSplitAnywhere() {
+    for (StreamCompression compression : COMPRESSIONS) {
+      Sender sender = new Sender(compression);
+      List<byte[]> messages = Arrays.asList(
+          compressibleBytes(5000), randomBytes(3 * MAX_CHUNK_LEN), compressibleBytes(1),
+          randomBytes(1000));
+      List<byte[]> compressed = new ArrayList<>();
+      messages.forEach(message -> compressed.add(sender.send(message)));
+      byte[] stream = concat(compressed);
+
+      // Reads of random lengths, splitting chunk headers, chunks and writes alike.
+      Receiver receiver = new Receiver(compression);
+      int off = 0;
+      while (off < stream.length) {
+        int len = Math.min(1 + random.nextInt(3000), stream.length - off);
+        receiver.receive(stream, off, len);
+        off += len;
+      }
+      assertArrayEquals(compression.toString(), concat(messages),
+                        receiver.received.toByteArray());
+    }
+  }
+
+  @Test
+  public void testChunkHeaderSplitAcrossReads() {
+    for (StreamCompression compression :
+         new StreamCompression[] {StreamCompression.SNAPPY, StreamCompression.LZ4}) {
+      Sender sender = new Sender(compression);
+      byte[] first = compressibleBytes(1000);
+      byte[] second = compressibleBytes(2000);
+      byte[] firstCompressed = sender.send(first);
+      byte[] secondCompressed = sender.send(second);
+      byte[] stream = concat(Arrays.asList(firstCompressed, secondCompressed));
+
+      Receiver receiver = new Receiver(compression);
+      // First chunk and the first byte of the header of the next one.
+      receiver.receive(stream, 0, firstCompressed.length + 1);
+      assertArrayEquals(first, receiver.received.toByteArray());
+      // Rest of the header only, nothing to decompress yet.
+      receiver.receive(stream, firstCompressed.length + 1, 1);
+      assertEquals(first.length, receiver.received.size());
+      // One byte of the chunk short.
+      receiver.receive(stream, firstCompressed.length + 2, secondCompressed.length - 3);
+      assertEquals(first.length, receiver.received.size());
+      receiver.receive(stream, stream.length - 1, 1);
+      assertArrayEquals(concat(Arrays.asList(first, second)), receiver.received.toByteArray());
+    }
+  }
+
+  @Test
+  public void testPartialInflate() {
+    Sender sender = new Sender(StreamCompression.GZIP);
+    byte[] message = compressibleBytes(500 * 1024);
+    byte[] compressed = sender.send(message);
+    Receiver receiver = new Receiver(StreamCompression.GZIP);
+
+    // Half of the compressed bytes inflate to a prefix of the write.
+    int half = compressed.length / 2;
+    receiver.receive(compressed, 0, half);
+    byte[] prefix = receiver.received.toByteArray();
+    assertTrue(prefix.length > 0 && prefix.length < message.length);
+    assertArrayEquals(Arrays.copyOf(message, prefix.length), prefix);
+
+    // The rest, a byte at a time near the end, where the sync flush marker is.
+    receiver.receive(compressed, half, compressed.length - half - 4);
+    for (int off = compressed.length - 4; off < compressed.length; ++off) {
+      receiver.receive(compressed, off, 1);
+    }
+    assertArrayEquals(message, receiver.received.toByteArray());
+  }
+
+  @Test
+  public void testInflateMoreThanBuffer() {
+    // A write that inflates to far more than the inflate buffer from a few bytes of input.
+    Sender sender = new Sender(StreamCompression.GZIP);
+    byte[] message = new byte[1024 * 1024];
+    byte[] compressed = sender.send(message);
+    assertTrue(compressed.length < 64 * 1024);
+    Receiver receiver = new Receiver(StreamCompression.GZIP);
+    receiver.receive(compressed);
+    assertArrayEquals(message, receiver.received.toByteArray());
+  }
+
+  @Test
+  public void testGzipCompatibleWithZlib() {
+    // The server compresses with zlib, sync flushed after each write.
+    byte[] message = compressibleBytes(10000);
+    Deflater deflater = new Deflater();
+    deflater.setInput(message);
+    byte[] buf = new byte[20000];
+    int len = deflater.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH);
+    Receiver receiver = new Receiver(StreamCompression.GZIP);
+    receiver.receive(buf, 0, len);
+    assertArrayEquals(message, receiver.received.toByteArray());
+  }
+
+  @Test
+  public void testCorruptStream() {
+    for (StreamCompression compression : COMPRESSIONS) {
+      Receiver receiver = new Receiver(compression);
+      byte[] garbage = randomBytes(1000);
+      // A chunk of the whole length, so that it is decompressed.
+      garbage[0] = (byte) 0x03;
+      garbage[1] = (byte) 0xE6;
+      try {
+        receiver.receive(garbage);
+        fail("Expected a failure to decompress " + compression);
+      } catch (CodecEmbedderException e) {
+        // Expected.
+      }
+    }
+  }
+}
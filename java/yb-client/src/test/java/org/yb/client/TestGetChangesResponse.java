@@ -0,0 +1,209 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package org.yb.client;
+
+import static org.yb.AssertionWrappers.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Message;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferOutputStream;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.Value;
+import org.yb.WireProtocol;
+import org.yb.YBTestRunner;
+import org.yb.cdc.CdcService;
+import org.yb.cdc.CdcService.CDCSDKProtoRecordPB;
+import org.yb.cdc.CdcService.GetChangesResponsePB;
+import org.yb.cdc.CdcService.RowMessage;
+import org.yb.rpc.RpcHeader;
+import org.yb.util.Pair;
+
+@RunWith(value = YBTestRunner.class)
+public class TestGetChangesResponse {
+  private static final CdcService.CDCSDKCheckpointPB CHECKPOINT =
+      CdcService.CDCSDKCheckpointPB.newBuilder()
+          .setTerm(2)
+          .setIndex(42)
+          .setKey(ByteString.copyFromUtf8("key"))
+          .setWriteId(3)
+          .setSnapshotTime(7)
+          .build();
+
+  private static CDCSDKProtoRecordPB record(RowMessage.Op op, int key, String value) {
+    RowMessage.Builder row = RowMessage.newBuilder()
+        .setOp(op)
+        .setTable("test")
+        .setCommitTime(1000 + key)
+        .addNewTuple(Value.DatumMessagePB.newBuilder().setColumnName("a").setDatumInt32(key));
+    if (value != null) {
+      row.addNewTuple(Value.DatumMessagePB.newBuilder().setColumnName("b")
+                          .setDatumString(value));
+    }
+    return CDCSDKProtoRecordPB.newBuilder().setRowMessage(row).build();
+  }
+
+  // Frames the serialized response as the server sends it: total length, header, message.
+  private static CallResponse frame(byte[] message) throws Exception {
+    ChannelBuffer buf = ChannelBuffers.dynamicBuffer();
+    buf.writeInt(0);
+    ChannelBufferOutputStream out = new ChannelBufferOutputStream(buf);
+    RpcHeader.ResponseHeader.newBuilder().setCallId(1).build().writeDelimitedTo(out);
+    CodedOutputStream coded = CodedOutputStream.newInstance(out);
+    coded.writeUInt32NoTag(message.length);
+    coded.flush();
+    out.write(message);
+    buf.setInt(0, buf.writerIndex() - 4);
+    return new CallResponse(buf);
+  }
+
+  private static Pair<GetChangesResponse, Object> deserialize(byte[] message) throws Exception {
+    GetChangesRequest request = new GetChangesRequest(
+        null /* table */, "stream", "tablet", 0, 0, new byte[0], 0, 0);
+    return request.deserialize(frame(message), "uuid");
+  }
+
+  private static Pair<GetChangesResponse, Object> deserialize(Message message) throws Exception {
+    return deserialize(message.toByteArray());
+  }
+
+  private static List<CDCSDKProtoRecordPB> toList(Iterable<CDCSDKProtoRecordPB> records) {
+    List<CDCSDKProtoRecordPB> list = new ArrayList<>();
+    records.forEach(list::add);
+    return list;
+  }
+
+  @Test
+  public void testRecords() throws Exception {
+    List<CDCSDKProtoRecordPB> records = Arrays.asList(
+        CDCSDKProtoRecordPB.newBuilder().setRowMessage(
+            RowMessage.newBuilder().setOp(RowMessage.Op.BEGIN)).build(),
+        record(RowMessage.Op.INSERT, 1, "one"),
+        record(RowMessage.Op.UPDATE, 2, "two"),
+        record(RowMessage.Op.DELETE, 3, null),
+        // A record of only default values is serialized empty.
+        CDCSDKProtoRecordPB.getDefaultInstance(),
+        CDCSDKProtoRecordPB.newBuilder().setRowMessage(
+            RowMessage.newBuilder().setOp(RowMessage.Op.COMMIT)).build());
+    GetChangesResponsePB expected = GetChangesResponsePB.newBuilder()
+        .addAllCdcSdkProtoRecords(records)
+        .setCdcSdkCheckpoint(CHECKPOINT)
+        .setSafeHybridTime(12345)
+        .build();
+
+    Pair<GetChangesResponse, Object> result = deserialize(expected);
+    GetChangesResponse response = result.getFirst();
+    assertNull(result.getSecond());
+    assertFalse(response.hasError());
+    assertEquals(expected.getSerializedSize(), response.getResponseSize());
+    assertEquals(records.size(), response.getRecordCount());
+    // Records are parsed as they are iterated, every time.
+    assertEquals(records, toList(response.getRecords()));
+    assertEquals(records, toList(response.getRecords()));
+
+    assertEquals(2L, response.getTerm());
+    assertEquals(42L, response.getIndex());
+    assertArrayEquals("key".getBytes(), response.getKey());
+    assertEquals(3, response.getWriteId());
+    assertEquals(7L, response.getSnapshotTime());
+
+    assertEquals(expected, response.getResp());
+    assertSame(response.getResp(), response.getResp());
+  }
+
+  @Test
+  public void testFieldsAfterRecords() throws Exception {
+    // Fields may come in any order, a message is the concatenation of its parts.
+    GetChangesResponsePB first = GetChangesResponsePB.newBuilder()
+        .addCdcSdkProtoRecords(record(RowMessage.Op.INSERT, 1, "one"))
+        .build();
+    GetChangesResponsePB checkpoint = GetChangesResponsePB.newBuilder()
+        .setCdcSdkCheckpoint(CHECKPOINT)
+        .build();
+    GetChangesResponsePB second = GetChangesResponsePB.newBuilder()
+        .addCdcSdkProtoRecords(record(RowMessage.Op.INSERT, 2, "two"))
+        .build();
+    ByteString message = first.toByteString().concat(checkpoint.toByteString())
+        .concat(second.toByteString());
+
+    GetChangesResponse response = deserialize(message.toByteArray()).getFirst();
+    assertEquals(message.size(), response.getResponseSize());
+    assertEquals(Arrays.asList(first.getCdcSdkProtoRecords(0), second.getCdcSdkProtoRecords(0)),
+                 toList(response.getRecords()));
+    assertEquals(42L, response.getIndex());
+    assertEquals(GetChangesResponsePB.parseFrom(message), response.getResp());
+  }
+
+  @Test
+  public void testError() throws Exception {
+    CdcService.CDCErrorPB error = CdcService.CDCErrorPB.newBuilder()
+        .setCode(CdcService.CDCErrorPB.Code.TABLET_NOT_FOUND)
+        .setStatus(WireProtocol.AppStatusPB.newBuilder()
+                       .setCode(WireProtocol.AppStatusPB.ErrorCode.NOT_FOUND)
+                       .setMessage("Tablet not found"))
+        .build();
+    GetChangesResponsePB expected = GetChangesResponsePB.newBuilder().setError(error).build();
+
+    Pair<GetChangesResponse, Object> result = deserialize(expected);
+    GetChangesResponse response = result.getFirst();
+    // The error is passed on for the RPC to fail with it.
+    assertEquals(error, result.getSecond());
+    assertTrue(response.hasError());
+    assertEquals(error, response.getError());
+    assertEquals(0, response.getRecordCount());
+    assertTrue(toList(response.getRecords()).isEmpty());
+    assertEquals(expected, response.getResp());
+  }
+
+  @Test
+  public void testErrorWithRecords() throws Exception {
+    CdcService.CDCErrorPB error = CdcService.CDCErrorPB.newBuilder()
+        .setCode(CdcService.CDCErrorPB.Code.INTERNAL_ERROR)
+        .build();
+    GetChangesResponsePB expected = GetChangesResponsePB.newBuilder()
+        .setError(error)
+        .addCdcSdkProtoRecords(record(RowMessage.Op.INSERT, 1, "one"))
+        .addCdcSdkProtoRecords(record(RowMessage.Op.INSERT, 2, "two"))
+        .setCdcSdkCheckpoint(CHECKPOINT)
+        .build();
+
+    Pair<GetChangesResponse, Object> result = deserialize(expected);
+    GetChangesResponse response = result.getFirst();
+    assertEquals(error, result.getSecond());
+    assertTrue(response.hasError());
+    assertEquals(CdcService.CDCErrorPB.Code.INTERNAL_ERROR, response.getError().getCode());
+    assertEquals(2, response.getRecordCount());
+    assertEquals(expected.getCdcSdkProtoRecordsList(), toList(response.getRecords()));
+    assertEquals(expected, response.getResp());
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    Pair<GetChangesResponse, Object> result = deserialize(new byte[0]);
+    GetChangesResponse response = result.getFirst();
+    assertNull(result.getSecond());
+    assertFalse(response.hasError());
+    assertEquals(0, response.getResponseSize());
+    assertEquals(0, response.getRecordCount());
+    assertEquals(0L, response.getTerm());
+    assertEquals(GetChangesResponsePB.getDefaultInstance(), response.getResp());
+  }
+}
@@ -0,0 +1,93 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package org.yb.client;
+
+import static org.yb.AssertionWrappers.*;
+
+import com.google.common.net.HostAndPort;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yb.YBTestRunner;
+
+/**
+ * Connects to the masters and tablet servers of the mini cluster with each stream compression.
+ */
+@RunWith(value = YBTestRunner.class)
+public class TestStreamCompression extends BaseYBClientTest {
+  private static final Logger LOG = LoggerFactory.getLogger(TestStreamCompression.class);
+
+  private void checkCompressedConnections(StreamCompression compression) throws Exception {
+    LOG.info("Connecting with " + compression + " compression");
+    AsyncYBClient compressedClient = new AsyncYBClient.AsyncYBClientBuilder(masterAddresses)
+        .defaultAdminOperationTimeoutMs(DEFAULT_SLEEP)
+        .defaultOperationTimeoutMs(DEFAULT_SLEEP)
+        .defaultSocketReadTimeoutMs(DEFAULT_SLEEP)
+        .streamCompression(compression)
+        .build();
+    try {
+      YBClient compressedSyncClient = new YBClient(compressedClient);
+      assertEquals(compression, compressedClient.getStreamCompression());
+
+      // Requests to the master.
+      assertEquals(miniCluster.getTabletServers().size(),
+                   compressedSyncClient.listTabletServers().getTabletServersCount());
+      String tableName = "test_" + compression.name().toLowerCase();
+      compressedSyncClient.createTable(DEFAULT_KEYSPACE_NAME, tableName, basicSchema);
+      assertTrue(compressedSyncClient.getTablesList(tableName).getTablesList()
+                     .contains(tableName));
+
+      // Requests to the tablet servers.
+      for (HostAndPort tserver : miniCluster.getTabletServers().keySet()) {
+        assertFalse(compressedSyncClient.isServerReady(tserver, true /* isTserver */)
+                        .hasError());
+      }
+
+      // Both sides of the connections were compressed.
+      CompressionStats stats = compressedClient.getCompressionStats();
+      LOG.info(compression + " compression: " + stats);
+      assertTrue(stats.getBytesSent() > 0);
+      assertTrue(stats.getCompressedBytesSent() > 0);
+      assertTrue(stats.getBytesReceived() > 0);
+      assertTrue(stats.getCompressedBytesReceived() > 0);
+    } finally {
+      compressedClient.shutdown();
+    }
+  }
+
+  @Test(timeout = 120000)
+  public void testGzip() throws Exception {
+    checkCompressedConnections(StreamCompression.GZIP);
+  }
+
+  @Test(timeout = 120000)
+  public void testSnappy() throws Exception {
+    checkCompressedConnections(StreamCompression.SNAPPY);
+  }
+
+  @Test(timeout = 120000)
+  public void testLZ4() throws Exception {
+    checkCompressedConnections(StreamCompression.LZ4);
+  }
+
+  @Test(timeout = 60000)
+  public void testUncompressedStats() throws Exception {
+    // The shared client of the test doesn't compress, so its stats stay at zero.
+    syncClient.listTabletServers();
+    assertEquals(StreamCompression.NONE, client.getStreamCompression());
+    assertEquals(0L, client.getCompressionStats().getBytesSent());
+    assertEquals(0L, client.getCompressionStats().getBytesReceived());
+  }
+}
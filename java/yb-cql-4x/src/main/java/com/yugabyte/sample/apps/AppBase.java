@@ -14,6 +14,7 @@
 package com.yugabyte.sample.apps;
 
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
@@ -28,8 +29,9 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
@@ -45,6 +47,8 @@ import com.datastax.oss.driver.api.core.AllNodesFailedException;
 import com.datastax.oss.driver.api.core.ConsistencyLevel;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.CqlSessionBuilder;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfigLoader;
 import com.datastax.oss.driver.api.core.cql.SimpleStatement;
 import com.datastax.oss.driver.api.core.loadbalancing.LoadBalancingPolicy;
 import com.datastax.oss.driver.api.core.metadata.EndPoint;
@@ -55,6 +59,7 @@ import com.datastax.oss.driver.internal.core.retry.DefaultRetryPolicy;
 
 import com.yugabyte.sample.common.CmdLineOpts;
 import com.yugabyte.sample.common.CmdLineOpts.ContactPoint;
+import com.yugabyte.sample.common.KeyDistribution;
 import com.yugabyte.sample.common.SimpleLoadGenerator;
 import com.yugabyte.sample.common.SimpleLoadGenerator.Key;
 import com.yugabyte.sample.common.metrics.MetricsTracker;
@@ -78,6 +83,9 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
   // Number of uniques keys to insert by default.
   public static final int NUM_UNIQUE_KEYS = 1000000;
 
+  // Max number of requests in flight on a CQL connection, limited by the protocol stream ids.
+  private static final int MAX_REQUESTS_PER_CONNECTION = 32768;
+
   // Variable to track start time of the workload.
   private long workloadStartTime = -1;
   // Instance of the workload configuration.
@@ -263,6 +271,16 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
       cqlSessionBldr = cqlSessionBldr.withLocalDatacenter("datacenter1");
       LOG.info("specifying datacenter1");
     }
+    if (appConfig.maxInFlightOpsPerThread > 0 && supportsAsyncOps()) {
+      // Async IO threads keep many requests in flight, so open several connections per host
+      // and allow each of them as many concurrent requests as the protocol does.
+      cqlSessionBldr = cqlSessionBldr.withConfigLoader(
+          DriverConfigLoader.programmaticBuilder()
+              .withInt(DefaultDriverOption.CONNECTION_POOL_LOCAL_SIZE,
+                       appConfig.concurrentClients)
+              .withInt(DefaultDriverOption.CONNECTION_MAX_REQUESTS, MAX_REQUESTS_PER_CONNECTION)
+              .build());
+    }
     LOG.info("Connecting with " + appConfig.concurrentClients + " clients to nodes: ");
     if (withKeyspace) {
       cassandra_session = cqlSessionBldr.withKeyspace(keyspace).build();
@@ -327,9 +345,7 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
     cassandra_session = null;
   }
 
-  Random random = new Random();
   byte[] buffer;
-  Checksum checksum = new Adler32();
 
   // For binary values we store checksum in bytes.
   static final int CHECKSUM_SIZE = 4;
@@ -340,6 +356,20 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
   static final int VALUE_SIZE_TO_USE_PREFIX = 16;
   static final byte ASCII_MARKER = (byte) 'A';
   static final byte BINARY_MARKER = (byte) 'B';
+  private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes();
+
+  /**
+   * State used to generate and verify values. Each IO thread has its own instance, so threads
+   * neither contend on a shared random generator or checksum, nor allocate per operation.
+   */
+  private static final class ValueGenerator {
+    final SplittableRandom random = new SplittableRandom();
+    final Checksum checksum = new Adler32();
+    final byte[] keyValueBytes = new byte[Key.MAX_VALUE_STR_LENGTH];
+  }
+
+  private static final ThreadLocal<ValueGenerator> valueGenerator =
+      ThreadLocal.withInitial(ValueGenerator::new);
 
   /////////////////  Helper functions to create or verify a value of given size. ////////////////
   private static boolean isUseChecksum(int valueSize, int checksumSize) {
@@ -361,11 +391,18 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
   }
 
   protected void getRandomValue(Key key, int valueSize, byte[] outBuffer) {
-    final byte[] keyValueBytes = key.getValueStr().getBytes();
-    getRandomValue(keyValueBytes, valueSize, outBuffer);
+    final ValueGenerator generator = valueGenerator.get();
+    final int keyValueSize = key.getValueBytes(generator.keyValueBytes);
+    getRandomValue(generator, generator.keyValueBytes, keyValueSize, valueSize, outBuffer);
   }
 
   protected void getRandomValue(byte[] keyValueBytes, int valueSize, byte[] outBuffer) {
+    getRandomValue(valueGenerator.get(), keyValueBytes, keyValueBytes.length, valueSize,
+                   outBuffer);
+  }
+
+  private static void getRandomValue(ValueGenerator generator, byte[] keyValueBytes,
+                                     int keyValueSize, int valueSize, byte[] outBuffer) {
     outBuffer[0] = appConfig.restrictValuesToAscii ? ASCII_MARKER : BINARY_MARKER;
     final int checksumSize = appConfig.restrictValuesToAscii ? CHECKSUM_ASCII_SIZE : CHECKSUM_SIZE;
     final boolean isUseChecksum = isUseChecksum(valueSize, checksumSize);
@@ -376,43 +413,45 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
       // Beginning of value is not random, but has format "<MARKER><PREFIX>", where prefix is
       // "val: $key" (or part of it in case small value size). This is needed to verify expected
       // value during read.
-      final int prefixSize = Math.min(contentSize - 1 /* marker */, keyValueBytes.length);
+      final int prefixSize = Math.min(contentSize - 1 /* marker */, keyValueSize);
       System.arraycopy(keyValueBytes, 0, outBuffer, 1, prefixSize);
       i += prefixSize;
     }
 
     // Generate randomly the rest of payload leaving space for checksum.
+    final SplittableRandom random = generator.random;
     if (appConfig.restrictValuesToAscii) {
       final int ASCII_START = 32;
       final int ASCII_RANGE_SIZE = 95;
+      // 95^9 < 2^63, so one non-negative random long gives 9 characters.
+      final int ASCII_CHARS_PER_LONG = 9;
       while (i < contentSize) {
-        long r = (long) (random.nextInt() & 0xffffffff);
-        // Hack to minimize number of calls to random.nextInt() in order to reduce CPU load.
-        // This makes distribution non-uniform, but should be OK for load tests.
-        for (int n = Math.min(Integer.BYTES, contentSize - i); n > 0;
-          r /= ASCII_RANGE_SIZE, n--) {
+        long r = random.nextLong() >>> 1;
+        // This makes distribution slightly non-uniform, but should be OK for load tests.
+        for (int n = Math.min(ASCII_CHARS_PER_LONG, contentSize - i); n > 0;
+             r /= ASCII_RANGE_SIZE, n--) {
           outBuffer[i++] = (byte) (ASCII_START + r % ASCII_RANGE_SIZE);
         }
       }
     } else {
       while (i < contentSize) {
-        for (int r = random.nextInt(), n = Math.min(Integer.BYTES, contentSize - i); n > 0;
-             r >>= Byte.SIZE, n--)
-            outBuffer[i++] = (byte) r;
+        long r = random.nextLong();
+        for (int n = Math.min(Long.BYTES, contentSize - i); n > 0; r >>= Byte.SIZE, n--) {
+          outBuffer[i++] = (byte) r;
+        }
       }
     }
 
     if (isUseChecksum) {
+      final Checksum checksum = generator.checksum;
       checksum.reset();
       checksum.update(outBuffer, 0, contentSize);
       long cs = checksum.getValue();
       if (appConfig.restrictValuesToAscii) {
-        String csHexStr = Long.toHexString(cs);
-        // Prepend zeros
-        while (i < valueSize - csHexStr.length()) {
-          outBuffer[i++] = (byte) '0';
+        // Zero padded lowercase hex string, same as Long.toHexString() with prepended zeros.
+        for (int j = valueSize - 1; j >= contentSize; --j, cs >>>= 4) {
+          outBuffer[j] = HEX_DIGITS[(int) (cs & 0xf)];
         }
-        System.arraycopy(csHexStr.getBytes(), 0, outBuffer, i, csHexStr.length());
       } else {
         while (i < valueSize) {
           outBuffer[i++] = (byte) cs;
@@ -423,32 +462,42 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
   }
 
   protected boolean verifyRandomValue(Key key, byte[] value) {
+    final ValueGenerator generator = valueGenerator.get();
     final boolean isAscii = value[0] == ASCII_MARKER;
     final int checksumSize = isAscii ? CHECKSUM_ASCII_SIZE : CHECKSUM_SIZE;
     final boolean hasChecksum = isUseChecksum(value.length, checksumSize);
     if (isUsePrefix(value.length)) {
-      final String keyValueStr = key.getValueStr();
-      final int prefixSize = Math.min(keyValueStr.length(), value.length -
+      final byte[] keyValueBytes = generator.keyValueBytes;
+      final int keyValueSize = key.getValueBytes(keyValueBytes);
+      final int prefixSize = Math.min(keyValueSize, value.length -
                              (hasChecksum ? checksumSize : 0) - 1 /* marker */);
-      final String prefix = new String(value, 1, prefixSize);
       // Check prefix.
-      if (!prefix.equals(keyValueStr.substring(0, prefixSize))) {
-        LOG.fatal("Value mismatch for key: " + key.toString() +
-                  ", expected to start with: " + keyValueStr +
-                  ", got: " + prefix);
-        return false;
+      for (int i = 0; i < prefixSize; ++i) {
+        if (value[i + 1] != keyValueBytes[i]) {
+          LOG.fatal("Value mismatch for key: " + key.toString() +
+                    ", expected to start with: " + key.getValueStr() +
+                    ", got: " + new String(value, 1, prefixSize));
+          return false;
+        }
       }
     }
     if (hasChecksum) {
       // Verify checksum.
+      final Checksum checksum = generator.checksum;
       checksum.reset();
       checksum.update(value, 0, value.length - checksumSize);
-      long expectedCs;
+      long expectedCs = 0;
       if (isAscii) {
-        String csHexStr = new String(value, value.length - checksumSize, checksumSize);
-        expectedCs = Long.parseUnsignedLong(csHexStr, 16);
+        for (int i = value.length - checksumSize; i < value.length; ++i) {
+          final int digit = Character.digit(value[i], 16);
+          if (digit < 0) {
+            LOG.fatal("Value mismatch for key: " + key.toString() + ", invalid checksum: " +
+                      new String(value, value.length - checksumSize, checksumSize));
+            return false;
+          }
+          expectedCs = (expectedCs << 4) | digit;
+        }
       } else {
-        expectedCs = 0;
         for (int i = value.length - 1; i >= value.length - checksumSize; --i) {
           expectedCs <<= Byte.SIZE;
           expectedCs |= (value[i] & 0xFF);
@@ -535,6 +584,34 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
    */
   public long doWrite(int threadIdx) { return 0; }
 
+  /**
+   * Apps which implement doReadAsync() and doWriteAsync() without blocking return true. IO
+   * threads keep several operations in flight only for such apps, other apps run synchronously.
+   * @return true if the app supports async operations.
+   */
+  public boolean supportsAsyncOps() { return false; }
+
+  /**
+   * Async version of doRead(), called instead of it when IO threads keep several operations in
+   * flight. Must not block, only called if supportsAsyncOps() is true.
+   * @return future number of reads done.
+   */
+  public CompletionStage<Long> doReadAsync() {
+    throw new UnsupportedOperationException(getClass().getSimpleName() +
+                                            " does not support async reads");
+  }
+
+  /**
+   * Async version of doWrite(int), called instead of it when IO threads keep several operations
+   * in flight. Must not block, only called if supportsAsyncOps() is true.
+   * @return future number of writes done.
+   * @param threadIdx index of thread that invoked this write.
+   */
+  public CompletionStage<Long> doWriteAsync(int threadIdx) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() +
+                                            " does not support async writes");
+  }
+
   /**
    * This call should implement the main logic in non-OLTP apps. Not called for OLTP apps.
    */
@@ -604,14 +681,27 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
     initMetricsTracker();
   }
 
-  private synchronized void initMetricsTracker() {
-    if (metricsTracker == null) {
-      metricsTracker = new MetricsTracker();
-      if (appConfig.appType == AppConfig.Type.OLTP) {
-        metricsTracker.createMetric(MetricName.Read);
-        metricsTracker.createMetric(MetricName.Write);
-        metricsTracker.registerStatusMessageAppender(this);
-        metricsTracker.start();
+  private void initMetricsTracker() {
+    // The tracker is shared by all the apps, and is stopped by the main instance of the app.
+    synchronized (AppBase.class) {
+      if (metricsTracker == null) {
+        metricsTracker = new MetricsTracker();
+        if (appConfig.appType == AppConfig.Type.OLTP) {
+          metricsTracker.createMetric(MetricName.Read);
+          metricsTracker.createMetric(MetricName.Write);
+          metricsTracker.registerStatusMessageAppender(this);
+          try {
+            if (appConfig.resultsFile != null) {
+              metricsTracker.writeResultsTo(appConfig.resultsFile);
+            }
+            if (appConfig.prometheusMetricsPort > 0) {
+              metricsTracker.startPrometheusEndpoint(appConfig.prometheusMetricsPort);
+            }
+          } catch (IOException e) {
+            throw new RuntimeException("Failed to set up metrics reporting", e);
+          }
+          metricsTracker.start();
+        }
       }
     }
   }
@@ -671,8 +761,7 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
    */
   public void performWrite(int threadIdx) {
     // If we have written enough keys we are done.
-    if (appConfig.numKeysToWrite >= 0 && numKeysWritten.get() >= appConfig.numKeysToWrite
-        || isOutOfTime()) {
+    if (isWriteFinished()) {
       hasFinished.set(true);
       return;
     }
@@ -680,10 +769,38 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
     long startTs = System.nanoTime();
     long count = doWrite(threadIdx);
     long endTs = System.nanoTime();
+    trackWrites(count, endTs - startTs);
+  }
+
+  /**
+   * Same as performWrite(int), but doesn't wait for the write to complete. The number of written
+   * keys may exceed the requested one by the number of writes in flight.
+   * @param threadIdx index of thread that invoked this write.
+   * @return future completed once the write is done and tracked, null if the workload finished.
+   */
+  public CompletionStage<Long> performWriteAsync(int threadIdx) {
+    if (isWriteFinished()) {
+      hasFinished.set(true);
+      return null;
+    }
+    long startTs = System.nanoTime();
+    return doWriteAsync(threadIdx).whenComplete((count, error) -> {
+      if (error == null) {
+        trackWrites(count, System.nanoTime() - startTs);
+      }
+    });
+  }
+
+  private boolean isWriteFinished() {
+    return appConfig.numKeysToWrite >= 0 && numKeysWritten.get() >= appConfig.numKeysToWrite
+        || isOutOfTime();
+  }
+
+  private void trackWrites(long count, long latencyNanos) {
     if (count > 0) {
       numKeysWritten.addAndGet(count);
       if (metricsTracker != null) {
-        metricsTracker.getMetric(MetricName.Write).accumulate(count, endTs - startTs);
+        metricsTracker.getMetric(MetricName.Write).accumulate(count, latencyNanos);
       }
     }
   }
@@ -696,8 +813,7 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
   public void performRead() {
 
     // If we have read enough keys we are done.
-    if (appConfig.numKeysToRead >= 0 && numKeysRead.get() >= appConfig.numKeysToRead
-        || isOutOfTime()) {
+    if (isReadFinished()) {
       hasFinished.set(true);
       return;
     }
@@ -705,10 +821,37 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
     long startTs = System.nanoTime();
     long count = doRead();
     long endTs = System.nanoTime();
+    trackReads(count, endTs - startTs);
+  }
+
+  /**
+   * Same as performRead(), but doesn't wait for the read to complete. The number of read keys may
+   * exceed the requested one by the number of reads in flight.
+   * @return future completed once the read is done and tracked, null if the workload finished.
+   */
+  public CompletionStage<Long> performReadAsync() {
+    if (isReadFinished()) {
+      hasFinished.set(true);
+      return null;
+    }
+    long startTs = System.nanoTime();
+    return doReadAsync().whenComplete((count, error) -> {
+      if (error == null) {
+        trackReads(count, System.nanoTime() - startTs);
+      }
+    });
+  }
+
+  private boolean isReadFinished() {
+    return appConfig.numKeysToRead >= 0 && numKeysRead.get() >= appConfig.numKeysToRead
+        || isOutOfTime();
+  }
+
+  private void trackReads(long count, long latencyNanos) {
     if (count > 0) {
       numKeysRead.addAndGet(count);
       if (metricsTracker != null) {
-        metricsTracker.getMetric(MetricName.Read).accumulate(count, endTs - startTs);
+        metricsTracker.getMetric(MetricName.Read).accumulate(count, latencyNanos);
       }
     }
   }
@@ -735,6 +878,17 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
     if (jedisClient != null) {
       jedisClient.close();
     }
+    // Reports the last interval and frees the metrics port for the apps started after this one.
+    if (mainInstance) {
+      stopMetricsTracker();
+    }
+  }
+
+  private static synchronized void stopMetricsTracker() {
+    if (metricsTracker != null) {
+      metricsTracker.close();
+      metricsTracker = null;
+    }
   }
 
   public SimpleLoadGenerator getSimpleLoadGenerator() {
@@ -743,7 +897,8 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
         if (simpleLoadGenerator == null) {
           simpleLoadGenerator = new SimpleLoadGenerator(0,
               appConfig.numUniqueKeysToWrite,
-              appConfig.maxWrittenKey);
+              appConfig.maxWrittenKey,
+              KeyDistribution.create(appConfig, appConfig.numUniqueKeysToWrite));
         }
       }
     }
@@ -14,6 +14,7 @@
 package com.yugabyte.sample.apps;
 
 import com.yugabyte.sample.apps.AppBase.TableOp;
+import com.yugabyte.sample.common.KeyDistribution;
 
 /**
  * This class encapsulates the various configuration parameters for the various apps.
@@ -80,6 +81,15 @@ public class AppConfig {
   public double valueSizeZipfExponent = 0;
   public int maxValueSize = 64 * 1024; // 64K
 
+  // Distribution of the keys picked for reads and for updates of the written keys.
+  public KeyDistribution.Type keyDistribution = KeyDistribution.Type.Uniform;
+  // Zipfian constant of the Zipfian and Latest key distributions, in (0, 1).
+  public double keyZipfConstant = 0.99;
+  // Fraction of the keys that gets hotspotOpsFraction of the operations in the Hotspot
+  // key distribution.
+  public double hotspotKeysFraction = 0.2;
+  public double hotspotOpsFraction = 0.8;
+
   // Maximum written key in case we reuse existing table.
   public long maxWrittenKey = -1;
 
@@ -92,6 +102,10 @@ public class AppConfig {
   // Batch size for apps that support batching.
   public int batchSize = 1;
 
+  // Max number of async operations each IO thread keeps in flight, for apps that support async
+  // operations. Operations are done synchronously, one at a time per thread, if this value is 0.
+  public int maxInFlightOpsPerThread = 0;
+
   // Batch size to read for Cassandra batch timeseries app.
   public int cassandraReadBatchSize = 1;
 
@@ -116,6 +130,12 @@ public class AppConfig {
   // Print all exceptions on the client instead of sampling.
   public boolean printAllExceptions = false;
 
+  // File to write the results of every metrics interval to as JSON lines, not written if null.
+  public String resultsFile = null;
+
+  // Port to serve the metrics in Prometheus format on, not served if 0.
+  public int prometheusMetricsPort = 0;
+
   // Name of the table to create or drop. When set, used along with shouldDropTable to detect
   // the operation against the table name. If not provided on command line, defaults to the apps
   // default chosen table name.
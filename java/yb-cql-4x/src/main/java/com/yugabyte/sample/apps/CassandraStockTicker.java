@@ -17,12 +17,19 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.log4j.Logger;
 
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
@@ -65,6 +72,14 @@ public class CassandraStockTicker extends AppBase {
   private static volatile PreparedStatement preparedInsertMin;
   // Lock for initializing prepared statement objects.
   private static final Object prepareInitLock = new Object();
+  // Completes the async writes which have nothing to write after a delay, instead of sleeping in
+  // the IO thread.
+  private static final ScheduledExecutorService idleWriteTimer =
+      Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stock-ticker-idle-write-timer");
+        thread.setDaemon(true);
+        return thread;
+      });
 
   @Override
   public void initialize(CmdLineOpts configuration) {
@@ -176,6 +191,29 @@ public class CassandraStockTicker extends AppBase {
     return 1;
   }
 
+  @Override
+  public boolean supportsAsyncOps() {
+    return true;
+  }
+
+  @Override
+  public CompletionStage<Long> doReadAsync() {
+    // Pick a random data source.
+    TickerInfo dataSource = tickers.get(random.nextInt(tickers.size()));
+    // Make sure it has emitted data, otherwise there is nothing to read.
+    if (!dataSource.getHasEmittedData()) {
+      return CompletableFuture.completedFuture(0L);
+    }
+
+    // Bound statements are routed to the replicas of the ticker by the driver.
+    BoundStatement select = getPreparedSelectLatest().bind(dataSource.getTickerId());
+    return getCassandraClient().executeAsync(select).thenApply(rs -> {
+      // The query has LIMIT 1, so all the rows are in the first page.
+      num_rows_read.addAndGet(rs.remaining());
+      return 1L;
+    });
+  }
+
   private PreparedStatement getPreparedInsertRaw()  {
     if (preparedInsertRaw == null) {
       synchronized (prepareInitLock) {
@@ -260,6 +298,40 @@ public class CassandraStockTicker extends AppBase {
     return numKeysWritten;
   }
 
+  @Override
+  public CompletionStage<Long> doWriteAsync(int threadIdx) {
+    // Pick a random data source.
+    TickerInfo dataSource = tickers.get(random.nextInt(tickers.size()));
+    final long ts = dataSource.getDataEmitTs();
+    // If we have nothing to write, we're done. The operation stays in flight for the same time
+    // the synchronous write sleeps, so that the IO thread doesn't spin.
+    if (ts == -1) {
+      CompletableFuture<Long> noWrite = new CompletableFuture<>();
+      idleWriteTimer.schedule(() -> noWrite.complete(0L), 100 /* millisecs */,
+                              TimeUnit.MILLISECONDS);
+      return noWrite;
+    }
+    String value = String.format("value-%s", ts);
+    CqlSession session = getCassandraClient();
+
+    // Insert the row.
+    BoundStatement insertRaw =
+        getPreparedInsertRaw().bind(dataSource.getTickerId(), new Date(ts), value);
+    CompletionStage<Long> rawWritten = session.executeAsync(insertRaw).thenApply(rs -> {
+      dataSource.setLastEmittedTs(ts);
+      return 1L;
+    });
+
+    // With some probability, insert into the minutely table, in parallel with the raw insert.
+    if (random.nextInt(60000) < data_emit_rate_millis) {
+      BoundStatement insertMin =
+          getPreparedInsertMin().bind(dataSource.getTickerId(), new Date(ts), value);
+      CompletionStage<AsyncResultSet> minWritten = session.executeAsync(insertMin);
+      return rawWritten.thenCombine(minWritten, (numRawWritten, rs) -> numRawWritten + 1);
+    }
+    return rawWritten;
+  }
+
   @Override
   public void appendMessage(StringBuilder sb) {
     super.appendMessage(sb);
@@ -319,6 +391,7 @@ public class CassandraStockTicker extends AppBase {
     return Arrays.asList(
       "--num_threads_read " + appConfig.numReaderThreads,
       "--num_threads_write " + appConfig.numWriterThreads,
+      "--max_in_flight_ops " + appConfig.maxInFlightOpsPerThread,
       "--num_ticker_symbols " + num_ticker_symbols,
       "--data_emit_rate_millis " + data_emit_rate_millis,
       "--table_ttl_seconds " + appConfig.tableTTLSeconds);
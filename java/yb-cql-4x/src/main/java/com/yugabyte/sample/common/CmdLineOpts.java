@@ -185,6 +185,15 @@ public class CmdLineOpts {
       }
       AppBase.appConfig.dbPassword = commandLine.getOptionValue("password");
     }
+    if (commandLine.hasOption("max_in_flight_ops")) {
+      AppBase.appConfig.maxInFlightOpsPerThread =
+          Integer.parseInt(commandLine.getOptionValue("max_in_flight_ops"));
+      if (AppBase.appConfig.maxInFlightOpsPerThread < 0) {
+        LOG.error("--max_in_flight_ops cannot be negative");
+        System.exit(1);
+      }
+      LOG.info("Max in flight ops per thread: " + AppBase.appConfig.maxInFlightOpsPerThread);
+    }
     if (commandLine.hasOption("concurrent_clients")) {
       AppBase.appConfig.concurrentClients = Integer.parseInt(
           commandLine.getOptionValue("concurrent_clients"));
@@ -325,6 +334,40 @@ public class CmdLineOpts {
     }
     AppBase.appConfig.maxWrittenKey = Long.parseLong(cmd.getOptionValue("max_written_key",
         String.valueOf(AppBase.appConfig.maxWrittenKey)));
+    if (cmd.hasOption("key_distribution")) {
+      try {
+        AppBase.appConfig.keyDistribution =
+            KeyDistribution.Type.fromString(cmd.getOptionValue("key_distribution"));
+      } catch (IllegalArgumentException e) {
+        LOG.error("--key_distribution should be one of " +
+                  Arrays.toString(KeyDistribution.Type.values()).toLowerCase());
+        System.exit(1);
+      }
+    }
+    if (cmd.hasOption("key_zipf_constant")) {
+      AppBase.appConfig.keyZipfConstant =
+          Double.parseDouble(cmd.getOptionValue("key_zipf_constant"));
+      if (AppBase.appConfig.keyZipfConstant <= 0 || AppBase.appConfig.keyZipfConstant >= 1) {
+        LOG.error("--key_zipf_constant should be in (0, 1)");
+        System.exit(1);
+      }
+    }
+    if (cmd.hasOption("hotspot_keys_fraction")) {
+      AppBase.appConfig.hotspotKeysFraction =
+          Double.parseDouble(cmd.getOptionValue("hotspot_keys_fraction"));
+    }
+    if (cmd.hasOption("hotspot_ops_fraction")) {
+      AppBase.appConfig.hotspotOpsFraction =
+          Double.parseDouble(cmd.getOptionValue("hotspot_ops_fraction"));
+    }
+    if (AppBase.appConfig.hotspotKeysFraction <= 0 || AppBase.appConfig.hotspotKeysFraction > 1) {
+      LOG.error("--hotspot_keys_fraction should be in (0, 1]");
+      System.exit(1);
+    }
+    if (AppBase.appConfig.hotspotOpsFraction < 0 || AppBase.appConfig.hotspotOpsFraction > 1) {
+      LOG.error("--hotspot_ops_fraction should be in [0, 1]");
+      System.exit(1);
+    }
     if (cmd.hasOption("value_size")) {
       AppBase.appConfig.valueSize = Integer.parseInt(cmd.getOptionValue("value_size"));
     }
@@ -356,6 +399,13 @@ public class CmdLineOpts {
     if (cmd.hasOption("print_all_exceptions")) {
       AppBase.appConfig.printAllExceptions = true;
     }
+    if (cmd.hasOption("results_file")) {
+      AppBase.appConfig.resultsFile = cmd.getOptionValue("results_file");
+    }
+    if (cmd.hasOption("prometheus_metrics_port")) {
+      AppBase.appConfig.prometheusMetricsPort =
+          Integer.parseInt(cmd.getOptionValue("prometheus_metrics_port"));
+    }
     if (cmd.hasOption("create_table_name") && cmd.hasOption("drop_table_name")) {
       LOG.error("Both create and drop table options cannot be provided together.");
       System.exit(1);
@@ -388,6 +438,7 @@ public class CmdLineOpts {
     LOG.info("Num keys to update: " +
         (AppBase.appConfig.numKeysToWrite - AppBase.appConfig.numUniqueKeysToWrite));
     LOG.info("Num keys to read: " + AppBase.appConfig.numKeysToRead);
+    LOG.info("Key distribution: " + AppBase.appConfig.keyDistribution);
     LOG.info("Value size: " + AppBase.appConfig.valueSize);
     LOG.info("Restrict values to ASCII strings: " + AppBase.appConfig.restrictValuesToAscii);
     LOG.info("Perform sanity check at end of app run: " + AppBase.appConfig.sanityCheckAtEnd);
@@ -454,6 +505,19 @@ public class CmdLineOpts {
                       "How long (in ms) to wait for a response from jedis.");
     options.addOption("cql_connect_timeout_ms", true, "Connection timeout for cql in millisecs");
     options.addOption("cql_read_timeout_ms", true, "Read timeout for cql in millisecs");
+    options.addOption("key_distribution", true,
+                      "Distribution of the keys to read and to update: uniform (default), " +
+                      "zipfian, hotspot, latest (most recently written keys are the hottest) " +
+                      "or sequential.");
+    options.addOption("key_zipf_constant", true,
+                      "Zipfian constant of the zipfian and latest key distributions, in (0, 1). " +
+                      "Default is 0.99.");
+    options.addOption("hotspot_keys_fraction", true,
+                      "Fraction of the hot keys of the hotspot key distribution, in (0, 1]. " +
+                      "Default is 0.2.");
+    options.addOption("hotspot_ops_fraction", true,
+                      "Fraction of the operations on the hot keys of the hotspot key " +
+                      "distribution, in [0, 1]. Default is 0.8.");
     options.addOption("value_size", true, "Size in bytes of the value. " +
         "The bytes are random. Value size should be more than 5 (9) bytes for binary (ascii) " +
         "values in order to have checksum for read verification. First byte is used as a " +
@@ -468,6 +532,13 @@ public class CmdLineOpts {
         "Disable Yugabyte load-balancing policy.");
     options.addOption("print_all_exceptions", false,
         "Print all exceptions encountered on the client, instead of sampling.");
+    options.addOption("results_file", true,
+                      "Append throughput and latency histograms of every metrics interval to " +
+                      "this file as JSON lines. Files of several load testers can be combined " +
+                      "with com.yugabyte.sample.common.metrics.ResultsMerger.");
+    options.addOption("prometheus_metrics_port", true,
+                      "Serve the throughput and latency metrics in Prometheus format on this " +
+                      "port at /metrics.");
     options.addOption("skip_workload", false, "Skip running workload.");
     options.addOption("run_time", true,
         "Run time for workload. Negative value means forever (default).");
@@ -481,6 +552,9 @@ public class CmdLineOpts {
         "The number of client connections to establish to each host in the YugaByte DB cluster.");
     options.addOption("ssl_cert", true,
       "Use an SSL connection while connecting to YugaByte.");
+    options.addOption("max_in_flight_ops", true,
+                      "[CassandraStockTicker] Number of async operations each read/write " +
+                      "thread keeps in flight. Operations are done synchronously if 0 (default).");
     options.addOption("batch_size", true,
                       "Number of keys to write in a batch (for apps that support batching).");
 
@@ -13,6 +13,11 @@
 
 package com.yugabyte.sample.common;
 
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.log4j.Logger;
 
 import com.yugabyte.sample.apps.AppBase;
@@ -41,21 +46,27 @@ public class IOPSThread extends Thread {
   // The app that is being run.
   protected AppBase app;
 
-  private int numExceptions = 0;
+  private final AtomicInteger numExceptions = new AtomicInteger();
 
   private volatile boolean ioThreadFailed = false;
 
   private final boolean printAllExceptions;
 
+  // Max number of async operations in flight, operations are synchronous if 0 or if the app
+  // doesn't support async operations.
+  private final int maxInFlightOps;
+
   public IOPSThread(int threadIdx, AppBase app, IOType ioType, boolean printAllExceptions) {
     this.threadIdx = threadIdx;
     this.app = app;
     this.ioType = ioType;
     this.printAllExceptions = printAllExceptions;
+    this.maxInFlightOps =
+        app.supportsAsyncOps() ? AppBase.appConfig.maxInFlightOpsPerThread : 0;
   }
 
   public int getNumExceptions() {
-    return numExceptions;
+    return numExceptions.get();
   }
 
   public boolean hasFailed() {
@@ -80,6 +91,10 @@ public class IOPSThread extends Thread {
   public void run() {
     try {
       LOG.debug("Starting " + ioType.toString() + " IOPS thread #" + threadIdx);
+      if (maxInFlightOps > 0) {
+        runAsync();
+        return;
+      }
       int numConsecutiveExceptions = 0;
       while (!app.hasFinished()) {
         try {
@@ -89,7 +104,7 @@ public class IOPSThread extends Thread {
           }
           numConsecutiveExceptions = 0;
         } catch (RuntimeException e) {
-          numExceptions++;
+          numExceptions.incrementAndGet();
           if (numConsecutiveExceptions++ % 10 == 0 || printAllExceptions) {
             app.reportException(e);
           }
@@ -116,4 +131,72 @@ public class IOPSThread extends Thread {
       app.terminate();
     }
   }
+
+  /**
+   * Performs the IO keeping up to maxInFlightOps async operations in flight. Errors are handled
+   * the same way as in the synchronous mode: after an error, the thread waits for a second before
+   * issuing the next operation, and gives up after too many consecutive errors.
+   */
+  private void runAsync() {
+    final Semaphore inFlight = new Semaphore(maxInFlightOps);
+    final AtomicInteger numConsecutiveExceptions = new AtomicInteger();
+    try {
+      while (!app.hasFinished() && !ioThreadFailed) {
+        if (numConsecutiveExceptions.get() > 0) {
+          Thread.sleep(1000);
+        }
+        inFlight.acquire();
+        CompletionStage<Long> op;
+        try {
+          switch (ioType) {
+            case Write: op = app.performWriteAsync(threadIdx); break;
+            case Read: op = app.performReadAsync(); break;
+            default: op = null;
+          }
+        } catch (RuntimeException e) {
+          inFlight.release();
+          onAsyncException(e, numConsecutiveExceptions.incrementAndGet());
+          continue;
+        }
+        if (op == null) {
+          inFlight.release();
+          continue;
+        }
+        op.whenComplete((count, error) -> {
+          if (error == null) {
+            numConsecutiveExceptions.set(0);
+          } else {
+            onAsyncException(error, numConsecutiveExceptions.incrementAndGet());
+          }
+          inFlight.release();
+        });
+      }
+    } catch (InterruptedException ie) {
+      LOG.error("Sleep interrupted.", ie);
+      ioThreadFailed = true;
+    } finally {
+      // Wait for the operations in flight before terminating the app.
+      inFlight.acquireUninterruptibly(maxInFlightOps);
+    }
+  }
+
+  private void onAsyncException(Throwable error, int numConsecutiveExceptions) {
+    numExceptions.incrementAndGet();
+    Throwable cause = error;
+    if (error instanceof CompletionException && error.getCause() != null) {
+      cause = error.getCause();
+    }
+    if (numConsecutiveExceptions % 10 == 1 || printAllExceptions) {
+      if (cause instanceof Exception) {
+        app.reportException((Exception) cause);
+      } else {
+        LOG.info("Caught Exception: ", cause);
+      }
+    }
+    if (numConsecutiveExceptions > 500) {
+      LOG.error("Had more than " + numConsecutiveExceptions + " consecutive exceptions. Exiting.",
+                cause);
+      ioThreadFailed = true;
+    }
+  }
 }
@@ -0,0 +1,208 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.yugabyte.sample.apps.AppConfig;
+
+/**
+ * Distribution of the keys that the load generator picks for reads and for updates of the keys
+ * already written. Keys are drawn from [0, bound), where the bound grows while the keys are being
+ * loaded. Distributions are precomputed for the total number of keys of the workload, so drawing
+ * a key is O(1) and doesn't allocate.
+ */
+public abstract class KeyDistribution {
+
+  public enum Type {
+    // All the keys are equally likely.
+    Uniform,
+    // Zipfian popularity of the keys, with the popular keys scattered over the key space.
+    Zipfian,
+    // A fraction of the keys gets a fraction of the operations, e.g. 20% of keys get 80% of ops.
+    Hotspot,
+    // Zipfian popularity, where the most recently written keys are the most popular.
+    Latest,
+    // Keys are picked one after another, wrapping around at the bound.
+    Sequential;
+
+    public static Type fromString(String name) {
+      for (Type type : values()) {
+        if (type.name().equalsIgnoreCase(name)) {
+          return type;
+        }
+      }
+      throw new IllegalArgumentException("Unknown key distribution: " + name);
+    }
+  }
+
+  /**
+   * @param bound upper bound of the key, must be positive.
+   * @return the next key in [0, bound).
+   */
+  public abstract long nextKey(long bound);
+
+  /**
+   * Creates the key distribution configured for the workload.
+   * @param appConfig the workload configuration.
+   * @param numKeys total number of keys of the workload.
+   * @return the key distribution.
+   */
+  public static KeyDistribution create(AppConfig appConfig, long numKeys) {
+    switch (appConfig.keyDistribution) {
+      case Zipfian:
+        return new Zipfian(numKeys, appConfig.keyZipfConstant, true /* scrambled */);
+      case Hotspot:
+        return new Hotspot(appConfig.hotspotKeysFraction, appConfig.hotspotOpsFraction);
+      case Latest:
+        return new Latest(new Zipfian(numKeys, appConfig.keyZipfConstant, false /* scrambled */));
+      case Sequential:
+        return new Sequential();
+      default:
+        return new Uniform();
+    }
+  }
+
+  static class Uniform extends KeyDistribution {
+    @Override
+    public long nextKey(long bound) {
+      return ThreadLocalRandom.current().nextLong(bound);
+    }
+  }
+
+  /**
+   * Zipfian distribution over the ranks of the keys, using the algorithm from "Quickly Generating
+   * Billion-Record Synthetic Databases" by Gray et al. Only the zeta constants depend on the number
+   * of keys, so they are computed once. If scrambled, ranks are hashed over the key space, so that
+   * the popular keys are not clustered at the start of it.
+   */
+  static class Zipfian extends KeyDistribution {
+    // Zeta is summed exactly for up to this many keys, the rest of the sum is approximated.
+    private static final long MAX_EXACT_ZETA_TERMS = 10000000L;
+
+    private final long numKeys;
+    private final boolean scrambled;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+    private final double halfPowTheta;
+
+    Zipfian(long numKeys, double theta, boolean scrambled) {
+      if (theta <= 0 || theta >= 1) {
+        throw new IllegalArgumentException("Zipfian constant should be in (0, 1): " + theta);
+      }
+      this.numKeys = Math.max(numKeys, 2);
+      this.scrambled = scrambled;
+      this.alpha = 1.0 / (1.0 - theta);
+      this.zetaN = zeta(this.numKeys, theta);
+      this.halfPowTheta = Math.pow(0.5, theta);
+      double zeta2 = 1.0 + halfPowTheta;
+      this.eta = (1.0 - Math.pow(2.0 / this.numKeys, 1.0 - theta)) / (1.0 - zeta2 / zetaN);
+    }
+
+    // Sum of 1 / i^theta for i in [1, n], with the Euler-Maclaurin approximation of the tail.
+    static double zeta(long n, double theta) {
+      long exactTerms = Math.min(n, MAX_EXACT_ZETA_TERMS);
+      double sum = 0;
+      for (long i = 1; i <= exactTerms; ++i) {
+        sum += 1.0 / Math.pow(i, theta);
+      }
+      if (n > exactTerms) {
+        double m = exactTerms;
+        sum += (Math.pow(n, 1.0 - theta) - Math.pow(m, 1.0 - theta)) / (1.0 - theta) +
+               (Math.pow(n, -theta) - Math.pow(m, -theta)) / 2;
+      }
+      return sum;
+    }
+
+    // Returns the rank in [0, numKeys), 0 being the most popular.
+    long nextRank() {
+      double u = ThreadLocalRandom.current().nextDouble();
+      double uz = u * zetaN;
+      if (uz < 1.0) {
+        return 0;
+      }
+      if (uz < 1.0 + halfPowTheta) {
+        return 1;
+      }
+      return Math.min((long) (numKeys * Math.pow(eta * u - eta + 1, alpha)), numKeys - 1);
+    }
+
+    @Override
+    public long nextKey(long bound) {
+      long rank = nextRank();
+      long key = scrambled ? fnvHash64(rank) % numKeys : rank;
+      // Keys beyond the bound are not loaded yet, fold them into the loaded ones.
+      return key < bound ? key : key % bound;
+    }
+
+    // FNV-1a hash of the 8 bytes of the value, made non-negative.
+    private static long fnvHash64(long value) {
+      long hash = 0xCBF29CE484222325L;
+      for (int i = 0; i < Long.BYTES; ++i, value >>>= Byte.SIZE) {
+        hash ^= value & 0xFF;
+        hash *= 0x100000001B3L;
+      }
+      return hash & Long.MAX_VALUE;
+    }
+  }
+
+  static class Hotspot extends KeyDistribution {
+    private final double hotKeysFraction;
+    private final double hotOpsFraction;
+
+    Hotspot(double hotKeysFraction, double hotOpsFraction) {
+      if (hotKeysFraction <= 0 || hotKeysFraction > 1 || hotOpsFraction < 0 ||
+          hotOpsFraction > 1) {
+        throw new IllegalArgumentException("Hotspot fractions should be in (0, 1]: " +
+                                           hotKeysFraction + ", " + hotOpsFraction);
+      }
+      this.hotKeysFraction = hotKeysFraction;
+      this.hotOpsFraction = hotOpsFraction;
+    }
+
+    @Override
+    public long nextKey(long bound) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      long hotKeys = Math.max((long) (bound * hotKeysFraction), 1);
+      if (hotKeys >= bound || random.nextDouble() < hotOpsFraction) {
+        return random.nextLong(hotKeys);
+      }
+      return hotKeys + random.nextLong(bound - hotKeys);
+    }
+  }
+
+  static class Latest extends KeyDistribution {
+    private final Zipfian zipfian;
+
+    Latest(Zipfian zipfian) {
+      this.zipfian = zipfian;
+    }
+
+    @Override
+    public long nextKey(long bound) {
+      return bound - 1 - zipfian.nextRank() % bound;
+    }
+  }
+
+  static class Sequential extends KeyDistribution {
+    private final AtomicLong nextKey = new AtomicLong();
+
+    @Override
+    public long nextKey(long bound) {
+      return Math.floorMod(nextKey.getAndIncrement(), bound);
+    }
+  }
+}
@@ -17,7 +17,6 @@ import java.security.MessageDigest;
 import java.util.HashSet;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.codec.binary.Hex;
@@ -27,6 +26,10 @@ public class SimpleLoadGenerator {
   private static final Logger LOG = Logger.getLogger(SimpleLoadGenerator.class);
 
   public static class Key {
+    // Max length of the value string: "val:" followed by a long.
+    public static final int MAX_VALUE_STR_LENGTH = 24;
+    private static final byte[] VALUE_STR_PREFIX = {'v', 'a', 'l', ':'};
+
     // The underlying key is an integer.
     Long key;
     // The randomized loadtester prefix.
@@ -58,6 +61,31 @@ public class SimpleLoadGenerator {
       return ("val:" + key.toString());
     }
 
+    /**
+     * Writes the ASCII bytes of the value string, same as getValueStr(), without allocating it.
+     * @param out buffer of at least MAX_VALUE_STR_LENGTH bytes.
+     * @return the number of bytes written.
+     */
+    public int getValueBytes(byte[] out) {
+      System.arraycopy(VALUE_STR_PREFIX, 0, out, 0, VALUE_STR_PREFIX.length);
+      int length = VALUE_STR_PREFIX.length;
+      // Digits are computed on the negative value, so that Long.MIN_VALUE is handled as well.
+      long value = key;
+      if (value < 0) {
+        out[length++] = '-';
+      } else {
+        value = -value;
+      }
+      int numDigits = 1;
+      for (long v = value; v <= -10; v /= 10) {
+        numDigits++;
+      }
+      for (int i = length + numDigits - 1; i >= length; --i, value /= 10) {
+        out[i] = (byte) ('0' - value % 10);
+      }
+      return length + numDigits;
+    }
+
     public String getValueStr(int idx, int size) {
       StringBuilder sb = new StringBuilder();
       sb.append("val");
@@ -102,9 +130,17 @@ public class SimpleLoadGenerator {
   String keyPrefix;
   // Random number generator.
   Random random = new Random();
+  // Distribution of the keys to read and to update once all the keys are written.
+  final KeyDistribution keyDistribution;
 
   public SimpleLoadGenerator(long startKey, final long endKey,
                              long maxWrittenKey) {
+    this(startKey, endKey, maxWrittenKey, new KeyDistribution.Uniform());
+  }
+
+  public SimpleLoadGenerator(long startKey, final long endKey,
+                             long maxWrittenKey, KeyDistribution keyDistribution) {
+    this.keyDistribution = keyDistribution;
     this.startKey = startKey;
     this.endKey = endKey;
     this.maxWrittenKey = new AtomicLong(maxWrittenKey);
@@ -170,7 +206,7 @@ public class SimpleLoadGenerator {
       long maxKey = maxWrittenKey.get();
       // Return a random key to update if we have already written all keys.
       if (maxKey != -1 && maxKey == endKey - 1) {
-        retKey = generateKey(ThreadLocalRandom.current().nextLong(maxKey));
+        retKey = generateKey(keyDistribution.nextKey(maxKey));
       } else {
         retKey = generateKey(maxGeneratedKey.incrementAndGet());
       }
@@ -193,7 +229,7 @@ public class SimpleLoadGenerator {
       return generateKey(0);
     }
     do {
-      long key = ThreadLocalRandom.current().nextLong(maxKey);
+      long key = keyDistribution.nextKey(maxKey);
       if (!failedKeys.contains(key))
         return generateKey(key);
     } while (true);
@@ -0,0 +1,43 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.metrics;
+
+/**
+ * Throughput and latency of one metric over one reporting interval of a load tester process.
+ * Written as one JSON line to the results file.
+ */
+public class IntervalResult {
+  // UUID of the load tester process, null if the process doesn't use one.
+  public String loadTesterUUID;
+  // Name of the metric, e.g. Read or Write.
+  public String metric;
+  // Wall clock time of the end of the interval.
+  public long timestampMillis;
+  // Number of the interval since the start of the process.
+  public long intervalSeq;
+  public long intervalNanos;
+  public long numOps;
+  public long totalOps;
+  public long latencySumMicros;
+  // Latency histogram, see LatencyHistogram.toSparse().
+  public long[][] histogram;
+
+  public double getOpsPerSec() {
+    return intervalNanos == 0 ? 0 : numOps * 1000000000.0 / intervalNanos;
+  }
+
+  public LatencyHistogram getHistogram() {
+    return LatencyHistogram.fromSparse(histogram, latencySumMicros);
+  }
+}
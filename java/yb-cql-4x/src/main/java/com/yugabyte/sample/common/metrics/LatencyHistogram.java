@@ -0,0 +1,158 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Histogram of op latencies in microseconds with log-linear buckets. Latencies below
+ * 2 * SUB_BUCKETS micros have exact buckets, and each higher power of two is split into
+ * SUB_BUCKETS equal buckets, so the relative error of percentiles is within 1 / SUB_BUCKETS.
+ * Bucket boundaries are fixed, so histograms of different intervals and of different load tester
+ * processes are merged by adding up the bucket counts. Not thread safe.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  // Exponent of the first power of two split into sub buckets.
+  private static final int MIN_EXPONENT = SUB_BUCKET_BITS + 1;
+  static final int NUM_BUCKETS = 2 * SUB_BUCKETS + (Long.SIZE - 1 - MIN_EXPONENT) * SUB_BUCKETS;
+
+  private final long[] counts = new long[NUM_BUCKETS];
+  private long totalCount;
+  private long latencySumMicros;
+
+  static int bucketIndex(long micros) {
+    if (micros < 2 * SUB_BUCKETS) {
+      return (int) Math.max(micros, 0);
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros);
+    int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+    return 2 * SUB_BUCKETS + (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+  }
+
+  static long bucketLowerBoundMicros(int index) {
+    if (index < 2 * SUB_BUCKETS) {
+      return index;
+    }
+    int exponent = (index - 2 * SUB_BUCKETS) / SUB_BUCKETS + MIN_EXPONENT;
+    long top = (index - 2 * SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+    return top << (exponent - SUB_BUCKET_BITS);
+  }
+
+  static long bucketUpperBoundMicros(int index) {
+    return index == NUM_BUCKETS - 1 ? Long.MAX_VALUE : bucketLowerBoundMicros(index + 1);
+  }
+
+  /**
+   * Records ops with the given latency.
+   * @param latencyNanos latency of each op.
+   * @param numOps number of ops.
+   */
+  public void record(long latencyNanos, long numOps) {
+    long micros = latencyNanos / 1000;
+    counts[bucketIndex(micros)] += numOps;
+    totalCount += numOps;
+    latencySumMicros += micros * numOps;
+  }
+
+  /**
+   * Adds the counts of the other histogram to this one.
+   * @param other histogram to merge.
+   */
+  public void add(LatencyHistogram other) {
+    for (int i = 0; i < NUM_BUCKETS; ++i) {
+      counts[i] += other.counts[i];
+    }
+    totalCount += other.totalCount;
+    latencySumMicros += other.latencySumMicros;
+  }
+
+  public void reset() {
+    Arrays.fill(counts, 0);
+    totalCount = 0;
+    latencySumMicros = 0;
+  }
+
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  public long getLatencySumMicros() {
+    return latencySumMicros;
+  }
+
+  /**
+   * @param upperBoundMicros latency bound.
+   * @return number of ops in the buckets entirely below the bound.
+   */
+  public long getCountBelow(long upperBoundMicros) {
+    long count = 0;
+    for (int i = 0; i < NUM_BUCKETS && bucketUpperBoundMicros(i) <= upperBoundMicros; ++i) {
+      count += counts[i];
+    }
+    return count;
+  }
+
+  /**
+   * @param percentile percentile in [0, 100].
+   * @return latency of the percentile in micros, as the middle of its bucket.
+   */
+  public long getPercentileMicros(double percentile) {
+    if (totalCount == 0) {
+      return 0;
+    }
+    long rank = Math.max((long) Math.ceil(totalCount * percentile / 100), 1);
+    long count = 0;
+    for (int i = 0; i < NUM_BUCKETS; ++i) {
+      count += counts[i];
+      if (count >= rank) {
+        long lower = bucketLowerBoundMicros(i);
+        return lower + (bucketLowerBoundMicros(Math.min(i + 1, NUM_BUCKETS - 1)) - lower) / 2;
+      }
+    }
+    return bucketLowerBoundMicros(NUM_BUCKETS - 1);
+  }
+
+  /**
+   * @return non-empty buckets as [bucket index, count] pairs.
+   */
+  public long[][] toSparse() {
+    List<long[]> buckets = new ArrayList<>();
+    for (int i = 0; i < NUM_BUCKETS; ++i) {
+      if (counts[i] != 0) {
+        buckets.add(new long[] {i, counts[i]});
+      }
+    }
+    return buckets.toArray(new long[buckets.size()][]);
+  }
+
+  /**
+   * Creates a histogram from the non-empty buckets returned by toSparse().
+   * @param buckets [bucket index, count] pairs.
+   * @param latencySumMicros sum of the latencies of the ops.
+   * @return the histogram.
+   */
+  public static LatencyHistogram fromSparse(long[][] buckets, long latencySumMicros) {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long[] bucket : buckets) {
+      histogram.counts[(int) bucket[0]] += bucket[1];
+      histogram.totalCount += bucket[1];
+    }
+    histogram.latencySumMicros = latencySumMicros;
+    return histogram;
+  }
+}
@@ -23,6 +23,11 @@ public class Metric {
   private long curOpLatencyNanos = 0;
   private long totalOpCount = 0;
   private long lastSnapshotNanos;
+  private long intervalSeq = 0;
+  // Latencies of the current interval.
+  private final LatencyHistogram curHistogram = new LatencyHistogram();
+  // Latencies since the start, up to the last interval.
+  private final LatencyHistogram totalHistogram = new LatencyHistogram();
 
   public Metric(String name) {
     this.name = name;
@@ -39,24 +44,55 @@ public class Metric {
       curOpCount += numOps;
       curOpLatencyNanos += batchLatencyNanos * numOps;
       totalOpCount += numOps;
+      curHistogram.record(batchLatencyNanos, numOps);
     }
   }
 
   public String getMetricsAndReset() {
-    String msg = null;
+    return format(getResultAndReset());
+  }
+
+  /**
+   * Returns the result of the current interval and starts the next one.
+   * @return result of the interval.
+   */
+  public IntervalResult getResultAndReset() {
+    IntervalResult result = new IntervalResult();
     synchronized(lock) {
       long currNanos = System.nanoTime();
-      long elapsedNanos = currNanos - lastSnapshotNanos;
       LOG.debug("currentOpLatency: " + curOpLatencyNanos + ", currentOpCount: " + curOpCount);
-      double ops_per_sec =
-          (elapsedNanos == 0) ? 0 : (curOpCount * 1000000000 * 1.0 / elapsedNanos);
-      double latency = (curOpCount == 0) ? 0 : (curOpLatencyNanos / 1000000 * 1.0 / curOpCount);
-      msg = String.format("%s: %.2f ops/sec (%.2f ms/op), %d total ops",
-                          name, ops_per_sec, latency, totalOpCount);
+      result.metric = name;
+      result.timestampMillis = System.currentTimeMillis();
+      result.intervalSeq = intervalSeq++;
+      result.intervalNanos = currNanos - lastSnapshotNanos;
+      result.numOps = curOpCount;
+      result.totalOps = totalOpCount;
+      result.latencySumMicros = curOpLatencyNanos / 1000;
+      result.histogram = curHistogram.toSparse();
+      totalHistogram.add(curHistogram);
+      curHistogram.reset();
       curOpCount = 0;
       curOpLatencyNanos = 0;
       lastSnapshotNanos = currNanos;
     }
-    return msg;
+    return result;
+  }
+
+  /**
+   * @return copy of the latency histogram of all the completed intervals.
+   */
+  public LatencyHistogram getTotalHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    synchronized(lock) {
+      histogram.add(totalHistogram);
+    }
+    return histogram;
+  }
+
+  static String format(IntervalResult result) {
+    double latency =
+        (result.numOps == 0) ? 0 : (result.latencySumMicros / 1000 * 1.0 / result.numOps);
+    return String.format("%s: %.2f ops/sec (%.2f ms/op), %d total ops",
+                         result.metric, result.getOpsPerSec(), latency, result.totalOps);
   }
 }
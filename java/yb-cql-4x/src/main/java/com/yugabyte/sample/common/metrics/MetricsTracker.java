@@ -13,14 +13,20 @@
 
 package com.yugabyte.sample.common.metrics;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
 
+import com.yugabyte.sample.common.CmdLineOpts;
+
 public class MetricsTracker extends Thread {
   private static final Logger LOG = Logger.getLogger(MetricsTracker.class);
 
+  // Interval of the metrics reports.
+  public static final long REPORT_INTERVAL_MS = 5000;
+
   // Interface to print custom messages.
   public static interface StatusMessageAppender {
     public String appenderName();
@@ -40,10 +46,16 @@ public class MetricsTracker extends Thread {
   Metric writes = new Metric("Writes");
   // State variable to make sure this thread is started exactly once.
   boolean hasStarted = false;
+  // Set once the tracker is closed, stops the reports.
+  private volatile boolean closed = false;
   Object initLock = new Object();
   // Map of custom appenders.
   Map<String, StatusMessageAppender> appenders =
       new ConcurrentHashMap<String, StatusMessageAppender>();
+  // Writer of the interval results, null if results are not written.
+  private volatile ResultsWriter resultsWriter;
+  // Prometheus metrics endpoint, null if not enabled.
+  private PrometheusEndpoint prometheusEndpoint;
 
   public MetricsTracker() {
     this.setDaemon(true);
@@ -65,9 +77,43 @@ public class MetricsTracker extends Thread {
     return metrics.get(metricName);
   }
 
+  /**
+   * Writes the result of every interval as a JSON line to the given file, see ResultsWriter.
+   * @param path path of the results file.
+   * @throws IOException if the file can't be opened.
+   */
+  public void writeResultsTo(String path) throws IOException {
+    resultsWriter = new ResultsWriter(path);
+    LOG.info("Writing results to " + path);
+  }
+
+  /**
+   * Serves the metrics in Prometheus format on the given port.
+   * @param port HTTP port of the metrics endpoint.
+   * @throws IOException if the endpoint can't be started.
+   */
+  public void startPrometheusEndpoint(int port) throws IOException {
+    synchronized (initLock) {
+      if (prometheusEndpoint == null) {
+        prometheusEndpoint = new PrometheusEndpoint(metrics, port);
+        LOG.info("Serving Prometheus metrics on port " + port);
+      }
+    }
+  }
+
   public void getMetricsAndReset(StringBuilder sb) {
+    String loadTesterUUID =
+        CmdLineOpts.loadTesterUUID != null ? CmdLineOpts.loadTesterUUID.toString() : null;
     for (MetricName metricName : MetricName.values()) {
-      sb.append(String.format("%s  |  ", metrics.get(metricName).getMetricsAndReset()));
+      IntervalResult result = metrics.get(metricName).getResultAndReset();
+      result.loadTesterUUID = loadTesterUUID;
+      if (resultsWriter != null) {
+        resultsWriter.write(result);
+      }
+      sb.append(String.format("%s  |  ", Metric.format(result)));
+    }
+    if (resultsWriter != null) {
+      resultsWriter.flush();
     }
   }
 
@@ -81,17 +127,49 @@ public class MetricsTracker extends Thread {
     }
   }
 
+  /**
+   * Stops the reports, then reports and writes the last, partial interval, closes the results file
+   * and stops the Prometheus endpoint, so that its port can be used again.
+   */
+  public void close() {
+    synchronized (initLock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    interrupt();
+    try {
+      join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (metrics.size() == MetricName.values().length) {
+      report();
+    }
+    if (resultsWriter != null) {
+      resultsWriter.close();
+    }
+    if (prometheusEndpoint != null) {
+      prometheusEndpoint.stop();
+    }
+  }
+
+  private void report() {
+    StringBuilder sb = new StringBuilder();
+    getMetricsAndReset(sb);
+    for (StatusMessageAppender appender : appenders.values()) {
+      appender.appendMessage(sb);
+    }
+    LOG.info(sb.toString());
+  }
+
   @Override
   public void run() {
-    while (true) {
+    while (!closed) {
       try {
-        Thread.sleep(5000);
-        StringBuilder sb = new StringBuilder();
-        getMetricsAndReset(sb);
-        for (StatusMessageAppender appender : appenders.values()) {
-          appender.appendMessage(sb);
-        }
-        LOG.info(sb.toString());
+        Thread.sleep(REPORT_INTERVAL_MS);
+        report();
       } catch (InterruptedException e) {}
     }
   }
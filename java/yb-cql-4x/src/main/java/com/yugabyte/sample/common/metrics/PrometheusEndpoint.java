@@ -0,0 +1,93 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import com.yugabyte.sample.common.CmdLineOpts;
+import com.yugabyte.sample.common.metrics.MetricsTracker.MetricName;
+
+/**
+ * Serves the op counts and latency histograms in the Prometheus text format at /metrics. Values
+ * are cumulative since the start and updated once per reporting interval.
+ */
+public class PrometheusEndpoint {
+  // Upper bounds of the exported latency buckets, in seconds.
+  private static final double[] LATENCY_BUCKETS_SECS = {
+    0.0005, 0.001, 0.002, 0.005, 0.01, 0.02, 0.05, 0.1, 0.2, 0.5, 1, 2, 5, 10
+  };
+
+  private final Map<MetricName, Metric> metrics;
+  private final HttpServer server;
+
+  PrometheusEndpoint(Map<MetricName, Metric> metrics, int port) throws IOException {
+    this.metrics = metrics;
+    server = HttpServer.create(new InetSocketAddress(port), 0 /* backlog */);
+    server.createContext("/metrics", this::handle);
+    server.start();
+  }
+
+  /**
+   * Stops serving the metrics and frees the port.
+   */
+  void stop() {
+    server.stop(0 /* delay */);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    byte[] response = format().getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4");
+    exchange.sendResponseHeaders(200, response.length);
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(response);
+    }
+  }
+
+  String format() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("# HELP yb_sample_app_op_latency_seconds Latency of the operations.\n");
+    sb.append("# TYPE yb_sample_app_op_latency_seconds histogram\n");
+    for (Map.Entry<MetricName, Metric> entry : metrics.entrySet()) {
+      String labels = labels(entry.getKey());
+      LatencyHistogram histogram = entry.getValue().getTotalHistogram();
+      for (double bucketSecs : LATENCY_BUCKETS_SECS) {
+        sb.append("yb_sample_app_op_latency_seconds_bucket{").append(labels)
+          .append(",le=\"").append(bucketSecs).append("\"} ")
+          .append(histogram.getCountBelow((long) (bucketSecs * 1000000))).append('\n');
+      }
+      sb.append("yb_sample_app_op_latency_seconds_bucket{").append(labels)
+        .append(",le=\"+Inf\"} ").append(histogram.getTotalCount()).append('\n');
+      sb.append("yb_sample_app_op_latency_seconds_sum{").append(labels).append("} ")
+        .append(histogram.getLatencySumMicros() / 1000000.0).append('\n');
+      sb.append("yb_sample_app_op_latency_seconds_count{").append(labels).append("} ")
+        .append(histogram.getTotalCount()).append('\n');
+    }
+    return sb.toString();
+  }
+
+  private static String labels(MetricName metricName) {
+    String labels = "op=\"" + metricName.name() + "\"";
+    if (CmdLineOpts.loadTesterUUID != null) {
+      labels += ",load_tester_uuid=\"" + CmdLineOpts.loadTesterUUID + "\"";
+    }
+    return labels;
+  }
+}
@@ -0,0 +1,149 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.metrics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.google.gson.Gson;
+
+/**
+ * Combines the results files written by one or more load tester processes into one report. The
+ * results of the processes are aligned to the reporting interval, throughputs are added up, and
+ * latency percentiles are computed from the merged histograms. Only the first interval of a
+ * process is aligned by its time, the next ones follow by their number, so that a process never
+ * has two results in one interval when its reports drift against the wall clock. Usage:
+ *   java -cp <classpath> com.yugabyte.sample.common.metrics.ResultsMerger results1 results2 ...
+ */
+public class ResultsMerger {
+  private static final double[] PERCENTILES = {50, 99, 99.9};
+  private static final String[] PERCENTILE_NAMES = {"p50", "p99", "p99.9"};
+
+  /** Combined results of one metric over one interval, or over the whole run. */
+  static class MergedResult {
+    final Set<String> loadTesters = new HashSet<>();
+    final LatencyHistogram histogram = new LatencyHistogram();
+    double opsPerSec;
+    long numOps;
+    int numIntervals;
+
+    void add(IntervalResult result, String loadTester) {
+      loadTesters.add(loadTester);
+      histogram.add(result.getHistogram());
+      opsPerSec += result.getOpsPerSec();
+      numOps += result.numOps;
+    }
+  }
+
+  /** Intervals of one metric of one load tester process. */
+  private static class ProcessIntervals {
+    long firstSeq;
+    long firstIntervalMillis;
+    long lastSeq;
+  }
+
+  private final Gson gson = new Gson();
+  // Merged results by metric and by the time of the interval.
+  final Map<String, TreeMap<Long, MergedResult>> results = new TreeMap<>();
+  // Intervals of the processes, by the load tester and the metric.
+  private final Map<String, ProcessIntervals> processIntervals = new HashMap<>();
+
+  void addFile(String path) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.trim().isEmpty()) {
+          continue;
+        }
+        IntervalResult result = gson.fromJson(line, IntervalResult.class);
+        // Files without the load tester UUID are counted as separate processes.
+        add(result, result.loadTesterUUID != null ? result.loadTesterUUID : path);
+      }
+    }
+  }
+
+  void add(IntervalResult result, String loadTester) {
+    String key = loadTester + "/" + result.metric;
+    ProcessIntervals intervals = processIntervals.get(key);
+    if (intervals == null || result.intervalSeq <= intervals.lastSeq) {
+      // First interval of the process, or of a later run appended to the same file.
+      intervals = new ProcessIntervals();
+      intervals.firstSeq = result.intervalSeq;
+      intervals.firstIntervalMillis = Math.round(
+          (double) result.timestampMillis / MetricsTracker.REPORT_INTERVAL_MS) *
+          MetricsTracker.REPORT_INTERVAL_MS;
+      processIntervals.put(key, intervals);
+    }
+    intervals.lastSeq = result.intervalSeq;
+    long intervalMillis = intervals.firstIntervalMillis +
+        (result.intervalSeq - intervals.firstSeq) * MetricsTracker.REPORT_INTERVAL_MS;
+    results.computeIfAbsent(result.metric, k -> new TreeMap<>())
+           .computeIfAbsent(intervalMillis, k -> new MergedResult())
+           .add(result, loadTester);
+  }
+
+  void report(StringBuilder sb) {
+    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    for (Map.Entry<String, TreeMap<Long, MergedResult>> metric : results.entrySet()) {
+      MergedResult total = new MergedResult();
+      sb.append(metric.getKey()).append(":\n");
+      for (Map.Entry<Long, MergedResult> interval : metric.getValue().entrySet()) {
+        MergedResult result = interval.getValue();
+        sb.append("  ").append(dateFormat.format(new Date(interval.getKey())));
+        append(sb, result, result.opsPerSec);
+        total.loadTesters.addAll(result.loadTesters);
+        total.histogram.add(result.histogram);
+        total.opsPerSec += result.opsPerSec;
+        total.numOps += result.numOps;
+        total.numIntervals++;
+      }
+      sb.append("  Total").append(String.format(" %d total ops |", total.numOps));
+      append(sb, total, total.numIntervals == 0 ? 0 : total.opsPerSec / total.numIntervals);
+    }
+  }
+
+  private static void append(StringBuilder sb, MergedResult result, double opsPerSec) {
+    sb.append(String.format(" %d load testers | %.2f ops/sec", result.loadTesters.size(),
+                            opsPerSec));
+    for (int i = 0; i < PERCENTILES.length; ++i) {
+      sb.append(String.format(" | %s %.2f ms", PERCENTILE_NAMES[i],
+                              result.histogram.getPercentileMicros(PERCENTILES[i]) / 1000.0));
+    }
+    sb.append('\n');
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: ResultsMerger <results file> [<results file> ...]");
+      System.exit(1);
+    }
+    ResultsMerger merger = new ResultsMerger();
+    for (String path : args) {
+      merger.addFile(path);
+    }
+    StringBuilder sb = new StringBuilder();
+    merger.report(sb);
+    System.out.print(sb);
+  }
+}
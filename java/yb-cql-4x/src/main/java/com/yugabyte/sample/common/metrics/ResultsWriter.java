@@ -0,0 +1,66 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.metrics;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.log4j.Logger;
+
+import com.google.gson.Gson;
+
+/**
+ * Appends interval results to a file, one JSON object per line. Files written by several load
+ * tester processes are combined with ResultsMerger.
+ */
+public class ResultsWriter {
+  private static final Logger LOG = Logger.getLogger(ResultsWriter.class);
+
+  private final Gson gson = new Gson();
+  private final Writer writer;
+
+  public ResultsWriter(String path) throws IOException {
+    writer = new BufferedWriter(new OutputStreamWriter(
+        new FileOutputStream(path, true /* append */), StandardCharsets.UTF_8));
+  }
+
+  public synchronized void write(IntervalResult result) {
+    try {
+      gson.toJson(result, writer);
+      writer.write('\n');
+    } catch (IOException e) {
+      LOG.error("Failed to write results", e);
+    }
+  }
+
+  public synchronized void flush() {
+    try {
+      writer.flush();
+    } catch (IOException e) {
+      LOG.error("Failed to flush results", e);
+    }
+  }
+
+  public synchronized void close() {
+    try {
+      writer.close();
+    } catch (IOException e) {
+      LOG.error("Failed to close results", e);
+    }
+  }
+}
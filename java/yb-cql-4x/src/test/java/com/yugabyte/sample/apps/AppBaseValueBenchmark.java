@@ -0,0 +1,111 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.apps;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.yugabyte.sample.common.SimpleLoadGenerator.Key;
+
+/**
+ * Throughput of value generation and verification done by the IO threads for every operation.
+ * Run with the number of threads equal to the number of cores of the load tester to get the
+ * ops/sec per core, e.g.:
+ *   java -cp <test classpath> com.yugabyte.sample.apps.AppBaseValueBenchmark 8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppBaseValueBenchmark {
+  private static final int NUM_KEYS = 1024;
+
+  @Param({"false", "true"})
+  public boolean ascii;
+
+  @Param({"64", "1024"})
+  public int valueSize;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    AppBase.appConfig.restrictValuesToAscii = ascii;
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState {
+    final AppBase app = new AppBase() {};
+    final Key[] keys = new Key[NUM_KEYS];
+    byte[][] values;
+    byte[] buffer;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp(AppBaseValueBenchmark benchmark) {
+      values = new byte[NUM_KEYS][benchmark.valueSize];
+      buffer = new byte[benchmark.valueSize];
+      for (int i = 0; i < NUM_KEYS; ++i) {
+        keys[i] = new Key(i * 7919L, null);
+        app.getRandomValue(keys[i], values[i]);
+        // The verify benchmark must measure the successful path.
+        if (!app.verifyRandomValue(keys[i], values[i])) {
+          throw new IllegalStateException(
+              "Value of key " + keys[i].asString() + " does not verify");
+        }
+      }
+    }
+
+    int nextIndex() {
+      next = (next + 1) & (NUM_KEYS - 1);
+      return next;
+    }
+  }
+
+  @Benchmark
+  public byte[] generate(ThreadState state) {
+    return state.app.getRandomValue(state.keys[state.nextIndex()], state.buffer);
+  }
+
+  @Benchmark
+  public boolean verify(ThreadState state) {
+    final int idx = state.nextIndex();
+    return state.app.verifyRandomValue(state.keys[idx], state.values[idx]);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    int threads = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+    Options options = new OptionsBuilder()
+        .include(AppBaseValueBenchmark.class.getSimpleName())
+        .threads(threads)
+        .build();
+    new Runner(options).run();
+  }
+}
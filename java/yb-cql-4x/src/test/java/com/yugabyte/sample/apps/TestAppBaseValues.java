@@ -0,0 +1,177 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.apps;
+
+import static org.yb.AssertionWrappers.assertEquals;
+import static org.yb.AssertionWrappers.assertFalse;
+import static org.yb.AssertionWrappers.assertTrue;
+
+import java.util.Random;
+import java.util.zip.Adler32;
+import java.util.zip.Checksum;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+import com.yugabyte.sample.common.SimpleLoadGenerator.Key;
+
+@RunWith(value = YBTestRunner.class)
+public class TestAppBaseValues {
+  // Covers values without checksum, without prefix, with a truncated and with a full prefix.
+  private static final int[] VALUE_SIZES = {1, 2, 5, 9, 10, 16, 17, 20, 28, 29, 64, 1024};
+  private static final long[] KEYS =
+      {0, 1, 7919, 123456789012L, -1, Long.MAX_VALUE, Long.MIN_VALUE};
+
+  private final AppBase app = new AppBase() {};
+  private final Random random = new Random(1234);
+  private final boolean restrictValuesToAscii = AppBase.appConfig.restrictValuesToAscii;
+
+  @After
+  public void tearDown() {
+    AppBase.appConfig.restrictValuesToAscii = restrictValuesToAscii;
+  }
+
+  // Generates the value the way load testers before the per-thread value generator did.
+  private byte[] legacyRandomValue(Key key, int valueSize, boolean ascii) {
+    final byte[] keyValueBytes = key.getValueStr().getBytes();
+    final byte[] outBuffer = new byte[valueSize];
+    outBuffer[0] = ascii ? AppBase.ASCII_MARKER : AppBase.BINARY_MARKER;
+    final int checksumSize = ascii ? AppBase.CHECKSUM_ASCII_SIZE : AppBase.CHECKSUM_SIZE;
+    final boolean isUseChecksum = valueSize > checksumSize + 1;
+    final int contentSize = valueSize - (isUseChecksum ? checksumSize : 0);
+    int i = 1;
+    if (valueSize > AppBase.VALUE_SIZE_TO_USE_PREFIX) {
+      final int prefixSize = Math.min(contentSize - 1, keyValueBytes.length);
+      System.arraycopy(keyValueBytes, 0, outBuffer, 1, prefixSize);
+      i += prefixSize;
+    }
+    while (i < contentSize) {
+      outBuffer[i++] = (byte) (ascii ? 32 + random.nextInt(95) : random.nextInt());
+    }
+    if (isUseChecksum) {
+      Checksum checksum = new Adler32();
+      checksum.update(outBuffer, 0, contentSize);
+      long cs = checksum.getValue();
+      if (ascii) {
+        String csHexStr = Long.toHexString(cs);
+        while (i < valueSize - csHexStr.length()) {
+          outBuffer[i++] = (byte) '0';
+        }
+        System.arraycopy(csHexStr.getBytes(), 0, outBuffer, i, csHexStr.length());
+      } else {
+        while (i < valueSize) {
+          outBuffer[i++] = (byte) cs;
+          cs >>= Byte.SIZE;
+        }
+      }
+    }
+    return outBuffer;
+  }
+
+  private static boolean hasChecksum(int valueSize, boolean ascii) {
+    return valueSize > (ascii ? AppBase.CHECKSUM_ASCII_SIZE : AppBase.CHECKSUM_SIZE) + 1;
+  }
+
+  private void testRoundTrip(boolean ascii) {
+    AppBase.appConfig.restrictValuesToAscii = ascii;
+    for (int valueSize : VALUE_SIZES) {
+      for (long k : KEYS) {
+        Key key = new Key(k, null);
+        byte[] value = app.getRandomValue(key, new byte[valueSize]);
+        assertEquals(ascii ? AppBase.ASCII_MARKER : AppBase.BINARY_MARKER, value[0]);
+        assertTrue("Value of size " + valueSize + " for key " + k + " does not verify",
+                   app.verifyRandomValue(key, value));
+        if (ascii) {
+          for (byte b : value) {
+            assertTrue("Non printable character " + b + " in value of size " + valueSize,
+                       b >= 32 && b < 127);
+          }
+        }
+        if (valueSize > AppBase.VALUE_SIZE_TO_USE_PREFIX) {
+          byte[] prefix = key.getValueStr().getBytes();
+          int checksumSize = hasChecksum(valueSize, ascii)
+              ? (ascii ? AppBase.CHECKSUM_ASCII_SIZE : AppBase.CHECKSUM_SIZE) : 0;
+          int prefixSize = Math.min(prefix.length, valueSize - checksumSize - 1);
+          for (int i = 0; i < prefixSize; ++i) {
+            assertEquals(prefix[i], value[i + 1]);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBinaryRoundTrip() {
+    testRoundTrip(false);
+  }
+
+  @Test
+  public void testAsciiRoundTrip() {
+    testRoundTrip(true);
+  }
+
+  @Test
+  public void testLegacyValuesVerify() {
+    for (boolean ascii : new boolean[] {false, true}) {
+      for (int valueSize : VALUE_SIZES) {
+        for (long k : KEYS) {
+          Key key = new Key(k, null);
+          byte[] value = legacyRandomValue(key, valueSize, ascii);
+          assertTrue("Legacy " + (ascii ? "ASCII" : "binary") + " value of size " + valueSize +
+                     " for key " + k + " does not verify", app.verifyRandomValue(key, value));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCorruptedValueFails() {
+    for (boolean ascii : new boolean[] {false, true}) {
+      AppBase.appConfig.restrictValuesToAscii = ascii;
+      for (int valueSize : VALUE_SIZES) {
+        if (!hasChecksum(valueSize, ascii)) {
+          continue;
+        }
+        Key key = new Key(7919, null);
+        byte[] value = app.getRandomValue(key, new byte[valueSize]);
+        // Last byte before the checksum is either payload or prefix.
+        int checksumSize = ascii ? AppBase.CHECKSUM_ASCII_SIZE : AppBase.CHECKSUM_SIZE;
+        value[valueSize - checksumSize - 1] ^= 1;
+        assertFalse("Corrupted value of size " + valueSize + " verifies",
+                    app.verifyRandomValue(key, value));
+      }
+    }
+  }
+
+  @Test
+  public void testInvalidAsciiChecksumFails() {
+    AppBase.appConfig.restrictValuesToAscii = true;
+    Key key = new Key(7919, null);
+    byte[] value = app.getRandomValue(key, new byte[64]);
+    value[value.length - 1] = 'x';
+    assertFalse(app.verifyRandomValue(key, value));
+  }
+
+  @Test
+  public void testValueOfOtherKeyFails() {
+    for (boolean ascii : new boolean[] {false, true}) {
+      AppBase.appConfig.restrictValuesToAscii = ascii;
+      byte[] value = app.getRandomValue(new Key(7919, null), new byte[64]);
+      assertTrue(app.verifyRandomValue(new Key(7919, null), value));
+      assertFalse(app.verifyRandomValue(new Key(7918, null), value));
+    }
+  }
+}
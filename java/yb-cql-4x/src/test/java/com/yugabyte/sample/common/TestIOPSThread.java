@@ -0,0 +1,175 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common;
+
+import static org.yb.AssertionWrappers.assertEquals;
+import static org.yb.AssertionWrappers.assertFalse;
+import static org.yb.AssertionWrappers.assertNull;
+import static org.yb.AssertionWrappers.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+import com.yugabyte.sample.apps.AppBase;
+import com.yugabyte.sample.apps.AppConfig;
+
+@RunWith(value = YBTestRunner.class)
+public class TestIOPSThread {
+  private static final int MAX_IN_FLIGHT_OPS = 4;
+  private static final long TIMEOUT_MS = 10000;
+
+  private final AppConfig appConfig = AppBase.appConfig;
+  private int maxInFlightOpsPerThread;
+  private long numKeysToWrite;
+
+  // App whose async writes complete only when the test completes them.
+  private static class AsyncApp extends AppBase {
+    final BlockingQueue<CompletableFuture<Long>> pendingWrites = new LinkedBlockingQueue<>();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Override
+    public boolean supportsAsyncOps() {
+      return true;
+    }
+
+    @Override
+    public CompletionStage<Long> doWriteAsync(int threadIdx) {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      CompletableFuture<Long> write = new CompletableFuture<>();
+      pendingWrites.add(write);
+      return write.whenComplete((count, error) -> inFlight.decrementAndGet());
+    }
+  }
+
+  @Before
+  public void setUp() {
+    maxInFlightOpsPerThread = appConfig.maxInFlightOpsPerThread;
+    numKeysToWrite = appConfig.numKeysToWrite;
+    appConfig.maxInFlightOpsPerThread = MAX_IN_FLIGHT_OPS;
+    appConfig.numKeysToWrite = -1;
+    AppBase.resetOps();
+  }
+
+  @After
+  public void tearDown() {
+    appConfig.maxInFlightOpsPerThread = maxInFlightOpsPerThread;
+    appConfig.numKeysToWrite = numKeysToWrite;
+    AppBase.resetOps();
+  }
+
+  private static CompletableFuture<Long> takeWrite(AsyncApp app) throws InterruptedException {
+    CompletableFuture<Long> write = app.pendingWrites.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    assertTrue("No write was issued", write != null);
+    return write;
+  }
+
+  // Completes the writes issued by the thread until it finishes.
+  private static void completeWritesUntilFinished(AsyncApp app, IOPSThread thread)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (thread.isAlive() && System.currentTimeMillis() < deadline) {
+      CompletableFuture<Long> write = app.pendingWrites.poll(10, TimeUnit.MILLISECONDS);
+      if (write != null) {
+        write.complete(1L);
+      }
+    }
+    assertFalse(thread.isAlive());
+  }
+
+  @Test
+  public void testInFlightOpsLimited() throws Exception {
+    AsyncApp app = new AsyncApp();
+    IOPSThread thread = new IOPSThread(0, app, IOPSThread.IOType.Write, false);
+    thread.start();
+
+    List<CompletableFuture<Long>> writes = new ArrayList<>();
+    for (int i = 0; i < MAX_IN_FLIGHT_OPS; ++i) {
+      writes.add(takeWrite(app));
+    }
+    // All the permits are taken, no other write is issued until one completes.
+    assertNull(app.pendingWrites.poll(200, TimeUnit.MILLISECONDS));
+    assertEquals(MAX_IN_FLIGHT_OPS, app.inFlight.get());
+
+    writes.get(0).complete(1L);
+    writes.add(takeWrite(app));
+    assertEquals(1L, AppBase.numOps());
+
+    // The thread waits for the writes in flight before it finishes.
+    app.stopApp();
+    writes.get(1).complete(1L);
+    thread.join(200);
+    assertTrue(thread.isAlive());
+
+    for (CompletableFuture<Long> write : writes) {
+      write.complete(1L);
+    }
+    // The thread may have issued one more write before it noticed the stop.
+    completeWritesUntilFinished(app, thread);
+    assertFalse(thread.hasFailed());
+    assertEquals(0, thread.getNumExceptions());
+    assertEquals(MAX_IN_FLIGHT_OPS, app.maxInFlight.get());
+  }
+
+  @Test
+  public void testFailedOpsReleasePermits() throws Exception {
+    AsyncApp app = new AsyncApp();
+    IOPSThread thread = new IOPSThread(0, app, IOPSThread.IOType.Write, false);
+    thread.start();
+
+    for (int i = 0; i < MAX_IN_FLIGHT_OPS; ++i) {
+      takeWrite(app).completeExceptionally(new RuntimeException("write failed"));
+    }
+    // The failed writes release their permits, the thread waits a second after the errors and
+    // then issues writes again.
+    takeWrite(app).complete(1L);
+    app.stopApp();
+    completeWritesUntilFinished(app, thread);
+    assertFalse(thread.hasFailed());
+    assertEquals(MAX_IN_FLIGHT_OPS, thread.getNumExceptions());
+  }
+
+  @Test
+  public void testSyncAppIgnoresMaxInFlightOps() throws Exception {
+    AtomicInteger numWrites = new AtomicInteger();
+    AppBase app = new AppBase() {
+      @Override
+      public long doWrite(int threadIdx) {
+        if (numWrites.incrementAndGet() == 10) {
+          stopApp();
+        }
+        return 1;
+      }
+    };
+    IOPSThread thread = new IOPSThread(0, app, IOPSThread.IOType.Write, false);
+    thread.start();
+    thread.join(TIMEOUT_MS);
+    assertFalse(thread.isAlive());
+    assertEquals(0, thread.getNumExceptions());
+    assertEquals(10, numWrites.get());
+    assertEquals(10L, AppBase.numOps());
+  }
+}
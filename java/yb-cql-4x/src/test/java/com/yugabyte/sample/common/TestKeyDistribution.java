@@ -0,0 +1,222 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common;
+
+import static org.yb.AssertionWrappers.assertEquals;
+import static org.yb.AssertionWrappers.assertTrue;
+import static org.yb.AssertionWrappers.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+import com.yugabyte.sample.apps.AppConfig;
+
+@RunWith(value = YBTestRunner.class)
+public class TestKeyDistribution {
+  private static final int NUM_KEYS = 1000;
+  private static final int NUM_DRAWS = 200000;
+
+  // Number of times each key in [0, bound) is drawn.
+  private static long[] draw(KeyDistribution distribution, int bound) {
+    long[] counts = new long[bound];
+    for (int i = 0; i < NUM_DRAWS; ++i) {
+      long key = distribution.nextKey(bound);
+      assertTrue("Key " + key + " is out of [0, " + bound + ")", key >= 0 && key < bound);
+      ++counts[(int) key];
+    }
+    return counts;
+  }
+
+  private static int mostFrequentKey(long[] counts) {
+    int key = 0;
+    for (int i = 1; i < counts.length; ++i) {
+      if (counts[i] > counts[key]) {
+        key = i;
+      }
+    }
+    return key;
+  }
+
+  private static double fraction(long count) {
+    return (double) count / NUM_DRAWS;
+  }
+
+  @Test
+  public void testKeysWithinBound() {
+    KeyDistribution[] distributions = {
+        new KeyDistribution.Uniform(),
+        new KeyDistribution.Zipfian(NUM_KEYS, 0.99, true /* scrambled */),
+        new KeyDistribution.Zipfian(NUM_KEYS, 0.5, false /* scrambled */),
+        new KeyDistribution.Hotspot(0.2, 0.8),
+        new KeyDistribution.Latest(new KeyDistribution.Zipfian(NUM_KEYS, 0.99, false)),
+        new KeyDistribution.Sequential()
+    };
+    for (KeyDistribution distribution : distributions) {
+      // Bounds below the number of keys are the keys loaded so far.
+      for (int bound : new int[] {1, 2, 7, NUM_KEYS / 3, NUM_KEYS}) {
+        draw(distribution, bound);
+      }
+    }
+  }
+
+  @Test
+  public void testZeta() {
+    assertEquals(1.0, KeyDistribution.Zipfian.zeta(1, 0.99), 1e-12);
+    assertEquals(1 + 1 / Math.sqrt(2) + 1 / Math.sqrt(3),
+                 KeyDistribution.Zipfian.zeta(3, 0.5), 1e-12);
+    // Past the exactly summed terms, the approximated tail continues the exact sum.
+    long n = 10000000L;
+    double exact = KeyDistribution.Zipfian.zeta(n, 0.99);
+    double approximated = KeyDistribution.Zipfian.zeta(2 * n, 0.99);
+    double tail = 0;
+    for (long i = n + 1; i <= 2 * n; ++i) {
+      tail += 1.0 / Math.pow(i, 0.99);
+    }
+    assertEquals(exact + tail, approximated, 1e-6 * approximated);
+  }
+
+  @Test
+  public void testZipfianSkew() {
+    double theta = 0.99;
+    long[] counts = draw(new KeyDistribution.Zipfian(NUM_KEYS, theta, false), NUM_KEYS);
+    // Probability of the rank i is 1 / ((i + 1)^theta * zeta(n)).
+    double zetaN = KeyDistribution.Zipfian.zeta(NUM_KEYS, theta);
+    assertEquals(1 / zetaN, fraction(counts[0]), 0.01);
+    assertEquals(1 / (Math.pow(2, theta) * zetaN), fraction(counts[1]), 0.01);
+    long top10 = 0;
+    for (int i = 0; i < 10; ++i) {
+      top10 += counts[i];
+    }
+    double expectedTop10 = KeyDistribution.Zipfian.zeta(10, theta) / zetaN;
+    assertEquals(expectedTop10, fraction(top10), 0.03);
+    assertTrue("Popular keys are not more frequent: " + counts[0] + " vs " + counts[500],
+               counts[0] > 50 * counts[500]);
+  }
+
+  @Test
+  public void testScrambledZipfian() {
+    long[] counts = draw(new KeyDistribution.Zipfian(NUM_KEYS, 0.99, true), NUM_KEYS);
+    long[] sorted = counts.clone();
+    Arrays.sort(sorted);
+    // Same skew as without scrambling.
+    double zetaN = KeyDistribution.Zipfian.zeta(NUM_KEYS, 0.99);
+    assertEquals(1 / zetaN, fraction(sorted[NUM_KEYS - 1]), 0.01);
+    // But the popular keys are scattered over the key space.
+    int hotKeysAtStart = 0;
+    for (int i = 0; i < 10; ++i) {
+      if (counts[i] >= sorted[NUM_KEYS - 10]) {
+        ++hotKeysAtStart;
+      }
+    }
+    assertTrue("Popular keys are clustered at the start", hotKeysAtStart < 5);
+  }
+
+  @Test
+  public void testZipfianFoldsKeysBeyondBound() {
+    KeyDistribution.Zipfian zipfian = new KeyDistribution.Zipfian(NUM_KEYS, 0.99, false);
+    long[] counts = draw(zipfian, 10);
+    // Rank 10 folds into key 0, so key 0 stays the most popular one.
+    assertEquals(0, mostFrequentKey(counts));
+  }
+
+  @Test
+  public void testInvalidZipfianConstant() {
+    for (double theta : new double[] {0, 1, -0.5, 1.5}) {
+      try {
+        new KeyDistribution.Zipfian(NUM_KEYS, theta, false);
+        fail("Expected IllegalArgumentException for " + theta);
+      } catch (IllegalArgumentException e) {
+        // Expected.
+      }
+    }
+  }
+
+  @Test
+  public void testHotspot() {
+    long[] counts = draw(new KeyDistribution.Hotspot(0.2, 0.8), NUM_KEYS);
+    long hot = 0;
+    for (int i = 0; i < NUM_KEYS / 5; ++i) {
+      hot += counts[i];
+    }
+    assertEquals(0.8, fraction(hot), 0.01);
+
+    // All the operations go to the cold keys.
+    counts = draw(new KeyDistribution.Hotspot(0.2, 0), NUM_KEYS);
+    for (int i = 0; i < NUM_KEYS / 5; ++i) {
+      assertEquals(0L, counts[i]);
+    }
+
+    // Too few keys loaded to have the cold ones.
+    KeyDistribution hotspot = new KeyDistribution.Hotspot(0.2, 0.8);
+    for (int i = 0; i < 100; ++i) {
+      assertEquals(0L, hotspot.nextKey(1));
+    }
+
+    try {
+      new KeyDistribution.Hotspot(0, 0.8);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void testLatest() {
+    KeyDistribution latest =
+        new KeyDistribution.Latest(new KeyDistribution.Zipfian(NUM_KEYS, 0.99, false));
+    long[] counts = draw(latest, NUM_KEYS);
+    assertEquals(NUM_KEYS - 1, mostFrequentKey(counts));
+    assertTrue(counts[NUM_KEYS - 1] > counts[NUM_KEYS - 2]);
+    assertTrue(counts[NUM_KEYS - 1] > 50 * counts[0]);
+
+    // The most popular key follows the last written one while the keys are being loaded.
+    counts = draw(latest, NUM_KEYS / 2);
+    assertEquals(NUM_KEYS / 2 - 1, mostFrequentKey(counts));
+  }
+
+  @Test
+  public void testSequential() {
+    KeyDistribution sequential = new KeyDistribution.Sequential();
+    for (long expected : new long[] {0, 1, 2, 0, 1, 2, 0}) {
+      assertEquals(expected, sequential.nextKey(3));
+    }
+    // The next key is kept when the bound grows.
+    assertEquals(7L, sequential.nextKey(10));
+    assertEquals(8L, sequential.nextKey(10));
+    assertEquals(0L, sequential.nextKey(1));
+  }
+
+  @Test
+  public void testCreate() {
+    AppConfig appConfig = new AppConfig();
+    assertTrue(KeyDistribution.create(appConfig, NUM_KEYS) instanceof KeyDistribution.Uniform);
+    appConfig.keyDistribution = KeyDistribution.Type.fromString("zipfian");
+    assertTrue(KeyDistribution.create(appConfig, NUM_KEYS) instanceof KeyDistribution.Zipfian);
+    appConfig.keyDistribution = KeyDistribution.Type.fromString("HOTSPOT");
+    assertTrue(KeyDistribution.create(appConfig, NUM_KEYS) instanceof KeyDistribution.Hotspot);
+    appConfig.keyDistribution = KeyDistribution.Type.fromString("Latest");
+    assertTrue(KeyDistribution.create(appConfig, NUM_KEYS) instanceof KeyDistribution.Latest);
+    appConfig.keyDistribution = KeyDistribution.Type.fromString("sequential");
+    assertTrue(KeyDistribution.create(appConfig, NUM_KEYS) instanceof KeyDistribution.Sequential);
+    try {
+      KeyDistribution.Type.fromString("gaussian");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+  }
+}
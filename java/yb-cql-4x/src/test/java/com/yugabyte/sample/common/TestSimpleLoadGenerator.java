@@ -0,0 +1,58 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common;
+
+import static org.yb.AssertionWrappers.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+import com.yugabyte.sample.common.SimpleLoadGenerator.Key;
+
+@RunWith(value = YBTestRunner.class)
+public class TestSimpleLoadGenerator {
+
+  private static void assertValueBytes(long k) {
+    Key key = new Key(k, null);
+    byte[] out = new byte[Key.MAX_VALUE_STR_LENGTH];
+    int length = key.getValueBytes(out);
+    assertEquals(key.getValueStr(), new String(Arrays.copyOf(out, length)));
+  }
+
+  @Test
+  public void testValueBytesMatchValueStr() {
+    long[] keys = {0, 1, 9, 10, 99, 100, 7919, -1, -9, -10, Long.MAX_VALUE, Long.MIN_VALUE,
+                   Long.MIN_VALUE + 1};
+    for (long k : keys) {
+      assertValueBytes(k);
+    }
+    Random random = new Random(1234);
+    for (int i = 0; i < 10000; ++i) {
+      assertValueBytes(random.nextLong());
+      assertValueBytes(random.nextInt(1000000));
+    }
+  }
+
+  @Test
+  public void testValueBytesOverwriteBuffer() {
+    byte[] out = new byte[Key.MAX_VALUE_STR_LENGTH];
+    new Key(Long.MIN_VALUE, null).getValueBytes(out);
+    int length = new Key(42, null).getValueBytes(out);
+    assertEquals("val:42", new String(out, 0, length));
+  }
+}
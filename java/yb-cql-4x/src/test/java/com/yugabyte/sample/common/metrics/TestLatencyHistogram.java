@@ -0,0 +1,140 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.metrics;
+
+import static org.yb.AssertionWrappers.assertEquals;
+import static org.yb.AssertionWrappers.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+@RunWith(value = YBTestRunner.class)
+public class TestLatencyHistogram {
+
+  @Test
+  public void testBuckets() {
+    // Exact buckets for the small latencies.
+    for (long micros = 0; micros < 32; ++micros) {
+      assertEquals((int) micros, LatencyHistogram.bucketIndex(micros));
+    }
+    assertEquals(0, LatencyHistogram.bucketIndex(-5));
+    // Every latency falls into the bucket with its bounds, within 1/16 of the latency.
+    int lastIndex = 0;
+    for (long micros = 1; micros > 0 && micros < Long.MAX_VALUE / 3; micros = micros * 3 / 2 + 1) {
+      int index = LatencyHistogram.bucketIndex(micros);
+      assertTrue(index >= lastIndex);
+      assertTrue(index < LatencyHistogram.NUM_BUCKETS);
+      long lower = LatencyHistogram.bucketLowerBoundMicros(index);
+      long upper = LatencyHistogram.bucketUpperBoundMicros(index);
+      assertTrue("Bucket of " + micros + " is [" + lower + ", " + upper + ")",
+                 lower <= micros && micros < upper);
+      assertTrue(upper - lower <= Math.max(micros / 16, 1));
+      lastIndex = index;
+    }
+    assertEquals(LatencyHistogram.NUM_BUCKETS - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    // Buckets are adjacent.
+    for (int i = 0; i < LatencyHistogram.NUM_BUCKETS - 1; ++i) {
+      assertEquals(LatencyHistogram.bucketUpperBoundMicros(i),
+                   LatencyHistogram.bucketLowerBoundMicros(i + 1));
+      assertEquals(i, LatencyHistogram.bucketIndex(LatencyHistogram.bucketLowerBoundMicros(i)));
+    }
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0L, histogram.getPercentileMicros(99));
+    // 1000 ops of 1..1000 ms.
+    for (long millis = 1; millis <= 1000; ++millis) {
+      histogram.record(millis * 1000000, 1);
+    }
+    assertEquals(1000L, histogram.getTotalCount());
+    assertEquals(500500L * 1000, histogram.getLatencySumMicros());
+    assertEquals(500000, histogram.getPercentileMicros(50), 500000 / 16);
+    assertEquals(990000, histogram.getPercentileMicros(99), 990000 / 16);
+    assertEquals(999000, histogram.getPercentileMicros(99.9), 999000 / 16);
+    assertEquals(1000, histogram.getPercentileMicros(0), 1000 / 16);
+    assertEquals(1000000, histogram.getPercentileMicros(100), 1000000 / 16);
+  }
+
+  @Test
+  public void testBatchRecord() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(2000, 10);
+    histogram.record(3000000, 1);
+    assertEquals(11L, histogram.getTotalCount());
+    assertEquals(10L * 2 + 3000, histogram.getLatencySumMicros());
+    assertEquals(2L, histogram.getPercentileMicros(90));
+    assertEquals(3000, histogram.getPercentileMicros(95), 3000 / 16);
+  }
+
+  @Test
+  public void testCountBelow() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(400000, 3);     // 0.4 ms
+    histogram.record(1500000, 2);    // 1.5 ms
+    histogram.record(20000000, 1);   // 20 ms
+    assertEquals(0L, histogram.getCountBelow(100));
+    assertEquals(3L, histogram.getCountBelow(1000));
+    assertEquals(5L, histogram.getCountBelow(2000));
+    assertEquals(5L, histogram.getCountBelow(10000));
+    assertEquals(6L, histogram.getCountBelow(50000));
+    assertEquals(6L, histogram.getCountBelow(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testAddAndReset() {
+    LatencyHistogram first = new LatencyHistogram();
+    LatencyHistogram second = new LatencyHistogram();
+    for (int i = 0; i < 99; ++i) {
+      first.record(1000000, 1);
+    }
+    second.record(100000000, 1);
+    first.add(second);
+    assertEquals(100L, first.getTotalCount());
+    assertEquals(99L * 1000 + 100000, first.getLatencySumMicros());
+    assertEquals(1000, first.getPercentileMicros(99), 1000 / 16);
+    assertEquals(100000, first.getPercentileMicros(99.9), 100000 / 16);
+    // The added histogram is left as is.
+    assertEquals(1L, second.getTotalCount());
+
+    first.reset();
+    assertEquals(0L, first.getTotalCount());
+    assertEquals(0L, first.getLatencySumMicros());
+    assertEquals(0L, first.getCountBelow(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testSparse() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.toSparse().length);
+    histogram.record(5000, 2);
+    histogram.record(7000000, 3);
+    long[][] sparse = histogram.toSparse();
+    assertEquals(2, sparse.length);
+    assertEquals((long) LatencyHistogram.bucketIndex(5), sparse[0][0]);
+    assertEquals(2L, sparse[0][1]);
+    assertEquals((long) LatencyHistogram.bucketIndex(7000), sparse[1][0]);
+    assertEquals(3L, sparse[1][1]);
+
+    LatencyHistogram copy =
+        LatencyHistogram.fromSparse(sparse, histogram.getLatencySumMicros());
+    assertEquals(histogram.getTotalCount(), copy.getTotalCount());
+    assertEquals(histogram.getLatencySumMicros(), copy.getLatencySumMicros());
+    for (double percentile : new double[] {10, 50, 90, 100}) {
+      assertEquals(histogram.getPercentileMicros(percentile), copy.getPercentileMicros(percentile));
+    }
+  }
+}
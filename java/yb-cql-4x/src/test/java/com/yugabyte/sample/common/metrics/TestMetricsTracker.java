@@ -0,0 +1,99 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.metrics;
+
+import static org.yb.AssertionWrappers.assertEquals;
+import static org.yb.AssertionWrappers.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+import com.yugabyte.sample.common.metrics.MetricsTracker.MetricName;
+
+@RunWith(value = YBTestRunner.class)
+public class TestMetricsTracker {
+
+  private static MetricsTracker createTracker() {
+    MetricsTracker tracker = new MetricsTracker();
+    tracker.createMetric(MetricName.Read);
+    tracker.createMetric(MetricName.Write);
+    return tracker;
+  }
+
+  private static String getMetrics(int port) throws Exception {
+    URL url = new URL("http://localhost:" + port + "/metrics");
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    try (InputStream is = connection.getInputStream();
+         Scanner scanner = new Scanner(is, StandardCharsets.UTF_8.name())) {
+      return scanner.useDelimiter("\\A").next();
+    }
+  }
+
+  @Test
+  public void testCloseWritesLastInterval() throws Exception {
+    File file = File.createTempFile("results", ".json");
+    file.deleteOnExit();
+    MetricsTracker tracker = createTracker();
+    tracker.writeResultsTo(file.getPath());
+    tracker.start();
+    tracker.getMetric(MetricName.Read).accumulate(10, 1000000);
+    tracker.close();
+    // Closed tracker stops its thread, and closing it again does nothing.
+    assertTrue(!tracker.isAlive());
+    tracker.close();
+
+    List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    assertEquals(2, lines.size());
+    ResultsMerger merger = new ResultsMerger();
+    merger.addFile(file.getPath());
+    assertEquals(10L, merger.results.get("Read").firstEntry().getValue().numOps);
+    assertEquals(0L, merger.results.get("Write").firstEntry().getValue().numOps);
+  }
+
+  @Test
+  public void testCloseFreesPrometheusPort() throws Exception {
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    MetricsTracker tracker = createTracker();
+    tracker.startPrometheusEndpoint(port);
+    tracker.getMetric(MetricName.Write).accumulate(5, 2000000);
+    tracker.close();
+
+    // Tracker of the next app in the same process serves the metrics on the same port.
+    MetricsTracker nextTracker = createTracker();
+    nextTracker.startPrometheusEndpoint(port);
+    try {
+      nextTracker.getMetric(MetricName.Write).accumulate(3, 2000000);
+      nextTracker.getMetricsAndReset(new StringBuilder());
+      String metrics = getMetrics(port);
+      assertTrue(metrics, metrics.contains(
+          "yb_sample_app_op_latency_seconds_count{op=\"Write\"} 3\n"));
+    } finally {
+      nextTracker.close();
+    }
+  }
+}
@@ -0,0 +1,153 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.metrics;
+
+import static org.yb.AssertionWrappers.assertEquals;
+import static org.yb.AssertionWrappers.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+import com.yugabyte.sample.common.metrics.ResultsMerger.MergedResult;
+
+@RunWith(value = YBTestRunner.class)
+public class TestResultsMerger {
+  private static final long INTERVAL_MS = MetricsTracker.REPORT_INTERVAL_MS;
+  private static final long START_MS = 1600000000000L;
+
+  private static IntervalResult result(String metric, long seq, long timestampMillis,
+                                       long numOps, long latencyMicros) {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(latencyMicros * 1000, numOps);
+    IntervalResult result = new IntervalResult();
+    result.metric = metric;
+    result.intervalSeq = seq;
+    result.timestampMillis = timestampMillis;
+    result.intervalNanos = INTERVAL_MS * 1000000;
+    result.numOps = numOps;
+    result.latencySumMicros = histogram.getLatencySumMicros();
+    result.histogram = histogram.toSparse();
+    return result;
+  }
+
+  private static List<Long> intervals(ResultsMerger merger, String metric) {
+    return new ArrayList<>(merger.results.get(metric).keySet());
+  }
+
+  @Test
+  public void testMergeProcesses() {
+    ResultsMerger merger = new ResultsMerger();
+    for (long seq = 0; seq < 3; ++seq) {
+      // The processes report at different times within the interval.
+      merger.add(result("Read", seq, START_MS + seq * INTERVAL_MS + 100, 1000, 1000), "a");
+      merger.add(result("Read", seq, START_MS + seq * INTERVAL_MS - 1200, 3000, 2000), "b");
+    }
+    merger.add(result("Write", 0, START_MS, 500, 5000), "a");
+
+    assertEquals(Arrays.asList(START_MS, START_MS + INTERVAL_MS, START_MS + 2 * INTERVAL_MS),
+                 intervals(merger, "Read"));
+    for (MergedResult merged : merger.results.get("Read").values()) {
+      assertEquals(2, merged.loadTesters.size());
+      assertEquals(4000L, merged.numOps);
+      assertEquals(800.0, merged.opsPerSec, 1e-9);
+      // Percentiles are computed over the ops of both processes.
+      assertEquals(1000, merged.histogram.getPercentileMicros(25), 1000 / 16);
+      assertEquals(2000, merged.histogram.getPercentileMicros(50), 2000 / 16);
+    }
+    assertEquals(Arrays.asList(START_MS), intervals(merger, "Write"));
+    assertEquals(100.0, merger.results.get("Write").get(START_MS).opsPerSec, 1e-9);
+  }
+
+  @Test
+  public void testDriftingReports() {
+    ResultsMerger merger = new ResultsMerger();
+    // A delayed report rounds to the interval after its own, and the last, partial interval
+    // rounds to the same interval as the one before it.
+    long[] timestamps = {START_MS, START_MS + 7600, START_MS + 12700, START_MS + 13900};
+    for (int seq = 0; seq < timestamps.length; ++seq) {
+      merger.add(result("Read", seq, timestamps[seq], 1000, 1000), "a");
+    }
+    TreeMap<Long, MergedResult> results = merger.results.get("Read");
+    assertEquals(4, results.size());
+    assertEquals(START_MS + 3 * INTERVAL_MS, (long) results.lastKey());
+    for (MergedResult merged : results.values()) {
+      assertEquals(1000L, merged.numOps);
+      assertEquals(200.0, merged.opsPerSec, 1e-9);
+    }
+  }
+
+  @Test
+  public void testRunsAppendedToOneFile() {
+    ResultsMerger merger = new ResultsMerger();
+    merger.add(result("Read", 0, START_MS, 1000, 1000), "file");
+    merger.add(result("Read", 1, START_MS + INTERVAL_MS, 1000, 1000), "file");
+    // The next run starts over with the interval numbers, at its own time.
+    long nextRunMs = START_MS + 3600 * 1000;
+    merger.add(result("Read", 0, nextRunMs + 300, 1000, 1000), "file");
+    merger.add(result("Read", 1, nextRunMs + INTERVAL_MS + 2000, 1000, 1000), "file");
+    assertEquals(Arrays.asList(START_MS, START_MS + INTERVAL_MS, nextRunMs,
+                               nextRunMs + INTERVAL_MS),
+                 intervals(merger, "Read"));
+  }
+
+  @Test
+  public void testAddFileAndReport() throws Exception {
+    File file = File.createTempFile("results", ".json");
+    file.deleteOnExit();
+    ResultsWriter writer = new ResultsWriter(file.getPath());
+    for (long seq = 0; seq < 2; ++seq) {
+      IntervalResult read = result("Read", seq, START_MS + seq * INTERVAL_MS, 1000, 1000);
+      read.loadTesterUUID = "uuid-1";
+      writer.write(read);
+    }
+    // Last partial interval.
+    IntervalResult last = result("Read", 2, START_MS + 2 * INTERVAL_MS - 4000, 100, 1000);
+    last.loadTesterUUID = "uuid-1";
+    last.intervalNanos = 1000000000L;
+    writer.write(last);
+    writer.close();
+
+    ResultsMerger merger = new ResultsMerger();
+    merger.addFile(file.getPath());
+    TreeMap<Long, MergedResult> results = merger.results.get("Read");
+    assertEquals(3, results.size());
+    assertEquals(100.0, results.lastEntry().getValue().opsPerSec, 1e-9);
+    assertTrue(results.lastEntry().getValue().loadTesters.contains("uuid-1"));
+
+    StringBuilder sb = new StringBuilder();
+    merger.report(sb);
+    String report = sb.toString();
+    assertTrue(report, report.startsWith("Read:\n"));
+    assertEquals(5, report.split("\n").length);
+    assertTrue(report, report.contains(
+        "  Total 2100 total ops | 1 load testers | 166.67 ops/sec | p50 1.01 ms"));
+  }
+
+  @Test
+  public void testEmptyIntervals() {
+    ResultsMerger merger = new ResultsMerger();
+    merger.add(result("Write", 0, START_MS, 0, 0), "a");
+    Map<Long, MergedResult> results = merger.results.get("Write");
+    assertEquals(0L, results.get(START_MS).numOps);
+    assertEquals(0L, results.get(START_MS).histogram.getPercentileMicros(99));
+  }
+}
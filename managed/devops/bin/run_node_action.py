@@ -53,8 +53,9 @@ def add_download_logs_subparser(subparsers, command, parent):
 
 
 def download_logs_ssh(args, client):
-    # name is irrelevant as long as it doesn't already exist
-    tar_file_name = args.node_name + "-support_package.tar.gz"
+    # Name is irrelevant as long as it doesn't already exist, concurrent downloads from the
+    # same node should not overwrite each other's file
+    tar_file_name = args.node_name + "-" + str(uuid.uuid4()) + "-support_package.tar.gz"
 
     cmd = ['tar', '-czvf', tar_file_name, '-h', '-C',
            args.yb_home_dir, 'tserver/logs/yb-tserver.INFO']
@@ -13,6 +13,7 @@ import com.yugabyte.yw.common.ConfigHelper;
 import com.yugabyte.yw.common.CustomerTaskManager;
 import com.yugabyte.yw.common.ExtraMigrationManager;
 import com.yugabyte.yw.common.ReleaseManager;
+import com.yugabyte.yw.common.UniverseAliveStatusTracker;
 import com.yugabyte.yw.common.YamlWrapper;
 import com.yugabyte.yw.common.alerts.AlertConfigurationService;
 import com.yugabyte.yw.common.alerts.AlertConfigurationWriter;
@@ -23,6 +24,7 @@ import com.yugabyte.yw.common.certmgmt.CertificateHelper;
 import com.yugabyte.yw.common.config.impl.SettableRuntimeConfigFactory;
 import com.yugabyte.yw.common.ha.PlatformReplicationManager;
 import com.yugabyte.yw.common.metrics.PlatformMetricsProcessor;
+import com.yugabyte.yw.metrics.MetricRollups;
 import com.yugabyte.yw.models.Customer;
 import com.yugabyte.yw.models.ExtraMigration;
 import com.yugabyte.yw.models.InstanceType;
@@ -58,6 +60,8 @@ public class AppInit {
       PlatformReplicationManager replicationManager,
       AlertsGarbageCollector alertsGC,
       QueryAlerts queryAlerts,
+      UniverseAliveStatusTracker universeAliveStatusTracker,
+      MetricRollups metricRollups,
       AlertConfigurationWriter alertConfigurationWriter,
       AlertConfigurationService alertConfigurationService,
       AlertDestinationService alertDestinationService,
@@ -155,6 +159,8 @@ public class AppInit {
       supportBundleCleanup.start();
 
       platformMetricsProcessor.start();
+      // Rollup rules are loaded by Prometheus reload on the first alert configuration sync.
+      metricRollups.writeRules();
       alertConfigurationWriter.start();
 
       replicationManager.init();
@@ -163,6 +169,7 @@ public class AppInit {
       scheduler.start();
       callHome.start();
       queryAlerts.start();
+      universeAliveStatusTracker.start();
 
       // Add checksums for all certificates that don't have a checksum.
       CertificateHelper.createChecksums();
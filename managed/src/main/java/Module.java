@@ -31,6 +31,7 @@ import com.yugabyte.yw.common.ReleaseManager;
 import com.yugabyte.yw.common.ShellProcessHandler;
 import com.yugabyte.yw.common.SwamperHelper;
 import com.yugabyte.yw.common.TemplateManager;
+import com.yugabyte.yw.common.UniverseAliveStatusTracker;
 import com.yugabyte.yw.common.YamlWrapper;
 import com.yugabyte.yw.common.YcqlQueryExecutor;
 import com.yugabyte.yw.common.YsqlQueryExecutor;
@@ -132,6 +133,7 @@ public class Module extends AbstractModule {
       bind(YamlWrapper.class).asEagerSingleton();
       bind(AlertManager.class).asEagerSingleton();
       bind(QueryAlerts.class).asEagerSingleton();
+      bind(UniverseAliveStatusTracker.class).asEagerSingleton();
       bind(PlatformMetricsProcessor.class).asEagerSingleton();
       bind(AlertsGarbageCollector.class).asEagerSingleton();
       bind(AlertConfigurationWriter.class).asEagerSingleton();
@@ -1,16 +1,17 @@
 package com.yugabyte.yw.commissioner;
 
 import akka.actor.ActorSystem;
-import com.amazonaws.SDKGlobalConfiguration;
 import com.cronutils.utils.VisibleForTesting;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.yugabyte.yw.common.AWSUtil;
 import com.yugabyte.yw.common.AZUtil;
 import com.yugabyte.yw.common.GCPUtil;
 import com.yugabyte.yw.common.BackupUtil;
+import com.yugabyte.yw.common.PlatformExecutorFactory;
 import com.yugabyte.yw.common.ShellResponse;
 import com.yugabyte.yw.common.TableManagerYb;
 import com.yugabyte.yw.common.Util;
@@ -25,10 +26,18 @@ import com.yugabyte.yw.models.CustomerConfig;
 import com.yugabyte.yw.models.Universe;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
 import play.libs.Json;
@@ -52,8 +61,16 @@ public class BackupGarbageCollector {
 
   private static final String YB_BACKUP_GARBAGE_COLLECTOR_INTERVAL = "yb.backupGC.gc_run_interval";
 
+  private static final String YB_BACKUP_GC_MAX_PARALLEL_DELETES_PER_CUSTOMER =
+      "yb.backupGC.max_parallel_deletes_per_customer";
+
   private AtomicBoolean running = new AtomicBoolean(false);
 
+  private final ExecutorService deleteExecutor;
+
+  // Backups which are being deleted right now, so that a backup is never deleted twice in parallel.
+  private final Set<UUID> backupsInDeletion = ConcurrentHashMap.newKeySet();
+
   private static final String AZ = Util.AZ;
   private static final String GCS = Util.GCS;
   private static final String S3 = Util.S3;
@@ -66,13 +83,17 @@ public class BackupGarbageCollector {
       CustomerConfigService customerConfigService,
       RuntimeConfigFactory runtimeConfigFactory,
       TableManagerYb tableManagerYb,
-      BackupUtil backupUtil) {
+      BackupUtil backupUtil,
+      PlatformExecutorFactory platformExecutorFactory) {
     this.actorSystem = actorSystem;
     this.executionContext = executionContext;
     this.customerConfigService = customerConfigService;
     this.runtimeConfigFactory = runtimeConfigFactory;
     this.tableManagerYb = tableManagerYb;
     this.backupUtil = backupUtil;
+    this.deleteExecutor =
+        platformExecutorFactory.createExecutor(
+            "backupGC", new ThreadFactoryBuilder().setNameFormat("BackupGC-%d").build());
   }
 
   public void start() {
@@ -88,6 +109,12 @@ public class BackupGarbageCollector {
         .getDuration(YB_BACKUP_GARBAGE_COLLECTOR_INTERVAL);
   }
 
+  private int maxParallelDeletesPerCustomer() {
+    return runtimeConfigFactory
+        .staticApplicationConf()
+        .getInt(YB_BACKUP_GC_MAX_PARALLEL_DELETES_PER_CUSTOMER);
+  }
+
   @VisibleForTesting
   void scheduleRunner() {
     if (!running.compareAndSet(false, true)) {
@@ -97,39 +124,44 @@ public class BackupGarbageCollector {
 
     log.info("Running Backup Garbage Collector");
     try {
+      int maxParallelDeletes = maxParallelDeletesPerCustomer();
       List<Customer> customersList = Customer.getAll();
+      List<CustomerConfig> configsToDelete = new ArrayList<>();
+      List<Future<?>> deletions = new ArrayList<>();
 
-      // Delete the backups associated with customer storage config which are in QueuedForDeletion
-      // state.
-      // After Deleting all associated backups we can delete the storage config.
-      customersList.forEach(
-          (customer) -> {
-            List<CustomerConfig> configList =
-                CustomerConfig.getAllStorageConfigsQueuedForDeletion(customer.uuid);
-            configList.forEach(
-                (config) -> {
-                  try {
-                    List<Backup> backupList =
-                        Backup.findAllBackupsQueuedForDeletionWithCustomerConfig(
-                            config.configUUID, customer.uuid);
-                    backupList.forEach(backup -> deleteBackup(customer.uuid, backup.backupUUID));
-                  } catch (Exception e) {
-                    log.error(
-                        "Error occured while deleting backups associated with {} storage config",
-                        config.configName);
-                  } finally {
-                    config.delete();
-                    log.info("Customer Storage config {} is deleted", config.configName);
-                  }
-                });
-          });
+      for (Customer customer : customersList) {
+        Set<UUID> backupUUIDs = new LinkedHashSet<>();
+        // Delete the backups associated with customer storage config which are in
+        // QueuedForDeletion state.
+        // After Deleting all associated backups we can delete the storage config.
+        List<CustomerConfig> configList =
+            CustomerConfig.getAllStorageConfigsQueuedForDeletion(customer.uuid);
+        for (CustomerConfig config : configList) {
+          try {
+            Backup.findAllBackupsQueuedForDeletionWithCustomerConfig(
+                    config.configUUID, customer.uuid)
+                .forEach(backup -> backupUUIDs.add(backup.backupUUID));
+          } catch (Exception e) {
+            log.error(
+                "Error occured while deleting backups associated with {} storage config",
+                config.configName);
+          }
+          configsToDelete.add(config);
+        }
+        // Backups left in DeleteInProgress state were interrupted by platform restart. Their
+        // deletion is resumed from the objects which are still present in the storage.
+        Backup.findAllBackupsDeleteInProgress(customer.uuid)
+            .forEach(backup -> backupUUIDs.add(backup.backupUUID));
+        Backup.findAllBackupsQueuedForDeletion(customer.uuid)
+            .forEach(backup -> backupUUIDs.add(backup.backupUUID));
+        deletions.addAll(submitDeletions(customer.uuid, backupUUIDs, maxParallelDeletes));
+      }
 
-      customersList.forEach(
-          (customer) -> {
-            List<Backup> backupList = Backup.findAllBackupsQueuedForDeletion(customer.uuid);
-            if (backupList != null) {
-              backupList.forEach((backup) -> deleteBackup(customer.uuid, backup.backupUUID));
-            }
+      waitForDeletions(deletions);
+      configsToDelete.forEach(
+          (config) -> {
+            config.delete();
+            log.info("Customer Storage config {} is deleted", config.configName);
           });
     } catch (Exception e) {
       log.error("Error running backup garbage collector", e);
@@ -138,7 +170,55 @@ public class BackupGarbageCollector {
     }
   }
 
-  public synchronized void deleteBackup(UUID customerUUID, UUID backupUUID) {
+  /**
+   * Deletes the customer backups in parallel, at most maxParallelDeletes backups of a customer are
+   * deleted at the same time. Backups of all the customers share the executor.
+   */
+  private List<Future<?>> submitDeletions(
+      UUID customerUUID, Collection<UUID> backupUUIDs, int maxParallelDeletes) {
+    Queue<UUID> pendingBackups = new ConcurrentLinkedQueue<>(backupUUIDs);
+    List<Future<?>> deletions = new ArrayList<>();
+    int workers = Math.min(maxParallelDeletes, pendingBackups.size());
+    for (int i = 0; i < workers; i++) {
+      deletions.add(
+          deleteExecutor.submit(
+              () -> {
+                UUID backupUUID;
+                while ((backupUUID = pendingBackups.poll()) != null) {
+                  try {
+                    deleteBackup(customerUUID, backupUUID);
+                  } catch (Exception e) {
+                    log.error("Error while deleting backup " + backupUUID, e);
+                  }
+                }
+              }));
+    }
+    return deletions;
+  }
+
+  private void waitForDeletions(List<Future<?>> deletions) throws InterruptedException {
+    for (Future<?> deletion : deletions) {
+      try {
+        deletion.get();
+      } catch (ExecutionException e) {
+        log.error("Error while deleting backups", e.getCause());
+      }
+    }
+  }
+
+  public void deleteBackup(UUID customerUUID, UUID backupUUID) {
+    if (!backupsInDeletion.add(backupUUID)) {
+      log.info("Backup {} is already being deleted", backupUUID);
+      return;
+    }
+    try {
+      deleteBackupFromStorage(customerUUID, backupUUID);
+    } finally {
+      backupsInDeletion.remove(backupUUID);
+    }
+  }
+
+  private void deleteBackupFromStorage(UUID customerUUID, UUID backupUUID) {
     Backup backup = Backup.maybeGet(customerUUID, backupUUID).orElse(null);
     // Backup is already deleted.
     if (backup == null || backup.state == BackupState.Deleted) {
@@ -148,25 +228,23 @@ public class BackupGarbageCollector {
       return;
     }
     try {
-      // Disable cert checking while connecting with s3
-      // Enabling it can potentially fail when s3 compatible storages like
-      // Dell ECS are provided and custom certs are needed to connect
-      // Reference: https://yugabyte.atlassian.net/browse/PLAT-2497
-      System.setProperty(SDKGlobalConfiguration.DISABLE_CERT_CHECKING_SYSTEM_PROPERTY, "true");
-
       UUID storageConfigUUID = backup.getBackupInfo().storageConfigUUID;
       CustomerConfig customerConfig =
           customerConfigService.getOrBadRequest(backup.customerUUID, storageConfigUUID);
       if (isCredentialUsable(customerConfig)) {
         List<String> backupLocations = null;
-        log.info("Backup {} deletion started", backupUUID);
-        backup.transitionState(BackupState.DeleteInProgress);
+        if (backup.state == BackupState.DeleteInProgress) {
+          log.info("Backup {} deletion resumed", backupUUID);
+        } else {
+          log.info("Backup {} deletion started", backupUUID);
+          backup.transitionState(BackupState.DeleteInProgress);
+        }
         try {
           switch (customerConfig.name) {
             case S3:
               backupLocations = getBackupLocations(backup);
-              AWSUtil.deleteKeyIfExists(customerConfig.data, backupLocations.get(0));
-              AWSUtil.deleteStorage(customerConfig.data, backupLocations);
+              AWSUtil.deleteKeyIfExists(customerConfig.data, backupLocations.get(0), true);
+              AWSUtil.deleteStorage(customerConfig.data, backupLocations, true);
               backup.delete();
               break;
             case GCS:
@@ -220,9 +298,6 @@ public class BackupGarbageCollector {
     } catch (Exception e) {
       log.error("Error while deleting backup " + backup.backupUUID, e);
       backup.transitionState(BackupState.FailedToDelete);
-    } finally {
-      // Re-enable cert checking as it applies globally
-      System.setProperty(SDKGlobalConfiguration.DISABLE_CERT_CHECKING_SYSTEM_PROPERTY, "false");
     }
   }
 
@@ -283,7 +358,8 @@ public class BackupGarbageCollector {
   private Boolean isCredentialUsable(CustomerConfig config) {
     Boolean isValid = true;
     try {
-      backupUtil.validateStorageConfig(config);
+      // Cert checking is disabled for S3 compatible storages with custom certs, PLAT-2497.
+      backupUtil.validateStorageConfig(config, true);
     } catch (PlatformServiceException e) {
       isValid = false;
     }
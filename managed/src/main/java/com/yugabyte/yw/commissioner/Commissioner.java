@@ -20,6 +20,7 @@ import com.yugabyte.yw.common.config.RuntimeConfigFactory;
 import com.yugabyte.yw.forms.ITaskParams;
 import com.yugabyte.yw.models.CustomerTask;
 import com.yugabyte.yw.models.TaskInfo;
+import com.yugabyte.yw.models.TaskInfo.SubTasksSummary;
 import com.yugabyte.yw.models.Universe;
 import com.yugabyte.yw.models.helpers.TaskType;
 import java.time.Duration;
@@ -170,6 +171,18 @@ public class Commissioner {
     if (task == null || taskInfo == null) {
       return Optional.empty();
     }
+    return buildTaskStatus(task, taskInfo, taskInfo.getSubTasksSummary());
+  }
+
+  /**
+   * Builds task status using previously loaded subtasks summary, which allows to build statuses
+   * for many tasks without querying their subtasks one task at a time.
+   */
+  public Optional<ObjectNode> buildTaskStatus(
+      CustomerTask task, TaskInfo taskInfo, SubTasksSummary subTasksSummary) {
+    if (task == null || taskInfo == null) {
+      return Optional.empty();
+    }
     ObjectNode responseJson = Json.newObject();
     // Add some generic information about the task
     responseJson.put("title", task.getFriendlyDescription());
@@ -180,9 +193,9 @@ public class Commissioner {
     // Find out the state of the task.
     responseJson.put("status", taskInfo.getTaskState().toString());
     // Get the percentage of subtasks that ran and completed
-    responseJson.put("percent", taskInfo.getPercentCompleted());
+    responseJson.put("percent", taskInfo.getPercentCompleted(subTasksSummary));
     // Get subtask groups
-    UserTaskDetails userTaskDetails = taskInfo.getUserTaskDetails();
+    UserTaskDetails userTaskDetails = taskInfo.getUserTaskDetails(subTasksSummary);
     responseJson.set("details", Json.toJson(userTaskDetails));
     // Set abortable if eligible.
     responseJson.put("abortable", false);
@@ -2,9 +2,11 @@ package com.yugabyte.yw.commissioner.tasks;
 
 import com.google.inject.Inject;
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.yugabyte.yw.commissioner.AbstractTaskBase;
 import com.yugabyte.yw.commissioner.BaseTaskDependencies;
 import com.yugabyte.yw.commissioner.tasks.params.SupportBundleTaskParams;
+import com.yugabyte.yw.common.PlatformExecutorFactory;
 import com.yugabyte.yw.common.config.RuntimeConfigFactory;
 import com.typesafe.config.Config;
 import com.yugabyte.yw.controllers.handlers.UniverseInfoHandler;
@@ -13,21 +15,31 @@ import com.yugabyte.yw.models.SupportBundle;
 import com.yugabyte.yw.models.Universe;
 import com.yugabyte.yw.models.SupportBundle.SupportBundleStatusType;
 import com.yugabyte.yw.models.helpers.BundleDetails;
+import com.yugabyte.yw.models.helpers.NodeDetails;
 import com.yugabyte.yw.common.supportbundle.SupportBundleComponent;
 import com.yugabyte.yw.common.supportbundle.SupportBundleComponentFactory;
 import com.yugabyte.yw.common.SupportBundleUtil;
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.zip.GZIPOutputStream;
 import java.text.ParseException;
 import lombok.extern.slf4j.Slf4j;
@@ -39,10 +51,13 @@ import org.apache.commons.io.FileUtils;
 @Slf4j
 public class CreateSupportBundle extends AbstractTaskBase {
 
+  private static final int BUFFER_SIZE = 64 * 1024;
+
   @Inject private UniverseInfoHandler universeInfoHandler;
   @Inject private SupportBundleComponentFactory supportBundleComponentFactory;
   @Inject private SupportBundleUtil supportBundleUtil;
   @Inject private Config config;
+  @Inject private PlatformExecutorFactory platformExecutorFactory;
 
   @Inject
   protected CreateSupportBundle(BaseTaskDependencies baseTaskDependencies) {
@@ -80,63 +95,116 @@ public class CreateSupportBundle extends AbstractTaskBase {
     log.debug("gzip support bundle path: {}", gzipPath.toString());
     log.debug("Fetching Universe {} logs", universe.name);
 
-    // Downloads each type of support bundle component type into the bundle path
-    for (BundleDetails.ComponentType componentType : supportBundle.getBundleDetails().components) {
-      SupportBundleComponent supportBundleComponent =
-          supportBundleComponentFactory.getComponent(componentType);
-      try {
-        // If both of the dates are given and valid
-        if (supportBundleUtil.isValidDate(supportBundle.getStartDate())
-            && supportBundleUtil.isValidDate(supportBundle.getEndDate())) {
-          supportBundleComponent.downloadComponentBetweenDates(
-              customer,
-              universe,
-              bundlePath,
-              supportBundle.getStartDate(),
-              supportBundle.getEndDate());
-        }
-        // If only the start date is valid, filter from startDate till the end
-        else if (supportBundleUtil.isValidDate(supportBundle.getStartDate())) {
-          supportBundleComponent.downloadComponentBetweenDates(
-              customer,
-              universe,
-              bundlePath,
-              supportBundle.getStartDate(),
-              new Date(Long.MAX_VALUE));
-        }
-        // If only the end date is valid, filter from the beginning till endDate
-        else if (supportBundleUtil.isValidDate(supportBundle.getEndDate())) {
-          supportBundleComponent.downloadComponentBetweenDates(
-              customer, universe, bundlePath, new Date(Long.MIN_VALUE), supportBundle.getEndDate());
-        }
-        // Default : If no dates are specified, download all the files from last n days
-        else {
-          int default_date_range = config.getInt("yb.support_bundle.default_date_range");
-          Date defaultEndDate = supportBundleUtil.getTodaysDate();
-          Date defaultStartDate =
-              supportBundleUtil.getDateNDaysAgo(defaultEndDate, default_date_range);
-          supportBundleComponent.downloadComponentBetweenDates(
-              customer, universe, bundlePath, defaultStartDate, defaultEndDate);
-        }
-      } catch (ParseException e) {
-        throw new RuntimeException(
-            String.format("Error while trying to parse the universe files : %s", e.getMessage()));
-      }
-    }
+    Date startDate = getFilterStartDate(supportBundle);
+    Date endDate = getFilterEndDate(supportBundle);
 
+    ThreadFactory namedThreadFactory =
+        new ThreadFactoryBuilder().setNameFormat("SupportBundlePool-%d").build();
+    ExecutorService downloadExecutor =
+        platformExecutorFactory.createExecutor("support_bundle", namedThreadFactory);
+    CompletionService<Path> completionService = new ExecutorCompletionService<>(downloadExecutor);
+    List<Future<Path>> futures = new ArrayList<>();
     try (FileOutputStream fos = new FileOutputStream(gzipPath.toString()); // need to test this path
-        GZIPOutputStream gos = new GZIPOutputStream(new BufferedOutputStream(fos));
+        GZIPOutputStream gos =
+            new GZIPOutputStream(new BufferedOutputStream(fos, BUFFER_SIZE), BUFFER_SIZE);
         TarArchiveOutputStream tarOS = new TarArchiveOutputStream(gos)) {
-
       tarOS.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
-      addFilesToTarGZ(bundlePath.toString(), "", tarOS);
-      FileUtils.deleteDirectory(new File(bundlePath.toAbsolutePath().toString()));
+
+      // Downloads each type of support bundle component concurrently, components which are
+      // collected from universe nodes are downloaded from all the nodes concurrently. Every
+      // download has its own directory, which is added to the archive as soon as it completes.
+      for (BundleDetails.ComponentType componentType :
+          supportBundle.getBundleDetails().components) {
+        SupportBundleComponent supportBundleComponent =
+            supportBundleComponentFactory.getComponent(componentType);
+        if (supportBundleComponent.isNodeComponent()) {
+          for (NodeDetails node : universe.getNodes()) {
+            futures.add(
+                submitDownload(
+                    completionService,
+                    bundlePath,
+                    downloadPath ->
+                        supportBundleComponent.downloadNodeComponentBetweenDates(
+                            customer, universe, node, downloadPath, startDate, endDate)));
+          }
+        } else {
+          futures.add(
+              submitDownload(
+                  completionService,
+                  bundlePath,
+                  downloadPath ->
+                      supportBundleComponent.downloadComponentBetweenDates(
+                          customer, universe, downloadPath, startDate, endDate)));
+        }
+      }
+
+      String bundleName = bundlePath.getFileName().toString();
+      for (int i = 0; i < futures.size(); i++) {
+        Path downloadPath = completionService.take().get();
+        addFilesToTarGZ(downloadPath, bundleName, tarOS);
+        FileUtils.deleteDirectory(downloadPath.toFile());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Support bundle generation was interrupted", e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(
+          String.format(
+              "Error while trying to parse the universe files : %s", e.getCause().getMessage()));
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+      downloadExecutor.shutdownNow();
+      FileUtils.deleteDirectory(bundlePath.toFile());
     }
     log.debug(
         "Finished aggregating logs for support bundle with UUID {}", supportBundle.getBundleUUID());
     return gzipPath;
   }
 
+  private Date getFilterStartDate(SupportBundle supportBundle) {
+    if (supportBundleUtil.isValidDate(supportBundle.getStartDate())) {
+      return supportBundle.getStartDate();
+    } else if (supportBundleUtil.isValidDate(supportBundle.getEndDate())) {
+      // If only the end date is valid, filter from the beginning till endDate
+      return new Date(Long.MIN_VALUE);
+    }
+    // Default : If no dates are specified, download all the files from last n days
+    int default_date_range = config.getInt("yb.support_bundle.default_date_range");
+    return supportBundleUtil.getDateNDaysAgo(getTodaysDate(), default_date_range);
+  }
+
+  private Date getFilterEndDate(SupportBundle supportBundle) {
+    if (supportBundleUtil.isValidDate(supportBundle.getEndDate())) {
+      return supportBundle.getEndDate();
+    } else if (supportBundleUtil.isValidDate(supportBundle.getStartDate())) {
+      // If only the start date is valid, filter from startDate till the end
+      return new Date(Long.MAX_VALUE);
+    }
+    return getTodaysDate();
+  }
+
+  private Date getTodaysDate() {
+    try {
+      return supportBundleUtil.getTodaysDate();
+    } catch (ParseException e) {
+      throw new RuntimeException(
+          String.format("Error while trying to parse the universe files : %s", e.getMessage()));
+    }
+  }
+
+  private Future<Path> submitDownload(
+      CompletionService<Path> completionService, Path bundlePath, ComponentDownload download)
+      throws IOException {
+    Path downloadPath = Files.createTempDirectory(bundlePath, "download");
+    return completionService.submit(
+        () -> {
+          download.run(downloadPath);
+          return downloadPath;
+        });
+  }
+
   private Path generateBundlePath(Universe universe) {
     String storagePath = runtimeConfigFactory.staticApplicationConf().getString("yb.storage.path");
     String datePrefix = new SimpleDateFormat("yyyyMMddHHmmss.SSS").format(new Date());
@@ -145,23 +213,26 @@ public class CreateSupportBundle extends AbstractTaskBase {
     return bundlePath;
   }
 
+  // Adds all the files downloaded into the download path to the archive, under the bundle name
   private static void addFilesToTarGZ(
-      String filePath, String parent, TarArchiveOutputStream tarArchive) throws IOException {
-    File file = new File(filePath);
-    String entryName = parent + file.getName();
-    tarArchive.putArchiveEntry(new TarArchiveEntry(file, entryName));
-    if (file.isFile()) {
-      try (FileInputStream fis = new FileInputStream(file);
-          BufferedInputStream bis = new BufferedInputStream(fis)) {
-        IOUtils.copy(bis, tarArchive);
-        tarArchive.closeArchiveEntry();
+      Path downloadPath, String bundleName, TarArchiveOutputStream tarArchive)
+      throws IOException {
+    List<Path> files;
+    try (Stream<Path> paths = Files.walk(downloadPath)) {
+      files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+    for (Path file : files) {
+      String entryName = bundleName + File.separator + downloadPath.relativize(file);
+      tarArchive.putArchiveEntry(new TarArchiveEntry(file.toFile(), entryName));
+      try (InputStream is = Files.newInputStream(file)) {
+        IOUtils.copy(is, tarArchive, BUFFER_SIZE);
       }
-    } else if (file.isDirectory()) {
-      // no content to copy so close archive entry
       tarArchive.closeArchiveEntry();
-      for (File f : file.listFiles()) {
-        addFilesToTarGZ(f.getAbsolutePath(), entryName + File.separator, tarArchive);
-      }
     }
   }
+
+  @FunctionalInterface
+  private interface ComponentDownload {
+    void run(Path downloadPath) throws IOException, ParseException;
+  }
 }
@@ -10,7 +10,6 @@
 
 package com.yugabyte.yw.commissioner.tasks;
 
-import com.amazonaws.SDKGlobalConfiguration;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.yugabyte.yw.commissioner.BaseTaskDependencies;
 import com.yugabyte.yw.commissioner.SubTaskGroupQueue;
@@ -67,11 +66,6 @@ public class DeleteCustomerConfig extends UniverseTaskBase {
   @Override
   public void run() {
     try {
-      // Disable cert checking while connecting with s3
-      // Enabling it can potentially fail when s3 compatible storages like
-      // Dell ECS are provided and custom certs are needed to connect
-      // Reference: https://yugabyte.atlassian.net/browse/PLAT-2497
-      System.setProperty(SDKGlobalConfiguration.DISABLE_CERT_CHECKING_SYSTEM_PROPERTY, "true");
       subTaskGroupQueue = new SubTaskGroupQueue(userTaskUUID);
       List<Schedule> scheduleList = Schedule.findAllScheduleWithCustomerConfig(params().configUUID);
       for (Schedule schedule : scheduleList) {
@@ -90,8 +84,8 @@ public class DeleteCustomerConfig extends UniverseTaskBase {
               for (Backup backup : backupList) {
                 try {
                   backupLocations = getBackupLocations(backup);
-                  AWSUtil.deleteKeyIfExists(customerConfig.data, backupLocations.get(0));
-                  AWSUtil.deleteStorage(customerConfig.data, backupLocations);
+                  AWSUtil.deleteKeyIfExists(customerConfig.data, backupLocations.get(0), true);
+                  AWSUtil.deleteStorage(customerConfig.data, backupLocations, true);
                 } catch (Exception e) {
                   log.error(" Error in deleting backup " + backup.backupUUID.toString(), e);
                   backup.transitionState(Backup.BackupState.FailedToDelete);
@@ -166,8 +160,6 @@ public class DeleteCustomerConfig extends UniverseTaskBase {
       CustomerConfig customerConfig =
           CustomerConfig.get(params().customerUUID, params().configUUID);
       customerConfig.delete();
-      // Re-enable cert checking as it applies globally
-      System.setProperty(SDKGlobalConfiguration.DISABLE_CERT_CHECKING_SYSTEM_PROPERTY, "false");
     }
     log.info("Finished {} task.", getName());
   }
@@ -193,7 +185,8 @@ public class DeleteCustomerConfig extends UniverseTaskBase {
   private Boolean isCredentialUsable(CustomerConfig config) {
     Boolean isValid = true;
     try {
-      backupUtil.validateStorageConfig(config);
+      // Cert checking is disabled for S3 compatible storages with custom certs, PLAT-2497.
+      backupUtil.validateStorageConfig(config, true);
     } catch (PlatformServiceException e) {
       isValid = false;
     }
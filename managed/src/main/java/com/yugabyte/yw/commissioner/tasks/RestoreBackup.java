@@ -12,6 +12,7 @@ import com.yugabyte.yw.models.Backup;
 import com.yugabyte.yw.models.KmsConfig;
 import com.yugabyte.yw.models.Universe;
 import java.util.ArrayList;
+import java.util.List;
 import javax.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 
@@ -49,6 +50,7 @@ public class RestoreBackup extends UniverseTaskBase {
       }
       UserTaskDetails.SubTaskGroupType groupType = UserTaskDetails.SubTaskGroupType.RestoringBackup;
       if (taskParams().backupStorageInfoList != null) {
+        List<RestoreBackupParams> restoreParamsList = new ArrayList<>();
         for (BackupStorageInfo backupStorageInfo : taskParams().backupStorageInfoList) {
           if (KmsConfig.get(taskParams().kmsConfigUUID) != null) {
             RestoreBackupParams restoreParams =
@@ -57,9 +59,13 @@ public class RestoreBackup extends UniverseTaskBase {
             createEncryptedUniverseKeyRestoreTaskYb(restoreParams).setSubTaskGroupType(groupType);
           }
 
-          RestoreBackupParams restoreParams =
-              createParamsBody(taskParams(), backupStorageInfo, ActionType.RESTORE);
-          createRestoreBackupTask(restoreParams).setSubTaskGroupType(groupType);
+          restoreParamsList.add(
+              createParamsBody(taskParams(), backupStorageInfo, ActionType.RESTORE));
+        }
+        // Universe keys of all the parts are restored first, then the parts are restored in
+        // parallel within the backup concurrency limits.
+        if (!restoreParamsList.isEmpty()) {
+          createRestoreBackupTasks(restoreParamsList).setSubTaskGroupType(groupType);
         }
       }
 
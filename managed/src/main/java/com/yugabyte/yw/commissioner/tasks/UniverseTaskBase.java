@@ -1441,6 +1441,19 @@ public abstract class UniverseTaskBase extends AbstractTaskBase {
     return subTaskGroup;
   }
 
+  /** Creates a single task group, so the passed backup parts are restored in parallel. */
+  public SubTaskGroup createRestoreBackupTasks(List<RestoreBackupParams> restoreParamsList) {
+    SubTaskGroup subTaskGroup = new SubTaskGroup("RestoreBackupYb", executor);
+    for (RestoreBackupParams restoreParams : restoreParamsList) {
+      RestoreBackupYb task = createTask(RestoreBackupYb.class);
+      task.initialize(restoreParams);
+      task.setUserTaskUUID(userTaskUUID);
+      subTaskGroup.addTask(task);
+    }
+    subTaskGroupQueue.add(subTaskGroup);
+    return subTaskGroup;
+  }
+
   public SubTaskGroup createDeleteBackupTasks(List<Backup> backups, UUID customerUUID) {
     SubTaskGroup subTaskGroup = new SubTaskGroup("DeleteBackup", executor);
     for (Backup backup : backups) {
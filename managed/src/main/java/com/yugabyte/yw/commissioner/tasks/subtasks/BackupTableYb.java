@@ -14,13 +14,18 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.google.api.client.util.Throwables;
 import com.yugabyte.yw.commissioner.AbstractTaskBase;
 import com.yugabyte.yw.commissioner.BaseTaskDependencies;
+import com.yugabyte.yw.common.BackupConcurrencyLimiter;
 import com.yugabyte.yw.common.BackupUtil;
 import com.yugabyte.yw.common.ShellResponse;
 import com.yugabyte.yw.forms.BackupTableParams;
 import com.yugabyte.yw.models.Backup;
 import com.yugabyte.yw.models.Universe;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import javax.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import play.libs.Json;
@@ -28,9 +33,16 @@ import play.libs.Json;
 @Slf4j
 public class BackupTableYb extends AbstractTaskBase {
 
+  static final String MAX_PART_ATTEMPTS = "yb.backup.max_part_attempts";
+
+  private final BackupConcurrencyLimiter backupConcurrencyLimiter;
+
   @Inject
-  public BackupTableYb(BaseTaskDependencies baseTaskDependencies) {
+  public BackupTableYb(
+      BaseTaskDependencies baseTaskDependencies,
+      BackupConcurrencyLimiter backupConcurrencyLimiter) {
     super(baseTaskDependencies);
+    this.backupConcurrencyLimiter = backupConcurrencyLimiter;
   }
 
   @Override
@@ -48,27 +60,38 @@ public class BackupTableYb extends AbstractTaskBase {
       Map<String, String> config = universe.getConfig();
       if (config.isEmpty() || config.getOrDefault(Universe.TAKE_BACKUPS, "true").equals("true")) {
         long totalBackupSize = 0L;
-        int backupIdx = 0;
-        for (BackupTableParams backupParams : taskParams().backupList) {
-          ShellResponse response = tableManagerYb.createBackup(backupParams);
-          processShellResponse(response);
-          JsonNode jsonNode = null;
-          try {
-            jsonNode = Json.parse(response.message);
-          } catch (Exception e) {
-            log.error("Response code={}, output={}.", response.code, response.message);
-            throw e;
+        List<Future<Long>> backupParts = new ArrayList<>();
+        createThreadpool();
+        try {
+          for (int backupIdx = 0; backupIdx < taskParams().backupList.size(); backupIdx++) {
+            BackupTableParams backupParams = taskParams().backupList.get(backupIdx);
+            if (backup.isBackupPartCompleted(backupIdx)) {
+              log.info("Skipping backup part {} as it is already completed", backupIdx);
+              totalBackupSize += backup.getBackupInfo().backupList.get(backupIdx).backupSizeInBytes;
+              continue;
+            }
+            int partIdx = backupIdx;
+            backupParts.add(executor.submit(() -> backupPart(backup, partIdx, backupParams)));
           }
-          if (response.code != 0 || jsonNode.has("error")) {
-            log.error("Response code={}, hasError={}.", response.code, jsonNode.has("error"));
-            throw new RuntimeException(response.message);
+          // Wait for all the parts, so the completed ones are recorded even if some part failed.
+          RuntimeException partError = null;
+          for (Future<Long> backupPart : backupParts) {
+            try {
+              totalBackupSize += backupPart.get();
+            } catch (ExecutionException e) {
+              if (partError == null) {
+                partError =
+                    e.getCause() instanceof RuntimeException
+                        ? (RuntimeException) e.getCause()
+                        : new RuntimeException(e.getCause());
+              }
+            }
           }
-
-          log.info("[" + getName() + "] STDOUT: " + response.message);
-          long backupSize = BackupUtil.extractBackupSize(jsonNode);
-          backup.setBackupSizeInBackupList(backupIdx, backupSize);
-          totalBackupSize += backupSize;
-          backupIdx++;
+          if (partError != null) {
+            throw partError;
+          }
+        } finally {
+          executor.shutdown();
         }
         backup.setCompletionTime(backup.getUpdateTime());
         backup.setTotalBackupSize(totalBackupSize);
@@ -83,4 +106,57 @@ public class BackupTableYb extends AbstractTaskBase {
       Throwables.propagate(e);
     }
   }
+
+  /**
+   * Takes backup of a single part of the backup list under the universe and storage config
+   * concurrency limits. Failed part is retried up to yb.backup.max_part_attempts times.
+   *
+   * @return size of the part backup in bytes.
+   */
+  private long backupPart(Backup backup, int backupIdx, BackupTableParams backupParams)
+      throws InterruptedException {
+    int maxAttempts = config.getInt(MAX_PART_ATTEMPTS);
+    try (BackupConcurrencyLimiter.Permit permit =
+        backupConcurrencyLimiter.acquire(
+            taskParams().universeUUID, taskParams().storageConfigUUID)) {
+      for (int attempt = 1; ; attempt++) {
+        try {
+          long backupSize = runBackupCommand(backupParams);
+          backup.setBackupPartCompleted(backupIdx, backupSize);
+          return backupSize;
+        } catch (CancellationException e) {
+          throw e;
+        } catch (RuntimeException e) {
+          if (attempt >= maxAttempts) {
+            throw e;
+          }
+          log.warn(
+              "Backup part {} failed on attempt {} of {}, retrying: {}",
+              backupIdx,
+              attempt,
+              maxAttempts,
+              e.getMessage());
+        }
+      }
+    }
+  }
+
+  private long runBackupCommand(BackupTableParams backupParams) {
+    ShellResponse response = tableManagerYb.createBackup(backupParams);
+    processShellResponse(response);
+    JsonNode jsonNode = null;
+    try {
+      jsonNode = Json.parse(response.message);
+    } catch (Exception e) {
+      log.error("Response code={}, output={}.", response.code, response.message);
+      throw e;
+    }
+    if (response.code != 0 || jsonNode.has("error")) {
+      log.error("Response code={}, hasError={}.", response.code, jsonNode.has("error"));
+      throw new RuntimeException(response.message);
+    }
+
+    log.info("[" + getName() + "] STDOUT: " + response.message);
+    return BackupUtil.extractBackupSize(jsonNode);
+  }
 }
@@ -18,12 +18,9 @@ import com.yugabyte.yw.common.KubernetesManagerFactory;
 import com.yugabyte.yw.forms.AbstractTaskParams;
 import com.yugabyte.yw.models.Provider;
 
-import io.fabric8.kubernetes.api.model.Pod;
-
-import java.util.List;
+import java.time.Duration;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 
 public class KubernetesCheckNumPod extends AbstractTaskBase {
   public enum CommandType {
@@ -51,7 +48,7 @@ public class KubernetesCheckNumPod extends AbstractTaskBase {
   // Number of iterations to wait for the pod to come up.
   private static final int MAX_ITERS = 10;
 
-  // Time to sleep on each iteration of the pod to come up.
+  // Length of a poll interval in seconds.
   private static final int SLEEP_TIME = 10;
 
   public static class Params extends AbstractTaskParams {
@@ -75,41 +72,36 @@ public class KubernetesCheckNumPod extends AbstractTaskBase {
     // TODO: add checks for the shell process handler return values.
     switch (taskParams().commandType) {
       case WAIT_FOR_PODS:
-        int iters = 0;
-        boolean status;
-        do {
-          status = waitForPods();
-          iters++;
-          if (status) {
-            break;
-          }
-          try {
-            TimeUnit.SECONDS.sleep(getSleepMultiplier() * SLEEP_TIME);
-          } catch (InterruptedException ex) {
-            // Do nothing
-          }
-        } while (!status && iters < MAX_ITERS);
-        if (iters >= MAX_ITERS) {
-          throw new RuntimeException("Pods' start taking too long.");
-        }
+        waitForPods();
         break;
     }
   }
 
-  // Wait for the correct number of pods to be in the call.
-  private boolean waitForPods() {
+  // Waits for the correct number of pods, the manager watches or polls the pods.
+  private void waitForPods() {
+    Duration timeout = Duration.ofSeconds((long) getSleepMultiplier() * SLEEP_TIME * MAX_ITERS);
+    try {
+      if (!kubernetesManagerFactory
+          .getManager()
+          .waitForPodCount(
+              getConfig(),
+              taskParams().nodePrefix,
+              taskParams().namespace,
+              taskParams().podNum,
+              timeout)) {
+        throw new RuntimeException("Pods' start taking too long.");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for pods", e);
+    }
+  }
+
+  private Map<String, String> getConfig() {
     Map<String, String> config = taskParams().config;
     if (taskParams().config == null) {
       config = Provider.get(taskParams().providerUUID).getUnmaskedConfig();
     }
-    List<Pod> pods =
-        kubernetesManagerFactory
-            .getManager()
-            .getPodInfos(config, taskParams().nodePrefix, taskParams().namespace);
-    if (pods.size() == taskParams().podNum) {
-      return true;
-    } else {
-      return false;
-    }
+    return config;
   }
 }
@@ -18,12 +18,9 @@ import com.yugabyte.yw.common.KubernetesManagerFactory;
 import com.yugabyte.yw.forms.AbstractTaskParams;
 import com.yugabyte.yw.models.Provider;
 
-import io.fabric8.kubernetes.api.model.PodCondition;
-import io.fabric8.kubernetes.api.model.PodStatus;
-
+import java.time.Duration;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 
 public class KubernetesWaitForPod extends AbstractTaskBase {
   public enum CommandType {
@@ -51,7 +48,7 @@ public class KubernetesWaitForPod extends AbstractTaskBase {
   // Number of iterations to wait for the pod to come up.
   private static final int MAX_ITERS = 10;
 
-  // Time to sleep on each iteration of the pod to come up.
+  // Length of a poll interval in seconds.
   private static final int SLEEP_TIME = 10;
 
   public static class Params extends AbstractTaskParams {
@@ -79,43 +76,32 @@ public class KubernetesWaitForPod extends AbstractTaskBase {
     // TODO: add checks for the shell process handler return values.
     switch (taskParams().commandType) {
       case WAIT_FOR_POD:
-        int iters = 0;
-        String status;
-        do {
-          status = waitForPod();
-          iters++;
-          if (status.equals("Running")) {
-            break;
-          }
-          try {
-            TimeUnit.SECONDS.sleep(getSleepMultiplier() * SLEEP_TIME);
-          } catch (InterruptedException ex) {
-            // Do nothing
-          }
-        } while (!status.equals("Running") && iters < MAX_ITERS);
-        if (iters > MAX_ITERS) {
-          throw new RuntimeException("Pod " + taskParams().podName + " creation taking too long.");
-        }
+        waitForPod();
         break;
     }
   }
 
-  // Waits for pods as well as the containers inside the pod.
-  private String waitForPod() {
+  // Waits for the pod as well as the containers inside the pod to be ready, the manager watches
+  // or polls the pod state.
+  private void waitForPod() {
+    Duration timeout = Duration.ofSeconds((long) getSleepMultiplier() * SLEEP_TIME * MAX_ITERS);
+    try {
+      if (!kubernetesManagerFactory
+          .getManager()
+          .waitForPodReady(getConfig(), taskParams().namespace, taskParams().podName, timeout)) {
+        throw new RuntimeException("Pod " + taskParams().podName + " creation taking too long.");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for pod " + taskParams().podName, e);
+    }
+  }
+
+  private Map<String, String> getConfig() {
     Map<String, String> config = taskParams().config;
     if (taskParams().config == null) {
       config = Provider.get(taskParams().providerUUID).getUnmaskedConfig();
     }
-    PodStatus podStatus =
-        kubernetesManagerFactory
-            .getManager()
-            .getPodStatus(config, taskParams().namespace, taskParams().podName);
-    String status = podStatus.getPhase();
-    for (PodCondition condition : podStatus.getConditions()) {
-      if (condition.getStatus().equals("False")) {
-        status = "Not Ready";
-      }
-    }
-    return status;
+    return config;
   }
 }
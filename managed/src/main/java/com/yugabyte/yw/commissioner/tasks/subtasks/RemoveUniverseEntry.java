@@ -13,15 +13,20 @@ package com.yugabyte.yw.commissioner.tasks.subtasks;
 import com.yugabyte.yw.commissioner.BaseTaskDependencies;
 import com.yugabyte.yw.commissioner.tasks.DestroyUniverse;
 import com.yugabyte.yw.commissioner.tasks.UniverseTaskBase;
+import com.yugabyte.yw.common.DbConnectionPools;
 import com.yugabyte.yw.models.AlertConfiguration;
 import com.yugabyte.yw.models.Customer;
 import com.yugabyte.yw.models.Universe;
 import javax.inject.Inject;
 
 public class RemoveUniverseEntry extends UniverseTaskBase {
+  private final DbConnectionPools dbConnectionPools;
+
   @Inject
-  protected RemoveUniverseEntry(BaseTaskDependencies baseTaskDependencies) {
+  protected RemoveUniverseEntry(
+      BaseTaskDependencies baseTaskDependencies, DbConnectionPools dbConnectionPools) {
     super(baseTaskDependencies);
+    this.dbConnectionPools = dbConnectionPools;
   }
 
   @Override
@@ -35,6 +40,7 @@ public class RemoveUniverseEntry extends UniverseTaskBase {
     customer.removeUniverseUUID(taskParams().universeUUID);
     customer.save();
     Universe.delete(taskParams().universeUUID);
+    dbConnectionPools.closeUniverseConnections(taskParams().universeUUID);
 
     alertConfigurationService.handleSourceRemoval(
         taskParams().customerUUID,
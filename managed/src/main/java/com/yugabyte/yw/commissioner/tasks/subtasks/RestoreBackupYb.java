@@ -3,6 +3,7 @@ package com.yugabyte.yw.commissioner.tasks.subtasks;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.yugabyte.yw.commissioner.AbstractTaskBase;
 import com.yugabyte.yw.commissioner.BaseTaskDependencies;
+import com.yugabyte.yw.common.BackupConcurrencyLimiter;
 import com.yugabyte.yw.common.DevopsBase;
 import com.yugabyte.yw.common.ShellResponse;
 import com.yugabyte.yw.forms.RestoreBackupParams;
@@ -26,9 +27,14 @@ import play.libs.Json;
 @Slf4j
 public class RestoreBackupYb extends AbstractTaskBase {
 
+  private final BackupConcurrencyLimiter backupConcurrencyLimiter;
+
   @Inject
-  public RestoreBackupYb(BaseTaskDependencies baseTaskDependencies) {
+  public RestoreBackupYb(
+      BaseTaskDependencies baseTaskDependencies,
+      BackupConcurrencyLimiter backupConcurrencyLimiter) {
     super(baseTaskDependencies);
+    this.backupConcurrencyLimiter = backupConcurrencyLimiter;
   }
 
   @Override
@@ -39,7 +45,10 @@ public class RestoreBackupYb extends AbstractTaskBase {
   @Override
   public void run() {
 
-    try {
+    // Restore parts run in parallel, so they share the backup concurrency limits.
+    try (BackupConcurrencyLimiter.Permit permit =
+        backupConcurrencyLimiter.acquire(
+            taskParams().universeUUID, taskParams().storageConfigUUID)) {
       ShellResponse response = restoreManagerYb.runCommand(taskParams());
       JsonNode jsonNode = null;
       try {
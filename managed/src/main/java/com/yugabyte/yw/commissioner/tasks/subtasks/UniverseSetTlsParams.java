@@ -4,6 +4,7 @@ package com.yugabyte.yw.commissioner.tasks.subtasks;
 
 import com.yugabyte.yw.commissioner.BaseTaskDependencies;
 import com.yugabyte.yw.commissioner.tasks.UniverseTaskBase;
+import com.yugabyte.yw.common.DbConnectionPools;
 import com.yugabyte.yw.common.certmgmt.EncryptionInTransitUtil;
 import com.yugabyte.yw.forms.UniverseDefinitionTaskParams;
 import com.yugabyte.yw.forms.UniverseTaskParams;
@@ -15,9 +16,13 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class UniverseSetTlsParams extends UniverseTaskBase {
 
+  private final DbConnectionPools dbConnectionPools;
+
   @Inject
-  protected UniverseSetTlsParams(BaseTaskDependencies baseTaskDependencies) {
+  protected UniverseSetTlsParams(
+      BaseTaskDependencies baseTaskDependencies, DbConnectionPools dbConnectionPools) {
     super(baseTaskDependencies);
+    this.dbConnectionPools = dbConnectionPools;
   }
 
   public static class Params extends UniverseTaskParams {
@@ -74,6 +79,8 @@ public class UniverseSetTlsParams extends UniverseTaskBase {
       // Perform the update. If unsuccessful, this will throw a runtime
       // exception which we do not catch as we want to fail.
       saveUniverseDetails(updater);
+      // Connections opened with the previous TLS settings are not usable anymore.
+      dbConnectionPools.closeUniverseConnections(taskParams().universeUUID);
     } catch (Exception e) {
       String msg = getName() + " failed with exception " + e.getMessage();
       log.warn(msg, e.getMessage());
@@ -4,6 +4,7 @@ package com.yugabyte.yw.commissioner.tasks.subtasks;
 
 import com.yugabyte.yw.commissioner.BaseTaskDependencies;
 import com.yugabyte.yw.commissioner.tasks.UniverseTaskBase;
+import com.yugabyte.yw.common.DbConnectionPools;
 import com.yugabyte.yw.forms.UniverseDefinitionTaskParams;
 import com.yugabyte.yw.forms.UniverseTaskParams;
 import com.yugabyte.yw.models.CertificateInfo;
@@ -19,9 +20,13 @@ public class UniverseUpdateRootCert extends UniverseTaskBase {
 
   public static String MULTI_ROOT_CERT = "%s.ca.multi.root.crt";
 
+  private final DbConnectionPools dbConnectionPools;
+
   @Inject
-  protected UniverseUpdateRootCert(BaseTaskDependencies baseTaskDependencies) {
+  protected UniverseUpdateRootCert(
+      BaseTaskDependencies baseTaskDependencies, DbConnectionPools dbConnectionPools) {
     super(baseTaskDependencies);
+    this.dbConnectionPools = dbConnectionPools;
   }
 
   public enum UpdateRootCertAction {
@@ -101,6 +106,8 @@ public class UniverseUpdateRootCert extends UniverseTaskBase {
           }
         }
       }
+      // Root certificate used for client connections has changed.
+      dbConnectionPools.closeUniverseConnections(taskParams().universeUUID);
     } catch (Exception e) {
       String msg = getName() + " failed with exception " + e.getMessage();
       log.warn(msg, e.getMessage());
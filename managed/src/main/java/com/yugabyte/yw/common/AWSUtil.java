@@ -5,6 +5,7 @@ package com.yugabyte.yw.common;
 import com.google.inject.Singleton;
 import com.yugabyte.yw.models.Backup;
 import com.yugabyte.yw.common.Util;
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
@@ -16,12 +17,17 @@ import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
 import com.amazonaws.services.s3.model.DeleteObjectsRequest;
 import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
-import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
 import com.amazonaws.services.s3.model.ListObjectsV2Result;
 import com.amazonaws.services.s3.model.MultiObjectDeleteException;
 import com.amazonaws.services.s3.model.MultiObjectDeleteException.DeleteError;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.conn.ssl.TrustAllStrategy;
+import org.apache.http.ssl.SSLContexts;
+import java.security.GeneralSecurityException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.stream.Collectors;
@@ -39,9 +45,14 @@ public class AWSUtil {
 
   // This method is a way to check if given S3 config can extract objects.
   public static Boolean canCredentialListObjects(JsonNode configData, List<String> locations) {
+    return canCredentialListObjects(configData, locations, false);
+  }
+
+  public static Boolean canCredentialListObjects(
+      JsonNode configData, List<String> locations, boolean disableCertChecking) {
     for (String location : locations) {
       try {
-        AmazonS3 s3Client = createS3Client(configData);
+        AmazonS3 s3Client = createS3Client(configData, disableCertChecking);
         String[] bucketSplit = getSplitLocationValue(location);
         String bucketName = bucketSplit.length > 0 ? bucketSplit[0] : "";
         String prefix = bucketSplit.length > 1 ? bucketSplit[1] : "";
@@ -69,13 +80,18 @@ public class AWSUtil {
 
   public static void deleteKeyIfExists(JsonNode configData, String backupLocation)
       throws Exception {
+    deleteKeyIfExists(configData, backupLocation, false);
+  }
+
+  public static void deleteKeyIfExists(
+      JsonNode configData, String backupLocation, boolean disableCertChecking) throws Exception {
     String[] splitLocation = getSplitLocationValue(backupLocation);
     String bucketName = splitLocation[0];
     String objectPrefix = splitLocation[1];
     String keyLocation =
         objectPrefix.substring(0, objectPrefix.lastIndexOf('/')) + KEY_LOCATION_SUFFIX;
     try {
-      AmazonS3 s3Client = createS3Client(configData);
+      AmazonS3 s3Client = createS3Client(configData, disableCertChecking);
       ListObjectsV2Result listObjectsResult = s3Client.listObjectsV2(bucketName, keyLocation);
       if (listObjectsResult.getKeyCount() == 0) {
         log.info("Specified Location " + keyLocation + " does not contain objects");
@@ -98,6 +114,16 @@ public class AWSUtil {
   }
 
   public static AmazonS3 createS3Client(JsonNode data) {
+    return createS3Client(data, false);
+  }
+
+  /**
+   * Creates the S3 client for the given config. Certificate checking is disabled only for this
+   * client when disableCertChecking is set, S3 compatible storages like Dell ECS can use custom
+   * certs which are not known to the platform. Reference:
+   * https://yugabyte.atlassian.net/browse/PLAT-2497
+   */
+  public static AmazonS3 createS3Client(JsonNode data, boolean disableCertChecking) {
 
     String key = data.get(AWS_ACCESS_KEY_ID_FIELDNAME).asText();
     String secret = data.get(AWS_SECRET_ACCESS_KEY_FIELDNAME).asText();
@@ -109,8 +135,9 @@ public class AWSUtil {
             ? data.get(AWS_HOST_BASE_FIELDNAME).textValue()
             : null;
     AWSCredentials credentials = new BasicAWSCredentials(key, secret);
+    ClientConfiguration clientConfiguration = createClientConfiguration(disableCertChecking);
     if (!isPathStyleAccess || endpoint == null) {
-      AmazonS3Client client = new AmazonS3Client(credentials);
+      AmazonS3Client client = new AmazonS3Client(credentials, clientConfiguration);
       if (endpoint != null) {
         client.setEndpoint(endpoint);
       }
@@ -121,6 +148,7 @@ public class AWSUtil {
     AmazonS3 client =
         AmazonS3Client.builder()
             .withCredentials(creds)
+            .withClientConfiguration(clientConfiguration)
             .withForceGlobalBucketAccessEnabled(true)
             .withPathStyleAccessEnabled(true)
             .withEndpointConfiguration(endpointConfiguration)
@@ -128,28 +156,51 @@ public class AWSUtil {
     return client;
   }
 
+  private static ClientConfiguration createClientConfiguration(boolean disableCertChecking) {
+    ClientConfiguration clientConfiguration = new ClientConfiguration();
+    if (disableCertChecking) {
+      try {
+        SSLConnectionSocketFactory sslSocketFactory =
+            new SSLConnectionSocketFactory(
+                SSLContexts.custom().loadTrustMaterial(TrustAllStrategy.INSTANCE).build(),
+                NoopHostnameVerifier.INSTANCE);
+        clientConfiguration.getApacheHttpClientConfig().setSslSocketFactory(sslSocketFactory);
+      } catch (GeneralSecurityException e) {
+        throw new IllegalStateException("Failed to disable cert checking for S3 client", e);
+      }
+    }
+    return clientConfiguration;
+  }
+
+  // Single client is used for all the locations, every listed page of up to 1000 objects is removed
+  // by a single multi-object delete request.
   public static void deleteStorage(JsonNode configData, List<String> backupLocations)
       throws Exception {
+    deleteStorage(configData, backupLocations, false);
+  }
+
+  public static void deleteStorage(
+      JsonNode configData, List<String> backupLocations, boolean disableCertChecking)
+      throws Exception {
+    AmazonS3 s3Client = createS3Client(configData, disableCertChecking);
     for (String backupLocation : backupLocations) {
       try {
-        AmazonS3 s3Client = createS3Client(configData);
         String[] splitLocation = getSplitLocationValue(backupLocation);
         String bucketName = splitLocation[0];
         String objectPrefix = splitLocation[1];
-        String nextContinuationToken = null;
+        ListObjectsV2Request listObjectsRequest =
+            new ListObjectsV2Request().withBucketName(bucketName).withPrefix(objectPrefix);
+        ListObjectsV2Result listObjectsResult;
         do {
-          ListObjectsV2Result listObjectsResult = s3Client.listObjectsV2(bucketName, objectPrefix);
+          listObjectsResult = s3Client.listObjectsV2(listObjectsRequest);
           if (listObjectsResult.getKeyCount() == 0) {
             break;
           }
-          nextContinuationToken = null;
-          if (listObjectsResult.isTruncated()) {
-            nextContinuationToken = listObjectsResult.getContinuationToken();
-          }
           log.debug(
               "Retrieved blobs info for bucket " + bucketName + " with prefix " + objectPrefix);
           retrieveAndDeleteObjects(listObjectsResult, bucketName, s3Client);
-        } while (nextContinuationToken != null);
+          listObjectsRequest.setContinuationToken(listObjectsResult.getNextContinuationToken());
+        } while (listObjectsResult.isTruncated());
       } catch (Exception e) {
         log.error(" Error in deleting objects at location " + backupLocation, e);
         throw e;
@@ -162,12 +213,22 @@ public class AWSUtil {
       throws Exception {
     List<S3ObjectSummary> objectSummary = listObjectsResult.getObjectSummaries();
     List<DeleteObjectsRequest.KeyVersion> objectKeys =
-        objectSummary
-            .parallelStream()
-            .map(o -> new KeyVersion(o.getKey()))
-            .collect(Collectors.toList());
+        objectSummary.stream().map(o -> new KeyVersion(o.getKey())).collect(Collectors.toList());
+    // Quiet mode - only the keys which failed to delete are returned, failures are thrown as
+    // MultiObjectDeleteException.
     DeleteObjectsRequest deleteRequest =
-        new DeleteObjectsRequest(bucketName).withKeys(objectKeys).withQuiet(false);
-    DeleteObjectsResult response = s3Client.deleteObjects(deleteRequest);
+        new DeleteObjectsRequest(bucketName).withKeys(objectKeys).withQuiet(true);
+    try {
+      s3Client.deleteObjects(deleteRequest);
+    } catch (MultiObjectDeleteException e) {
+      List<DeleteError> errors = e.getErrors();
+      log.error(
+          "Failed to delete {} of {} objects in bucket {}, first error: {}",
+          errors.size(),
+          objectKeys.size(),
+          bucketName,
+          errors.isEmpty() ? null : errors.get(0).getMessage());
+      throw e;
+    }
   }
 }
@@ -18,6 +18,7 @@ import com.azure.storage.blob.models.DeleteSnapshotsOptionType;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobContainerClientBuilder;
 import com.azure.storage.blob.models.BlobItem;
+import com.azure.storage.blob.models.BlobStorageException;
 import com.azure.core.http.rest.PagedIterable;
 import com.azure.core.http.rest.PagedResponse;
 import com.azure.storage.blob.models.ListBlobsOptions;
@@ -27,6 +28,7 @@ import com.azure.storage.blob.models.ListBlobsOptions;
 public class AZUtil {
   public static final String AZURE_STORAGE_SAS_TOKEN_FIELDNAME = "AZURE_STORAGE_SAS_TOKEN";
   private static final String KEY_LOCATION_SUFFIX = Util.KEY_LOCATION_SUFFIX;
+  private static final int HTTP_NOT_FOUND = 404;
 
   public static String[] getSplitLocationValue(String backupLocation, Boolean isConfigLocation) {
     backupLocation = backupLocation.substring(8);
@@ -134,8 +136,14 @@ public class AZUtil {
         } else {
           blobClient = blobContainerClient.getBlobClient(blobItem.getName());
         }
-        if (blobClient.exists()) {
+        // Delete right away instead of checking existence first, which doubled the number of
+        // requests. Blob which is already gone does not need to be deleted.
+        try {
           blobClient.delete();
+        } catch (BlobStorageException e) {
+          if (e.getStatusCode() != HTTP_NOT_FOUND) {
+            throw e;
+          }
         }
       }
     }
@@ -8,6 +8,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.time.Duration;
@@ -119,6 +121,25 @@ public class ApiHelper {
     return handleJSONPromise(jsonPromise);
   }
 
+  /**
+   * Same as {@link #getRequest(String, Map, Map)}, but returns the response body as is, so that
+   * the caller can parse it without building the JSON tree. Errors are returned in the same JSON
+   * format as by getRequest.
+   */
+  public InputStream getRequestAsStream(
+      String url, Map<String, String> headers, Map<String, String> params) {
+    WSRequest request = requestWithHeaders(url, headers);
+    for (Map.Entry<String, String> entry : params.entrySet()) {
+      request.setQueryParameter(entry.getKey(), entry.getValue());
+    }
+    try {
+      WSResponse response = request.get().toCompletableFuture().get();
+      return response.getBodyAsBytes().iterator().asInputStream();
+    } catch (InterruptedException | ExecutionException e) {
+      return new ByteArrayInputStream(Json.toBytes(ApiResponse.errorJSON(e.getMessage())));
+    }
+  }
+
   private JsonNode handleJSONPromise(CompletionStage<JsonNode> jsonPromise) {
     try {
       return jsonPromise.toCompletableFuture().get();
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2021 YugaByte, Inc. and Contributors
+ *
+ * Licensed under the Polyform Free Trial License 1.0.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ *     https://github.com/YugaByte/yugabyte-db/blob/master/licenses/POLYFORM-FREE-TRIAL-LICENSE-1.0.0.txt
+ */
+
+package com.yugabyte.yw.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.typesafe.config.Config;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Global budget for backup and restore parts running at the same time. Every part holds a permit of
+ * its universe and a permit of its storage config while the backup script runs, so concurrent
+ * backup tasks neither overload the universe nodes nor the storage target. Permits are always
+ * acquired in the same order - universe first, then storage config - to avoid deadlocks. Parts
+ * waiting for their universe hold no storage config permit, so a busy universe doesn't starve the
+ * other universes backing up to the same storage config.
+ */
+@Slf4j
+@Singleton
+public class BackupConcurrencyLimiter {
+  static final String MAX_PARTS_PER_UNIVERSE = "yb.backup.max_concurrent_parts_per_universe";
+  static final String MAX_PARTS_PER_STORAGE_CONFIG =
+      "yb.backup.max_concurrent_parts_per_storage_config";
+
+  private final int maxPartsPerUniverse;
+  private final int maxPartsPerStorageConfig;
+
+  private final Map<UUID, Semaphore> universePermits = new ConcurrentHashMap<>();
+  private final Map<UUID, Semaphore> storageConfigPermits = new ConcurrentHashMap<>();
+
+  @Inject
+  public BackupConcurrencyLimiter(Config config) {
+    this.maxPartsPerUniverse = config.getInt(MAX_PARTS_PER_UNIVERSE);
+    this.maxPartsPerStorageConfig = config.getInt(MAX_PARTS_PER_STORAGE_CONFIG);
+  }
+
+  /**
+   * Blocks until both universe and storage config have a free slot. Only the universe limit is
+   * applied if storage config is not known.
+   *
+   * @return permit, which has to be closed once the part is finished.
+   */
+  public Permit acquire(UUID universeUUID, UUID storageConfigUUID) throws InterruptedException {
+    Semaphore storageConfigSemaphore =
+        storageConfigUUID == null
+            ? null
+            : storageConfigPermits.computeIfAbsent(
+                storageConfigUUID, k -> new Semaphore(maxPartsPerStorageConfig, true));
+    Semaphore universeSemaphore =
+        universePermits.computeIfAbsent(
+            universeUUID, k -> new Semaphore(maxPartsPerUniverse, true));
+    universeSemaphore.acquire();
+    if (storageConfigSemaphore != null) {
+      try {
+        storageConfigSemaphore.acquire();
+      } catch (InterruptedException e) {
+        universeSemaphore.release();
+        throw e;
+      }
+    }
+    log.debug(
+        "Acquired backup permit for universe {} and storage config {}",
+        universeUUID,
+        storageConfigUUID);
+    return new Permit(universeSemaphore, storageConfigSemaphore);
+  }
+
+  @VisibleForTesting
+  int getAvailableUniversePermits(UUID universeUUID) {
+    Semaphore semaphore = universePermits.get(universeUUID);
+    return semaphore == null ? maxPartsPerUniverse : semaphore.availablePermits();
+  }
+
+  @VisibleForTesting
+  int getAvailableStorageConfigPermits(UUID storageConfigUUID) {
+    Semaphore semaphore = storageConfigPermits.get(storageConfigUUID);
+    return semaphore == null ? maxPartsPerStorageConfig : semaphore.availablePermits();
+  }
+
+  public static class Permit implements AutoCloseable {
+    private final Semaphore universeSemaphore;
+    private final Semaphore storageConfigSemaphore;
+    private boolean released = false;
+
+    private Permit(Semaphore universeSemaphore, Semaphore storageConfigSemaphore) {
+      this.universeSemaphore = universeSemaphore;
+      this.storageConfigSemaphore = storageConfigSemaphore;
+    }
+
+    @Override
+    public synchronized void close() {
+      if (!released) {
+        released = true;
+        universeSemaphore.release();
+        if (storageConfigSemaphore != null) {
+          storageConfigSemaphore.release();
+        }
+      }
+    }
+  }
+}
@@ -224,6 +224,11 @@ public class BackupUtil {
   }
 
   public void validateStorageConfigOnLocations(CustomerConfig config, List<String> locations) {
+    validateStorageConfigOnLocations(config, locations, false);
+  }
+
+  public void validateStorageConfigOnLocations(
+      CustomerConfig config, List<String> locations, boolean disableCertChecking) {
     LOG.info(String.format("Validating storage config %s", config.configName));
     Boolean isValid = true;
     switch (config.name) {
@@ -234,7 +239,7 @@ public class BackupUtil {
         isValid = GCPUtil.canCredentialListObjects(config.data, locations);
         break;
       case Util.S3:
-        isValid = AWSUtil.canCredentialListObjects(config.data, locations);
+        isValid = AWSUtil.canCredentialListObjects(config.data, locations, disableCertChecking);
         break;
       case Util.NFS:
         isValid = true;
@@ -253,9 +258,15 @@ public class BackupUtil {
   }
 
   public void validateStorageConfig(CustomerConfig config) throws PlatformServiceException {
+    validateStorageConfig(config, false);
+  }
+
+  /** Cert checking is disabled only for the S3 clients used by this validation. */
+  public void validateStorageConfig(CustomerConfig config, boolean disableCertChecking)
+      throws PlatformServiceException {
     List<String> locations = null;
     locations = getStorageLocationList(config.getData());
-    validateStorageConfigOnLocations(config, locations);
+    validateStorageConfigOnLocations(config, locations, disableCertChecking);
   }
 
   public void validateRestoreOverwrites(
@@ -0,0 +1,511 @@
+/*
+ * Copyright 2021 YugaByte, Inc. and Contributors
+ *
+ * Licensed under the Polyform Free Trial License 1.0.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ *     https://github.com/YugaByte/yugabyte-db/blob/master/licenses/POLYFORM-FREE-TRIAL-LICENSE-1.0.0.txt
+ */
+
+package com.yugabyte.yw.common;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Session;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.typesafe.config.Config;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool.PoolInitializationException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.core.BaseConnection;
+import org.postgresql.core.TransactionState;
+import play.inject.ApplicationLifecycle;
+
+/**
+ * Keeps connections to universe databases between platform issued queries. YSQL connections are
+ * pooled by HikariCP per universe, node, database and credentials. YCQL sessions are cached per
+ * universe and credentials as the driver itself balances the requests between nodes.
+ *
+ * <p>Credentials are part of the pool key and the server authenticates every new connection, while
+ * connections and sessions are replaced after yb.db_connection_pool.max_lifetime - so a password
+ * changed outside of the platform stops working for the cached ones within that period. Pools and
+ * sessions unused for yb.db_connection_pool.idle_timeout are closed. Universe connections are
+ * retired once the universe is deleted, its certificates are changed or its admin password is
+ * changed. A retired pool or session is closed as soon as the last caller using it is done.
+ */
+@Slf4j
+@Singleton
+public class DbConnectionPools {
+  static final String YSQL_MAX_POOL_SIZE = "yb.db_connection_pool.ysql_max_pool_size";
+  static final String IDLE_TIMEOUT = "yb.db_connection_pool.idle_timeout";
+  static final String MAX_LIFETIME = "yb.db_connection_pool.max_lifetime";
+  static final String CONNECTION_TIMEOUT = "yb.db_connection_pool.connection_timeout";
+
+  private final int ysqlMaxPoolSize;
+  private final long idleTimeoutMs;
+  private final long maxLifetimeMs;
+  private final long connectionTimeoutMs;
+  private final ApplicationLifecycle lifecycle;
+
+  private final Map<PoolKey, YsqlPool> ysqlPools = new HashMap<>();
+  private final Map<PoolKey, YcqlSession> ycqlSessions = new HashMap<>();
+  // Retired pools and sessions, which are still used by some callers.
+  private final List<CachedConnection> retired = new ArrayList<>();
+
+  private ScheduledExecutorService evictionExecutor;
+
+  @Inject
+  public DbConnectionPools(Config config, ApplicationLifecycle lifecycle) {
+    this.ysqlMaxPoolSize = config.getInt(YSQL_MAX_POOL_SIZE);
+    this.idleTimeoutMs = config.getDuration(IDLE_TIMEOUT, TimeUnit.MILLISECONDS);
+    this.maxLifetimeMs = config.getDuration(MAX_LIFETIME, TimeUnit.MILLISECONDS);
+    this.connectionTimeoutMs = config.getDuration(CONNECTION_TIMEOUT, TimeUnit.MILLISECONDS);
+    this.lifecycle = lifecycle;
+  }
+
+  /**
+   * Borrows a YSQL connection from the pool of the universe, url and connection properties,
+   * creating the pool if needed. Connection is returned to the pool when the returned wrapper is
+   * closed.
+   */
+  public PooledYsqlConnection getYsqlConnection(UUID universeUUID, String url, Properties props)
+      throws SQLException {
+    PoolKey key = new PoolKey(universeUUID, url, propertiesDigest(props));
+    YsqlPool pool;
+    try {
+      pool = acquire(ysqlPools, key, () -> new YsqlPool(createDataSource(url, props)));
+    } catch (PoolInitializationException e) {
+      // The first connection is opened right away, so authentication and connectivity errors are
+      // reported as they are, without waiting for the connection timeout.
+      if (e.getCause() instanceof SQLException) {
+        throw (SQLException) e.getCause();
+      }
+      throw e;
+    }
+    try {
+      return new PooledYsqlConnection(pool, pool.dataSource.getConnection());
+    } catch (SQLTransientConnectionException e) {
+      release(pool);
+      // Timed out while the pool failed to open new connections - report the reason of that.
+      if (e.getCause() instanceof SQLException) {
+        throw (SQLException) e.getCause();
+      }
+      throw e;
+    } catch (SQLException | RuntimeException e) {
+      release(pool);
+      throw e;
+    }
+  }
+
+  private HikariDataSource createDataSource(String url, Properties props) {
+    HikariConfig hikariConfig = new HikariConfig();
+    hikariConfig.setJdbcUrl(url);
+    hikariConfig.setDataSourceProperties(props);
+    hikariConfig.setMinimumIdle(0);
+    hikariConfig.setMaximumPoolSize(ysqlMaxPoolSize);
+    hikariConfig.setIdleTimeout(idleTimeoutMs);
+    hikariConfig.setMaxLifetime(maxLifetimeMs);
+    hikariConfig.setConnectionTimeout(connectionTimeoutMs);
+    return createDataSource(hikariConfig);
+  }
+
+  @VisibleForTesting
+  HikariDataSource createDataSource(HikariConfig hikariConfig) {
+    return new HikariDataSource(hikariConfig);
+  }
+
+  /**
+   * Returns cached YCQL session for the universe and credentials or creates a new one with the
+   * passed cluster builder. Exceptions thrown while connecting are propagated to the caller.
+   * Sessions are shared between the callers, so those should not change the session keyspace. The
+   * returned lease must be closed once the session is not used anymore.
+   */
+  public YcqlSessionLease getYcqlSession(
+      UUID universeUUID,
+      String username,
+      String password,
+      String certificate,
+      Supplier<Cluster> clusterSupplier) {
+    PoolKey key =
+        new PoolKey(
+            universeUUID,
+            Objects.toString(certificate, ""),
+            digest(Objects.toString(username, "") + "\0" + Objects.toString(password, "")));
+    YcqlSession session =
+        acquire(
+            ycqlSessions,
+            key,
+            () -> {
+              Cluster cluster = clusterSupplier.get();
+              try {
+                return new YcqlSession(cluster, cluster.connect());
+              } catch (RuntimeException e) {
+                cluster.close();
+                throw e;
+              }
+            });
+    return new YcqlSessionLease(session);
+  }
+
+  /**
+   * Retires all pools and sessions of the universe. Those not used at the moment are closed right
+   * away, others once the running queries are done. New requests get new connections.
+   */
+  public void closeUniverseConnections(UUID universeUUID) {
+    List<CachedConnection> toClose = new ArrayList<>();
+    synchronized (this) {
+      retireIf(ysqlPools, key -> key.universeUUID.equals(universeUUID), toClose);
+      retireIf(ycqlSessions, key -> key.universeUUID.equals(universeUUID), toClose);
+    }
+    if (!toClose.isEmpty()) {
+      log.info("Closing {} connection pools of universe {}", toClose.size(), universeUUID);
+    }
+    toClose.forEach(DbConnectionPools::closeQuietly);
+  }
+
+  @VisibleForTesting
+  void evictIdleConnections() {
+    long now = System.currentTimeMillis();
+    List<CachedConnection> toClose = new ArrayList<>();
+    synchronized (this) {
+      retireIf(ysqlPools, key -> false, now, toClose);
+      retireIf(ycqlSessions, key -> false, now, toClose);
+    }
+    toClose.forEach(DbConnectionPools::closeQuietly);
+  }
+
+  @VisibleForTesting
+  synchronized int getYsqlPoolCount(UUID universeUUID) {
+    return (int)
+        ysqlPools.keySet().stream().filter(key -> key.universeUUID.equals(universeUUID)).count();
+  }
+
+  @VisibleForTesting
+  synchronized int getYcqlSessionCount(UUID universeUUID) {
+    return (int)
+        ycqlSessions.keySet().stream().filter(key -> key.universeUUID.equals(universeUUID)).count();
+  }
+
+  private <T extends CachedConnection> T acquire(
+      Map<PoolKey, T> cache, PoolKey key, Supplier<T> factory) {
+    List<CachedConnection> toClose = new ArrayList<>();
+    try {
+      synchronized (this) {
+        T cached = cache.get(key);
+        if (cached != null && !isExpired(cached, System.currentTimeMillis())) {
+          cached.users++;
+          return cached;
+        }
+        retireIf(cache, key::equals, toClose);
+      }
+    } finally {
+      toClose.forEach(DbConnectionPools::closeQuietly);
+    }
+    T created = factory.get();
+    T existing;
+    synchronized (this) {
+      existing = cache.get(key);
+      if (existing == null) {
+        created.users++;
+        cache.put(key, created);
+        ensureEvictionStarted();
+        return created;
+      }
+      existing.users++;
+    }
+    // Concurrent request has already connected - keep its pool.
+    closeQuietly(created);
+    return existing;
+  }
+
+  private void release(CachedConnection connection) {
+    synchronized (this) {
+      connection.users--;
+      connection.lastUsedMs = System.currentTimeMillis();
+      if (!connection.retired || connection.users > 0) {
+        return;
+      }
+      retired.remove(connection);
+    }
+    closeQuietly(connection);
+  }
+
+  private boolean isExpired(CachedConnection connection, long now) {
+    // YSQL pool replaces its connections by itself, YCQL session is replaced here.
+    return connection instanceof YcqlSession && connection.createdMs < now - maxLifetimeMs;
+  }
+
+  private <T extends CachedConnection> void retireIf(
+      Map<PoolKey, T> cache, Predicate<PoolKey> filter, List<CachedConnection> toClose) {
+    retireIf(cache, filter, 0, toClose);
+  }
+
+  // Retires the connections matching the filter, and with non zero now also idle or expired ones.
+  // Unused ones are added to toClose, others are closed when released.
+  private <T extends CachedConnection> void retireIf(
+      Map<PoolKey, T> cache,
+      Predicate<PoolKey> filter,
+      long now,
+      List<CachedConnection> toClose) {
+    Iterator<Map.Entry<PoolKey, T>> it = cache.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<PoolKey, T> entry = it.next();
+      T connection = entry.getValue();
+      boolean retire =
+          filter.test(entry.getKey())
+              || (now > 0
+                  && (isExpired(connection, now)
+                      || (connection.users == 0 && connection.lastUsedMs < now - idleTimeoutMs)));
+      if (!retire) {
+        continue;
+      }
+      it.remove();
+      connection.retired = true;
+      if (connection.users == 0) {
+        toClose.add(connection);
+      } else {
+        retired.add(connection);
+      }
+    }
+  }
+
+  private synchronized void ensureEvictionStarted() {
+    if (evictionExecutor != null) {
+      return;
+    }
+    ScheduledExecutorService executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("DbConnectionPoolEvictor")
+                .setDaemon(true)
+                .build());
+    long periodMs = Math.max(idleTimeoutMs / 2, 1000);
+    executor.scheduleWithFixedDelay(
+        () -> {
+          try {
+            evictIdleConnections();
+          } catch (Exception e) {
+            log.error("Error evicting idle DB connections", e);
+          }
+        },
+        periodMs,
+        periodMs,
+        TimeUnit.MILLISECONDS);
+    lifecycle.addStopHook(
+        () ->
+            CompletableFuture.runAsync(
+                () -> {
+                  MoreExecutors.shutdownAndAwaitTermination(executor, 1, TimeUnit.MINUTES);
+                  closeAll();
+                }));
+    evictionExecutor = executor;
+  }
+
+  private void closeAll() {
+    List<CachedConnection> toClose = new ArrayList<>();
+    synchronized (this) {
+      toClose.addAll(ysqlPools.values());
+      ysqlPools.clear();
+      toClose.addAll(ycqlSessions.values());
+      ycqlSessions.clear();
+      toClose.addAll(retired);
+      retired.clear();
+    }
+    toClose.forEach(DbConnectionPools::closeQuietly);
+  }
+
+  // Queries may leave open transaction or change session settings - those should not leak to the
+  // next user of the connection.
+  private static boolean resetSession(Connection connection) {
+    try {
+      if (connection.isClosed()) {
+        return false;
+      }
+      if (!connection.getAutoCommit()) {
+        connection.rollback();
+        connection.setAutoCommit(true);
+      } else if (connection.isWrapperFor(BaseConnection.class)
+          && connection.unwrap(BaseConnection.class).getTransactionState()
+              != TransactionState.IDLE) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("ROLLBACK");
+        }
+      }
+      // Drops prepared statements, temporary tables, advisory locks and session settings.
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("DISCARD ALL");
+      }
+      return true;
+    } catch (SQLException e) {
+      log.debug("Failed to reset pooled connection session", e);
+      return false;
+    }
+  }
+
+  private static String propertiesDigest(Properties props) {
+    // Sorted to get the same digest for the same set of properties.
+    Map<String, String> sorted = new TreeMap<>();
+    props.stringPropertyNames().forEach(name -> sorted.put(name, props.getProperty(name)));
+    return digest(sorted.toString());
+  }
+
+  private static String digest(String value) {
+    return Hashing.sha256().hashString(value, StandardCharsets.UTF_8).toString();
+  }
+
+  private static void closeQuietly(AutoCloseable closeable) {
+    try {
+      closeable.close();
+    } catch (Exception e) {
+      log.debug("Failed to close DB connection", e);
+    }
+  }
+
+  /** YSQL connection borrowed from the pool. Closing it returns the connection to the pool. */
+  public class PooledYsqlConnection implements AutoCloseable {
+    private final YsqlPool pool;
+    private final Connection connection;
+    private boolean released;
+
+    private PooledYsqlConnection(YsqlPool pool, Connection connection) {
+      this.pool = pool;
+      this.connection = connection;
+    }
+
+    public Connection getConnection() {
+      return connection;
+    }
+
+    @Override
+    public void close() {
+      if (released) {
+        return;
+      }
+      released = true;
+      try {
+        if (!resetSession(connection)) {
+          pool.dataSource.evictConnection(connection);
+        }
+        closeQuietly(connection);
+      } finally {
+        release(pool);
+      }
+    }
+  }
+
+  /** YCQL session shared with other callers. Closing the lease doesn't close the session. */
+  public class YcqlSessionLease implements AutoCloseable {
+    private final YcqlSession session;
+    private boolean released;
+
+    private YcqlSessionLease(YcqlSession session) {
+      this.session = session;
+    }
+
+    public Session getSession() {
+      return session.session;
+    }
+
+    @Override
+    public void close() {
+      if (!released) {
+        released = true;
+        release(session);
+      }
+    }
+  }
+
+  private static class PoolKey {
+    private final UUID universeUUID;
+    private final String endpoint;
+    private final String credentialsDigest;
+
+    private PoolKey(UUID universeUUID, String endpoint, String credentialsDigest) {
+      this.universeUUID = universeUUID;
+      this.endpoint = endpoint;
+      this.credentialsDigest = credentialsDigest;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      PoolKey poolKey = (PoolKey) o;
+      return universeUUID.equals(poolKey.universeUUID)
+          && endpoint.equals(poolKey.endpoint)
+          && credentialsDigest.equals(poolKey.credentialsDigest);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(universeUUID, endpoint, credentialsDigest);
+    }
+  }
+
+  // Pool or session with the number of callers using it, guarded by the DbConnectionPools lock.
+  private abstract static class CachedConnection implements AutoCloseable {
+    final long createdMs = System.currentTimeMillis();
+    long lastUsedMs = createdMs;
+    int users;
+    boolean retired;
+  }
+
+  private static class YsqlPool extends CachedConnection {
+    private final HikariDataSource dataSource;
+
+    private YsqlPool(HikariDataSource dataSource) {
+      this.dataSource = dataSource;
+    }
+
+    @Override
+    public void close() {
+      dataSource.close();
+    }
+  }
+
+  private static class YcqlSession extends CachedConnection {
+    private final Cluster cluster;
+    private final Session session;
+
+    private YcqlSession(Cluster cluster, Session session) {
+      this.cluster = cluster;
+      this.session = session;
+    }
+
+    @Override
+    public void close() {
+      session.close();
+      cluster.close();
+    }
+  }
+}
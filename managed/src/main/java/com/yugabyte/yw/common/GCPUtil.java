@@ -10,14 +10,15 @@ import java.util.List;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import java.io.IOException;
-import java.util.stream.StreamSupport;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
 import com.google.cloud.storage.StorageBatch;
 import com.google.cloud.storage.StorageOptions;
 import com.google.cloud.storage.StorageBatchResult;
+import com.google.cloud.storage.StorageException;
 import com.google.auth.Credentials;
 import com.google.auth.oauth2.GoogleCredentials;
 import java.io.ByteArrayInputStream;
@@ -32,6 +33,8 @@ public class GCPUtil {
 
   private static final String GCS_CREDENTIALS_JSON_FIELDNAME = "GCS_CREDENTIALS_JSON";
   private static final String KEY_LOCATION_SUFFIX = Util.KEY_LOCATION_SUFFIX;
+  // Max number of calls in a single GCS batch request.
+  private static final int GCS_DELETE_BATCH_SIZE = 100;
 
   public static String[] getSplitLocationValue(String location) {
     location = location.substring(5);
@@ -98,42 +101,50 @@ public class GCPUtil {
     return true;
   }
 
+  // Listed blobs are deleted with batch requests, one request per GCS_DELETE_BATCH_SIZE blobs.
   public static void deleteStorage(JsonNode data, List<String> backupLocations) throws Exception {
+    String gcpCredentials = data.get(GCS_CREDENTIALS_JSON_FIELDNAME).asText();
+    Storage storage = getStorageService(gcpCredentials);
     for (String backupLocation : backupLocations) {
       try {
         String[] splitLocation = getSplitLocationValue(backupLocation);
         String bucketName = splitLocation[0];
         String objectPrefix = splitLocation[1];
-        String gcpCredentials = data.get(GCS_CREDENTIALS_JSON_FIELDNAME).asText();
-        Storage storage = getStorageService(gcpCredentials);
-
-        List<StorageBatchResult<Boolean>> results = new ArrayList<>();
-        StorageBatch storageBatch = storage.batch();
-        try {
-          Page<Blob> blobs = storage.list(bucketName, Storage.BlobListOption.prefix(objectPrefix));
-          log.debug(
-              "Retrieved blobs info for bucket " + bucketName + " with prefix " + objectPrefix);
-          StreamSupport.stream(blobs.iterateAll().spliterator(), true)
-              .forEach(
-                  blob -> {
-                    results.add(storageBatch.delete(blob.getBlobId()));
-                  });
-        } finally {
-          if (!results.isEmpty()) {
-            storageBatch.submit();
-            if (!results.stream().allMatch(r -> r != null && r.get())) {
-              throw new RuntimeException(
-                  "Error in deleting objects in bucket "
-                      + bucketName
-                      + " with prefix "
-                      + objectPrefix);
-            }
+        Page<Blob> blobs = storage.list(bucketName, Storage.BlobListOption.prefix(objectPrefix));
+        log.debug("Retrieved blobs info for bucket " + bucketName + " with prefix " + objectPrefix);
+        List<BlobId> blobIds = new ArrayList<>();
+        for (Blob blob : blobs.iterateAll()) {
+          blobIds.add(blob.getBlobId());
+          if (blobIds.size() == GCS_DELETE_BATCH_SIZE) {
+            deleteBlobs(storage, blobIds, bucketName, objectPrefix);
+            blobIds.clear();
           }
         }
+        if (!blobIds.isEmpty()) {
+          deleteBlobs(storage, blobIds, bucketName, objectPrefix);
+        }
       } catch (Exception e) {
         log.error(" Error in deleting objects at location " + backupLocation, e);
         throw e;
       }
     }
   }
+
+  private static void deleteBlobs(
+      Storage storage, List<BlobId> blobIds, String bucketName, String objectPrefix) {
+    StorageBatch storageBatch = storage.batch();
+    List<StorageBatchResult<Boolean>> results =
+        blobIds.stream().map(storageBatch::delete).collect(Collectors.toList());
+    storageBatch.submit();
+    // Blob which is already gone is reported as false, it does not need to be deleted anymore.
+    for (StorageBatchResult<Boolean> result : results) {
+      try {
+        result.get();
+      } catch (StorageException e) {
+        throw new RuntimeException(
+            "Error in deleting objects in bucket " + bucketName + " with prefix " + objectPrefix,
+            e);
+      }
+    }
+  }
 }
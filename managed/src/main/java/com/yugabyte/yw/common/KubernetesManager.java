@@ -1,14 +1,18 @@
 package com.yugabyte.yw.common;
 
 import java.io.File;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 
 import org.slf4j.Logger;
@@ -36,6 +40,9 @@ public abstract class KubernetesManager {
 
   private static final long DEFAULT_TIMEOUT_SECS = 300;
 
+  // Same as the polling interval of the wait tasks.
+  private static final Duration POD_POLL_INTERVAL = Duration.ofSeconds(10);
+
   /* helm interface */
 
   public void helmInstall(
@@ -224,4 +231,63 @@ public abstract class KubernetesManager {
       Map<String, String> config, String universePrefix, String namespace);
 
   public abstract void deleteNamespace(Map<String, String> config, String namespace);
+
+  /* pod wait interface, implementations which can watch pod changes override these */
+
+  /**
+   * Waits until the pod is running and all its conditions are true.
+   *
+   * @return true if the pod became ready within the timeout.
+   */
+  public boolean waitForPodReady(
+      Map<String, String> config, String namespace, String podName, Duration timeout)
+      throws InterruptedException {
+    return pollPods(timeout, () -> isPodReady(getPodStatus(config, namespace, podName)));
+  }
+
+  /**
+   * Waits until the number of pods of the universe release in the namespace is podNum.
+   *
+   * @return true if the pod number was reached within the timeout.
+   */
+  public boolean waitForPodCount(
+      Map<String, String> config,
+      String universePrefix,
+      String namespace,
+      int podNum,
+      Duration timeout)
+      throws InterruptedException {
+    return pollPods(
+        timeout, () -> getPodInfos(config, universePrefix, namespace).size() == podNum);
+  }
+
+  @VisibleForTesting
+  Duration getPodPollInterval() {
+    return POD_POLL_INTERVAL;
+  }
+
+  private boolean pollPods(Duration timeout, BooleanSupplier condition)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while (!condition.getAsBoolean()) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      TimeUnit.NANOSECONDS.sleep(Math.min(remaining, getPodPollInterval().toNanos()));
+    }
+    return true;
+  }
+
+  public static boolean isPodReady(PodStatus podStatus) {
+    if (podStatus == null || !"Running".equals(podStatus.getPhase())) {
+      return false;
+    }
+    for (PodCondition condition : podStatus.getConditions()) {
+      if (condition.getStatus().equals("False")) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2021 YugaByte, Inc. and Contributors
+ *
+ * Licensed under the Polyform Free Trial License 1.0.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ *     https://github.com/YugaByte/yugabyte-db/blob/master/licenses/POLYFORM-FREE-TRIAL-LICENSE-1.0.0.txt
+ */
+
+package com.yugabyte.yw.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shared pod informers, one per Kubernetes cluster and namespace. An informer keeps a single watch
+ * open and a local copy of the namespace pods up to date, so the tasks waiting for pods are woken
+ * up on every pod change instead of polling the API server. Informer is stopped once the last
+ * waiting task is done. Informers are started outside of the lock, so a slow API server only
+ * delays the tasks waiting in its namespace.
+ */
+@Slf4j
+@Singleton
+public class KubernetesPodInformers {
+
+  private static final long RESYNC_PERIOD_MS = TimeUnit.MINUTES.toMillis(1);
+
+  // Condition is re-checked at least this often, in case some change was not notified.
+  private static final long RECHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+  private final Map<InformerKey, PodInformer> informers = new HashMap<>();
+
+  /**
+   * Waits until the namespace pods satisfy the condition.
+   *
+   * @param kubeConfig path to the kubeconfig of the cluster, null for the in-cluster config.
+   * @param clientSupplier creates the client, if there is no informer for the namespace yet.
+   * @return true if the condition was satisfied within the timeout.
+   */
+  public boolean awaitPods(
+      String kubeConfig,
+      String namespace,
+      Supplier<KubernetesClient> clientSupplier,
+      Predicate<List<Pod>> condition,
+      Duration timeout)
+      throws InterruptedException {
+    InformerKey key = new InformerKey(kubeConfig, namespace);
+    PodInformer informer;
+    boolean starting;
+    synchronized (this) {
+      informer = informers.get(key);
+      starting = informer == null;
+      if (starting) {
+        informer = new PodInformer();
+        informers.put(key, informer);
+      }
+      informer.subscribers++;
+    }
+    try {
+      if (starting) {
+        informer.start(clientSupplier, namespace);
+      } else {
+        informer.awaitStarted();
+      }
+      return informer.await(condition, timeout);
+    } finally {
+      unsubscribe(key, informer);
+    }
+  }
+
+  private void unsubscribe(InformerKey key, PodInformer informer) {
+    synchronized (this) {
+      informer.subscribers--;
+      if (informer.isFailed() || informer.subscribers == 0) {
+        // Failed informer is replaced by the next subscriber right away.
+        informers.remove(key, informer);
+      }
+      if (informer.subscribers > 0) {
+        return;
+      }
+    }
+    informer.stop();
+  }
+
+  @VisibleForTesting
+  static class PodInformer implements ResourceEventHandler<Pod> {
+    private final Lock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    // Completed once the informer is started by the first subscriber.
+    private final CompletableFuture<Void> started = new CompletableFuture<>();
+    private volatile KubernetesClient client;
+    private volatile SharedIndexInformer<Pod> informer;
+    private int subscribers = 0;
+
+    @VisibleForTesting
+    PodInformer() {}
+
+    void start(Supplier<KubernetesClient> clientSupplier, String namespace) {
+      try {
+        client = clientSupplier.get();
+        informer = client.pods().inNamespace(namespace).inform(this, RESYNC_PERIOD_MS);
+      } catch (RuntimeException e) {
+        started.completeExceptionally(e);
+        throw e;
+      }
+      started.complete(null);
+      log.debug("Started pod informer for namespace {}", namespace);
+    }
+
+    void awaitStarted() throws InterruptedException {
+      try {
+        started.get();
+      } catch (ExecutionException e) {
+        throw new RuntimeException("Failed to start pod informer", e.getCause());
+      }
+    }
+
+    boolean isFailed() {
+      return started.isCompletedExceptionally();
+    }
+
+    @VisibleForTesting
+    void setStarted(KubernetesClient client, SharedIndexInformer<Pod> informer) {
+      this.client = client;
+      this.informer = informer;
+      started.complete(null);
+    }
+
+    boolean await(Predicate<List<Pod>> condition, Duration timeout) throws InterruptedException {
+      long deadline = System.nanoTime() + timeout.toNanos();
+      lock.lock();
+      try {
+        while (!informer.hasSynced() || !condition.test(informer.getIndexer().list())) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            return false;
+          }
+          changed.awaitNanos(Math.min(remaining, RECHECK_INTERVAL_NANOS));
+        }
+        return true;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void stop() {
+      try {
+        if (informer != null) {
+          informer.stop();
+        }
+      } finally {
+        if (client != null) {
+          client.close();
+        }
+      }
+    }
+
+    private void notifyChanged() {
+      lock.lock();
+      try {
+        changed.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public void onAdd(Pod pod) {
+      notifyChanged();
+    }
+
+    @Override
+    public void onUpdate(Pod oldPod, Pod newPod) {
+      notifyChanged();
+    }
+
+    @Override
+    public void onDelete(Pod pod, boolean deletedFinalStateUnknown) {
+      notifyChanged();
+    }
+  }
+
+  private static class InformerKey {
+    private final String kubeConfig;
+    private final String namespace;
+
+    private InformerKey(String kubeConfig, String namespace) {
+      this.kubeConfig = kubeConfig;
+      this.namespace = namespace;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      InformerKey that = (InformerKey) o;
+      return Objects.equals(kubeConfig, that.kubeConfig)
+          && Objects.equals(namespace, that.namespace);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(kubeConfig, namespace);
+    }
+  }
+}
@@ -3,10 +3,12 @@ package com.yugabyte.yw.common;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Nullable;
+import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import io.fabric8.kubernetes.api.model.NamespaceBuilder;
@@ -21,6 +23,9 @@ import io.fabric8.kubernetes.client.KubernetesClient;
 
 @Singleton
 public class NativeKubernetesManager extends KubernetesManager {
+
+  @Inject KubernetesPodInformers podInformers;
+
   private KubernetesClient getClient(Map<String, String> config) {
     if (config.containsKey("KUBECONFIG")) {
       try {
@@ -151,4 +156,42 @@ public class NativeKubernetesManager extends KubernetesManager {
       client.namespaces().withName(namespace).delete();
     }
   }
+
+  @Override
+  public boolean waitForPodReady(
+      Map<String, String> config, String namespace, String podName, Duration timeout)
+      throws InterruptedException {
+    return podInformers.awaitPods(
+        config.get("KUBECONFIG"),
+        namespace,
+        () -> getClient(config),
+        pods ->
+            pods.stream()
+                .anyMatch(
+                    pod ->
+                        podName.equals(pod.getMetadata().getName())
+                            && isPodReady(pod.getStatus())),
+        timeout);
+  }
+
+  @Override
+  public boolean waitForPodCount(
+      Map<String, String> config,
+      String universePrefix,
+      String namespace,
+      int podNum,
+      Duration timeout)
+      throws InterruptedException {
+    return podInformers.awaitPods(
+        config.get("KUBECONFIG"),
+        namespace,
+        () -> getClient(config),
+        pods -> pods.stream().filter(pod -> isReleasePod(pod, universePrefix)).count() == podNum,
+        timeout);
+  }
+
+  private static boolean isReleasePod(Pod pod, String universePrefix) {
+    Map<String, String> labels = pod.getMetadata().getLabels();
+    return labels != null && universePrefix.equals(labels.get("release"));
+  }
 }
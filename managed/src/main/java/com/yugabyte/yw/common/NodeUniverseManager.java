@@ -16,6 +16,12 @@ import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Runs actions on universe nodes. Methods may be called concurrently, e.g. to download support
+ * bundle files from all the nodes at once: they keep no state, every call runs its own
+ * run_node_action.py process, remote temporary files get unique names and local target files are
+ * chosen by the callers.
+ */
 @Singleton
 public class NodeUniverseManager extends DevopsBase {
   public static final int YSQL_COMMAND_DEFAULT_TIMEOUT_SEC = 20;
@@ -28,7 +34,7 @@ public class NodeUniverseManager extends DevopsBase {
     return null;
   }
 
-  public synchronized ShellResponse downloadNodeLogs(
+  public ShellResponse downloadNodeLogs(
       NodeDetails node, Universe universe, String targetLocalFile) {
     List<String> actionArgs = new ArrayList<>();
     actionArgs.add("--yb_home_dir");
@@ -38,7 +44,7 @@ public class NodeUniverseManager extends DevopsBase {
     return executeNodeAction(UniverseNodeAction.DOWNLOAD_LOGS, universe, node, actionArgs);
   }
 
-  public synchronized ShellResponse downloadNodeFile(
+  public ShellResponse downloadNodeFile(
       NodeDetails node,
       Universe universe,
       String ybHomeDir,
@@ -55,7 +61,7 @@ public class NodeUniverseManager extends DevopsBase {
     return executeNodeAction(UniverseNodeAction.DOWNLOAD_FILE, universe, node, actionArgs);
   }
 
-  public synchronized ShellResponse runCommand(
+  public ShellResponse runCommand(
       NodeDetails node, Universe universe, String command) {
     List<String> actionArgs = new ArrayList<>();
     actionArgs.add("--command");
@@ -63,7 +69,7 @@ public class NodeUniverseManager extends DevopsBase {
     return executeNodeAction(UniverseNodeAction.RUN_COMMAND, universe, node, actionArgs);
   }
 
-  public synchronized ShellResponse runYbAdminCommand(
+  public ShellResponse runYbAdminCommand(
       NodeDetails node, Universe universe, String ybAdminCommand, long timeoutSec) {
     List<String> command = new ArrayList<>();
     command.add("/usr/bin/timeout");
@@ -82,12 +88,12 @@ public class NodeUniverseManager extends DevopsBase {
     return runCommand(node, universe, String.join(" ", command));
   }
 
-  public synchronized ShellResponse runYsqlCommand(
+  public ShellResponse runYsqlCommand(
       NodeDetails node, Universe universe, String dbName, String ysqlCommand) {
     return runYsqlCommand(node, universe, dbName, ysqlCommand, YSQL_COMMAND_DEFAULT_TIMEOUT_SEC);
   }
 
-  public synchronized ShellResponse runYsqlCommand(
+  public ShellResponse runYsqlCommand(
       NodeDetails node, Universe universe, String dbName, String ysqlCommand, int timeoutSec) {
     List<String> command = new ArrayList<>();
     command.add("timeout");
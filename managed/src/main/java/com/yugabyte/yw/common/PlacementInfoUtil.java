@@ -207,16 +207,19 @@ public class PlacementInfoUtil {
 
     // Check if at least one AZ's num nodes count has changed
     boolean atLeastOneCountChanged = false;
-    Map<UUID, Integer> azUuidToNumNodes = getAzUuidToNumNodes(nodeDetailsSet);
+    PlacementNodeIndex nodeIndex = new PlacementNodeIndex(nodeDetailsSet);
+    Map<UUID, Integer> azUuidToNumNodes = nodeIndex.getAzUuidToNumNodes(false /* onlyActive */);
+    Map<UUID, PlacementAZ> placementAZs = new HashMap<>();
+    getPlacementAZStream(newPlacementInfo).forEach(az -> placementAZs.putIfAbsent(az.uuid, az));
     for (UUID azUuid : azUuidToNumNodes.keySet()) {
-      PlacementAZ az = findPlacementAzByUuid(newPlacementInfo, azUuid);
+      PlacementAZ az = placementAZs.get(azUuid);
       if (az == null) {
         LOG.info("AZ {} not found in placement, so not pure expand/shrink.", azUuid);
 
         return ConfigureNodesMode.NEW_CONFIG;
       }
 
-      int numTservers = findCountActiveTServerOnlyInAZ(nodeDetailsSet, azUuid);
+      int numTservers = nodeIndex.getNumActiveTserverOnlyNodes(azUuid);
       int azDifference = az.numNodesInAZ - azUuidToNumNodes.get(azUuid);
       LOG.info(
           "AZ {} check, azNum={}, azDiff={}, numTservers={}.",
@@ -1135,7 +1138,7 @@ public class PlacementInfoUtil {
       Map<UUID, Integer> azUuids, Cluster cluster) {
     LinkedHashSet<PlacementIndexes> placements = new LinkedHashSet<>();
     CloudType cloudType = cluster.userIntent.providerType;
-    String instanceType = cluster.userIntent.instanceType;
+    OnPremZoneCapacity onPremCapacity = new OnPremZoneCapacity(cluster.userIntent.instanceType);
     for (UUID targetAZUuid : azUuids.keySet()) {
       int cIdx = 0;
       for (PlacementCloud cloud : cluster.placementInfo.cloudList) {
@@ -1146,12 +1149,9 @@ public class PlacementInfoUtil {
             if (az.uuid.equals(targetAZUuid)) {
               UUID zoneUUID = region.azList.get(aIdx).uuid;
               if (cloudType.equals(CloudType.onprem)) {
-                List<NodeInstance> nodesInAZ = NodeInstance.listByZone(zoneUUID, instanceType);
-                long numNodesConfigured =
-                    getNumNodesInAZInPlacement(
-                        placements, new PlacementIndexes(aIdx, rIdx, cIdx, true));
-                if (numNodesConfigured < nodesInAZ.size()) {
+                if (onPremCapacity.hasFreeInstance(zoneUUID, aIdx, rIdx, cIdx)) {
                   placements.add(new PlacementIndexes(aIdx, rIdx, cIdx));
+                  onPremCapacity.placed(aIdx, rIdx, cIdx);
                   continue;
                 }
               } else {
@@ -1173,25 +1173,37 @@ public class PlacementInfoUtil {
     return placements;
   }
 
-  // Helper function to compare a given index combo against list of placement indexes of current
-  // placement
-  // to get number of nodes in current index
-  private static long getNumNodesInAZInPlacement(
-      LinkedHashSet<PlacementIndexes> indexes, PlacementIndexes index) {
-    return indexes
-        .stream()
-        .filter(
-            currentIndex ->
-                (currentIndex.cloudIdx == index.cloudIdx
-                    && currentIndex.azIdx == index.azIdx
-                    && currentIndex.regionIdx == index.regionIdx))
-        .count();
+  // Tracks the number of nodes placed at each cloud/region/az index combination against the number
+  // of on-prem instances available in the zone. Instances are listed once per zone.
+  private static class OnPremZoneCapacity {
+    private final String instanceType;
+    private final Map<UUID, Integer> numInstancesInZone = new HashMap<>();
+    private final Map<String, Integer> numPlacedAtIndex = new HashMap<>();
+
+    private OnPremZoneCapacity(String instanceType) {
+      this.instanceType = instanceType;
+    }
+
+    private boolean hasFreeInstance(UUID zoneUUID, int aIdx, int rIdx, int cIdx) {
+      int numInstances =
+          numInstancesInZone.computeIfAbsent(
+              zoneUUID, zone -> NodeInstance.listByZone(zone, instanceType).size());
+      return numPlacedAtIndex.getOrDefault(indexKey(aIdx, rIdx, cIdx), 0) < numInstances;
+    }
+
+    private void placed(int aIdx, int rIdx, int cIdx) {
+      numPlacedAtIndex.merge(indexKey(aIdx, rIdx, cIdx), 1, Integer::sum);
+    }
+
+    private static String indexKey(int aIdx, int rIdx, int cIdx) {
+      return cIdx + ":" + rIdx + ":" + aIdx;
+    }
   }
 
   private static LinkedHashSet<PlacementIndexes> getBasePlacement(int numNodes, Cluster cluster) {
     LinkedHashSet<PlacementIndexes> placements = new LinkedHashSet<>();
     CloudType cloudType = cluster.userIntent.providerType;
-    String instanceType = cluster.userIntent.instanceType;
+    OnPremZoneCapacity onPremCapacity = new OnPremZoneCapacity(cluster.userIntent.instanceType);
     int count = 0;
 
     // We would only try to find a placement until the max lookup iterations, if unable to
@@ -1206,12 +1218,9 @@ public class PlacementInfoUtil {
           for (int azIdx = 0; azIdx < region.azList.size(); azIdx++) {
             UUID zoneUUID = region.azList.get(azIdx).uuid;
             if (cloudType.equals(CloudType.onprem)) {
-              List<NodeInstance> nodesInAZ = NodeInstance.listByZone(zoneUUID, instanceType);
-              long numNodesConfigured =
-                  getNumNodesInAZInPlacement(
-                      placements, new PlacementIndexes(azIdx, rIdx, cIdx, true));
-              if (numNodesConfigured < nodesInAZ.size() && count < numNodes) {
+              if (count < numNodes && onPremCapacity.hasFreeInstance(zoneUUID, azIdx, rIdx, cIdx)) {
                 placements.add(new PlacementIndexes(azIdx, rIdx, cIdx, true /* isAdd */));
+                onPremCapacity.placed(azIdx, rIdx, cIdx);
                 LOG.info("Adding {}/{}/{} @ {}.", azIdx, rIdx, cIdx, count);
                 foundPlacement = true;
                 count++;
@@ -1295,19 +1304,6 @@ public class PlacementInfoUtil {
     return azUuidToNumNodes;
   }
 
-  // Count number of active tserver-only nodes in the given AZ.
-  private static int findCountActiveTServerOnlyInAZ(
-      Collection<NodeDetails> nodeDetailsSet, UUID targetAZUuid) {
-    int numActiveServers = 0;
-    for (NodeDetails node : nodeDetailsSet) {
-      if (node.isActive() && !node.isMaster && node.isTserver && node.azUuid.equals(targetAZUuid)) {
-        numActiveServers++;
-      }
-    }
-
-    return numActiveServers;
-  }
-
   /**
    * Find a node in the given AZ according to passed filter. Then items are sorted according to the
    * next criteria: tservers only go at first, then go masters, each group is sorted by descending
@@ -1378,14 +1374,15 @@ public class PlacementInfoUtil {
    * Remove a tserver-only node that belongs to the given AZ from the collection of nodes.
    *
    * @param nodes the list of nodes from which to choose the victim.
+   * @param nodeIndex index of the nodes.
    * @param targetAZUuid AZ in which the node should be present.
    */
-  private static void removeNodeInAZ(Collection<NodeDetails> nodes, UUID targetAZUuid) {
-    Iterator<NodeDetails> nodeIter = nodes.iterator();
-    while (nodeIter.hasNext()) {
-      NodeDetails currentNode = nodeIter.next();
-      if (currentNode.azUuid.equals(targetAZUuid) && !currentNode.isMaster) {
-        nodeIter.remove();
+  private static void removeNodeInAZ(
+      Collection<NodeDetails> nodes, PlacementNodeIndex nodeIndex, UUID targetAZUuid) {
+    for (NodeDetails currentNode : nodeIndex.getNodesInAz(targetAZUuid)) {
+      if (!currentNode.isMaster) {
+        nodes.remove(currentNode);
+        nodeIndex.remove(currentNode);
 
         return;
       }
@@ -1490,7 +1487,8 @@ public class PlacementInfoUtil {
    * @param nodes
    * @param universe
    */
-  private static void configureNodesUsingPlacementInfo(
+  @VisibleForTesting
+  static void configureNodesUsingPlacementInfo(
       Cluster cluster, Collection<NodeDetails> nodes, Universe universe) {
     LinkedHashSet<PlacementIndexes> indexes =
         getDeltaPlacementIndices(
@@ -1502,6 +1500,9 @@ public class PlacementInfoUtil {
     Set<NodeDetails> deltaNodesSet = new HashSet<>();
     int startIndex = getNextIndexToConfigure(nodes);
     int iter = 0;
+    // New nodes are not indexed, they are not candidates for recovery or removal.
+    PlacementNodeIndex nodeIndex = new PlacementNodeIndex(nodes);
+    Map<String, NodeDetails> storedNodes = getNodesByName(universe);
     for (PlacementIndexes index : indexes) {
       PlacementCloud placementCloud = cluster.placementInfo.cloudList.get(index.cloudIdx);
       PlacementRegion placementRegion = placementCloud.regionList.get(index.regionIdx);
@@ -1513,12 +1514,12 @@ public class PlacementInfoUtil {
         // revert their state back to the state from the stored universe.
         if (universe != null) {
           NodeDetails nodeDetails =
-              findNodeInAz(
-                  node -> node.state == NodeState.ToBeRemoved, nodes, placementAZ.uuid, true);
+              nodeIndex.findNodeInAz(
+                  node -> node.state == NodeState.ToBeRemoved, placementAZ.uuid, true);
           if (nodeDetails != null) {
-            NodeState prevState = getNodeState(universe, nodeDetails.getNodeName());
+            NodeState prevState = getNodeState(storedNodes, nodeDetails.getNodeName());
             if ((prevState != null) && (prevState != NodeState.ToBeRemoved)) {
-              nodeDetails.state = prevState;
+              nodeIndex.setState(nodeDetails, prevState);
               LOG.trace("Recovering node [{}] state to {}.", nodeDetails.getNodeName(), prevState);
               added = true;
             }
@@ -1533,14 +1534,14 @@ public class PlacementInfoUtil {
         boolean removed = false;
         if (universe != null) {
           NodeDetails nodeDetails =
-              findNodeInAz(NodeDetails::isActive, nodes, placementAZ.uuid, false);
+              nodeIndex.findNodeInAz(NodeDetails::isActive, placementAZ.uuid, false);
           if (nodeDetails == null || !nodeDetails.state.equals(NodeState.ToBeAdded)) {
-            decommissionNodeInAZ(nodes, placementAZ.uuid);
+            decommissionNodeInAZ(nodeIndex, placementAZ.uuid);
             removed = true;
           }
         }
         if (!removed) {
-          removeNodeInAZ(nodes, placementAZ.uuid);
+          removeNodeInAZ(nodes, nodeIndex, placementAZ.uuid);
         }
       }
       iter++;
@@ -1555,8 +1556,8 @@ public class PlacementInfoUtil {
     // BeingDecommissioned) are intermediate and should not be present in universes
     // on this stage.
     if (universe != null) {
-      List<UUID> existingAZs =
-          getPlacementAZStream(cluster.placementInfo).map(p -> p.uuid).collect(Collectors.toList());
+      Set<UUID> existingAZs =
+          getPlacementAZStream(cluster.placementInfo).map(p -> p.uuid).collect(Collectors.toSet());
       for (NodeDetails node : nodes) {
         if (!existingAZs.contains(node.azUuid)) {
           if (node.isActive() && !node.isInTransit()) {
@@ -1582,8 +1583,20 @@ public class PlacementInfoUtil {
     }
   }
 
-  private static NodeState getNodeState(Universe universe, String nodeName) {
-    NodeDetails node = universe.getNode(nodeName);
+  private static Map<String, NodeDetails> getNodesByName(Universe universe) {
+    Map<String, NodeDetails> nodesByName = new HashMap<>();
+    if (universe != null) {
+      for (NodeDetails node : universe.getNodes()) {
+        if (node.nodeName != null) {
+          nodesByName.putIfAbsent(node.nodeName, node);
+        }
+      }
+    }
+    return nodesByName;
+  }
+
+  private static NodeState getNodeState(Map<String, NodeDetails> nodesByName, String nodeName) {
+    NodeDetails node = nodesByName.get(nodeName);
     return node == null ? null : node.state;
   }
 
@@ -1776,16 +1789,19 @@ public class PlacementInfoUtil {
   /**
    * Find a node to be decommissioned, from the given AZ.
    *
-   * @param nodes the list of nodes from which to choose the victim.
+   * @param nodeIndex index of the nodes from which to choose the victim.
    * @param targetAZUuid AZ in which the node should be present.
    */
-  private static void decommissionNodeInAZ(Collection<NodeDetails> nodes, UUID targetAZUuid) {
-    NodeDetails nodeDetails = findNodeInAz(NodeDetails::isActive, nodes, targetAZUuid, false);
+  private static void decommissionNodeInAZ(PlacementNodeIndex nodeIndex, UUID targetAZUuid) {
+    NodeDetails nodeDetails = nodeIndex.findNodeInAz(NodeDetails::isActive, targetAZUuid, false);
     if (nodeDetails == null) {
-      LOG.error("Could not find an active node in AZ {}. All nodes: {}.", targetAZUuid, nodes);
+      LOG.error(
+          "Could not find an active node in AZ {}. Nodes in AZ: {}.",
+          targetAZUuid,
+          nodeIndex.getNodesInAz(targetAZUuid));
       throw new IllegalStateException("Should find an active running tserver.");
     } else {
-      nodeDetails.state = NodeDetails.NodeState.ToBeRemoved;
+      nodeIndex.setState(nodeDetails, NodeDetails.NodeState.ToBeRemoved);
       LOG.trace("Removing node [{}].", nodeDetails);
     }
   }
@@ -1906,7 +1922,11 @@ public class PlacementInfoUtil {
       String defaultRegionCode,
       boolean applySelection) {
     LOG.info(
-        "selectMasters for nodes {}, rf={}, drc={}", nodes, replicationFactor, defaultRegionCode);
+        "selectMasters for {} nodes, rf={}, drc={}",
+        nodes.size(),
+        replicationFactor,
+        defaultRegionCode);
+    LOG.debug("selectMasters nodes {}", nodes);
 
     // Mapping nodes to pairs <region, zone>.
     Map<RegionWithAz, List<NodeDetails>> zoneToNodes = new HashMap<>();
@@ -1942,6 +1962,10 @@ public class PlacementInfoUtil {
 
     // All pairs region-az.
     List<RegionWithAz> zones = new ArrayList<>(zoneToNodes.keySet());
+    Map<RegionWithAz, Long> zoneToNumMasters = new HashMap<>();
+    zoneToNodes.forEach(
+        (zone, zoneNodes) ->
+            zoneToNumMasters.put(zone, zoneNodes.stream().filter(n -> n.isMaster).count()));
     // Sorting zones - larger zones are going at first. If two zones have the
     // same size, the priority has a zone which already has a master. This
     // guarantees that initial seeding of masters (one per region) will use a zone
@@ -1949,8 +1973,7 @@ public class PlacementInfoUtil {
     // sorting zones by name.
     zones.sort(
         Comparator.comparing((RegionWithAz z) -> zoneToNodes.get(z).size())
-            .thenComparing(
-                (RegionWithAz z) -> zoneToNodes.get(z).stream().filter(n -> n.isMaster).count())
+            .thenComparing(zoneToNumMasters::get)
             .reversed()
             .thenComparing(RegionWithAz::getZone));
 
@@ -1989,7 +2012,12 @@ public class PlacementInfoUtil {
       result.removedMasters.forEach(node -> node.isMaster = false);
     }
 
-    LOG.info("selectMasters result: master-leader={}, nodes={}", masterLeader, nodes);
+    LOG.info(
+        "selectMasters result: master-leader={}, added={}, removed={}",
+        masterLeader,
+        result.addedMasters.size(),
+        result.removedMasters.size());
+    LOG.debug("selectMasters result nodes {}", nodes);
     return result;
   }
 
@@ -2608,46 +2636,24 @@ public class PlacementInfoUtil {
    * running we claim that the node is live else we claim it unreachable.
    *
    * @param nodeDetails The node to get the status of.
-   * @param nodeJson Metadata about all the nodes in the node's universe.
+   * @param instanceAlive Alive status of the servers in the node's universe, keyed by the
+   *     "ip:port" of their http endpoint.
    * @return JsonNode with the following format: { tserver_alive: true/false, master_alive:
    *     true/false, node_status: <NodeDetails.NodeState> }
    */
-  private static ObjectNode getNodeAliveStatus(NodeDetails nodeDetails, JsonNode nodeJson) {
-    boolean tserverAlive = false;
-    boolean masterAlive = false;
-    List<String> nodeValues = new ArrayList<>();
-
-    if (nodeJson.get("data") != null) {
-      for (JsonNode json : nodeJson.get("data")) {
-        String[] name = json.get("name").asText().split(":", 2);
-        if (name.length == 2 && name[0].equals(nodeDetails.cloudInfo.private_ip)) {
-          boolean alive = false;
-          for (JsonNode upData : json.get("y")) {
-            try {
-              alive = alive || (1 == (int) Float.parseFloat(upData.asText()));
-            } catch (NumberFormatException nfe) {
-              LOG.trace("Invalid number in node alive data: " + upData.asText());
-              // ignore this value
-            }
-          }
-
-          int port = Integer.parseInt(name[1]);
-
-          if (port == nodeDetails.masterHttpPort) {
-            masterAlive = masterAlive || alive;
-          } else if (port == nodeDetails.tserverHttpPort) {
-            tserverAlive = tserverAlive || alive;
-          }
-
-          if (!alive) {
-            nodeValues.add(json.toString());
-          }
-        }
-      }
-    }
+  private static ObjectNode getNodeAliveStatus(
+      NodeDetails nodeDetails, Map<String, Boolean> instanceAlive) {
+    String ip = nodeDetails.cloudInfo.private_ip;
+    boolean masterAlive = instanceAlive.getOrDefault(ip + ":" + nodeDetails.masterHttpPort, false);
+    boolean tserverAlive =
+        instanceAlive.getOrDefault(ip + ":" + nodeDetails.tserverHttpPort, false);
 
     if (!masterAlive || !tserverAlive) {
-      LOG.debug("Master or tserver considered not alive based on data: {}", nodeValues);
+      LOG.debug(
+          "Node {}: master alive {}, tserver alive {}",
+          nodeDetails.nodeName,
+          masterAlive,
+          tserverAlive);
     }
 
     nodeDetails.state =
@@ -2659,6 +2665,37 @@ public class PlacementInfoUtil {
         .put("node_status", nodeDetails.state.toString());
   }
 
+  /**
+   * Given the result of the universe alive metric query, return the alive status of each server. A
+   * server is considered alive if it was up at any point of the queried interval.
+   *
+   * @param nodeJson Metadata about all the nodes in the universe.
+   * @return Map from the "ip:port" of the server http endpoint to its alive status.
+   */
+  private static Map<String, Boolean> getInstanceAliveStatus(JsonNode nodeJson) {
+    Map<String, Boolean> instanceAlive = new HashMap<>();
+    if (nodeJson == null || nodeJson.get("data") == null) {
+      return instanceAlive;
+    }
+    for (JsonNode json : nodeJson.get("data")) {
+      String instance = json.get("name").asText();
+      boolean alive = false;
+      for (JsonNode upData : json.get("y")) {
+        try {
+          alive = alive || (1 == (int) Float.parseFloat(upData.asText()));
+        } catch (NumberFormatException nfe) {
+          LOG.trace("Invalid number in node alive data: " + upData.asText());
+          // ignore this value
+        }
+      }
+      if (!alive) {
+        LOG.debug("Server {} considered not alive based on data: {}", instance, json);
+      }
+      instanceAlive.merge(instance, alive, Boolean::logicalOr);
+    }
+    return instanceAlive;
+  }
+
   /**
    * Helper function to get the status for each node and the alive/not alive status for each master
    * and tserver.
@@ -2684,16 +2721,24 @@ public class PlacementInfoUtil {
         response.set(nodeDetails.nodeName, result);
       }
     } else {
-      JsonNode nodeJson = metricQueryResult.get(UNIVERSE_ALIVE_METRIC);
-      for (NodeDetails nodeDetails : universe.getNodes()) {
-        ObjectNode result = getNodeAliveStatus(nodeDetails, nodeJson);
-        response.set(nodeDetails.nodeName, result);
-      }
+      Map<String, Boolean> instanceAlive =
+          getInstanceAliveStatus(metricQueryResult.get(UNIVERSE_ALIVE_METRIC));
+      response = constructUniverseAliveStatus(universe, instanceAlive);
     }
 
     return response;
   }
 
+  private static ObjectNode constructUniverseAliveStatus(
+      Universe universe, Map<String, Boolean> instanceAlive) {
+    ObjectNode response = Json.newObject();
+    for (NodeDetails nodeDetails : universe.getNodes()) {
+      ObjectNode result = getNodeAliveStatus(nodeDetails, instanceAlive);
+      response.set(nodeDetails.nodeName, result);
+    }
+    return response;
+  }
+
   /**
    * Given a universe, return a status for each master and tserver as alive/not alive and the node's
    * status.
@@ -2733,6 +2778,21 @@ public class PlacementInfoUtil {
     return metricQueryResult.has("error") ? metricQueryResult : response;
   }
 
+  /**
+   * Same as {@link #getUniverseAliveStatus(Universe, MetricQueryHelper)}, but based on already
+   * known alive status of the universe servers, e.g. cached by {@link UniverseAliveStatusTracker}.
+   *
+   * @param universe The universe to get alive status for.
+   * @param instanceAlive Alive status of the universe servers, keyed by the "ip:port" of their
+   *     http endpoint. Servers missing in the map are considered not alive.
+   */
+  public static JsonNode getUniverseAliveStatus(
+      Universe universe, Map<String, Boolean> instanceAlive) {
+    ObjectNode response = constructUniverseAliveStatus(universe, instanceAlive);
+    response.put("universe_uuid", universe.universeUUID.toString());
+    return response;
+  }
+
   public static int getZoneRF(PlacementInfo pi, String cloud, String region, String zone) {
     return pi.cloudList
         .stream()
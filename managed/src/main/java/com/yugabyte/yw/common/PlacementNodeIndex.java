@@ -0,0 +1,129 @@
+/*
+ * Copyright 2021 YugaByte, Inc. and Contributors
+ *
+ * Licensed under the Polyform Free Trial License 1.0.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ *     https://github.com/YugaByte/yugabyte-db/blob/master/licenses/POLYFORM-FREE-TRIAL-LICENSE-1.0.0.txt
+ */
+
+package com.yugabyte.yw.common;
+
+import com.yugabyte.yw.models.helpers.NodeDetails;
+import com.yugabyte.yw.models.helpers.NodeDetails.NodeState;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Index of nodes by availability zone with per-AZ node counters, used by placement computations
+ * instead of scanning the whole collection of nodes for every AZ or every node to be placed. The
+ * index is updated incrementally, so node removals and state changes have to be done through it.
+ * Nodes of an AZ are kept in the iteration order of the original collection.
+ */
+class PlacementNodeIndex {
+
+  private static class AZNodes {
+    private final List<NodeDetails> nodes = new ArrayList<>();
+    // Counters skip master-only nodes, same as PlacementInfoUtil.getAzUuidToNumNodes.
+    private int numNodes;
+    private int numActiveNodes;
+    private int numActiveTserverOnlyNodes;
+  }
+
+  private final Map<UUID, AZNodes> azNodes = new HashMap<>();
+
+  PlacementNodeIndex(Collection<NodeDetails> nodes) {
+    nodes.forEach(this::add);
+  }
+
+  void add(NodeDetails node) {
+    AZNodes entry = azNodes.computeIfAbsent(node.azUuid, az -> new AZNodes());
+    entry.nodes.add(node);
+    updateCounters(entry, node, 1);
+  }
+
+  void remove(NodeDetails node) {
+    AZNodes entry = azNodes.get(node.azUuid);
+    if (entry != null && entry.nodes.remove(node)) {
+      updateCounters(entry, node, -1);
+    }
+  }
+
+  void setState(NodeDetails node, NodeState state) {
+    AZNodes entry = azNodes.get(node.azUuid);
+    if (entry != null) {
+      updateCounters(entry, node, -1);
+    }
+    node.state = state;
+    if (entry != null) {
+      updateCounters(entry, node, 1);
+    }
+  }
+
+  private static void updateCounters(AZNodes entry, NodeDetails node, int delta) {
+    if (node.isMaster && !node.isTserver) {
+      return;
+    }
+    entry.numNodes += delta;
+    if (node.isActive()) {
+      entry.numActiveNodes += delta;
+      if (!node.isMaster && node.isTserver) {
+        entry.numActiveTserverOnlyNodes += delta;
+      }
+    }
+  }
+
+  List<NodeDetails> getNodesInAz(UUID azUuid) {
+    AZNodes entry = azNodes.get(azUuid);
+    return entry == null ? Collections.emptyList() : Collections.unmodifiableList(entry.nodes);
+  }
+
+  int getNumActiveTserverOnlyNodes(UUID azUuid) {
+    AZNodes entry = azNodes.get(azUuid);
+    return entry == null ? 0 : entry.numActiveTserverOnlyNodes;
+  }
+
+  /**
+   * Returns a map of the AZ UUID's to number of nodes in each AZ. Same as {@link
+   * PlacementInfoUtil#getAzUuidToNumNodes(Collection)}, but doesn't scan the nodes.
+   */
+  Map<UUID, Integer> getAzUuidToNumNodes(boolean onlyActive) {
+    Map<UUID, Integer> result = new HashMap<>();
+    azNodes.forEach(
+        (azUuid, entry) -> {
+          int count = onlyActive ? entry.numActiveNodes : entry.numNodes;
+          if (count > 0) {
+            result.put(azUuid, count);
+          }
+        });
+    return result;
+  }
+
+  /**
+   * Same as {@link PlacementInfoUtil#findNodeInAz(Predicate, Collection, UUID, boolean)}, but
+   * checks only the nodes of the given AZ.
+   */
+  NodeDetails findNodeInAz(
+      Predicate<NodeDetails> nodeFilter, UUID targetAZUuid, boolean mastersPreferable) {
+    NodeDetails result = null;
+    for (NodeDetails node : getNodesInAz(targetAZUuid)) {
+      if (!nodeFilter.test(node)) {
+        continue;
+      }
+      // The first node wins among equal ones, as with the stable sort.
+      if (result == null
+          || (node.isMaster == mastersPreferable && result.isMaster != mastersPreferable)
+          || (node.isMaster == result.isMaster && node.getNodeIdx() > result.getNodeIdx())) {
+        result = node;
+      }
+    }
+    return result;
+  }
+}
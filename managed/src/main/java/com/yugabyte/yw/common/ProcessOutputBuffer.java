@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 YugaByte, Inc. and Contributors
+ *
+ * Licensed under the Polyform Free Trial License 1.0.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ *     https://github.com/YugaByte/yugabyte-db/blob/master/licenses/POLYFORM-FREE-TRIAL-LICENSE-1.0.0.txt
+ */
+
+package com.yugabyte.yw.common;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Line based process output buffer with bounded memory usage. Keeps up to headLimit characters
+ * from the beginning of the output and up to tailLimit characters from the end of it - lines in
+ * between are dropped and only counted, a marker line takes their place in the output. A line
+ * longer than the whole tail keeps only its end.
+ */
+public class ProcessOutputBuffer {
+  private final long headLimit;
+  private final long tailLimit;
+
+  private final StringBuilder head = new StringBuilder();
+  private boolean headFull;
+  private final Deque<String> tail = new ArrayDeque<>();
+  private long tailSize;
+  private long skippedLines;
+  private long skippedSize;
+
+  public ProcessOutputBuffer(long headLimit, long tailLimit) {
+    this.headLimit = headLimit;
+    this.tailLimit = tailLimit;
+  }
+
+  public synchronized void append(String line) {
+    // Line plus line separator.
+    long lineSize = line.length() + 1;
+    if (!headFull) {
+      if (head.length() + lineSize <= headLimit) {
+        head.append(line).append('\n');
+        return;
+      }
+      headFull = true;
+    }
+    if (lineSize > tailLimit) {
+      // Line replaces the whole tail, and only the end of it fits.
+      while (!tail.isEmpty()) {
+        skip(tail.removeFirst().length() + 1);
+      }
+      tailSize = 0;
+      int keep = (int) Math.max(tailLimit - 1, 0);
+      if (keep == 0) {
+        skip(lineSize);
+        return;
+      }
+      skippedSize += line.length() - keep;
+      line = line.substring(line.length() - keep);
+      lineSize = keep + 1;
+    }
+    tail.addLast(line);
+    tailSize += lineSize;
+    while (tailSize > tailLimit) {
+      String removed = tail.removeFirst();
+      tailSize -= removed.length() + 1;
+      skip(removed.length() + 1);
+    }
+  }
+
+  private void skip(long size) {
+    skippedLines++;
+    skippedSize += size;
+  }
+
+  /** @return true if any part of the output was dropped. */
+  public synchronized boolean isTruncated() {
+    return skippedSize > 0;
+  }
+
+  /** @return number of characters dropped from the output. */
+  public synchronized long getSkippedSize() {
+    return skippedSize;
+  }
+
+  /** @return number of lines dropped entirely from the output. */
+  public synchronized long getSkippedLines() {
+    return skippedLines;
+  }
+
+  /** @return retained output - head and tail parts with the skipped output marker between. */
+  public synchronized String getOutput() {
+    StringBuilder result = new StringBuilder(head.length() + (int) Math.min(tailSize, 1 << 30));
+    result.append(head);
+    if (isTruncated()) {
+      result.append(getSkippedMarker()).append('\n');
+    }
+    for (String line : tail) {
+      result.append(line).append('\n');
+    }
+    return result.toString();
+  }
+
+  /** @return line which replaces the skipped part of the output. */
+  public synchronized String getSkippedMarker() {
+    return String.format("... skipped %d lines (%d chars) ...", skippedLines, skippedSize);
+  }
+
+  /** @return last maxLines lines of retained output. */
+  public synchronized List<String> getLastLines(int maxLines) {
+    List<String> result = new ArrayList<>(Math.min(maxLines, tail.size()));
+    Iterator<String> it = tail.descendingIterator();
+    while (it.hasNext() && result.size() < maxLines) {
+      result.add(0, it.next());
+    }
+    if (result.size() < maxLines && head.length() > 0) {
+      String[] headLines = head.toString().split("\n");
+      for (int i = headLines.length - 1; i >= 0 && result.size() < maxLines; i--) {
+        result.add(0, headLines[i]);
+      }
+    }
+    return result;
+  }
+}
@@ -15,23 +15,30 @@ import static com.yugabyte.yw.common.ShellResponse.ERROR_CODE_GENERIC_ERROR;
 import static com.yugabyte.yw.common.ShellResponse.ERROR_CODE_SUCCESS;
 
 import com.google.common.base.Joiner;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
-import com.yugabyte.yw.common.config.RuntimeConfigFactory;
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.inject.Singleton;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
@@ -42,11 +49,16 @@ public class ShellProcessHandler {
   public static final Logger LOG = LoggerFactory.getLogger(ShellProcessHandler.class);
 
   private static final Duration DESTROY_GRACE_TIMEOUT = Duration.ofMinutes(5);
+  private static final Duration READER_COMPLETION_TIMEOUT = Duration.ofSeconds(10);
+
+  private static final String OUTPUT_READER_POOL = "shell_output_reader";
 
   private final play.Configuration appConfig;
   private final boolean cloudLoggingEnabled;
+  // Each running command occupies two threads, reading its stdout and stderr.
+  private final ExecutorService outputReaderExecutor;
 
-  @Inject private RuntimeConfigFactory runtimeConfigFactory;
+  private final Map<UUID, ProcessOutputBuffer> liveOutputs = new ConcurrentHashMap<>();
 
   static final Pattern ANSIBLE_FAIL_PAT =
       Pattern.compile(
@@ -55,13 +67,21 @@ public class ShellProcessHandler {
   static final Pattern ANSIBLE_FAILED_TASK_PAT =
       Pattern.compile("TASK.*?fatal.*?FAILED.*", Pattern.DOTALL);
   static final String ANSIBLE_IGNORING = "ignoring";
-  static final String COMMAND_OUTPUT_LOGS_DELETE = "yb.logs.cmdOutputDelete";
   static final String YB_LOGS_MAX_MSG_SIZE = "yb.logs.max_msg_size";
+  static final String YB_LOGS_MAX_OUTPUT_SIZE = "yb.logs.max_output_size";
 
   @Inject
-  public ShellProcessHandler(play.Configuration appConfig) {
+  public ShellProcessHandler(
+      play.Configuration appConfig, PlatformExecutorFactory platformExecutorFactory) {
     this.appConfig = appConfig;
     this.cloudLoggingEnabled = appConfig.getBoolean("yb.cloud.enabled");
+    this.outputReaderExecutor =
+        platformExecutorFactory.createExecutor(
+            OUTPUT_READER_POOL,
+            new ThreadFactoryBuilder()
+                .setNameFormat("ShellOutputReader-%d")
+                .setDaemon(true)
+                .build());
   }
 
   public ShellResponse run(
@@ -116,86 +136,60 @@ public class ShellProcessHandler {
       response.description = description;
     }
 
-    File tempOutputFile = null;
-    File tempErrorFile = null;
     long startMs = 0;
     Process process = null;
+    Future<?> outputReader = null;
+    Future<?> errorReader = null;
+    // Success response data comes from stdout, so retain a lot more of it than of stderr.
+    long maxOutputSize = getMaxOutputSize();
+    ProcessOutputBuffer processOutput =
+        new ProcessOutputBuffer(maxOutputSize / 2, maxOutputSize - maxOutputSize / 2);
+    ProcessOutputBuffer processError = new ProcessOutputBuffer(0, getMaxLogMsgSize());
     try {
-      tempOutputFile = File.createTempFile("shell_process_out", "tmp");
-      tempErrorFile = File.createTempFile("shell_process_err", "tmp");
-      pb.redirectOutput(tempOutputFile);
-      pb.redirectError(tempErrorFile);
       startMs = System.currentTimeMillis();
       LOG.info("Starting proc (abbrev cmd) - {}", response.description);
       String fullCommand = "'" + String.join("' '", redactedCommand) + "'";
       if (appConfig.getBoolean("yb.log.logEnvVars", false) && extraEnvVars != null) {
         fullCommand = Joiner.on(" ").withKeyValueSeparator("=").join(extraEnvVars) + fullCommand;
       }
-      LOG.debug(
-          "Starting proc (full cmd) - {} - logging stdout={}, stderr={}",
-          fullCommand,
-          tempOutputFile.getAbsolutePath(),
-          tempErrorFile.getAbsolutePath());
+      LOG.debug("Starting proc (full cmd) - {}", fullCommand);
 
       process = pb.start();
       if (uuid != null) {
         Util.setPID(uuid, process);
+        liveOutputs.put(uuid, processOutput);
       }
-      // TimeUnit.MINUTES.sleep(5);
-      waitForProcessExit(process, tempOutputFile, tempErrorFile);
-      // We will only read last 20MB of process stdout and stderr file.
-      // stdout has `data` so we wont limit that.
-      try (BufferedReader outputStream = getLastNReader(tempOutputFile, Long.MAX_VALUE);
-          BufferedReader errorStream = getLastNReader(tempErrorFile, getMaxLogMsgSize())) {
-        if (logCmdOutput) {
-          LOG.debug("Proc stdout for '{}' :", response.description);
-        }
-        StringBuilder processOutput = new StringBuilder();
-        Marker fileOnly = MarkerFactory.getMarker("fileOnly");
+      outputReader =
+          outputReaderExecutor.submit(
+              readStream(process.getInputStream(), processOutput, logCmdOutput));
+      errorReader =
+          outputReaderExecutor.submit(
+              readStream(process.getErrorStream(), processError, logCmdOutput));
+      // Blocks until the process exits - no polling, output is consumed by reader threads.
+      response.code = process.waitFor();
+      // Readers complete once the pipes are closed, i.e. right after the process exits.
+      // Child processes, which inherited the pipes, may keep them open though.
+      waitForReader(outputReader, response.description);
+      waitForReader(errorReader, response.description);
+
+      logSkippedOutput(processOutput, "stdout", response.description);
+      logSkippedOutput(processError, "stderr", response.description);
+      String stdout = processOutput.getOutput();
+      String stderr = processError.getOutput();
+      if (logCmdOutput && cloudLoggingEnabled) {
         Marker consoleOnly = MarkerFactory.getMarker("consoleOnly");
-
-        outputStream
-            .lines()
-            .forEach(
-                line -> {
-                  processOutput.append(line).append("\n");
-                  if (logCmdOutput) {
-                    LOG.debug(fileOnly, line);
-                  }
-                });
-
-        if (logCmdOutput && cloudLoggingEnabled && processOutput.length() > 0) {
-          LOG.debug(consoleOnly, processOutput.toString());
+        if (!stdout.isEmpty()) {
+          LOG.debug(consoleOnly, "Proc stdout for '{}' :\n{}", response.description, stdout);
         }
-
-        if (logCmdOutput) {
-          LOG.debug("Proc stderr for '{}' :", response.description);
-        }
-        StringBuilder processError = new StringBuilder();
-        errorStream
-            .lines()
-            .forEach(
-                line -> {
-                  processError.append(line).append("\n");
-                  if (logCmdOutput) {
-                    LOG.debug(fileOnly, line);
-                  }
-                });
-
-        if (logCmdOutput && cloudLoggingEnabled && processError.length() > 0) {
-          LOG.debug(consoleOnly, processError.toString());
+        if (!stderr.isEmpty()) {
+          LOG.debug(consoleOnly, "Proc stderr for '{}' :\n{}", response.description, stderr);
         }
+      }
 
-        response.code = process.exitValue();
-        response.message =
-            (response.code == ERROR_CODE_SUCCESS)
-                ? processOutput.toString().trim()
-                : processError.toString().trim();
-        String ansibleErrMsg =
-            getAnsibleErrMsg(response.code, processOutput.toString(), processError.toString());
-        if (ansibleErrMsg != null) {
-          response.message = ansibleErrMsg;
-        }
+      response.message = (response.code == ERROR_CODE_SUCCESS) ? stdout.trim() : stderr.trim();
+      String ansibleErrMsg = getAnsibleErrMsg(response.code, stdout, stderr);
+      if (ansibleErrMsg != null) {
+        response.message = ansibleErrMsg;
       }
     } catch (IOException | InterruptedException e) {
       response.code = ERROR_CODE_GENERIC_ERROR;
@@ -218,6 +212,14 @@ public class ShellProcessHandler {
         }
       }
     } finally {
+      if (process != null) {
+        // Unblocks readers, which may still wait on pipes held open by child processes.
+        stopReader(outputReader, process.getInputStream());
+        stopReader(errorReader, process.getErrorStream());
+      }
+      if (uuid != null) {
+        liveOutputs.remove(uuid, processOutput);
+      }
       if (startMs > 0) {
         response.durationMs = System.currentTimeMillis() - startMs;
       }
@@ -228,14 +230,6 @@ public class ShellProcessHandler {
           response.description,
           status,
           response.durationMs);
-      if (runtimeConfigFactory.globalRuntimeConf().getBoolean(COMMAND_OUTPUT_LOGS_DELETE)) {
-        if (tempOutputFile != null && tempOutputFile.exists()) {
-          tempOutputFile.delete();
-        }
-        if (tempErrorFile != null && tempErrorFile.exists()) {
-          tempErrorFile.delete();
-        }
-      }
     }
 
     return response;
@@ -245,20 +239,23 @@ public class ShellProcessHandler {
     return appConfig.getBytes(YB_LOGS_MAX_MSG_SIZE);
   }
 
-  /** For a given file return a bufferred reader that reads only last N bytes. */
-  private static BufferedReader getLastNReader(File file, long lastNBytes)
-      throws FileNotFoundException {
-    final BufferedReader reader =
-        new BufferedReader(new InputStreamReader(new FileInputStream(file)));
-    long skip = file.length() - lastNBytes;
-    if (skip > 0) {
-      try {
-        LOG.warn("Skipped first {} bytes because max_msg_size= {}", reader.skip(skip), lastNBytes);
-      } catch (IOException e) {
-        LOG.warn("Unexpected exception when skipping large file", e);
-      }
+  private long getMaxOutputSize() {
+    return appConfig.getBytes(YB_LOGS_MAX_OUTPUT_SIZE);
+  }
+
+  /**
+   * Returns last lines of the output of a command, which is still running.
+   *
+   * @param uuid UUID the command was started with.
+   * @param maxLines maximum number of lines to return.
+   * @return output lines or empty list if there is no such command running.
+   */
+  public List<String> getLiveOutput(UUID uuid, int maxLines) {
+    ProcessOutputBuffer output = liveOutputs.get(uuid);
+    if (output == null) {
+      return Collections.emptyList();
     }
-    return reader;
+    return output.getLastLines(maxLines);
   }
 
   public ShellResponse run(List<String> command, Map<String, String> extraEnvVars) {
@@ -282,34 +279,57 @@ public class ShellProcessHandler {
     return run(command, extraEnvVars, true /*logCommandOutput*/, description, null, sensitiveData);
   }
 
-  private static void waitForProcessExit(Process process, File outFile, File errFile)
-      throws IOException, InterruptedException {
-    try (FileInputStream outputInputStream = new FileInputStream(outFile);
-        InputStreamReader outputReader = new InputStreamReader(outputInputStream);
-        FileInputStream errInputStream = new FileInputStream(errFile);
-        InputStreamReader errReader = new InputStreamReader(errInputStream);
-        BufferedReader outputStream = new BufferedReader(outputReader);
-        BufferedReader errorStream = new BufferedReader(errReader)) {
-      while (!process.waitFor(1, TimeUnit.SECONDS)) {
-        tailStream(outputStream);
-        tailStream(errorStream);
+  private static Runnable readStream(
+      InputStream stream, ProcessOutputBuffer buffer, boolean logCmdOutput) {
+    return () -> {
+      Marker fileOnly = MarkerFactory.getMarker("fileOnly");
+      try (BufferedReader reader =
+          new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          buffer.append(line);
+          if (line.contains("[app]")) {
+            LOG.info(line);
+          } else if (logCmdOutput) {
+            LOG.debug(fileOnly, line);
+          }
+        }
+      } catch (IOException e) {
+        // Stream is closed when the reader is cancelled.
+        LOG.debug("Stopped reading process output: {}", e.getMessage());
       }
-      // check for any remaining lines
-      tailStream(outputStream);
-      tailStream(errorStream);
+    };
+  }
+
+  private static void waitForReader(Future<?> reader, String description)
+      throws InterruptedException {
+    try {
+      reader.get(READER_COMPLETION_TIMEOUT.getSeconds(), TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      LOG.warn("Failed to read output of '{}'", description, e.getCause());
+    } catch (TimeoutException e) {
+      LOG.warn(
+          "Output of '{}' is still open after process exit, child process is still running?",
+          description);
     }
   }
 
-  private static void tailStream(BufferedReader br) throws IOException {
+  private static void stopReader(Future<?> reader, InputStream stream) {
+    if (reader != null && !reader.isDone()) {
+      reader.cancel(true);
+      IOUtils.closeQuietly(stream);
+    }
+  }
 
-    String line;
-    // Note: technically, this readLine can pick up incomplete lines as we race
-    // with the process output being appended to this file but for the purposes
-    // of logging, it is ok to log partial lines.
-    while ((line = br.readLine()) != null) {
-      if (line.contains("[app]")) {
-        LOG.info(line);
-      }
+  private static void logSkippedOutput(
+      ProcessOutputBuffer buffer, String streamName, String description) {
+    if (buffer.isTruncated()) {
+      LOG.warn(
+          "Skipped {} lines ({} chars) of {} for '{}' because of output size limits",
+          buffer.getSkippedLines(),
+          buffer.getSkippedSize(),
+          streamName,
+          description);
     }
   }
 
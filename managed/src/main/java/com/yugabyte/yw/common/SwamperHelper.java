@@ -10,13 +10,11 @@
 
 package com.yugabyte.yw.common;
 
-import static com.yugabyte.yw.common.Util.writeFile;
-import static com.yugabyte.yw.common.Util.writeJsonFile;
-
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.io.PatternFilenameFilter;
+import com.google.common.base.Throwables;
+import com.google.common.hash.Hashing;
 import com.yugabyte.yw.common.alerts.AlertRuleTemplateSubstitutor;
 import com.yugabyte.yw.models.AlertDefinition;
 import com.yugabyte.yw.models.AlertConfiguration;
@@ -26,11 +24,21 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
@@ -54,6 +62,12 @@ public class SwamperHelper {
           "^yugaware\\.ad\\.[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}"
               + "-[0-9a-fA-F]{12}\\.yml$");
 
+  // Metric rollup rules files share the alert rules files prefix, so that these are loaded by
+  // the existing Prometheus rule_files configuration.
+  @VisibleForTesting static final String METRIC_ROLLUP_FILE_PREFIX = "yugaware.ad.rollup.";
+  private static final Pattern METRIC_ROLLUP_FILE_PATTERN =
+      Pattern.compile("^yugaware\\.ad\\.rollup\\.\\w+\\.yml$");
+
   /*
      Sample targets file
     [
@@ -75,6 +89,28 @@ public class SwamperHelper {
   private final play.Configuration appConfig;
   private final Environment environment;
 
+  // Content hash of every file we generated, keyed by absolute path. Used to skip rewriting
+  // files whose content did not change, as each rewrite triggers a Prometheus reload.
+  private final Map<String, String> generatedFileHashes = new ConcurrentHashMap<>();
+
+  // Names of the files in each rules directory, keyed by its absolute path. Listed once, then kept
+  // up to date as files are written and deleted, so finding stale rules files for cleanup doesn't
+  // list the directory each time.
+  private final Map<String, Set<String>> ruleFileIndex = new ConcurrentHashMap<>();
+
+  // Target file writes per universe. Concurrent requests for the same universe are coalesced
+  // into the running writer.
+  private final Map<UUID, TargetWrites> targetWrites = new ConcurrentHashMap<>();
+
+  private static class TargetWrites {
+    // Whether a thread is writing the target files of the universe.
+    boolean writing;
+    // Pass that writes the requests which arrived while another pass was running, null if none.
+    CompletableFuture<Void> nextPass;
+    // Target files were removed, later requests start over with new state.
+    boolean removed;
+  }
+
   @Inject
   public SwamperHelper(Configuration appConfig, Environment environment) {
     this.appConfig = appConfig;
@@ -156,7 +192,78 @@ public class SwamperHelper {
     return null;
   }
 
+  /**
+   * Writes node and yugabyte target files for the universe. If another thread is already writing
+   * targets for the same universe, the request is handed over to that thread, which re-reads the
+   * universe and writes the files once more after its current pass. The request waits for that
+   * pass and fails if the pass fails.
+   */
   public void writeUniverseTargetJson(UUID universeUUID) {
+    TargetWrites writes;
+    CompletableFuture<Void> coalescedPass;
+    while (true) {
+      writes = targetWrites.computeIfAbsent(universeUUID, k -> new TargetWrites());
+      synchronized (writes) {
+        if (writes.removed) {
+          continue;
+        }
+        if (writes.writing) {
+          if (writes.nextPass == null) {
+            writes.nextPass = new CompletableFuture<>();
+          }
+          coalescedPass = writes.nextPass;
+        } else {
+          writes.writing = true;
+          coalescedPass = null;
+        }
+      }
+      break;
+    }
+
+    if (coalescedPass != null) {
+      LOG.debug("Target files write for universe {} is coalesced with running one", universeUUID);
+      try {
+        coalescedPass.join();
+      } catch (CompletionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw e;
+      }
+      return;
+    }
+
+    Throwable failure = null;
+    CompletableFuture<Void> pass = null;
+    while (true) {
+      try {
+        doWriteUniverseTargetJson(universeUUID);
+        if (pass != null) {
+          pass.complete(null);
+        }
+      } catch (Throwable t) {
+        // Coalesced requests get the failure of their pass, the later ones are still written.
+        if (pass != null) {
+          pass.completeExceptionally(t);
+        } else {
+          failure = t;
+        }
+      }
+      synchronized (writes) {
+        pass = writes.nextPass;
+        writes.nextPass = null;
+        if (pass == null) {
+          writes.writing = false;
+          writes.notifyAll();
+          break;
+        }
+      }
+    }
+    if (failure != null) {
+      Throwables.throwIfUnchecked(failure);
+      throw new RuntimeException(failure);
+    }
+  }
+
+  private void doWriteUniverseTargetJson(UUID universeUUID) {
     Universe universe = Universe.getOrBadRequest(universeUUID);
 
     // Write out the node specific file.
@@ -176,7 +283,7 @@ public class SwamperHelper {
                       Collections.singletonList(node),
                       node.nodeName));
             });
-    writeJsonFile(swamperFile, nodeTargets);
+    writeFileIfChanged(swamperFile, Json.prettyPrint(nodeTargets));
 
     // Write out the yugabyte specific file.
     ArrayNode ybTargets = Json.newArray();
@@ -197,25 +304,137 @@ public class SwamperHelper {
                 });
       }
     }
-    writeJsonFile(swamperFile, ybTargets);
+    writeFileIfChanged(swamperFile, Json.prettyPrint(ybTargets));
+  }
+
+  /**
+   * Atomically replaces file content, unless it already has the same content.
+   *
+   * @return true if file was written, false if it was already up to date.
+   */
+  @VisibleForTesting
+  boolean writeFileIfChanged(String filePath, String contents) {
+    String hash = Hashing.sha256().hashString(contents, StandardCharsets.UTF_8).toString();
+    Path path = Paths.get(filePath).toAbsolutePath();
+    String key = path.toString();
+    if (hash.equals(getGeneratedFileHash(path))) {
+      LOG.debug("File {} is up to date", filePath);
+      return false;
+    }
+    Path tmpPath = null;
+    try {
+      tmpPath = Files.createTempFile(path.getParent(), "." + path.getFileName(), ".tmp");
+      Files.write(tmpPath, contents.getBytes(StandardCharsets.UTF_8));
+      try {
+        Files.move(
+            tmpPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+      generatedFileHashes.put(key, hash);
+      updateRuleFileIndex(path, true);
+      LOG.info("Written: {}", filePath);
+      return true;
+    } catch (IOException e) {
+      generatedFileHashes.remove(key);
+      LOG.error("Unable to write: {}", filePath);
+      throw new RuntimeException(e.getMessage(), e);
+    } finally {
+      if (tmpPath != null) {
+        tmpPath.toFile().delete();
+      }
+    }
+  }
+
+  private String getGeneratedFileHash(Path path) {
+    String key = path.toString();
+    if (!Files.exists(path)) {
+      generatedFileHashes.remove(key);
+      return null;
+    }
+    return generatedFileHashes.computeIfAbsent(
+        key,
+        k -> {
+          // File was generated before restart - hash it once to avoid rewriting same content.
+          try {
+            return Hashing.sha256().hashBytes(Files.readAllBytes(path)).toString();
+          } catch (IOException e) {
+            LOG.warn("Failed to read {}", path, e);
+            return null;
+          }
+        });
+  }
+
+  private void deleteGeneratedFile(String filePath) {
+    Path path = Paths.get(filePath).toAbsolutePath();
+    generatedFileHashes.remove(path.toString());
+    File file = path.toFile();
+    if (file.exists()) {
+      LOG.info("Deleting generated file: {}", filePath);
+      file.delete();
+    }
+    updateRuleFileIndex(path, false);
+  }
+
+  private void updateRuleFileIndex(Path path, boolean exists) {
+    String fileName = path.getFileName().toString();
+    // Blocks while the directory is being listed, so the change isn't lost.
+    ruleFileIndex.computeIfPresent(
+        path.getParent().toString(),
+        (dir, fileNames) -> {
+          if (exists) {
+            fileNames.add(fileName);
+          } else {
+            fileNames.remove(fileName);
+          }
+          return fileNames;
+        });
+  }
+
+  private List<String> getRuleFileNames(File rulesDirectory, Pattern pattern) {
+    Set<String> fileNames =
+        ruleFileIndex.computeIfAbsent(
+            rulesDirectory.getAbsolutePath(),
+            dir -> {
+              String[] files = rulesDirectory.list();
+              if (files == null) {
+                throw new RuntimeException("Failed to list rules files in " + dir);
+              }
+              Set<String> names = ConcurrentHashMap.newKeySet();
+              names.addAll(Arrays.asList(files));
+              return names;
+            });
+    return fileNames
+        .stream()
+        .filter(fileName -> pattern.matcher(fileName).matches())
+        .collect(Collectors.toList());
   }
 
   private void removeUniverseTargetJson(UUID universeUUID, String prefix) {
     String swamperFile = getSwamperFile(universeUUID, prefix);
     if (swamperFile != null) {
-      File file = new File(swamperFile);
-
-      if (file.exists()) {
-        LOG.info("Deleting Swamper Target file: {}", swamperFile);
-        file.delete();
-      }
+      deleteGeneratedFile(swamperFile);
     }
   }
 
   public void removeUniverseTargetJson(UUID universeUUID) {
-    // TODO: make these constants / enums.
-    removeUniverseTargetJson(universeUUID, "node");
-    removeUniverseTargetJson(universeUUID, "yugabyte");
+    TargetWrites writes = targetWrites.computeIfAbsent(universeUUID, k -> new TargetWrites());
+    synchronized (writes) {
+      // Running writer would recreate the files after these are deleted, so wait for it.
+      while (writes.writing) {
+        try {
+          writes.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException("Interrupted while removing target files", e);
+        }
+      }
+      writes.removed = true;
+      targetWrites.remove(universeUUID, writes);
+      // TODO: make these constants / enums.
+      removeUniverseTargetJson(universeUUID, "node");
+      removeUniverseTargetJson(universeUUID, "yugabyte");
+    }
   }
 
   private File getSwamperRuleDirectory() {
@@ -240,10 +459,16 @@ public class SwamperHelper {
     return null;
   }
 
-  public void writeAlertDefinition(AlertConfiguration configuration, AlertDefinition definition) {
+  /**
+   * Writes alert rules file for the definition.
+   *
+   * @return true if rules file content was changed, false otherwise.
+   */
+  public boolean writeAlertDefinition(
+      AlertConfiguration configuration, AlertDefinition definition) {
     String swamperFile = getSwamperRuleFile(definition.getUuid());
     if (swamperFile == null) {
-      return;
+      return false;
     }
 
     String fileContent;
@@ -275,32 +500,76 @@ public class SwamperHelper {
                 })
             .collect(Collectors.joining());
 
-    writeFile(swamperFile, fileContent);
+    return writeFileIfChanged(swamperFile, fileContent);
   }
 
   public void removeAlertDefinition(UUID definitionUUID) {
     String swamperFile = getSwamperRuleFile(definitionUUID);
     if (swamperFile != null) {
-      File file = new File(swamperFile);
+      deleteGeneratedFile(swamperFile);
+    }
+  }
 
-      if (file.exists()) {
-        file.delete();
-        LOG.info("Swamper Rules file deleted: {}", swamperFile);
-      }
+  private String getMetricRollupRuleFile(String name) {
+    File swamperRulesDirectory = getSwamperRuleDirectory();
+    if (swamperRulesDirectory != null) {
+      return String.format("%s/%s%s.yml", swamperRulesDirectory, METRIC_ROLLUP_FILE_PREFIX, name);
     }
+    return null;
   }
 
-  public List<UUID> getAlertDefinitionConfigUuids() {
+  /**
+   * Writes recording rules file of the metric rollups.
+   *
+   * @return true if rules file content was changed, false otherwise.
+   */
+  public boolean writeMetricRollupRules(String name, String content) {
+    String swamperFile = getMetricRollupRuleFile(name);
+    if (swamperFile == null) {
+      return false;
+    }
+    return writeFileIfChanged(swamperFile, content);
+  }
+
+  public void removeMetricRollupRules(String name) {
+    String swamperFile = getMetricRollupRuleFile(name);
+    if (swamperFile != null) {
+      deleteGeneratedFile(swamperFile);
+    }
+  }
+
+  /**
+   * Returns modification time of the metric rollup rules file in milliseconds, or null if there is
+   * no such file.
+   */
+  public Long getMetricRollupRulesModifiedTime(String name) {
+    String swamperFile = getMetricRollupRuleFile(name);
+    if (swamperFile == null) {
+      return null;
+    }
+    File file = new File(swamperFile);
+    return file.exists() ? file.lastModified() : null;
+  }
+
+  public List<String> getMetricRollupRuleNames() {
     File swamperRulesDir = getSwamperRuleDirectory();
     if (swamperRulesDir == null) {
       return Collections.emptyList();
     }
-    String[] configFiles =
-        swamperRulesDir.list(new PatternFilenameFilter(ALERT_CONFIG_FILE_PATTERN));
-    if (configFiles == null) {
-      throw new RuntimeException("Failed to list alert rules config files");
+    return getRuleFileNames(swamperRulesDir, METRIC_ROLLUP_FILE_PATTERN)
+        .stream()
+        .map(FilenameUtils::removeExtension)
+        .map(filename -> filename.substring(METRIC_ROLLUP_FILE_PREFIX.length()))
+        .collect(Collectors.toList());
+  }
+
+  public List<UUID> getAlertDefinitionConfigUuids() {
+    File swamperRulesDir = getSwamperRuleDirectory();
+    if (swamperRulesDir == null) {
+      return Collections.emptyList();
     }
-    return Arrays.stream(configFiles)
+    return getRuleFileNames(swamperRulesDir, ALERT_CONFIG_FILE_PATTERN)
+        .stream()
         .map(FilenameUtils::removeExtension)
         .map(filename -> filename.replaceAll(ALERT_CONFIG_FILE_PREFIX, ""))
         .map(UUID::fromString)
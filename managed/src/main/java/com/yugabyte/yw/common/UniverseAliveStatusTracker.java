@@ -0,0 +1,150 @@
+/*
+ * Copyright 2021 YugaByte, Inc. and Contributors
+ *
+ * Licensed under the Polyform Free Trial License 1.0.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ *     https://github.com/YugaByte/yugabyte-db/blob/master/licenses/POLYFORM-FREE-TRIAL-LICENSE-1.0.0.txt
+ */
+
+package com.yugabyte.yw.common;
+
+import akka.actor.ActorSystem;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.typesafe.config.Config;
+import com.yugabyte.yw.metrics.MetricQueryHelper;
+import com.yugabyte.yw.metrics.MetricQueryResponse;
+import com.yugabyte.yw.models.Universe;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.duration.Duration;
+
+/**
+ * Keeps master and tserver alive status of all universes in memory. The status is refreshed in
+ * background by a single Prometheus query for all universes, so universe status requests are
+ * served without querying Prometheus. If the status was not refreshed for too long, e.g. because
+ * Prometheus is unavailable, the universe is queried directly, so the query error is reported to
+ * the caller. Universes missing in the last refresh, e.g. created after it, are queried directly
+ * as well.
+ */
+@Singleton
+@Slf4j
+public class UniverseAliveStatusTracker {
+  static final String REFRESH_INTERVAL = "yb.metrics.universe_alive_status.refresh_interval";
+  static final String MAX_STALENESS = "yb.metrics.universe_alive_status.max_staleness";
+
+  // Server is alive if it was up at any point of the last minute, same as for the direct query.
+  @VisibleForTesting
+  static final String ALIVE_STATUS_QUERY =
+      "max by (node_prefix, instance) (max_over_time(up{node_prefix!=\"\"}[1m]))";
+
+  private final AtomicBoolean running = new AtomicBoolean(false);
+
+  private final ActorSystem actorSystem;
+
+  private final ExecutionContext executionContext;
+
+  private final MetricQueryHelper metricQueryHelper;
+
+  private final long refreshIntervalMs;
+
+  private final long maxStalenessMs;
+
+  private volatile Snapshot snapshot;
+
+  @Inject
+  public UniverseAliveStatusTracker(
+      ActorSystem actorSystem,
+      ExecutionContext executionContext,
+      MetricQueryHelper metricQueryHelper,
+      Config config) {
+    this.actorSystem = actorSystem;
+    this.executionContext = executionContext;
+    this.metricQueryHelper = metricQueryHelper;
+    this.refreshIntervalMs = config.getDuration(REFRESH_INTERVAL, TimeUnit.MILLISECONDS);
+    this.maxStalenessMs = config.getDuration(MAX_STALENESS, TimeUnit.MILLISECONDS);
+  }
+
+  public void start() {
+    this.actorSystem
+        .scheduler()
+        .schedule(
+            Duration.create(0, TimeUnit.SECONDS),
+            Duration.create(refreshIntervalMs, TimeUnit.MILLISECONDS),
+            this::scheduleRunner,
+            this.executionContext);
+  }
+
+  /**
+   * Returns alive status of the universe nodes in the same format as {@link
+   * PlacementInfoUtil#getUniverseAliveStatus(Universe, MetricQueryHelper)}.
+   */
+  public JsonNode getUniverseAliveStatus(Universe universe) {
+    Snapshot current = snapshot;
+    if (current == null || System.currentTimeMillis() - current.refreshTime > maxStalenessMs) {
+      log.debug("Alive status is stale, querying universe {}", universe.universeUUID);
+      return PlacementInfoUtil.getUniverseAliveStatus(universe, metricQueryHelper);
+    }
+    Map<String, Boolean> instanceAlive =
+        current.instanceAlive.get(universe.getUniverseDetails().nodePrefix);
+    if (instanceAlive == null) {
+      log.debug("No alive status of universe {} yet, querying it", universe.universeUUID);
+      return PlacementInfoUtil.getUniverseAliveStatus(universe, metricQueryHelper);
+    }
+    return PlacementInfoUtil.getUniverseAliveStatus(universe, instanceAlive);
+  }
+
+  @VisibleForTesting
+  void scheduleRunner() {
+    if (!running.compareAndSet(false, true)) {
+      log.info("Previous run of universe alive status refresh is still underway");
+      return;
+    }
+    try {
+      refresh();
+    } catch (Exception e) {
+      log.warn("Failed to refresh universe alive status: {}", e.getMessage());
+    } finally {
+      running.set(false);
+    }
+  }
+
+  private void refresh() {
+    long refreshTime = System.currentTimeMillis();
+    List<MetricQueryResponse.Entry> entries = metricQueryHelper.queryDirect(ALIVE_STATUS_QUERY);
+    Map<String, Map<String, Boolean>> instanceAlive = new HashMap<>();
+    for (MetricQueryResponse.Entry entry : entries) {
+      String nodePrefix = entry.labels.get("node_prefix");
+      String instance = entry.labels.get("instance");
+      if (nodePrefix == null || instance == null || entry.values.isEmpty()) {
+        continue;
+      }
+      boolean alive = entry.values.get(entry.values.size() - 1).getRight() >= 1.0;
+      instanceAlive
+          .computeIfAbsent(nodePrefix, k -> new HashMap<>())
+          .merge(instance, alive, Boolean::logicalOr);
+    }
+    snapshot = new Snapshot(refreshTime, instanceAlive);
+    log.debug("Refreshed alive status of {} universes", instanceAlive.size());
+  }
+
+  private static class Snapshot {
+    private final long refreshTime;
+    // Node prefix -> "ip:port" of server http endpoint -> alive.
+    private final Map<String, Map<String, Boolean>> instanceAlive;
+
+    private Snapshot(long refreshTime, Map<String, Map<String, Boolean>> instanceAlive) {
+      this.refreshTime = refreshTime;
+      this.instanceAlive = instanceAlive;
+    }
+  }
+}
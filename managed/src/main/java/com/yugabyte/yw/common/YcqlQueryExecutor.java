@@ -11,18 +11,21 @@ import com.datastax.driver.core.Session;
 import com.datastax.driver.core.exceptions.AuthenticationException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.yugabyte.yw.common.DbConnectionPools.YcqlSessionLease;
 import com.yugabyte.yw.forms.DatabaseSecurityFormData;
 import com.yugabyte.yw.forms.DatabaseUserFormData;
 import com.yugabyte.yw.forms.RunQueryFormData;
 import com.yugabyte.yw.models.Universe;
-import java.io.Closeable;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import play.mvc.Http;
@@ -32,6 +35,11 @@ public class YcqlQueryExecutor {
   private static final Logger LOG = LoggerFactory.getLogger(YcqlQueryExecutor.class);
   private static final String DEFAULT_DB_USER = Util.DEFAULT_YCQL_USERNAME;
   private static final String DEFAULT_DB_PASSWORD = Util.DEFAULT_YCQL_PASSWORD;
+  private static final Pattern USE_STATEMENT =
+      Pattern.compile(
+          "^\\s*USE\\s+(\"(?:[^\"]|\"\")+\"|\\w+)\\s*;?\\s*$", Pattern.CASE_INSENSITIVE);
+
+  @Inject DbConnectionPools dbConnectionPools;
 
   public void createUser(Universe universe, DatabaseUserFormData data) {
     // Create user for customer CQL.
@@ -87,38 +95,40 @@ public class YcqlQueryExecutor {
       throw new PlatformServiceException(
           Http.Status.BAD_REQUEST, ycqlResponse.get("error").asText());
     }
+    // Sessions opened with the old password should not be used anymore.
+    dbConnectionPools.closeUniverseConnections(universe.universeUUID);
   }
 
-  private static class CassandraConnection implements Closeable {
-    Cluster cluster = null;
-    Session session = null;
-
-    @Override
-    public void close() {
-      session.close();
-      cluster.close();
-    }
+  private YcqlSessionLease getSession(
+      UUID universeUUID,
+      List<InetSocketAddress> addresses,
+      Boolean authEnabled,
+      String username,
+      String password) {
+    String certificate = Universe.getOrBadRequest(universeUUID).getCertificateClientToNode();
+    return dbConnectionPools.getYcqlSession(
+        universeUUID,
+        authEnabled ? username.trim() : null,
+        authEnabled ? password.trim() : null,
+        certificate,
+        () -> {
+          Cluster.Builder builder = Cluster.builder().addContactPointsWithPorts(addresses);
+          if (authEnabled) {
+            builder.withCredentials(username.trim(), password.trim());
+          }
+          if (certificate != null) {
+            builder.withSSL(SslHelper.getSSLOptions(certificate));
+          }
+          return builder.build();
+        });
   }
 
-  private CassandraConnection createCassandraConnection(
-      UUID universeUUID, Boolean authEnabled, String username, String password) {
-    CassandraConnection cc = new CassandraConnection();
-    List<InetSocketAddress> addresses = Util.getNodesAsInet(universeUUID);
-    if (addresses.isEmpty()) {
-      return cc;
+  // Driver 3.x can't set the keyspace of a single statement, so USE only checks the keyspace.
+  private static void checkKeyspaceExists(Session session, String keyspace) {
+    if (session.getCluster().getMetadata().getKeyspace(keyspace) == null) {
+      throw new IllegalArgumentException(
+          String.format("Keyspace %s does not exist", keyspace));
     }
-    Cluster.Builder builder = Cluster.builder().addContactPointsWithPorts(addresses);
-    if (authEnabled) {
-      builder.withCredentials(username.trim(), password.trim());
-    }
-    String certificate = Universe.getOrBadRequest(universeUUID).getCertificateClientToNode();
-    if (certificate != null) {
-      builder.withSSL(SslHelper.getSSLOptions(certificate));
-    }
-    cc.cluster = builder.build();
-
-    cc.session = cc.cluster.connect();
-    return cc;
   }
 
   private List<Map<String, Object>> resultSetToMap(ResultSet result) {
@@ -159,10 +169,24 @@ public class YcqlQueryExecutor {
       String username,
       String password) {
     ObjectNode response = newObject();
-    CassandraConnection cc =
-        createCassandraConnection(universe.universeUUID, authEnabled, username, password);
+    List<InetSocketAddress> addresses = Util.getNodesAsInet(universe.universeUUID);
+    if (addresses.isEmpty()) {
+      response.put("error", "No YCQL nodes found");
+      return response;
+    }
+    YcqlSessionLease lease =
+        getSession(universe.universeUUID, addresses, authEnabled, username, password);
     try {
-      ResultSet rs = cc.session.execute(queryParams.query);
+      Session session = lease.getSession();
+      Matcher useMatcher = USE_STATEMENT.matcher(queryParams.query);
+      if (useMatcher.find()) {
+        // Session is shared with other queries, so its keyspace should stay the same. Each query
+        // used to get a session of its own, so USE never affected the following queries anyway.
+        checkKeyspaceExists(session, useMatcher.group(1));
+        response.put("queryType", "USE");
+        return response;
+      }
+      ResultSet rs = session.execute(queryParams.query);
       if (rs.iterator().hasNext()) {
         List<Map<String, Object>> rows = resultSetToMap(rs);
         response.set("result", toJson(rows));
@@ -175,7 +199,7 @@ public class YcqlQueryExecutor {
     } catch (Exception e) {
       response.put("error", e.getMessage());
     } finally {
-      cc.close();
+      lease.close();
     }
     return response;
   }
@@ -7,13 +7,12 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.yugabyte.yw.common.DbConnectionPools.PooledYsqlConnection;
 import com.yugabyte.yw.common.config.RuntimeConfigFactory;
 import com.yugabyte.yw.forms.DatabaseSecurityFormData;
 import com.yugabyte.yw.forms.DatabaseUserFormData;
 import com.yugabyte.yw.forms.RunQueryFormData;
 import com.yugabyte.yw.models.Universe;
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -48,6 +47,7 @@ public class YsqlQueryExecutor {
           + "SET current_version = current_version + 1 WHERE db_oid = 1;";
 
   @Inject RuntimeConfigFactory runtimeConfigFactory;
+  @Inject DbConnectionPools dbConnectionPools;
 
   private String getQueryType(String queryString) {
     String[] queryParts = queryString.split(" ");
@@ -99,21 +99,18 @@ public class YsqlQueryExecutor {
       props.put("sslmode", "verify-ca");
       props.put("sslrootcert", caCert);
     }
-    try (Connection conn = DriverManager.getConnection(connectString, props)) {
-      if (conn == null) {
-        response.put("error", "Unable to connect to DB");
+    try (PooledYsqlConnection pooled =
+            dbConnectionPools.getYsqlConnection(universe.universeUUID, connectString, props);
+        PreparedStatement p = pooled.getConnection().prepareStatement(queryParams.query)) {
+      boolean hasResult = p.execute();
+      if (hasResult) {
+        ResultSet result = p.getResultSet();
+        List<Map<String, Object>> rows = resultSetToMap(result);
+        response.set("result", toJson(rows));
       } else {
-        PreparedStatement p = conn.prepareStatement(queryParams.query);
-        boolean hasResult = p.execute();
-        if (hasResult) {
-          ResultSet result = p.getResultSet();
-          List<Map<String, Object>> rows = resultSetToMap(result);
-          response.set("result", toJson(rows));
-        } else {
-          response
-              .put("queryType", getQueryType(queryParams.query))
-              .put("count", p.getUpdateCount());
-        }
+        response
+            .put("queryType", getQueryType(queryParams.query))
+            .put("count", p.getUpdateCount());
       }
     } catch (SQLException | RuntimeException e) {
       response.put("error", e.getMessage());
@@ -248,6 +245,8 @@ public class YsqlQueryExecutor {
       throw new PlatformServiceException(
           Http.Status.BAD_REQUEST, ysqlResponse.get("error").asText());
     }
+    // Connections opened with the old password should not be used anymore.
+    dbConnectionPools.closeUniverseConnections(universe.universeUUID);
     ysqlQuery.query = "SELECT pg_stat_statements_reset()";
     ysqlResponse =
         executeQuery(universe, ysqlQuery, data.ysqlAdminUsername, data.ysqlAdminPassword);
@@ -134,9 +134,13 @@ public class AlertConfigurationWriter {
         log.info("Alert definition {} has config in sync", definitionUuid);
         return SyncResult.IN_SYNC;
       }
-      swamperHelper.writeAlertDefinition(configuration, definition);
+      boolean changed = swamperHelper.writeAlertDefinition(configuration, definition);
       definition.setConfigWritten(true);
       alertDefinitionService.save(definition);
+      if (!changed) {
+        log.info("Alert definition {} config content is unchanged", definitionUuid);
+        return SyncResult.IN_SYNC;
+      }
       requiresReload.set(true);
       return SyncResult.SYNCED;
     } catch (Exception e) {
@@ -0,0 +1,359 @@
+/*
+ * Copyright 2021 YugaByte, Inc. and Contributors
+ *
+ * Licensed under the Polyform Free Trial License 1.0.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://github.com/YugaByte/yugabyte-db/blob/master/licenses/POLYFORM-FREE-TRIAL-LICENSE-1.0.0.txt
+ */
+
+package com.yugabyte.yw.common.ha;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Singleton;
+import com.yugabyte.yw.common.Util;
+import io.ebean.Ebean;
+import io.ebean.Transaction;
+import io.ebean.annotation.TxIsolation;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import play.libs.Json;
+
+/**
+ * Incremental platform backups. Every platform table has a version - the checksum of its content.
+ * Unlike table statistics, checksums don't depend on anything but the data, so no change is missed
+ * after statistics reset or crash. A delta backup contains the full content of the tables whose
+ * version changed since the versions the follower has acknowledged and the values of all sequences,
+ * together with the name of the full backup it should be applied on top of.
+ *
+ * <p>Computing the versions reads every table, and a changed table is sent whole, so busy tables are
+ * read and sent on most syncs. Hence deltas are off by default, yb.ha.incremental_replication_enabled
+ * turns them on. Deltas are applied with foreign key triggers disabled, which requires the platform
+ * DB user to be a superuser - without that only full backups are used.
+ */
+@Singleton
+@Slf4j
+public class PlatformDeltaBackups {
+
+  static final String DELTA_FILE_PREFIX = "delta_";
+  static final String DELTA_FILE_PATTERN = DELTA_FILE_PREFIX + "*.zip";
+  private static final String MANIFEST_ENTRY = "manifest.json";
+  private static final String TABLE_ENTRY_PREFIX = "tables/";
+  private static final String SEQUENCES_KEY = "sequences";
+  // Flyway migrations table - change of the schema requires a full backup.
+  private static final String SCHEMA_VERSION_TABLE = "schema_version";
+
+  private static final String TABLES_SQL =
+      "SELECT tablename FROM pg_tables WHERE schemaname = 'public'";
+  private static final String SEQUENCES_SQL =
+      "SELECT c.relname FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace"
+          + " WHERE c.relkind = 'S' AND n.nspname = 'public'";
+  // Rows are hashed separately and sorted, so the checksum doesn't depend on their physical order.
+  private static final String TABLE_CHECKSUM_SQL =
+      "SELECT md5(COALESCE(string_agg(h, '' ORDER BY h), ''))"
+          + " FROM (SELECT md5(t::text) AS h FROM %s t) r";
+  private static final String SUPERUSER_SQL =
+      "SELECT rolsuper FROM pg_roles WHERE rolname = current_user";
+  static final String SUPERUSER_REQUIRED_MSG =
+      "Platform DB user is not a superuser, which is required to apply delta backups";
+
+  /**
+   * @return true if the platform DB user may disable foreign key triggers while applying deltas, by
+   *     setting session_replication_role.
+   */
+  boolean canApplyDeltas() {
+    try (Transaction transaction = Ebean.getDefaultServer().createTransaction();
+        Statement statement = transaction.getConnection().createStatement();
+        ResultSet result = statement.executeQuery(SUPERUSER_SQL)) {
+      return result.next() && result.getBoolean(1);
+    } catch (Exception e) {
+      log.error("Failed to check platform DB user privileges", e);
+      return false;
+    }
+  }
+
+  /**
+   * @return versions of platform tables or empty if they could not be read, in which case only
+   *     full backups can be used. All the tables are read in a single repeatable read transaction.
+   */
+  Optional<Map<String, String>> getTableVersions() {
+    // Followers run with the same DB setup, so they couldn't apply the deltas either.
+    if (!canApplyDeltas()) {
+      log.warn("{}, sending full backups only", SUPERUSER_REQUIRED_MSG);
+      return Optional.empty();
+    }
+    try (Transaction transaction =
+            Ebean.getDefaultServer().createTransaction(TxIsolation.REPEATABLE_READ);
+        Statement statement = transaction.getConnection().createStatement()) {
+      List<String> tables = new ArrayList<>();
+      try (ResultSet result = statement.executeQuery(TABLES_SQL)) {
+        while (result.next()) {
+          tables.add(result.getString(1));
+        }
+      }
+      Map<String, String> versions = new HashMap<>();
+      for (String table : tables) {
+        try (ResultSet result =
+            statement.executeQuery(
+                String.format(TABLE_CHECKSUM_SQL, quoteIdentifier(table)))) {
+          result.next();
+          versions.put(table, result.getString(1));
+        }
+      }
+      return Optional.of(versions);
+    } catch (Exception e) {
+      log.error("Failed to read platform table versions", e);
+      return Optional.empty();
+    }
+  }
+
+  /** @return true if table set or schema changed, so delta can't be applied on the old backup. */
+  static boolean requiresFullBackup(
+      Map<String, String> baseVersions, Map<String, String> versions) {
+    return !baseVersions.keySet().equals(versions.keySet())
+        || !Objects.equals(
+            versions.get(SCHEMA_VERSION_TABLE), baseVersions.get(SCHEMA_VERSION_TABLE));
+  }
+
+  static Set<String> getChangedTables(
+      Map<String, String> baseVersions, Map<String, String> versions) {
+    return versions
+        .entrySet()
+        .stream()
+        .filter(e -> !e.getValue().equals(baseVersions.get(e.getKey())))
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toCollection(TreeSet::new));
+  }
+
+  static String getDeltaFilePrefix(String baseBackupName) {
+    return DELTA_FILE_PREFIX + FilenameUtils.getBaseName(baseBackupName) + "_";
+  }
+
+  /**
+   * Writes content of the passed tables and values of all the sequences into a delta file. All the
+   * tables are read in a single repeatable read transaction, so the delta is consistent. Sequences
+   * are not transactional, so they are read after the tables and are at least as recent as them.
+   */
+  File createDelta(
+      Path outputDir, String baseBackupName, Set<String> tables, Map<String, String> versions)
+      throws IOException, SQLException {
+    File deltaFile =
+        outputDir
+            .resolve(getDeltaFilePrefix(baseBackupName) + System.currentTimeMillis() + ".zip")
+            .toFile();
+    if (!outputDir.toFile().exists() && !outputDir.toFile().mkdirs()) {
+      throw new IOException("Could not create " + outputDir);
+    }
+    try (Transaction transaction =
+            Ebean.getDefaultServer().createTransaction(TxIsolation.REPEATABLE_READ);
+        ZipOutputStream zipOut = new ZipOutputStream(Files.newOutputStream(deltaFile.toPath()))) {
+      Connection connection = transaction.getConnection();
+      CopyManager copyManager = getCopyManager(connection);
+      for (String table : tables) {
+        zipOut.putNextEntry(new ZipEntry(TABLE_ENTRY_PREFIX + table));
+        copyManager.copyOut(
+            "COPY " + quoteIdentifier(table) + " TO STDOUT (FORMAT binary)",
+            new CloseShieldOutputStream(zipOut));
+        zipOut.closeEntry();
+      }
+      ObjectNode manifest = Json.newObject();
+      manifest.put("base", baseBackupName);
+      manifest.set("tables", Json.toJson(tables));
+      manifest.set("versions", Json.toJson(versions));
+      manifest.set(SEQUENCES_KEY, readSequences(connection));
+      zipOut.putNextEntry(new ZipEntry(MANIFEST_ENTRY));
+      zipOut.write(Json.stringify(manifest).getBytes(StandardCharsets.UTF_8));
+      zipOut.closeEntry();
+    } catch (IOException | SQLException | RuntimeException e) {
+      deltaFile.delete();
+      throw e;
+    }
+    log.debug("Created delta backup {} with {} tables", deltaFile, tables.size());
+    return deltaFile;
+  }
+
+  /** @return deltas received for the given full backup, in the order they have to be applied. */
+  static List<File> listDeltas(Path dir, String baseBackupName) {
+    try {
+      String prefix = getDeltaFilePrefix(baseBackupName);
+      // Files are sorted by name, which ends with creation timestamp.
+      return Util.listFiles(dir, DELTA_FILE_PATTERN)
+          .stream()
+          .filter(f -> f.getName().startsWith(prefix))
+          .collect(Collectors.toList());
+    } catch (IOException e) {
+      log.error("Error listing delta backups in {}", dir, e);
+      return new ArrayList<>();
+    }
+  }
+
+  /**
+   * Checks that the deltas are complete, so that promotion fails before the full backup is
+   * restored rather than after.
+   */
+  static void validateDeltas(List<File> deltas) throws IOException {
+    for (File delta : deltas) {
+      try (ZipFile zipFile = new ZipFile(delta)) {
+        JsonNode manifest = readManifest(zipFile, delta);
+        for (JsonNode table : manifest.get("tables")) {
+          if (zipFile.getEntry(TABLE_ENTRY_PREFIX + table.asText()) == null) {
+            throw new IOException("Delta backup " + delta + " has no table " + table.asText());
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Applies the deltas on top of just restored full backup. All the deltas are applied in a single
+   * transaction with foreign key triggers disabled, as tables are replaced one by one - if any of
+   * them fails, the database is left as the full backup restored it.
+   */
+  void applyDeltas(List<File> deltas) throws IOException, SQLException {
+    try (Transaction transaction = Ebean.getDefaultServer().createTransaction()) {
+      Connection connection = transaction.getConnection();
+      CopyManager copyManager = getCopyManager(connection);
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("SET LOCAL session_replication_role = replica");
+      }
+      for (File delta : deltas) {
+        try (ZipFile zipFile = new ZipFile(delta)) {
+          JsonNode manifest = readManifest(zipFile, delta);
+          Iterator<JsonNode> tables = manifest.get("tables").elements();
+          while (tables.hasNext()) {
+            String table = tables.next().asText();
+            String quotedTable = quoteIdentifier(table);
+            try (Statement statement = connection.createStatement()) {
+              statement.execute("DELETE FROM " + quotedTable);
+            }
+            ZipEntry tableEntry = zipFile.getEntry(TABLE_ENTRY_PREFIX + table);
+            if (tableEntry == null) {
+              throw new IOException("Delta backup " + delta + " has no table " + table);
+            }
+            try (InputStream in = zipFile.getInputStream(tableEntry)) {
+              copyManager.copyIn("COPY " + quotedTable + " FROM STDIN (FORMAT binary)", in);
+            }
+          }
+          if (manifest.has(SEQUENCES_KEY)) {
+            applySequences(connection, manifest.get(SEQUENCES_KEY));
+          }
+        }
+        log.debug("Applied delta backup {}", delta.getName());
+      }
+      transaction.commit();
+      log.info("Applied {} delta backups", deltas.size());
+    }
+  }
+
+  private static JsonNode readManifest(ZipFile zipFile, File delta) throws IOException {
+    ZipEntry manifestEntry = zipFile.getEntry(MANIFEST_ENTRY);
+    if (manifestEntry == null) {
+      throw new IOException("Delta backup " + delta + " has no manifest");
+    }
+    JsonNode manifest;
+    try (InputStream in = zipFile.getInputStream(manifestEntry)) {
+      manifest = Json.parse(in);
+    }
+    if (!manifest.has("tables")) {
+      throw new IOException("Delta backup " + delta + " has invalid manifest");
+    }
+    return manifest;
+  }
+
+  private static ObjectNode readSequences(Connection connection) throws SQLException {
+    List<String> sequences = new ArrayList<>();
+    try (Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery(SEQUENCES_SQL)) {
+      while (result.next()) {
+        sequences.add(result.getString(1));
+      }
+    }
+    ObjectNode values = Json.newObject();
+    for (String sequence : sequences) {
+      try (Statement statement = connection.createStatement();
+          ResultSet result =
+              statement.executeQuery(
+                  "SELECT last_value, is_called FROM " + quoteIdentifier(sequence))) {
+        result.next();
+        values.set(
+            sequence,
+            Json.newObject()
+                .put("last_value", result.getLong("last_value"))
+                .put("is_called", result.getBoolean("is_called")));
+      }
+    }
+    return values;
+  }
+
+  private static void applySequences(Connection connection, JsonNode sequences)
+      throws SQLException {
+    Iterator<Map.Entry<String, JsonNode>> it = sequences.fields();
+    while (it.hasNext()) {
+      Map.Entry<String, JsonNode> sequence = it.next();
+      try (PreparedStatement statement =
+          connection.prepareStatement("SELECT setval(?::regclass, ?, ?)")) {
+        statement.setString(1, quoteIdentifier(sequence.getKey()));
+        statement.setLong(2, sequence.getValue().get("last_value").asLong());
+        statement.setBoolean(3, sequence.getValue().get("is_called").asBoolean());
+        statement.execute();
+      }
+    }
+  }
+
+  /** Deletes received deltas which are not based on any of the retained full backups. */
+  static void cleanupDeltas(Path dir, List<File> retainedBackups) {
+    try {
+      Set<String> prefixes =
+          retainedBackups
+              .stream()
+              .map(f -> getDeltaFilePrefix(f.getName()))
+              .collect(Collectors.toSet());
+      for (File delta : Util.listFiles(dir, DELTA_FILE_PATTERN)) {
+        if (prefixes.stream().noneMatch(delta.getName()::startsWith)) {
+          delta.delete();
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Failed to list or delete delta backups in {}", dir);
+    }
+  }
+
+  @VisibleForTesting
+  static String quoteIdentifier(String identifier) {
+    return "\"" + identifier.replace("\"", "\"\"") + "\"";
+  }
+
+  private static CopyManager getCopyManager(Connection connection) throws SQLException {
+    return new CopyManager(connection.unwrap(BaseConnection.class));
+  }
+}
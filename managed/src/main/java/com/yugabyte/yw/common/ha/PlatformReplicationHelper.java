@@ -34,9 +34,11 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
@@ -62,6 +64,9 @@ public class PlatformReplicationHelper {
       "yb.ha.replication_schedule_enabled";
   private static final String PROMETHEUS_FEDERATED_CONFIG_DIR_KEY = "yb.ha.prometheus_config_dir";
   private static final String NUM_BACKUP_RETENTION_KEY = "yb.ha.num_backup_retention";
+  private static final String INCREMENTAL_REPLICATION_ENABLED_KEY =
+      "yb.ha.incremental_replication_enabled";
+  private static final String FULL_SNAPSHOT_INTERVAL_KEY = "yb.ha.full_snapshot_interval";
   static final String PROMETHEUS_HOST_CONFIG_KEY = "yb.metrics.host";
   static final String REPLICATION_FREQUENCY_KEY = "yb.ha.replication_frequency";
   static final String DB_USERNAME_CONFIG_KEY = "db.default.username";
@@ -75,6 +80,8 @@ public class PlatformReplicationHelper {
 
   private final PlatformInstanceClientFactory remoteClientFactory;
 
+  private final PlatformDeltaBackups deltaBackups;
+
   @VisibleForTesting ShellProcessHandler shellProcessHandler;
 
   @Inject
@@ -82,11 +89,13 @@ public class PlatformReplicationHelper {
       SettableRuntimeConfigFactory runtimeConfigFactory,
       ApiHelper apiHelper,
       PlatformInstanceClientFactory remoteClientFactory,
-      ShellProcessHandler shellProcessHandler) {
+      ShellProcessHandler shellProcessHandler,
+      PlatformDeltaBackups deltaBackups) {
     this.runtimeConfigFactory = runtimeConfigFactory;
     this.apiHelper = apiHelper;
     this.remoteClientFactory = remoteClientFactory;
     this.shellProcessHandler = shellProcessHandler;
+    this.deltaBackups = deltaBackups;
   }
 
   Path getBackupDir() {
@@ -129,6 +138,16 @@ public class PlatformReplicationHelper {
         .setValue(REPLICATION_SCHEDULE_ENABLED_KEY, Boolean.toString(enabled));
   }
 
+  boolean isIncrementalReplicationEnabled() {
+    return runtimeConfigFactory
+        .globalRuntimeConf()
+        .getBoolean(INCREMENTAL_REPLICATION_ENABLED_KEY);
+  }
+
+  Duration getFullSnapshotInterval() {
+    return runtimeConfigFactory.globalRuntimeConf().getDuration(FULL_SNAPSHOT_INTERVAL_KEY);
+  }
+
   boolean isBackupScheduleRunning(Cancellable schedule) {
     return schedule != null && !schedule.isCancelled();
   }
@@ -364,11 +383,49 @@ public class PlatformReplicationHelper {
     try {
       List<File> backups = Util.listFiles(this.getBackupDir(), BACKUP_FILE_PATTERN);
       this.cleanupBackups(backups, 0);
+      PlatformDeltaBackups.cleanupDeltas(this.getBackupDir(), Collections.emptyList());
     } catch (IOException ioException) {
       LOG.warn("Failed to list or delete backups");
     }
   }
 
+  Optional<Map<String, String>> getTableVersions() {
+    return deltaBackups.getTableVersions();
+  }
+
+  Optional<File> createDeltaBackup(
+      String baseBackupName, Map<String, String> baseVersions, Map<String, String> versions) {
+    Set<String> changedTables = PlatformDeltaBackups.getChangedTables(baseVersions, versions);
+    try {
+      return Optional.of(
+          deltaBackups.createDelta(this.getBackupDir(), baseBackupName, changedTables, versions));
+    } catch (Exception exception) {
+      LOG.error("Could not create delta backup for {}", baseBackupName, exception);
+    }
+
+    return Optional.empty();
+  }
+
+  List<File> listDeltaBackups(URL leader, String baseBackupName) {
+    Path backupDir = this.getReplicationDirFor(leader.getHost());
+    if (!backupDir.toFile().isDirectory()) {
+      return new ArrayList<>();
+    }
+
+    return PlatformDeltaBackups.listDeltas(backupDir, baseBackupName);
+  }
+
+  void validateDeltaBackups(List<File> deltas) throws Exception {
+    if (!deltas.isEmpty() && !deltaBackups.canApplyDeltas()) {
+      throw new IllegalStateException(PlatformDeltaBackups.SUPERUSER_REQUIRED_MSG);
+    }
+    PlatformDeltaBackups.validateDeltas(deltas);
+  }
+
+  void applyDeltaBackups(List<File> deltas) throws Exception {
+    deltaBackups.applyDeltas(deltas);
+  }
+
   void syncToRemoteInstance(PlatformInstance remoteInstance) {
     HighAvailabilityConfig config = remoteInstance.getConfig();
     String remoteAddr = remoteInstance.getAddress();
@@ -406,6 +463,13 @@ public class PlatformReplicationHelper {
   void cleanupReceivedBackups(URL leader, int numToRetain) {
     List<File> backups = this.listBackups(leader);
     this.cleanupBackups(backups, numToRetain);
+    Path backupDir = this.getReplicationDirFor(leader.getHost());
+    if (backupDir.toFile().isDirectory()) {
+      // Deltas are only useful together with the full backup they are based on.
+      List<File> retained =
+          backups.subList(Math.max(0, backups.size() - numToRetain), backups.size());
+      PlatformDeltaBackups.cleanupDeltas(backupDir, retained);
+    }
   }
 
   Optional<PlatformInstance> processImportedInstance(PlatformInstance i) {
@@ -31,12 +31,14 @@ import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
@@ -60,6 +62,10 @@ public class PlatformReplicationManager {
 
   private final PlatformReplicationHelper replicationHelper;
 
+  // Last backup acknowledged by each follower, keyed by follower address. Kept in memory only,
+  // so the first sync after restart always sends a full backup.
+  private final Map<String, ReplicationState> replicationStates = new ConcurrentHashMap<>();
+
   @Inject
   public PlatformReplicationManager(
       ActorSystem actorSystem,
@@ -155,6 +161,8 @@ public class PlatformReplicationManager {
 
     // Stop the old backup schedule.
     this.stopAndDisable();
+    // Followers may receive backups from the new leader, so deltas can't be sent to them anymore.
+    replicationStates.clear();
 
     // Demote the local instance to follower.
     localInstance.demote();
@@ -187,6 +195,7 @@ public class PlatformReplicationManager {
 
     // Mark the failover timestamp.
     config.updateLastFailover();
+    replicationStates.clear();
     // Attempt to ensure all remote instances are in follower state.
     // Remotely demote any instance reporting to be a leader.
     config.getRemoteInstances().forEach(replicationHelper::demoteRemoteInstance);
@@ -261,6 +270,65 @@ public class PlatformReplicationManager {
     return result;
   }
 
+  private boolean sendDeltaBackup(
+      PlatformInstance remoteInstance, ReplicationState state, Map<String, String> versions) {
+    if (PlatformDeltaBackups.getChangedTables(state.versions, versions).isEmpty()) {
+      // Follower is already up to date.
+      return remoteInstance.updateLastBackup();
+    }
+
+    HighAvailabilityConfig config = remoteInstance.getConfig();
+    boolean result =
+        replicationHelper
+            .createDeltaBackup(state.baseBackupName, state.versions, versions)
+            .map(
+                delta ->
+                    replicationHelper.exportBackups(
+                            config, config.getClusterKey(), remoteInstance.getAddress(), delta)
+                        && remoteInstance.updateLastBackup())
+            .orElse(false);
+    if (result) {
+      state.versions = versions;
+    } else {
+      log.error("Error sending platform delta backup to " + remoteInstance.getAddress());
+    }
+
+    return result;
+  }
+
+  private boolean sendFullBackup(
+      PlatformInstance remoteInstance, Optional<Map<String, String>> versions) {
+    boolean result = this.sendBackup(remoteInstance);
+    String remoteAddr = remoteInstance.getAddress();
+    Optional<File> backup = replicationHelper.getMostRecentBackup();
+    if (result && versions.isPresent() && backup.isPresent()) {
+      replicationStates.put(
+          remoteAddr, new ReplicationState(backup.get().getName(), versions.get()));
+    } else {
+      replicationStates.remove(remoteAddr);
+    }
+
+    return result;
+  }
+
+  private boolean requiresFullBackup(
+      PlatformInstance remoteInstance, Optional<Map<String, String>> versions) {
+    ReplicationState state = replicationStates.get(remoteInstance.getAddress());
+    return !versions.isPresent()
+        || state == null
+        || state.isExpired(replicationHelper.getFullSnapshotInterval())
+        || PlatformDeltaBackups.requiresFullBackup(state.versions, versions.get());
+  }
+
+  private Optional<Map<String, String>> getTableVersions() {
+    if (!replicationHelper.isIncrementalReplicationEnabled()) {
+      replicationStates.clear();
+      return Optional.empty();
+    }
+
+    return replicationHelper.getTableVersions();
+  }
+
   public void oneOffSync() {
     if (replicationHelper.isBackupScheduleEnabled()) {
       this.sync();
@@ -286,8 +354,17 @@ public class PlatformReplicationManager {
                     return;
                   }
 
+                  // Versions are read before the data, so changes made while the backup is being
+                  // created are sent again with the next delta.
+                  Optional<Map<String, String>> versions = this.getTableVersions();
+                  Set<PlatformInstance> fullBackupInstances =
+                      remoteInstances
+                          .stream()
+                          .filter(i -> this.requiresFullBackup(i, versions))
+                          .collect(Collectors.toSet());
+
                   // Create the platform backup.
-                  if (!this.createBackup()) {
+                  if (!fullBackupInstances.isEmpty() && !this.createBackup()) {
                     log.error("Error creating platform backup");
 
                     return;
@@ -300,11 +377,18 @@ public class PlatformReplicationManager {
                           localInstance -> {
                             localInstance.updateLastBackup();
 
-                            // Send the platform backup to all followers.
+                            // Send the full platform backup or delta to all followers.
                             Set<PlatformInstance> instancesToSync =
                                 remoteInstances
                                     .stream()
-                                    .filter(this::sendBackup)
+                                    .filter(
+                                        i ->
+                                            fullBackupInstances.contains(i)
+                                                ? this.sendFullBackup(i, versions)
+                                                : this.sendDeltaBackup(
+                                                    i,
+                                                    replicationStates.get(i.getAddress()),
+                                                    versions.get()))
                                     .collect(Collectors.toSet());
 
                             // Sync the HA cluster state to all followers that successfully received
@@ -355,10 +439,68 @@ public class PlatformReplicationManager {
     return false;
   }
 
+  /**
+   * Checks the deltas received from the leader for the full backup before it is restored.
+   *
+   * @return false if any of the deltas is incomplete
+   */
+  public boolean validateDeltaBackups(URL leader, File backup) {
+    try {
+      replicationHelper.validateDeltaBackups(
+          replicationHelper.listDeltaBackups(leader, backup.getName()));
+      return true;
+    } catch (Exception e) {
+      log.error("Invalid platform delta backups", e);
+    }
+
+    return false;
+  }
+
+  /**
+   * Applies deltas received from the leader on top of just restored full backup.
+   *
+   * @return false if any of the deltas failed to apply
+   */
+  public boolean applyDeltaBackups(URL leader, File backup) {
+    List<File> deltas = replicationHelper.listDeltaBackups(leader, backup.getName());
+    if (deltas.isEmpty()) {
+      return true;
+    }
+
+    log.info("Applying {} platform delta backups on top of {}", deltas.size(), backup.getName());
+    try {
+      replicationHelper.applyDeltaBackups(deltas);
+      return true;
+    } catch (Exception e) {
+      log.error("Error applying platform delta backups", e);
+    }
+
+    return false;
+  }
+
   public void switchPrometheusToStandalone() {
     this.replicationHelper.switchPrometheusToStandalone();
   }
 
+  private static class ReplicationState {
+
+    // Name of the full backup the follower has received.
+    private final String baseBackupName;
+    private final Instant baseBackupTime;
+    // Table versions of the last backup or delta the follower has received.
+    private Map<String, String> versions;
+
+    ReplicationState(String baseBackupName, Map<String, String> versions) {
+      this.baseBackupName = baseBackupName;
+      this.baseBackupTime = Instant.now();
+      this.versions = versions;
+    }
+
+    boolean isExpired(Duration fullSnapshotInterval) {
+      return baseBackupTime.plus(fullSnapshotInterval).isBefore(Instant.now());
+    }
+  }
+
   abstract class PlatformBackupParams {
 
     // The addr that the prometheus server is running on.
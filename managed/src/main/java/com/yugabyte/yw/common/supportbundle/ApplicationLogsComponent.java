@@ -7,6 +7,7 @@ import com.yugabyte.yw.common.SupportBundleUtil;
 import com.yugabyte.yw.commissioner.BaseTaskDependencies;
 import com.yugabyte.yw.models.Customer;
 import com.yugabyte.yw.models.Universe;
+import com.yugabyte.yw.models.helpers.NodeDetails;
 import java.util.List;
 import java.util.ArrayList;
 import java.nio.file.Files;
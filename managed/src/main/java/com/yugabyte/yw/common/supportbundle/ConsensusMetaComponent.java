@@ -14,8 +14,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Date;
-import java.util.List;
-import java.util.stream.Collectors;
 import java.util.UUID;
 import java.io.IOException;
 import java.text.ParseException;
@@ -45,38 +43,10 @@ class ConsensusMetaComponent implements SupportBundleComponent {
   @Override
   public void downloadComponent(Customer customer, Universe universe, Path bundlePath)
       throws IOException {
-    List<NodeDetails> nodes = universe.getNodes().stream().collect(Collectors.toList());
-
-    String destDir = bundlePath.toString() + "/" + "consensus_meta";
-    Path destPath = Paths.get(destDir);
-    Files.createDirectories(destPath);
-
     // Downloads the /mnt/d0/master/consensus-meta and /mnt/d0/tserver/consensus-meta from each node
     // in the universe into the bundle path
-    for (NodeDetails node : nodes) {
-      // Get source file path prefix
-      String mountPath =
-          supportBundleUtil.getDataDirPath(universe, node, nodeUniverseManager, config);
-      String nodeHomeDir = mountPath + "/yb-data";
-
-      // Get target file path
-      String nodeName = node.getNodeName();
-      Path nodeTargetFile = Paths.get(destDir, nodeName + ".tar.gz");
-
-      log.debug(
-          "Gathering consensus meta for node: {}, source path: {}, target path: {}",
-          nodeName,
-          nodeHomeDir,
-          nodeTargetFile.toString());
-
-      Path targetFile =
-          universeInfoHandler.downloadNodeFile(
-              customer,
-              universe,
-              node,
-              nodeHomeDir,
-              "master/consensus-meta;tserver/consensus-meta",
-              nodeTargetFile);
+    for (NodeDetails node : universe.getNodes()) {
+      downloadNodeComponent(customer, universe, node, bundlePath);
     }
   }
 
@@ -86,4 +56,51 @@ class ConsensusMetaComponent implements SupportBundleComponent {
       throws IOException, ParseException {
     this.downloadComponent(customer, universe, bundlePath);
   }
+
+  @Override
+  public boolean isNodeComponent() {
+    return true;
+  }
+
+  @Override
+  public void downloadNodeComponentBetweenDates(
+      Customer customer,
+      Universe universe,
+      NodeDetails node,
+      Path bundlePath,
+      Date startDate,
+      Date endDate)
+      throws IOException {
+    downloadNodeComponent(customer, universe, node, bundlePath);
+  }
+
+  private void downloadNodeComponent(
+      Customer customer, Universe universe, NodeDetails node, Path bundlePath) throws IOException {
+    String destDir = bundlePath.toString() + "/" + "consensus_meta";
+    Files.createDirectories(Paths.get(destDir));
+
+    // Get source file path prefix
+    String mountPath =
+        supportBundleUtil.getDataDirPath(universe, node, nodeUniverseManager, config);
+    String nodeHomeDir = mountPath + "/yb-data";
+
+    // Get target file path
+    String nodeName = node.getNodeName();
+    Path nodeTargetFile = Paths.get(destDir, nodeName + ".tar.gz");
+
+    log.debug(
+        "Gathering consensus meta for node: {}, source path: {}, target path: {}",
+        nodeName,
+        nodeHomeDir,
+        nodeTargetFile.toString());
+
+    Path targetFile =
+        universeInfoHandler.downloadNodeFile(
+            customer,
+            universe,
+            node,
+            nodeHomeDir,
+            "master/consensus-meta;tserver/consensus-meta",
+            nodeTargetFile);
+  }
 }
@@ -12,8 +12,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Date;
-import java.util.List;
-import java.util.stream.Collectors;
 import java.util.UUID;
 import java.io.IOException;
 import java.text.ParseException;
@@ -36,36 +34,10 @@ class GFlagsComponent implements SupportBundleComponent {
   @Override
   public void downloadComponent(Customer customer, Universe universe, Path bundlePath)
       throws IOException {
-    List<NodeDetails> nodes = universe.getNodes().stream().collect(Collectors.toList());
-
-    String destDir = bundlePath.toString() + "/" + "gflags";
-    Path destPath = Paths.get(destDir);
-    Files.createDirectories(destPath);
-
     // Downloads the master/conf/server.conf and tserver/conf/server.conf from each node in the
     // universe into the bundle path
-    for (NodeDetails node : nodes) {
-      // Get source file path prefix
-      String nodeHomeDir = nodeUniverseManager.getYbHomeDir(node, universe);
-
-      // Get target file path
-      String nodeName = node.getNodeName();
-      Path nodeTargetFile = Paths.get(destDir, nodeName + ".tar.gz");
-
-      log.debug(
-          "Gathering gflags conf for node: {}, source path: {}, target path: {}",
-          nodeName,
-          nodeHomeDir,
-          nodeTargetFile.toString());
-
-      Path targetFile =
-          universeInfoHandler.downloadNodeFile(
-              customer,
-              universe,
-              node,
-              nodeHomeDir,
-              "master/conf/server.conf;tserver/conf/server.conf",
-              nodeTargetFile);
+    for (NodeDetails node : universe.getNodes()) {
+      downloadNodeComponent(customer, universe, node, bundlePath);
     }
   }
 
@@ -75,4 +47,49 @@ class GFlagsComponent implements SupportBundleComponent {
       throws IOException, ParseException {
     this.downloadComponent(customer, universe, bundlePath);
   }
+
+  @Override
+  public boolean isNodeComponent() {
+    return true;
+  }
+
+  @Override
+  public void downloadNodeComponentBetweenDates(
+      Customer customer,
+      Universe universe,
+      NodeDetails node,
+      Path bundlePath,
+      Date startDate,
+      Date endDate)
+      throws IOException {
+    downloadNodeComponent(customer, universe, node, bundlePath);
+  }
+
+  private void downloadNodeComponent(
+      Customer customer, Universe universe, NodeDetails node, Path bundlePath) throws IOException {
+    String destDir = bundlePath.toString() + "/" + "gflags";
+    Files.createDirectories(Paths.get(destDir));
+
+    // Get source file path prefix
+    String nodeHomeDir = nodeUniverseManager.getYbHomeDir(node, universe);
+
+    // Get target file path
+    String nodeName = node.getNodeName();
+    Path nodeTargetFile = Paths.get(destDir, nodeName + ".tar.gz");
+
+    log.debug(
+        "Gathering gflags conf for node: {}, source path: {}, target path: {}",
+        nodeName,
+        nodeHomeDir,
+        nodeTargetFile.toString());
+
+    Path targetFile =
+        universeInfoHandler.downloadNodeFile(
+            customer,
+            universe,
+            node,
+            nodeHomeDir,
+            "master/conf/server.conf;tserver/conf/server.conf",
+            nodeTargetFile);
+  }
 }
@@ -2,6 +2,7 @@ package com.yugabyte.yw.common.supportbundle;
 
 import com.yugabyte.yw.models.Customer;
 import com.yugabyte.yw.models.Universe;
+import com.yugabyte.yw.models.helpers.NodeDetails;
 import java.util.Date;
 import java.nio.file.Path;
 import java.io.IOException;
@@ -14,4 +15,24 @@ public interface SupportBundleComponent {
   void downloadComponentBetweenDates(
       Customer customer, Universe universe, Path bundlePath, Date startDate, Date endDate)
       throws IOException, ParseException;
+
+  // Components which are downloaded from each universe node separately, so that the nodes can be
+  // downloaded concurrently
+  default boolean isNodeComponent() {
+    return false;
+  }
+
+  // Downloads the part of the component collected from the given node, only called for node
+  // components
+  default void downloadNodeComponentBetweenDates(
+      Customer customer,
+      Universe universe,
+      NodeDetails node,
+      Path bundlePath,
+      Date startDate,
+      Date endDate)
+      throws IOException, ParseException {
+    throw new UnsupportedOperationException(
+        getClass().getSimpleName() + " is not downloaded from universe nodes");
+  }
 }
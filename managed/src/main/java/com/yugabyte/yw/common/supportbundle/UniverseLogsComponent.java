@@ -87,65 +87,79 @@ class UniverseLogsComponent implements SupportBundleComponent {
   public void downloadComponentBetweenDates(
       Customer customer, Universe universe, Path bundlePath, Date startDate, Date endDate)
       throws IOException, ParseException {
-    List<NodeDetails> nodes = universe.getNodes().stream().collect(Collectors.toList());
-
-    String destDir = bundlePath.toString() + "/" + "universe_logs";
-    Path destPath = Paths.get(destDir);
-    Files.createDirectories(destPath);
-
     // Downloads the /mnt/d0/yb-data/master/logs and /mnt/d0/yb-data/tserver/logs from each node
     // in the universe into the bundle path
-    for (NodeDetails node : nodes) {
-      // Get source file path prefix
-      String mountPath =
-          supportBundleUtil.getDataDirPath(universe, node, nodeUniverseManager, config);
-      String nodeHomeDir = mountPath + "/yb-data";
-
-      // Get target file path
-      String nodeName = node.getNodeName();
-      Path nodeTargetFile = Paths.get(destDir, nodeName + ".tar.gz");
+    for (NodeDetails node : universe.getNodes()) {
+      downloadNodeComponentBetweenDates(customer, universe, node, bundlePath, startDate, endDate);
+    }
+  }
 
-      log.debug(
-          "Gathering universe logs for node: {}, source path: {}, target path: {}, "
-              + "between start date: {}, end date: {}",
-          nodeName,
-          nodeHomeDir,
-          nodeTargetFile.toString(),
-          startDate,
-          endDate);
-
-      String universeLogsRegexPattern =
-          String.format(
-              config.getString("yb.support_bundle.universe_logs_regex_pattern"), node.nodeName);
-
-      // Get and filter master log files that fall within given dates
-      List<String> masterLogFilePaths =
-          getNodeFilePaths(node, universe, nodeHomeDir + "/master/logs", 1, "f");
-      masterLogFilePaths =
-          filterFilePathsBetweenDates(
-              masterLogFilePaths, universeLogsRegexPattern, startDate, endDate);
-
-      // Get and filter tserver log files that fall within given dates
-      List<String> tserverLogFilePaths =
-          getNodeFilePaths(node, universe, nodeHomeDir + "/tserver/logs", 1, "f");
-      tserverLogFilePaths =
-          filterFilePathsBetweenDates(
-              tserverLogFilePaths, universeLogsRegexPattern, startDate, endDate);
-
-      // Combine both master and tserver files to download all the files together
-      List<String> allLogFilePaths =
-          Stream.concat(masterLogFilePaths.stream(), tserverLogFilePaths.stream())
-              .collect(Collectors.toList());
+  @Override
+  public boolean isNodeComponent() {
+    return true;
+  }
 
-      Path targetFile =
-          universeInfoHandler.downloadNodeFile(
-              customer,
-              universe,
-              node,
-              nodeHomeDir,
-              String.join(";", allLogFilePaths),
-              nodeTargetFile);
-    }
+  @Override
+  public void downloadNodeComponentBetweenDates(
+      Customer customer,
+      Universe universe,
+      NodeDetails node,
+      Path bundlePath,
+      Date startDate,
+      Date endDate)
+      throws IOException, ParseException {
+    String destDir = bundlePath.toString() + "/" + "universe_logs";
+    Files.createDirectories(Paths.get(destDir));
+
+    // Get source file path prefix
+    String mountPath =
+        supportBundleUtil.getDataDirPath(universe, node, nodeUniverseManager, config);
+    String nodeHomeDir = mountPath + "/yb-data";
+
+    // Get target file path
+    String nodeName = node.getNodeName();
+    Path nodeTargetFile = Paths.get(destDir, nodeName + ".tar.gz");
+
+    log.debug(
+        "Gathering universe logs for node: {}, source path: {}, target path: {}, "
+            + "between start date: {}, end date: {}",
+        nodeName,
+        nodeHomeDir,
+        nodeTargetFile.toString(),
+        startDate,
+        endDate);
+
+    String universeLogsRegexPattern =
+        String.format(
+            config.getString("yb.support_bundle.universe_logs_regex_pattern"), node.nodeName);
+
+    // Get and filter master log files that fall within given dates
+    List<String> masterLogFilePaths =
+        getNodeFilePaths(node, universe, nodeHomeDir + "/master/logs", 1, "f");
+    masterLogFilePaths =
+        filterFilePathsBetweenDates(
+            masterLogFilePaths, universeLogsRegexPattern, startDate, endDate);
+
+    // Get and filter tserver log files that fall within given dates
+    List<String> tserverLogFilePaths =
+        getNodeFilePaths(node, universe, nodeHomeDir + "/tserver/logs", 1, "f");
+    tserverLogFilePaths =
+        filterFilePathsBetweenDates(
+            tserverLogFilePaths, universeLogsRegexPattern, startDate, endDate);
+
+    // Combine both master and tserver files to download all the files together
+    List<String> allLogFilePaths =
+        Stream.concat(masterLogFilePaths.stream(), tserverLogFilePaths.stream())
+            .collect(Collectors.toList());
+
+    Path targetFile =
+        universeInfoHandler.downloadNodeFile(
+            customer,
+            universe,
+            node,
+            nodeHomeDir,
+            String.join(";", allLogFilePaths),
+            nodeTargetFile);
   }
 
   // Gets a list of all the absolute file paths at a given remote directory
@@ -35,10 +35,13 @@ import com.yugabyte.yw.forms.AlertingFormData;
 import com.yugabyte.yw.forms.AlertingData;
 import com.yugabyte.yw.forms.CustomerDetailsData;
 import com.yugabyte.yw.forms.FeatureUpdateFormData;
+import com.yugabyte.yw.forms.MetricBatchQueryParams;
+import com.yugabyte.yw.forms.MetricBatchQueryParams.UniverseMetricsQuery;
 import com.yugabyte.yw.forms.MetricQueryParams;
 import com.yugabyte.yw.forms.PlatformResults;
 import com.yugabyte.yw.forms.PlatformResults.YBPError;
 import com.yugabyte.yw.forms.PlatformResults.YBPSuccess;
+import com.yugabyte.yw.metrics.MetricQueryExecutor;
 import com.yugabyte.yw.metrics.MetricQueryHelper;
 import com.yugabyte.yw.models.Alert;
 import com.yugabyte.yw.models.Audit;
@@ -63,9 +66,12 @@ import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.Authorization;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -407,7 +413,8 @@ public class CustomerController extends AuthenticatedController {
           filterJson.put(nodeFilterLabel, params.remove("nodeName"));
         }
 
-        filterOverrides.putAll(getFilterOverrides(customer, nodePrefix, formData.get()));
+        filterOverrides.putAll(
+            getFilterOverrides(customer, nodePrefix, formData.get().getMetrics()));
       }
     }
     if (params.containsKey("tableName")) {
@@ -420,8 +427,21 @@ public class CustomerController extends AuthenticatedController {
       filterJson.put("table_id", tableIdRegex);
     }
     params.put("filters", Json.stringify(filterJson));
+    params.remove("version");
+    params.remove("deltaEncoded");
     JsonNode response;
-    if (formData.get().getIsRecharts()) {
+    if (formData.get().getVersion() == MetricQueryExecutor.COLUMNAR_FORMAT_VERSION) {
+      if (formData.get().getIsRecharts()) {
+        throw new PlatformServiceException(
+            BAD_REQUEST, "Recharts format is not supported with columnar response.");
+      }
+      response =
+          metricQueryHelper.queryColumnar(
+              formData.get().getMetrics(),
+              params,
+              filterOverrides,
+              formData.get().getDeltaEncoded());
+    } else if (formData.get().getIsRecharts()) {
       response =
           metricQueryHelper.query(
               formData.get().getMetrics(), params, filterOverrides, formData.get().getIsRecharts());
@@ -442,6 +462,90 @@ public class CustomerController extends AuthenticatedController {
     return PlatformResults.withRawData(response);
   }
 
+  @ApiOperation(
+      value = "Get metrics of several universes",
+      notes =
+          "Universes with the same metrics and time range are queried together, with a single "
+              + "Prometheus query per metric. Returns metrics of each universe in the order of "
+              + "the requests.",
+      response = Object.class,
+      responseContainer = "List")
+  @ApiResponses(
+      @io.swagger.annotations.ApiResponse(
+          code = BAD_REQUEST,
+          message = "When request fails validations.",
+          response = YBPError.class))
+  @ApiImplicitParams({
+    @ApiImplicitParam(
+        name = "Metrics",
+        value = "Metrics requests of the universes",
+        required = true,
+        dataType = "com.yugabyte.yw.forms.MetricBatchQueryParams",
+        paramType = "body")
+  })
+  public Result metricsBatch(UUID customerUUID) {
+    Customer customer = Customer.getOrBadRequest(customerUUID);
+    MetricBatchQueryParams batchParams = parseJsonAndValidate(MetricBatchQueryParams.class);
+    List<UniverseMetricsQuery> queries = batchParams.getQueries();
+
+    // Queries with the same metrics, time range and filter overrides are run together.
+    Map<List<Object>, List<Integer>> queryGroups = new HashMap<>();
+    Map<List<Object>, Map<String, Map<String, String>>> groupFilterOverrides = new HashMap<>();
+    Map<UUID, Universe> universes = new HashMap<>();
+    for (int i = 0; i < queries.size(); i++) {
+      UniverseMetricsQuery query = queries.get(i);
+      if (query.getMetrics().stream().anyMatch(s -> s.startsWith("container"))) {
+        throw new PlatformServiceException(
+            BAD_REQUEST, "Container metrics are not supported in batch requests.");
+      }
+      Universe universe =
+          universes.computeIfAbsent(
+              query.getUniverseUUID(),
+              uuid -> Universe.getValidUniverseOrBadRequest(uuid, customer));
+      Map<String, Map<String, String>> filterOverrides =
+          new HashMap<>(getFilterOverrides(universe, query.getMetrics()));
+      List<Object> groupKey =
+          Arrays.asList(query.getMetrics(), query.getStart(), query.getEnd(), filterOverrides);
+      queryGroups.computeIfAbsent(groupKey, k -> new ArrayList<>()).add(i);
+      groupFilterOverrides.put(groupKey, filterOverrides);
+    }
+
+    JsonNode[] responses = new JsonNode[queries.size()];
+    for (Map.Entry<List<Object>, List<Integer>> queryGroup : queryGroups.entrySet()) {
+      List<Integer> queryIndexes = queryGroup.getValue();
+      UniverseMetricsQuery groupQuery = queries.get(queryIndexes.get(0));
+      Set<String> nodePrefixes = new LinkedHashSet<>();
+      for (int i : queryIndexes) {
+        Universe universe = universes.get(queries.get(i).getUniverseUUID());
+        nodePrefixes.add(universe.getUniverseDetails().nodePrefix);
+      }
+      Map<String, String> params = new HashMap<>();
+      params.put("start", groupQuery.getStart().toString());
+      if (groupQuery.getEnd() != null) {
+        params.put("end", groupQuery.getEnd().toString());
+      }
+      Map<String, JsonNode> groupResponses =
+          metricQueryHelper.queryBatch(
+              groupQuery.getMetrics(),
+              params,
+              nodePrefixes,
+              groupFilterOverrides.get(queryGroup.getKey()));
+      for (int i : queryIndexes) {
+        Universe universe = universes.get(queries.get(i).getUniverseUUID());
+        responses[i] = groupResponses.get(universe.getUniverseDetails().nodePrefix);
+      }
+    }
+
+    auditService()
+        .createAuditEntryWithReqBody(
+            ctx(),
+            Audit.TargetType.Customer,
+            customerUUID.toString(),
+            Audit.ActionType.AddMetrics,
+            request().body().asJson());
+    return PlatformResults.withRawData(Json.toJson(responses));
+  }
+
   private String getNamespacesFilter(Customer customer, String nodePrefix) {
     return getNamespacesFilter(customer, nodePrefix, null);
   }
@@ -503,26 +607,33 @@ public class CustomerController extends AuthenticatedController {
   }
 
   private HashMap<String, HashMap<String, String>> getFilterOverrides(
-      Customer customer, String nodePrefix, MetricQueryParams mqParams) {
+      Customer customer, String nodePrefix, List<String> metrics) {
+    if (!metrics.contains("disk_usage")) {
+      return new HashMap<>();
+    }
+    List<Universe> universes =
+        customer
+            .getUniverses()
+            .stream()
+            .filter(
+                u ->
+                    u.getUniverseDetails().nodePrefix != null
+                        && u.getUniverseDetails().nodePrefix.equals(nodePrefix))
+            .collect(Collectors.toList());
+    return getFilterOverrides(universes.get(0), metrics);
+  }
+
+  private HashMap<String, HashMap<String, String>> getFilterOverrides(
+      Universe universe, List<String> metrics) {
 
     HashMap<String, HashMap<String, String>> filterOverrides = new HashMap<>();
     // For a disk usage metric query, the mount point has to be modified to match the actual
     // mount point for an onprem universe.
-    if (mqParams.getMetrics().contains("disk_usage")) {
-      List<Universe> universes =
-          customer
-              .getUniverses()
-              .stream()
-              .filter(
-                  u ->
-                      u.getUniverseDetails().nodePrefix != null
-                          && u.getUniverseDetails().nodePrefix.equals(nodePrefix))
-              .collect(Collectors.toList());
-      if (universes.get(0).getUniverseDetails().getPrimaryCluster().userIntent.providerType
+    if (metrics.contains("disk_usage")) {
+      if (universe.getUniverseDetails().getPrimaryCluster().userIntent.providerType
           == CloudType.onprem) {
         final String mountRoots =
-            universes
-                .get(0)
+            universe
                 .getNodes()
                 .stream()
                 .filter(CustomerController::checkNonNullMountRoots)
@@ -538,7 +649,9 @@ public class CustomerController extends AuthenticatedController {
           // convert "/storage1,/bar" to the filter "/storage1|/bar"
           filterOverrides.put("disk_usage", mountFilters);
         } else {
-          LOG.debug("No mount points found in onprem universe {}", nodePrefix);
+          LOG.debug(
+              "No mount points found in onprem universe {}",
+              universe.getUniverseDetails().nodePrefix);
         }
       }
     }
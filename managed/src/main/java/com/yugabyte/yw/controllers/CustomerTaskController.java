@@ -20,6 +20,7 @@ import com.yugabyte.yw.models.Audit;
 import com.yugabyte.yw.models.Customer;
 import com.yugabyte.yw.models.CustomerTask;
 import com.yugabyte.yw.models.TaskInfo;
+import com.yugabyte.yw.models.TaskInfo.SubTasksSummary;
 import com.yugabyte.yw.models.Universe;
 import com.yugabyte.yw.models.helpers.TaskType;
 import io.ebean.Query;
@@ -158,9 +159,14 @@ public class CustomerTaskController extends AuthenticatedController {
         TaskInfo.find(taskUuids)
             .stream()
             .collect(Collectors.toMap(TaskInfo::getTaskUUID, Function.identity()));
+    // Single aggregating query for subtasks of all the tasks instead of loading them per task.
+    Map<UUID, SubTasksSummary> subTasksSummaries = TaskInfo.getSubTasksSummary(taskUuids);
     for (CustomerTask task : customerTaskList) {
       Optional<ObjectNode> optTaskProgress =
-          commissioner.buildTaskStatus(task, taskInfoMap.get(task.getTaskUUID()));
+          commissioner.buildTaskStatus(
+              task,
+              taskInfoMap.get(task.getTaskUUID()),
+              subTasksSummaries.get(task.getTaskUUID()));
       // If the task progress API returns error, we will log it and not add that task
       // to the task list for UI rendering.
       optTaskProgress.ifPresent(
@@ -191,7 +197,7 @@ public class CustomerTaskController extends AuthenticatedController {
     Customer.getOrBadRequest(customerUUID);
 
     Map<UUID, List<CustomerTaskFormData>> taskList = fetchTasks(customerUUID, null);
-    return PlatformResults.withData(taskList);
+    return PlatformResults.withDataAndETag(taskList, request());
   }
 
   @ApiOperation(
@@ -205,7 +211,7 @@ public class CustomerTaskController extends AuthenticatedController {
     for (List<CustomerTaskFormData> task : taskList.values()) {
       flattenList.addAll(task);
     }
-    return PlatformResults.withData(flattenList);
+    return PlatformResults.withDataAndETag(flattenList, request());
   }
 
   @ApiOperation(value = "UI_ONLY", hidden = true)
@@ -214,7 +220,7 @@ public class CustomerTaskController extends AuthenticatedController {
     Universe universe = Universe.getOrBadRequest(universeUUID);
     Map<UUID, List<CustomerTaskFormData>> taskList =
         fetchTasks(customerUUID, universe.universeUUID);
-    return PlatformResults.withData(taskList);
+    return PlatformResults.withDataAndETag(taskList, request());
   }
 
   @ApiOperation(value = "Get a task's status", response = Object.class)
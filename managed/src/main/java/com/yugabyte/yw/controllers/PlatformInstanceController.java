@@ -174,8 +174,15 @@ public class PlatformInstanceController extends AuthenticatedController {
     // Cache local instance address before restore so we can query to new corresponding model.
     String localInstanceAddr = instance.get().getAddress();
 
-    // Restore the backup.
+    // Restore the backup and the deltas received on top of it. Deltas are checked first, so an
+    // incomplete one doesn't fail the promotion after the full backup is restored.
+    if (!replicationManager.validateDeltaBackups(new URL(curLeaderAddr), backup.get())) {
+      throw new PlatformServiceException(INTERNAL_SERVER_ERROR, "Invalid delta backups");
+    }
     backup.ifPresent(replicationManager::restoreBackup);
+    if (!replicationManager.applyDeltaBackups(new URL(curLeaderAddr), backup.get())) {
+      throw new PlatformServiceException(INTERNAL_SERVER_ERROR, "Could not apply delta backups");
+    }
 
     // Fail any incomplete tasks that may be leftover from the backup that was restored.
     taskManager.failAllPendingTasks();
@@ -20,13 +20,12 @@ import com.google.inject.Inject;
 import com.yugabyte.yw.cloud.UniverseResourceDetails;
 import com.yugabyte.yw.cloud.UniverseResourceDetails.Context;
 import com.yugabyte.yw.common.NodeUniverseManager;
-import com.yugabyte.yw.common.PlacementInfoUtil;
 import com.yugabyte.yw.common.PlatformServiceException;
 import com.yugabyte.yw.common.ShellResponse;
+import com.yugabyte.yw.common.UniverseAliveStatusTracker;
 import com.yugabyte.yw.common.config.RuntimeConfigFactory;
 import com.yugabyte.yw.common.services.YBClientService;
 import com.yugabyte.yw.forms.UniverseDefinitionTaskParams;
-import com.yugabyte.yw.metrics.MetricQueryHelper;
 import com.yugabyte.yw.models.Customer;
 import com.yugabyte.yw.models.HealthCheck;
 import com.yugabyte.yw.models.HealthCheck.Details;
@@ -46,11 +45,11 @@ import play.mvc.Http;
 
 @Slf4j
 public class UniverseInfoHandler {
-  @Inject private MetricQueryHelper metricQueryHelper;
   @Inject private QueryHelper queryHelper;
   @Inject private RuntimeConfigFactory runtimeConfigFactory;
   @Inject private YBClientService ybService;
   @Inject private NodeUniverseManager nodeUniverseManager;
+  @Inject private UniverseAliveStatusTracker universeAliveStatusTracker;
 
   public UniverseResourceDetails getUniverseResources(
       Customer customer, UniverseDefinitionTaskParams taskParams) {
@@ -103,7 +102,7 @@ public class UniverseInfoHandler {
   public JsonNode status(Universe universe) {
     JsonNode result;
     try {
-      result = PlacementInfoUtil.getUniverseAliveStatus(universe, metricQueryHelper);
+      result = universeAliveStatusTracker.getUniverseAliveStatus(universe);
     } catch (RuntimeException e) {
       // TODO(API) dig deeper and find root cause of RuntimeException
       throw new PlatformServiceException(BAD_REQUEST, e.getMessage());
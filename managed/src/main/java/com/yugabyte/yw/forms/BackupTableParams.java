@@ -2,6 +2,8 @@
 
 package com.yugabyte.yw.forms;
 
+import static io.swagger.annotations.ApiModelProperty.AccessMode.READ_ONLY;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.yugabyte.yw.common.Util;
 import io.swagger.annotations.ApiModel;
@@ -111,6 +113,10 @@ public class BackupTableParams extends TableManagerParams {
   @ApiModelProperty(value = "Backup size in bytes")
   public long backupSizeInBytes = 0L;
 
+  // Set by the backup task only, value passed in the request is reset by Backup.create().
+  @ApiModelProperty(value = "Is backup of this part completed", accessMode = READ_ONLY)
+  public boolean backupPartCompleted = false;
+
   @JsonIgnore
   public Set<String> getTableNames() {
     Set<String> tableNames = new HashSet<>();
@@ -0,0 +1,43 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.forms;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import java.util.List;
+import java.util.UUID;
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import lombok.Data;
+
+@ApiModel(description = "Batch metrics request data")
+@Data
+public class MetricBatchQueryParams {
+
+  @ApiModel(description = "Metrics request data of a universe")
+  @Data
+  public static class UniverseMetricsQuery {
+    @NotNull
+    @ApiModelProperty(value = "Universe UUID", required = true)
+    private UUID universeUUID;
+
+    @NotNull
+    @Size(min = 1)
+    @ApiModelProperty(value = "Metrics", required = true)
+    private List<String> metrics;
+
+    @NotNull
+    @ApiModelProperty(value = "Start time", required = true)
+    private Long start;
+
+    @ApiModelProperty(value = "End time")
+    private Long end;
+  }
+
+  @Valid
+  @NotNull
+  @Size(min = 1)
+  @ApiModelProperty(value = "Metrics requests of the universes", required = true)
+  private List<UniverseMetricsQuery> queries;
+}
@@ -29,6 +29,15 @@ public class MetricQueryParams {
   @ApiModelProperty(value = "Is Recharts")
   private boolean isRecharts;
 
+  @Constraints.Min(1)
+  @Constraints.Max(2)
+  @ApiModelProperty(
+      value = "Response format version: 1 - per point arrays, 2 - columnar series arrays")
+  private int version = 1;
+
+  @ApiModelProperty(value = "Delta encode timestamps of the columnar series")
+  private boolean deltaEncoded;
+
   public List<String> getMetrics() {
     return metrics;
   }
@@ -76,4 +85,20 @@ public class MetricQueryParams {
   public void setIsRecharts(boolean isRecharts) {
     this.isRecharts = isRecharts;
   }
+
+  public int getVersion() {
+    return version;
+  }
+
+  public void setVersion(int version) {
+    this.version = version;
+  }
+
+  public boolean getDeltaEncoded() {
+    return deltaEncoded;
+  }
+
+  public void setDeltaEncoded(boolean deltaEncoded) {
+    this.deltaEncoded = deltaEncoded;
+  }
 }
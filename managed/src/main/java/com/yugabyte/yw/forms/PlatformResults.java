@@ -15,13 +15,17 @@ import static play.mvc.Results.ok;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
 import com.yugabyte.yw.common.password.RedactingService;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import play.libs.Json;
+import play.mvc.Http;
 import play.mvc.Result;
 import play.mvc.Results;
 
@@ -48,6 +52,27 @@ public class PlatformResults {
     return Results.ok(dataObj);
   }
 
+  /**
+   * Same as withData, but also sets ETag header computed from the response body. If the request
+   * has If-None-Match header with the same ETag, 304 Not Modified is returned without the body.
+   *
+   * @param data - to be serialized to json and returned
+   * @param request - request to check If-None-Match header of
+   */
+  public static Result withDataAndETag(Object data, Http.Request request) {
+    JsonNode dataObj = Json.toJson(data);
+    dataObj = RedactingService.filterSecretFields(dataObj);
+    String eTag =
+        "\""
+            + Hashing.sha256().hashString(Json.stringify(dataObj), StandardCharsets.UTF_8)
+            + "\"";
+    Optional<String> ifNoneMatch = request.header(Http.HeaderNames.IF_NONE_MATCH);
+    if (ifNoneMatch.isPresent() && ifNoneMatch.get().equals(eTag)) {
+      return Results.status(Http.Status.NOT_MODIFIED).withHeader(Http.HeaderNames.ETAG, eTag);
+    }
+    return Results.ok(dataObj).withHeader(Http.HeaderNames.ETAG, eTag);
+  }
+
   @ApiModel(description = "Generic error response from the Yugabyte Platform API")
   public static class YBPError {
     @ApiModelProperty(value = "Always set to false to indicate failure", example = "false")
@@ -0,0 +1,199 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.metrics;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.yugabyte.yw.models.MetricConfig;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import play.libs.Json;
+
+/**
+ * Prometheus query response, same as {@link MetricQueryResponse}, but read with the streaming
+ * parser straight into primitive arrays of the series points. Unlike MetricQueryResponse, it
+ * doesn't keep the JSON tree of the response, which has several nodes per point.
+ */
+public class ColumnarMetricQueryResponse {
+
+  private static final int INITIAL_SERIES_CAPACITY = 32;
+
+  public static class Series {
+    public ObjectNode metric = Json.newObject();
+    // Timestamps are in milliseconds, same as in the graph data.
+    private long[] timestamps = new long[INITIAL_SERIES_CAPACITY];
+    private double[] values = new double[INITIAL_SERIES_CAPACITY];
+    private int size;
+
+    private void add(long timestamp, double value) {
+      if (size == timestamps.length) {
+        timestamps = Arrays.copyOf(timestamps, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      timestamps[size] = timestamp;
+      values[size] = value;
+      size++;
+    }
+
+    public int size() {
+      return size;
+    }
+  }
+
+  public String status;
+  public String errorType;
+  public String error;
+  public String resultType;
+  public List<Series> result = new ArrayList<>();
+
+  /**
+   * Reads Prometheus query response from the parser.
+   *
+   * @param parser, parser positioned before the response object
+   * @return parsed response
+   */
+  public static ColumnarMetricQueryResponse parse(JsonParser parser) throws IOException {
+    ColumnarMetricQueryResponse response = new ColumnarMetricQueryResponse();
+    expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      switch (field) {
+        case "status":
+          response.status = readText(parser);
+          break;
+        case "errorType":
+          response.errorType = readText(parser);
+          break;
+        case "error":
+          response.error = readText(parser);
+          break;
+        case "data":
+          if (token == JsonToken.START_OBJECT) {
+            response.parseData(parser);
+          } else {
+            parser.skipChildren();
+          }
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return response;
+  }
+
+  private void parseData(JsonParser parser) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if (field.equals("resultType")) {
+        resultType = readText(parser);
+      } else if (field.equals("result") && token == JsonToken.START_ARRAY) {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          result.add(parseSeries(parser));
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  private static Series parseSeries(JsonParser parser) throws IOException {
+    Series series = new Series();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if (field.equals("metric") && token == JsonToken.START_OBJECT) {
+        series.metric = parser.readValueAsTree();
+      } else if (field.equals("values") && token == JsonToken.START_ARRAY) {
+        while (parser.nextToken() == JsonToken.START_ARRAY) {
+          parsePoint(parser, series);
+        }
+      } else if (field.equals("value") && token == JsonToken.START_ARRAY) {
+        parsePoint(parser, series);
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return series;
+  }
+
+  // Reads [<timestamp>, "<value>"] point, positioned at the start of the array.
+  private static void parsePoint(JsonParser parser, Series series) throws IOException {
+    parser.nextToken();
+    long timestamp = (long) parser.getValueAsDouble() * 1000;
+    parser.nextToken();
+    series.add(timestamp, parseValue(parser.getText()));
+    expect(parser, parser.nextToken(), JsonToken.END_ARRAY);
+  }
+
+  // NaN is returned as 0, same as in the graph data. Infinity can't be represented in JSON, so
+  // it's returned as 0 as well.
+  private static double parseValue(String value) {
+    try {
+      double result = Double.parseDouble(value);
+      return Double.isFinite(result) ? result : 0;
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private static String readText(JsonParser parser) throws IOException {
+    if (parser.currentToken().isScalarValue()) {
+      return parser.getValueAsString();
+    }
+    JsonNode value = parser.readValueAsTree();
+    return value.toString();
+  }
+
+  private static void expect(JsonParser parser, JsonToken token, JsonToken expected)
+      throws JsonParseException {
+    if (token != expected) {
+      throw new JsonParseException(
+          parser, "Unexpected token " + token + " in metrics response, expected " + expected);
+    }
+  }
+
+  /** Removes the given label from all the results. */
+  public void removeLabel(String label) {
+    for (Series series : result) {
+      series.metric.remove(label);
+    }
+  }
+
+  /**
+   * Format the response as the columnar graph data, see {@link MetricSeriesData}. Names and labels
+   * of the lines are the same as by {@link MetricQueryResponse#getGraphData}.
+   *
+   * @param metricName, name of the metric
+   * @param layout, MetricConfig.Layout object
+   * @param deltaEncoded, whether to return the timestamps delta encoded
+   * @return List of the graph lines
+   */
+  public List<MetricSeriesData> getSeriesData(
+      String metricName, MetricConfig.Layout layout, boolean deltaEncoded) {
+    List<MetricSeriesData> seriesDataList = new ArrayList<>(result.size());
+    for (Series series : result) {
+      MetricGraphData graphData =
+          MetricQueryResponse.createGraphData(series.metric, metricName, layout);
+      MetricSeriesData seriesData = new MetricSeriesData();
+      seriesData.name = graphData.name;
+      seriesData.type = graphData.type;
+      seriesData.labels = graphData.labels;
+      seriesData.x = Arrays.copyOf(series.timestamps, series.size);
+      seriesData.y = Arrays.copyOf(series.values, series.size);
+      if (deltaEncoded) {
+        for (int i = seriesData.x.length - 1; i > 0; i--) {
+          seriesData.x[i] -= seriesData.x[i - 1];
+        }
+      }
+      seriesDataList.add(seriesData);
+    }
+    return seriesDataList;
+  }
+}
@@ -2,11 +2,15 @@
 
 package com.yugabyte.yw.metrics;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.POJONode;
 import com.yugabyte.yw.common.ApiHelper;
 import com.yugabyte.yw.common.Util;
 import com.yugabyte.yw.models.MetricConfig;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -21,6 +25,8 @@ import play.libs.Json;
 public class MetricQueryExecutor implements Callable<JsonNode> {
   public static final Logger LOG = LoggerFactory.getLogger(MetricQueryExecutor.class);
   public static final String DATE_FORMAT_STRING = "yyyy-MM-dd HH:mm:ss";
+  // Version of the response format with the columnar series data.
+  public static final int COLUMNAR_FORMAT_VERSION = 2;
   private ApiHelper apiHelper;
   private play.Configuration appConfig;
   private YBMetricQueryComponent ybMetricQueryComponent;
@@ -32,6 +38,16 @@ public class MetricQueryExecutor implements Callable<JsonNode> {
 
   private boolean isRecharts;
 
+  // If set, results are split by the value of this label, for ex. node_prefix of the universe.
+  private String splitLabel;
+
+  // If set, long range queries are served from the downsampled metrics, when those are available.
+  private MetricRollups metricRollups;
+
+  // If set, series data is returned in the columnar format, see MetricSeriesData.
+  private boolean columnar;
+  private boolean deltaEncoded;
+
   public MetricQueryExecutor(
       play.Configuration appConfig,
       ApiHelper apiHelper,
@@ -48,12 +64,52 @@ public class MetricQueryExecutor implements Callable<JsonNode> {
       Map<String, String> additionalFilters,
       YBMetricQueryComponent ybMetricQueryComponent,
       boolean isRecharts) {
+    this(
+        appConfig,
+        apiHelper,
+        queryParam,
+        additionalFilters,
+        ybMetricQueryComponent,
+        isRecharts,
+        null /* splitLabel */);
+  }
+
+  public MetricQueryExecutor(
+      play.Configuration appConfig,
+      ApiHelper apiHelper,
+      Map<String, String> queryParam,
+      Map<String, String> additionalFilters,
+      YBMetricQueryComponent ybMetricQueryComponent,
+      boolean isRecharts,
+      String splitLabel) {
+    this(
+        appConfig,
+        apiHelper,
+        queryParam,
+        additionalFilters,
+        ybMetricQueryComponent,
+        isRecharts,
+        splitLabel,
+        null /* metricRollups */);
+  }
+
+  public MetricQueryExecutor(
+      play.Configuration appConfig,
+      ApiHelper apiHelper,
+      Map<String, String> queryParam,
+      Map<String, String> additionalFilters,
+      YBMetricQueryComponent ybMetricQueryComponent,
+      boolean isRecharts,
+      String splitLabel,
+      MetricRollups metricRollups) {
     this.apiHelper = apiHelper;
     this.appConfig = appConfig;
     this.queryParam.putAll(queryParam);
     this.additionalFilters.putAll(additionalFilters);
     this.ybMetricQueryComponent = ybMetricQueryComponent;
     this.isRecharts = isRecharts;
+    this.splitLabel = splitLabel;
+    this.metricRollups = metricRollups;
     int scrapeIntervalSecs = appConfig.getInt("yb.metrics.scrape_interval_secs", 10);
     if (queryParam.containsKey("step")) {
       // Rate queries like rate(rpc_latency_count[rate_interval]) are performed over multiple
@@ -77,6 +133,21 @@ public class MetricQueryExecutor implements Callable<JsonNode> {
     }
   }
 
+  /**
+   * Makes the executor return the series data in the columnar format, see {@link
+   * MetricSeriesData}. Prometheus response is parsed straight into the series arrays, without
+   * building the JSON tree of the points. Not supported with Recharts format and split results.
+   *
+   * @param deltaEncoded, whether the timestamps are delta encoded
+   */
+  public void setColumnarOutput(boolean deltaEncoded) {
+    if (isRecharts || splitLabel != null) {
+      throw new IllegalStateException("Columnar output is not supported for this query");
+    }
+    this.columnar = true;
+    this.deltaEncoded = deltaEncoded;
+  }
+
   /**
    * Get the metrics base uri based on the appConfig yb.metrics.uri
    *
@@ -96,17 +167,46 @@ public class MetricQueryExecutor implements Callable<JsonNode> {
     if (useNativeMetrics) {
       return ybMetricQueryComponent.query(queryParam);
     } else {
-      if (queryParam.containsKey("end")) {
-        this.queryUrl = this.getMetricsUrl() + "/query_range";
-      } else {
-        this.queryUrl = this.getMetricsUrl() + "/query";
-      }
-
+      this.queryUrl = getQueryUrl();
       LOG.trace("Executing metric query {}: {}", queryUrl, queryParam);
       return apiHelper.getRequest(queryUrl, new HashMap<>(), queryParam);
     }
   }
 
+  private String getQueryUrl() {
+    if (queryParam.containsKey("end")) {
+      return this.getMetricsUrl() + "/query_range";
+    } else {
+      return this.getMetricsUrl() + "/query";
+    }
+  }
+
+  private ColumnarMetricQueryResponse getColumnarMetrics() {
+    try (JsonParser parser = createMetricsParser()) {
+      return ColumnarMetricQueryResponse.parse(parser);
+    } catch (IOException e) {
+      LOG.error("Failed to parse metrics response", e);
+      ColumnarMetricQueryResponse response = new ColumnarMetricQueryResponse();
+      response.error = "Failed to parse metrics response: " + e.getMessage();
+      return response;
+    }
+  }
+
+  private JsonParser createMetricsParser() throws IOException {
+    boolean useNativeMetrics = appConfig.getBoolean("yb.metrics.useNative", false);
+    if (useNativeMetrics) {
+      JsonNode response = ybMetricQueryComponent.query(queryParam);
+      return Json.mapper().treeAsTokens(response != null ? response : Json.newObject());
+    }
+    this.queryUrl = getQueryUrl();
+    LOG.trace("Executing metric query {}: {}", queryUrl, queryParam);
+    InputStream response = apiHelper.getRequestAsStream(queryUrl, new HashMap<>(), queryParam);
+    if (response == null) {
+      return Json.mapper().treeAsTokens(Json.newObject());
+    }
+    return Json.mapper().getFactory().createParser(response);
+  }
+
   private String getDirectURL(String queryExpr) {
 
     String durationSecs = "3600s";
@@ -142,10 +242,29 @@ public class MetricQueryExecutor implements Callable<JsonNode> {
     if (config == null) {
       responseJson.put("error", "Invalid Query Key");
     } else {
-      Map<String, String> queries = config.getQueries(additionalFilters, this.queryRangeSecs);
+      Map<String, String> queries = null;
+      if (metricRollups != null) {
+        queries =
+            metricRollups.getQueries(
+                config.getKey(),
+                queryParam,
+                additionalFilters,
+                MetricQueryHelper.NODE_PREFIX_LABEL.equals(splitLabel));
+      }
+      // Rollups are recorded per universe, so these have node_prefix label in the results.
+      boolean removeNodePrefix =
+          queries != null
+              && splitLabel == null
+              && !config.hasLabelInResults(MetricQueryHelper.NODE_PREFIX_LABEL);
+      if (queries == null) {
+        queries = config.getQueries(additionalFilters, this.queryRangeSecs, splitLabel);
+      }
       responseJson.set("layout", Json.toJson(config.getLayout()));
       MetricRechartsGraphData rechartsOutput = new MetricRechartsGraphData();
       List<MetricGraphData> output = new ArrayList<>();
+      List<MetricSeriesData> columnarOutput = new ArrayList<>();
+      Map<String, List<MetricGraphData>> splitOutput = new HashMap<>();
+      boolean removeSplitLabel = splitLabel != null && !config.hasLabelInResults(splitLabel);
       for (Map.Entry<String, String> e : queries.entrySet()) {
         String metric = e.getKey();
         String queryExpr = e.getValue();
@@ -155,6 +274,19 @@ public class MetricQueryExecutor implements Callable<JsonNode> {
         } catch (Exception de) {
           LOG.trace("Error getting direct url", de);
         }
+        if (columnar) {
+          ColumnarMetricQueryResponse columnarResponse = getColumnarMetrics();
+          if (columnarResponse.error != null) {
+            responseJson.put("error", columnarResponse.error);
+            break;
+          }
+          if (removeNodePrefix) {
+            columnarResponse.removeLabel(MetricQueryHelper.NODE_PREFIX_LABEL);
+          }
+          columnarOutput.addAll(
+              columnarResponse.getSeriesData(metric, config.getLayout(), deltaEncoded));
+          continue;
+        }
         JsonNode queryResponseJson = getMetrics();
         if (queryResponseJson == null) {
           responseJson.set("data", Json.toJson(new ArrayList<>()));
@@ -166,11 +298,29 @@ public class MetricQueryExecutor implements Callable<JsonNode> {
         if (queryResponse.error != null) {
           responseJson.put("error", queryResponse.error);
           break;
+        } else if (splitLabel != null) {
+          queryResponse
+              .splitByLabel(splitLabel, removeSplitLabel)
+              .forEach(
+                  (labelValue, response) ->
+                      splitOutput
+                          .computeIfAbsent(labelValue, k -> new ArrayList<>())
+                          .addAll(response.getGraphData(metric, config.getLayout())));
         } else {
+          if (removeNodePrefix) {
+            queryResponse.removeLabel(MetricQueryHelper.NODE_PREFIX_LABEL);
+          }
           output.addAll(queryResponse.getGraphData(metric, config.getLayout()));
         }
       }
-      if (isRecharts) {
+      if (columnar) {
+        responseJson.put("version", COLUMNAR_FORMAT_VERSION);
+        responseJson.put("deltaEncoded", deltaEncoded);
+        // Series arrays are serialized with the response, without converting them to JSON nodes.
+        responseJson.set("data", new POJONode(columnarOutput));
+      } else if (splitLabel != null) {
+        responseJson.set("data", Json.toJson(splitOutput));
+      } else if (isRecharts) {
         responseJson.set("data", Json.toJson(rechartsOutput));
       } else {
         responseJson.set("data", Json.toJson(output));
@@ -6,15 +6,18 @@ import static play.mvc.Http.Status.BAD_REQUEST;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.yugabyte.yw.common.ApiHelper;
+import com.yugabyte.yw.common.PlatformExecutorFactory;
 import com.yugabyte.yw.common.PlatformServiceException;
 import com.yugabyte.yw.metrics.data.AlertData;
 import com.yugabyte.yw.metrics.data.AlertsResponse;
 import com.yugabyte.yw.metrics.data.ResponseStatus;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -24,8 +27,8 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
@@ -37,7 +40,8 @@ public class MetricQueryHelper {
 
   public static final Logger LOG = LoggerFactory.getLogger(MetricQueryHelper.class);
   public static final Integer STEP_SIZE = 100;
-  public static final Integer QUERY_EXECUTOR_THREAD_POOL = 5;
+  public static final String QUERY_EXECUTOR_POOL = "metrics.query";
+  public static final String NODE_PREFIX_LABEL = "node_prefix";
 
   public static final String METRICS_QUERY_PATH = "query";
   public static final String ALERTS_PATH = "alerts";
@@ -53,6 +57,13 @@ public class MetricQueryHelper {
 
   @Inject YBMetricQueryComponent ybMetricQueryComponent;
 
+  @Inject PlatformExecutorFactory platformExecutorFactory;
+
+  @Inject MetricRollups metricRollups;
+
+  // Shared by all the metric requests, so that concurrent requests can't overload Prometheus.
+  private volatile ExecutorService queryExecutor;
+
   /**
    * Query prometheus for a given metricType and query params
    *
@@ -84,47 +95,56 @@ public class MetricQueryHelper {
       Map<String, String> params,
       Map<String, Map<String, String>> filterOverrides,
       boolean isRecharts) {
-    if (metricKeys.isEmpty()) {
-      throw new PlatformServiceException(BAD_REQUEST, "Empty metricKeys data provided.");
-    }
+    return query(
+        metricKeys,
+        params,
+        filterOverrides,
+        isRecharts,
+        OutputFormat.SERIES,
+        false /* deltaEncoded */);
+  }
 
-    long timeDifference;
-    if (params.get("end") != null) {
-      timeDifference = Long.parseLong(params.get("end")) - Long.parseLong(params.get("start"));
-    } else {
-      String startTime = params.remove("start");
-      int endTime = Math.round(DateTime.now().getMillis() / 1000);
-      params.put("time", startTime);
-      params.put("_", Integer.toString(endTime));
-      timeDifference = endTime - Long.parseLong(startTime);
-    }
+  /**
+   * Same as {@link #query(List, Map, Map)}, but the series data is returned in the columnar format
+   * version {@value MetricQueryExecutor#COLUMNAR_FORMAT_VERSION}, see {@link MetricSeriesData}.
+   *
+   * @param deltaEncoded, whether the timestamps of the series are delta encoded
+   */
+  public JsonNode queryColumnar(
+      List<String> metricKeys,
+      Map<String, String> params,
+      Map<String, Map<String, String>> filterOverrides,
+      boolean deltaEncoded) {
+    return query(
+        metricKeys,
+        params,
+        filterOverrides,
+        false /* isRecharts */,
+        OutputFormat.COLUMNAR,
+        deltaEncoded);
+  }
 
-    if (params.get("step") == null) {
-      int resolution = Math.round(timeDifference / STEP_SIZE);
-      params.put("step", String.valueOf(resolution));
-    }
+  // Format of the series data in the query response.
+  private enum OutputFormat {
+    // Series of [timestamp, value] pairs, the existing format.
+    SERIES,
+    // Columnar format, see MetricSeriesData.
+    COLUMNAR
+  }
 
-    // Adjust the start time so the graphs are consistent for different requests.
-    if (params.get("start") != null) {
-      long startTime = Long.parseLong(params.get("start"));
-      long adjustingRemainder = startTime % Long.parseLong(params.get("step"));
-      long adjustedStartTime = startTime - adjustingRemainder;
-      params.put("start", Long.toString(adjustedStartTime));
-      if (params.get("end") != null) {
-        long adjustedEndTime = Long.parseLong(params.get("end")) - adjustingRemainder;
-        params.put("end", Long.toString(adjustedEndTime));
-      }
+  // deltaEncoded is only used by the COLUMNAR output format.
+  private JsonNode query(
+      List<String> metricKeys,
+      Map<String, String> params,
+      Map<String, Map<String, String>> filterOverrides,
+      boolean isRecharts,
+      OutputFormat outputFormat,
+      boolean deltaEncoded) {
+    if (metricKeys.isEmpty()) {
+      throw new PlatformServiceException(BAD_REQUEST, "Empty metricKeys data provided.");
     }
 
-    HashMap<String, String> additionalFilters = new HashMap<>();
-    if (params.containsKey("filters")) {
-      try {
-        additionalFilters = new ObjectMapper().readValue(params.get("filters"), HashMap.class);
-      } catch (IOException e) {
-        throw new PlatformServiceException(
-            BAD_REQUEST, "Invalid filter params provided, it should be a hash.");
-      }
-    }
+    HashMap<String, String> additionalFilters = prepareQueryParams(params);
 
     String metricsUrl = appConfig.getString(PROMETHEUS_METRICS_URL_PATH);
     boolean useNativeMetrics = appConfig.getBoolean("yb.metrics.useNative", false);
@@ -133,7 +153,7 @@ public class MetricQueryHelper {
       return Json.newObject();
     }
 
-    ExecutorService threadPool = Executors.newFixedThreadPool(QUERY_EXECUTOR_THREAD_POOL);
+    ExecutorService threadPool = getQueryExecutor();
     Set<Future<JsonNode>> futures = new HashSet<Future<JsonNode>>();
     for (String metricKey : metricKeys) {
       Map<String, String> queryParams = params;
@@ -144,14 +164,19 @@ public class MetricQueryHelper {
         additionalFilters.putAll(specificFilters);
       }
 
-      Callable<JsonNode> callable =
+      MetricQueryExecutor callable =
           new MetricQueryExecutor(
               appConfig,
               apiHelper,
               queryParams,
               additionalFilters,
               ybMetricQueryComponent,
-              isRecharts);
+              isRecharts,
+              null /* splitLabel */,
+              metricRollups);
+      if (outputFormat == OutputFormat.COLUMNAR) {
+        callable.setColumnarOutput(deltaEncoded);
+      }
       Future<JsonNode> future = threadPool.submit(callable);
       futures.add(future);
     }
@@ -166,10 +191,138 @@ public class MetricQueryHelper {
         LOG.error("Error fetching metrics data", e);
       }
     }
-    threadPool.shutdown();
     return responseJson;
   }
 
+  /**
+   * Query prometheus for the given metrics of several universes at once. Each metric is fetched by
+   * a single query with node_prefix regex filter for all the universes, and the results are split
+   * back by node_prefix.
+   *
+   * @param metricKeys, metric keys to query
+   * @param params, Query params like start, end timestamps, same as for the single universe query
+   * @param nodePrefixes, node prefixes of the universes
+   * @param filterOverrides, filters for specific metric keys
+   * @return Map of node prefix to metrics of the universe, in the single universe query format
+   */
+  public Map<String, JsonNode> queryBatch(
+      List<String> metricKeys,
+      Map<String, String> params,
+      Collection<String> nodePrefixes,
+      Map<String, Map<String, String>> filterOverrides) {
+    if (metricKeys.isEmpty()) {
+      throw new PlatformServiceException(BAD_REQUEST, "Empty metricKeys data provided.");
+    }
+
+    HashMap<String, String> additionalFilters = prepareQueryParams(params);
+    additionalFilters.put(NODE_PREFIX_LABEL, String.join("|", nodePrefixes));
+
+    Map<String, ObjectNode> responses = new HashMap<>();
+    nodePrefixes.forEach(nodePrefix -> responses.put(nodePrefix, Json.newObject()));
+    String metricsUrl = appConfig.getString(PROMETHEUS_METRICS_URL_PATH);
+    boolean useNativeMetrics = appConfig.getBoolean("yb.metrics.useNative", false);
+    if ((null == metricsUrl || metricsUrl.isEmpty()) && !useNativeMetrics) {
+      LOG.error("Error fetching metrics data: no prometheus metrics URL configured");
+      return new HashMap<>(responses);
+    }
+
+    List<Future<JsonNode>> futures = new ArrayList<>();
+    for (String metricKey : metricKeys) {
+      Map<String, String> queryParams = new HashMap<>(params);
+      queryParams.put("queryKey", metricKey);
+
+      Map<String, String> filters = new HashMap<>(additionalFilters);
+      filters.putAll(filterOverrides.getOrDefault(metricKey, Collections.emptyMap()));
+
+      Callable<JsonNode> callable =
+          new MetricQueryExecutor(
+              appConfig,
+              apiHelper,
+              queryParams,
+              filters,
+              ybMetricQueryComponent,
+              false /* isRecharts */,
+              NODE_PREFIX_LABEL,
+              metricRollups);
+      futures.add(getQueryExecutor().submit(callable));
+    }
+
+    for (Future<JsonNode> future : futures) {
+      try {
+        JsonNode response = future.get();
+        String queryKey = response.get("queryKey").asText();
+        JsonNode data = response.get("data");
+        for (Map.Entry<String, ObjectNode> universeResponse : responses.entrySet()) {
+          // Error is reported for all the universes.
+          ObjectNode metricResponse = ((ObjectNode) response).deepCopy();
+          if (data != null) {
+            JsonNode universeData = data.get(universeResponse.getKey());
+            metricResponse.set("data", universeData != null ? universeData : Json.newArray());
+          }
+          universeResponse.getValue().set(queryKey, metricResponse);
+        }
+      } catch (InterruptedException | ExecutionException e) {
+        LOG.error("Error fetching metrics data", e);
+      }
+    }
+    return new HashMap<>(responses);
+  }
+
+  private HashMap<String, String> prepareQueryParams(Map<String, String> params) {
+    long timeDifference;
+    if (params.get("end") != null) {
+      timeDifference = Long.parseLong(params.get("end")) - Long.parseLong(params.get("start"));
+    } else {
+      String startTime = params.remove("start");
+      int endTime = Math.round(DateTime.now().getMillis() / 1000);
+      params.put("time", startTime);
+      params.put("_", Integer.toString(endTime));
+      timeDifference = endTime - Long.parseLong(startTime);
+    }
+
+    if (params.get("step") == null) {
+      int resolution = Math.round(timeDifference / STEP_SIZE);
+      params.put("step", String.valueOf(resolution));
+    }
+
+    // Adjust the start time so the graphs are consistent for different requests.
+    if (params.get("start") != null) {
+      long startTime = Long.parseLong(params.get("start"));
+      long adjustingRemainder = startTime % Long.parseLong(params.get("step"));
+      long adjustedStartTime = startTime - adjustingRemainder;
+      params.put("start", Long.toString(adjustedStartTime));
+      if (params.get("end") != null) {
+        long adjustedEndTime = Long.parseLong(params.get("end")) - adjustingRemainder;
+        params.put("end", Long.toString(adjustedEndTime));
+      }
+    }
+
+    HashMap<String, String> additionalFilters = new HashMap<>();
+    if (params.containsKey("filters")) {
+      try {
+        additionalFilters = new ObjectMapper().readValue(params.get("filters"), HashMap.class);
+      } catch (IOException e) {
+        throw new PlatformServiceException(
+            BAD_REQUEST, "Invalid filter params provided, it should be a hash.");
+      }
+    }
+    return additionalFilters;
+  }
+
+  private ExecutorService getQueryExecutor() {
+    if (queryExecutor == null) {
+      synchronized (this) {
+        if (queryExecutor == null) {
+          ThreadFactory namedThreadFactory =
+              new ThreadFactoryBuilder().setNameFormat("MetricQuery-%d").setDaemon(true).build();
+          queryExecutor =
+              platformExecutorFactory.createExecutor(QUERY_EXECUTOR_POOL, namedThreadFactory);
+        }
+      }
+    }
+    return queryExecutor;
+  }
+
   /**
    * Query Prometheus via HTTP for metric values
    *
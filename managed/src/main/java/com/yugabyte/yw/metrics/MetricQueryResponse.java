@@ -54,73 +54,7 @@ public class MetricQueryResponse {
     ArrayList<MetricGraphData> metricGraphDataList = new ArrayList<>();
 
     for (final JsonNode objNode : data.result) {
-      MetricGraphData metricGraphData = new MetricGraphData();
-      JsonNode metricInfo = objNode.get("metric");
-
-      if (metricInfo.has("node_prefix")) {
-        metricGraphData.name = metricInfo.get("node_prefix").asText();
-      } else if (metricInfo.size() == 1) {
-        // If we have a group_by clause, the group by name would be the only
-        // key in the metrics data, fetch that and use that as the name
-        String key = metricInfo.fieldNames().next();
-        metricGraphData.name = metricInfo.get(key).asText();
-      } else if (metricInfo.size() == 0) {
-        // TODO: This is 0 for the special metrics where we would like to grou by __name__ but
-        // PromQL seems to not allow for that. As such, we default the metric name to the one
-        // passed in.
-        //
-        // https://www.robustperception.io/whats-in-a-__name__
-        metricGraphData.name = metricName;
-      }
-
-      if (metricInfo.size() <= 1) {
-        if (layout.yaxis != null && layout.yaxis.alias.containsKey(metricGraphData.name)) {
-          metricGraphData.name = layout.yaxis.alias.get(metricGraphData.name);
-        }
-      } else {
-        if (layout.yaxis != null) {
-          metricGraphData.labels = new HashMap<String, String>();
-          for (Map.Entry<String, String> entry : layout.yaxis.alias.entrySet()) {
-            boolean validLabels = false;
-            for (String key : entry.getKey().split(",")) {
-              validLabels = false;
-              // Java conversion from Iterator to Iterable...
-              for (JsonNode metricEntry : (Iterable<JsonNode>) () -> metricInfo.elements()) {
-                // In case we want to graph per server, we want to display the node name.
-                if (layout.yaxis.alias.containsKey("useInstanceName")) {
-                  metricGraphData.name = metricInfo.get("exported_instance").asText();
-                  // If the alias contains more entries, we want to highlight it via the
-                  // saved name of the metric.
-                  if (layout.yaxis.alias.entrySet().size() > 1) {
-                    metricGraphData.name =
-                        metricGraphData.name + "-" + metricInfo.get("saved_name").asText();
-                  }
-                  validLabels = false;
-                  break;
-                }
-                if (metricEntry.asText().equals(key)) {
-                  validLabels = true;
-                  break;
-                }
-              }
-              if (!validLabels) {
-                break;
-              }
-            }
-            if (validLabels) {
-              metricGraphData.name = entry.getValue();
-            }
-          }
-        } else {
-          metricGraphData.labels = new HashMap<String, String>();
-          metricInfo
-              .fields()
-              .forEachRemaining(
-                  handler -> {
-                    metricGraphData.labels.put(handler.getKey(), handler.getValue().asText());
-                  });
-        }
-      }
+      MetricGraphData metricGraphData = createGraphData(objNode.get("metric"), metricName, layout);
       if (objNode.has("values")) {
         for (final JsonNode valueNode : objNode.get("values")) {
           metricGraphData.x.add(valueNode.get(0).asLong() * 1000);
@@ -140,12 +74,87 @@ public class MetricQueryResponse {
           metricGraphData.y.add(val);
         }
       }
-      metricGraphData.type = "scatter";
       metricGraphDataList.add(metricGraphData);
     }
     return metricGraphDataList;
   }
 
+  /**
+   * Creates graph data without the points, with the name and labels of the line set by the labels
+   * of the series.
+   */
+  static MetricGraphData createGraphData(
+      JsonNode metricInfo, String metricName, MetricConfig.Layout layout) {
+    MetricGraphData metricGraphData = new MetricGraphData();
+
+    if (metricInfo.has("node_prefix")) {
+      metricGraphData.name = metricInfo.get("node_prefix").asText();
+    } else if (metricInfo.size() == 1) {
+      // If we have a group_by clause, the group by name would be the only
+      // key in the metrics data, fetch that and use that as the name
+      String key = metricInfo.fieldNames().next();
+      metricGraphData.name = metricInfo.get(key).asText();
+    } else if (metricInfo.size() == 0) {
+      // TODO: This is 0 for the special metrics where we would like to grou by __name__ but
+      // PromQL seems to not allow for that. As such, we default the metric name to the one
+      // passed in.
+      //
+      // https://www.robustperception.io/whats-in-a-__name__
+      metricGraphData.name = metricName;
+    }
+
+    if (metricInfo.size() <= 1) {
+      if (layout.yaxis != null && layout.yaxis.alias.containsKey(metricGraphData.name)) {
+        metricGraphData.name = layout.yaxis.alias.get(metricGraphData.name);
+      }
+    } else {
+      if (layout.yaxis != null) {
+        metricGraphData.labels = new HashMap<String, String>();
+        for (Map.Entry<String, String> entry : layout.yaxis.alias.entrySet()) {
+          boolean validLabels = false;
+          for (String key : entry.getKey().split(",")) {
+            validLabels = false;
+            // Java conversion from Iterator to Iterable...
+            for (JsonNode metricEntry : (Iterable<JsonNode>) () -> metricInfo.elements()) {
+              // In case we want to graph per server, we want to display the node name.
+              if (layout.yaxis.alias.containsKey("useInstanceName")) {
+                metricGraphData.name = metricInfo.get("exported_instance").asText();
+                // If the alias contains more entries, we want to highlight it via the
+                // saved name of the metric.
+                if (layout.yaxis.alias.entrySet().size() > 1) {
+                  metricGraphData.name =
+                      metricGraphData.name + "-" + metricInfo.get("saved_name").asText();
+                }
+                validLabels = false;
+                break;
+              }
+              if (metricEntry.asText().equals(key)) {
+                validLabels = true;
+                break;
+              }
+            }
+            if (!validLabels) {
+              break;
+            }
+          }
+          if (validLabels) {
+            metricGraphData.name = entry.getValue();
+          }
+        }
+      } else {
+        metricGraphData.labels = new HashMap<String, String>();
+        metricInfo
+            .fields()
+            .forEachRemaining(
+                handler -> {
+                  metricGraphData.labels.put(handler.getKey(), handler.getValue().asText());
+                });
+      }
+    }
+    metricGraphData.type = "scatter";
+    return metricGraphData;
+  }
+
   /**
    * Format MetricQueryResponse object as a json for graph(Recharts) consumption.
    *
@@ -269,6 +278,59 @@ public class MetricQueryResponse {
     return metricGraphData;
   }
 
+  /**
+   * Splits the response by value of the given label, for ex. results of a query over several
+   * universes by node_prefix. Results without the label are skipped.
+   *
+   * @param label, label to split the results by
+   * @param removeLabel, whether to remove the label from the split results
+   * @return Map of the label value to the response with results having that value
+   */
+  public Map<String, MetricQueryResponse> splitByLabel(String label, boolean removeLabel) {
+    Map<String, MetricQueryResponse> responses = new HashMap<>();
+    if (data == null || data.result == null) {
+      return responses;
+    }
+    for (final JsonNode objNode : data.result) {
+      JsonNode metricInfo = objNode.get("metric");
+      if (metricInfo == null || !metricInfo.has(label)) {
+        continue;
+      }
+      MetricQueryResponse response =
+          responses.computeIfAbsent(metricInfo.get(label).asText(), k -> copyWithoutResults());
+      if (removeLabel) {
+        ObjectNode entry = objNode.deepCopy();
+        ((ObjectNode) entry.get("metric")).remove(label);
+        response.data.result.add(entry);
+      } else {
+        response.data.result.add(objNode);
+      }
+    }
+    return responses;
+  }
+
+  /** Removes the given label from all the results. */
+  public void removeLabel(String label) {
+    if (data == null || data.result == null) {
+      return;
+    }
+    for (final JsonNode objNode : data.result) {
+      JsonNode metricInfo = objNode.get("metric");
+      if (metricInfo != null && metricInfo.isObject()) {
+        ((ObjectNode) metricInfo).remove(label);
+      }
+    }
+  }
+
+  private MetricQueryResponse copyWithoutResults() {
+    MetricQueryResponse response = new MetricQueryResponse();
+    response.status = status;
+    response.data = new MetricsData();
+    response.data.resultType = data.resultType;
+    response.data.result = Json.newArray();
+    return response;
+  }
+
   /**
    * Converts the JSON result of a prometheus HTTP query call to the MetricQueryResponse.Entry
    * format.
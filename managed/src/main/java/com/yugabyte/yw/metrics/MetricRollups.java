@@ -0,0 +1,319 @@
+/*
+ * Copyright 2021 YugaByte, Inc. and Contributors
+ *
+ * Licensed under the Polyform Free Trial License 1.0.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ *     https://github.com/YugaByte/yugabyte-db/blob/master/licenses/POLYFORM-FREE-TRIAL-LICENSE-1.0.0.txt
+ */
+
+package com.yugabyte.yw.metrics;
+
+import static com.yugabyte.yw.metrics.MetricQueryHelper.NODE_PREFIX_LABEL;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.typesafe.config.Config;
+import com.yugabyte.yw.common.ApiHelper;
+import com.yugabyte.yw.common.SwamperHelper;
+import com.yugabyte.yw.models.MetricConfig;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+import play.libs.Json;
+
+/**
+ * Downsampled metrics for long time ranges. For every metric in metrics.yml Prometheus records
+ * 5 minute and 1 hour averages per universe, using recording rules written to the Prometheus rules
+ * directory. Range queries with the step of at least the rollup interval are served from the
+ * recorded averages instead of the raw samples, once Prometheus is found to have the rollups
+ * recorded since the start of the query range.
+ */
+@Singleton
+@Slf4j
+public class MetricRollups {
+  static final String ENABLED = "yb.metrics.rollup.enabled";
+  private static final String SCRAPE_INTERVAL = "yb.metrics.scrape_interval_secs";
+  private static final String MANAGEMENT_ENABLED = MetricQueryHelper.PROMETHEUS_MANAGEMENT_ENABLED;
+  private static final String METRICS_URL = "yb.metrics.url";
+
+  // How long the rollups found in Prometheus are trusted without probing them again.
+  private static final long PROBE_VALIDITY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  // Resolution of the 5 minute aggregates.
+  private static final int SAMPLE_INTERVAL_SECS = 60;
+
+  // Kubernetes metrics are filtered by namespace, and are never served from the rollups.
+  private static final String CONTAINER_METRIC_PREFIX = "container";
+
+  enum Tier {
+    FIVE_MINUTES("5m", 300),
+    ONE_HOUR("1h", 3600);
+
+    private final String name;
+    private final int intervalSecs;
+
+    Tier(String name, int intervalSecs) {
+      this.name = name;
+      this.intervalSecs = intervalSecs;
+    }
+
+    String getRecordName(String baseName) {
+      return String.format("yb_rollup_%s:%s:avg", name, baseName);
+    }
+  }
+
+  private static class Rollup {
+    // Base name of the recorded series by the metric name of the config.
+    private final Map<String, String> baseNames;
+    // Rollups are recorded since the rules file was written.
+    private final long availableSinceSecs;
+
+    private Rollup(Map<String, String> baseNames, long availableSinceSecs) {
+      this.baseNames = baseNames;
+      this.availableSinceSecs = availableSinceSecs;
+    }
+  }
+
+  private static class Probe {
+    // Rollups were found recorded since this time.
+    private final long recordedSinceSecs;
+    private final long probedAtMillis;
+
+    private Probe(long recordedSinceSecs, long probedAtMillis) {
+      this.recordedSinceSecs = recordedSinceSecs;
+      this.probedAtMillis = probedAtMillis;
+    }
+  }
+
+  private final Config config;
+
+  private final SwamperHelper swamperHelper;
+
+  private final ApiHelper apiHelper;
+
+  // Rollups which can be used for queries, by metric config key.
+  private final Map<String, Rollup> rollups = new ConcurrentHashMap<>();
+
+  // Successful probes of the rollups in Prometheus, by the record name and node prefix.
+  private final Map<String, Probe> probes = new ConcurrentHashMap<>();
+
+  @Inject
+  public MetricRollups(Config config, SwamperHelper swamperHelper, ApiHelper apiHelper) {
+    this.config = config;
+    this.swamperHelper = swamperHelper;
+    this.apiHelper = apiHelper;
+  }
+
+  /**
+   * Writes rollup recording rules for all the metric configs and removes rules of the configs
+   * which no longer exist. Rules are picked up by the next Prometheus config reload.
+   */
+  public void writeRules() {
+    rollups.clear();
+    probes.clear();
+    Set<String> ruleNames = new HashSet<>();
+    if (config.getBoolean(ENABLED)) {
+      for (MetricConfig metricConfig : MetricConfig.find.all()) {
+        String key = metricConfig.getKey();
+        if (key.startsWith(CONTAINER_METRIC_PREFIX)) {
+          continue;
+        }
+        String ruleName = sanitize(key);
+        Map<String, String> baseNames = new HashMap<>();
+        try {
+          swamperHelper.writeMetricRollupRules(ruleName, buildRules(metricConfig, baseNames));
+        } catch (Exception e) {
+          log.warn("Skipping rollups of metric {}: {}", key, e.getMessage());
+          continue;
+        }
+        ruleNames.add(ruleName);
+        Long modifiedTime = swamperHelper.getMetricRollupRulesModifiedTime(ruleName);
+        if (modifiedTime != null) {
+          rollups.put(key, new Rollup(baseNames, modifiedTime / 1000));
+        }
+      }
+    }
+    for (String ruleName : swamperHelper.getMetricRollupRuleNames()) {
+      if (!ruleNames.contains(ruleName)) {
+        swamperHelper.removeMetricRollupRules(ruleName);
+      }
+    }
+    log.info("Metric rollups are written for {} metrics", rollups.size());
+  }
+
+  @VisibleForTesting
+  String buildRules(MetricConfig metricConfig, Map<String, String> baseNames) {
+    int scrapeIntervalSecs = config.hasPath(SCRAPE_INTERVAL) ? config.getInt(SCRAPE_INTERVAL) : 10;
+    // Same range as for the queries with the step of the sample interval.
+    Map<String, String> queries =
+        new TreeMap<>(
+            metricConfig.getQueries(
+                new HashMap<>(),
+                SAMPLE_INTERVAL_SECS + 2 * scrapeIntervalSecs,
+                NODE_PREFIX_LABEL));
+    List<Map<String, Object>> fiveMinuteRules = new ArrayList<>();
+    List<Map<String, Object>> oneHourRules = new ArrayList<>();
+    for (Map.Entry<String, String> query : queries.entrySet()) {
+      String baseName = sanitize(metricConfig.getKey()) + ":" + sanitize(query.getKey());
+      Tier minutes = Tier.FIVE_MINUTES;
+      String samples =
+          String.format("(%s)[%s:%ds]", query.getValue(), minutes.name, SAMPLE_INTERVAL_SECS);
+      fiveMinuteRules.add(rule(minutes, baseName, "avg_over_time(" + samples + ")"));
+
+      // Hourly averages are computed from the 5 minute ones.
+      Tier hour = Tier.ONE_HOUR;
+      String avg = minutes.getRecordName(baseName) + "[" + hour.name + "]";
+      oneHourRules.add(rule(hour, baseName, "avg_over_time(" + avg + ")"));
+      baseNames.put(query.getKey(), baseName);
+    }
+
+    List<Map<String, Object>> groups = new ArrayList<>();
+    groups.add(group(Tier.FIVE_MINUTES, fiveMinuteRules));
+    groups.add(group(Tier.ONE_HOUR, oneHourRules));
+    DumperOptions options = new DumperOptions();
+    options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+    return new Yaml(options).dump(Collections.singletonMap("groups", groups));
+  }
+
+  private static Map<String, Object> rule(Tier tier, String baseName, String expr) {
+    Map<String, Object> rule = new LinkedHashMap<>();
+    rule.put("record", tier.getRecordName(baseName));
+    rule.put("expr", expr);
+    return rule;
+  }
+
+  private static Map<String, Object> group(Tier tier, List<Map<String, Object>> rules) {
+    Map<String, Object> group = new LinkedHashMap<>();
+    group.put("name", "rollup_" + tier.name);
+    group.put("interval", tier.name);
+    group.put("rules", rules);
+    return group;
+  }
+
+  private static String sanitize(String name) {
+    return name.replaceAll("[^a-zA-Z0-9_]", "_");
+  }
+
+  /**
+   * Returns queries of the metric over the averaged rollups, by the metric name, in the same
+   * format as {@link MetricConfig#getQueries(Map, int)}. Returns null if the query can't be served
+   * from the rollups: it is not a range query, has filters other than node_prefix, its step is
+   * less than the rollup interval or Prometheus has no rollups recorded at the start of its range,
+   * for ex. because it failed to load the rules or was replaced since.
+   *
+   * @param configKey, metric config key
+   * @param queryParams, query params with start, end and step
+   * @param filters, additional filters of the query
+   * @param splitByNodePrefix, whether results are split by node_prefix, so that the query may be
+   *     done for several node prefixes at once
+   */
+  public Map<String, String> getQueries(
+      String configKey,
+      Map<String, String> queryParams,
+      Map<String, String> filters,
+      boolean splitByNodePrefix) {
+    Rollup rollup = rollups.get(configKey);
+    if (rollup == null
+        || !config.getBoolean(MANAGEMENT_ENABLED)
+        || !queryParams.containsKey("end")
+        || !queryParams.containsKey("start")
+        || !queryParams.containsKey("step")
+        || !filters.keySet().equals(Collections.singleton(NODE_PREFIX_LABEL))) {
+      return null;
+    }
+    String nodePrefix = filters.get(NODE_PREFIX_LABEL);
+    if (!splitByNodePrefix && nodePrefix.contains("|")) {
+      // Rollups are recorded per universe and can't be aggregated over several ones.
+      return null;
+    }
+    long startSecs;
+    int stepSecs;
+    try {
+      startSecs = Long.parseLong(queryParams.get("start"));
+      stepSecs = Integer.parseInt(queryParams.get("step"));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    Tier tier = null;
+    for (Tier candidate : Tier.values()) {
+      if (stepSecs >= candidate.intervalSecs) {
+        tier = candidate;
+      }
+    }
+    // Leave time for Prometheus to load the rules and record the first complete aggregates.
+    if (tier == null || startSecs < rollup.availableSinceSecs + 2L * tier.intervalSecs) {
+      return null;
+    }
+    Map<String, String> queries = new HashMap<>();
+    for (Map.Entry<String, String> baseName : rollup.baseNames.entrySet()) {
+      String recordName = tier.getRecordName(baseName.getValue());
+      if (!isRecorded(recordName, tier, nodePrefix, startSecs)) {
+        return null;
+      }
+      queries.put(
+          baseName.getKey(),
+          String.format(
+              "avg_over_time(%s{%s=~\"%s\"}[%ds])",
+              recordName, NODE_PREFIX_LABEL, nodePrefix, stepSecs));
+    }
+    return ImmutableMap.copyOf(queries);
+  }
+
+  /**
+   * Checks that Prometheus has the rollup recorded for all the node prefixes around the start
+   * time. Rollups which were found recorded earlier than that are not probed again for a while.
+   */
+  private boolean isRecorded(String recordName, Tier tier, String nodePrefix, long startSecs) {
+    String probeKey = recordName + "/" + nodePrefix;
+    Probe probe = probes.get(probeKey);
+    long nowMillis = System.currentTimeMillis();
+    if (probe != null
+        && probe.recordedSinceSecs <= startSecs
+        && nowMillis - probe.probedAtMillis < PROBE_VALIDITY_MILLIS) {
+      return true;
+    }
+    int windowSecs = 2 * tier.intervalSecs;
+    Map<String, String> params = new HashMap<>();
+    params.put(
+        "query",
+        String.format(
+            "count by (%s) (count_over_time(%s{%s=~\"%s\"}[%ds]))",
+            NODE_PREFIX_LABEL, recordName, NODE_PREFIX_LABEL, nodePrefix, windowSecs));
+    params.put("time", Long.toString(startSecs + windowSecs));
+    try {
+      JsonNode responseJson =
+          apiHelper.getRequest(config.getString(METRICS_URL) + "/query", new HashMap<>(), params);
+      MetricQueryResponse response = Json.fromJson(responseJson, MetricQueryResponse.class);
+      if (response.error != null || response.data == null) {
+        log.warn("Failed to probe metric rollup {}: {}", recordName, responseJson);
+        return false;
+      }
+      List<MetricQueryResponse.Entry> values = response.getValues();
+      if (values == null || values.size() < nodePrefix.split("\\|").length) {
+        log.debug("Metric rollup {} isn't recorded for {} at {}", recordName, nodePrefix, startSecs);
+        return false;
+      }
+    } catch (Exception e) {
+      log.warn("Failed to probe metric rollup {}: {}", recordName, e.getMessage());
+      return false;
+    }
+    probes.put(probeKey, new Probe(startSecs, nowMillis));
+    return true;
+  }
+}
@@ -0,0 +1,19 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.metrics;
+
+import java.util.Map;
+
+/**
+ * Graph line in the columnar format: timestamps and values of the points are kept in primitive
+ * arrays and serialized as plain JSON arrays of numbers. If the timestamps are delta encoded, the
+ * first one is the absolute timestamp and each next one is the difference with the previous one.
+ * NaN values are returned as 0, same as in {@link MetricGraphData}.
+ */
+public class MetricSeriesData {
+  public String name;
+  public String type;
+  public Map<String, String> labels;
+  public long[] x;
+  public double[] y;
+}
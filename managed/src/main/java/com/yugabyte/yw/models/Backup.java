@@ -308,6 +308,8 @@ public class Backup extends Model {
     if (params.backupList != null) {
       // In event of universe backup
       for (BackupTableParams childBackup : params.backupList) {
+        // Only the backup task marks the parts completed, it would skip the ones marked here.
+        childBackup.backupPartCompleted = false;
         if (childBackup.storageLocation == null) {
           backup.updateStorageLocation(childBackup);
         }
@@ -462,6 +464,25 @@ public class Backup extends Model {
     this.save();
   }
 
+  // Parts of the backup are taken in parallel, so the updates of the backup info are serialized.
+  public synchronized void setBackupPartCompleted(int idx, long backupSize) {
+    int backupListLen = this.backupInfo.backupList.size();
+    if (idx >= backupListLen) {
+      LOG.error("Index {} not present in backup list of length {}", idx, backupListLen);
+      return;
+    }
+    BackupTableParams backupPart = this.backupInfo.backupList.get(idx);
+    backupPart.backupSizeInBytes = backupSize;
+    backupPart.backupPartCompleted = true;
+    this.save();
+  }
+
+  public boolean isBackupPartCompleted(int idx) {
+    return this.backupInfo.backupList != null
+        && idx < this.backupInfo.backupList.size()
+        && this.backupInfo.backupList.get(idx).backupPartCompleted;
+  }
+
   public void setTotalBackupSize(long backupSize) {
     this.backupInfo.backupSizeInBytes = backupSize;
     this.save();
@@ -489,6 +510,15 @@ public class Backup extends Model {
     return backupList;
   }
 
+  // Deletion of these backups was interrupted by platform restart.
+  public static List<Backup> findAllBackupsDeleteInProgress(UUID customerUUID) {
+    return find.query()
+        .where()
+        .eq("customer_uuid", customerUUID)
+        .eq("state", BackupState.DeleteInProgress)
+        .findList();
+  }
+
   public static List<Backup> findAllFinishedBackupsWithCustomerConfig(UUID customerConfigUUID) {
     List<Backup> backupList =
         find.query()
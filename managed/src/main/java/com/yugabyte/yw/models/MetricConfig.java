@@ -6,14 +6,18 @@ import static io.swagger.annotations.ApiModelProperty.AccessMode.READ_ONLY;
 import static io.swagger.annotations.ApiModelProperty.AccessMode.READ_WRITE;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableSet;
 import io.ebean.Finder;
 import io.ebean.Model;
 import io.ebean.annotation.DbJson;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.persistence.Column;
@@ -78,6 +82,16 @@ public class MetricConfig extends Model {
   // of = in our filter condition. Special patterns include *, |, $ or +.
   static final Pattern specialFilterPattern = Pattern.compile("[*|+$]");
 
+  private static final Set<String> AGGREGATION_OPERATORS =
+      ImmutableSet.of("sum", "min", "max", "avg", "group", "stddev", "stdvar", "count");
+
+  // Aggregation with the label list, for ex: "sum by (exported_instance)".
+  private static final Pattern AGGREGATION_BY_PATTERN =
+      Pattern.compile("^\\s*(\\w+)\\s+by\\s*\\((.*)\\)\\s*$");
+
+  private static final Pattern AGGREGATION_WITHOUT_PATTERN =
+      Pattern.compile("^\\s*\\w+\\s+without\\s*\\((.*)\\)\\s*$");
+
   public Map<String, String> getFilters() {
     return this.getConfig().filters;
   }
@@ -87,6 +101,16 @@ public class MetricConfig extends Model {
   }
 
   public Map<String, String> getQueries(Map<String, String> additionalFilters, int queryRangeSecs) {
+    return getQueries(additionalFilters, queryRangeSecs, null);
+  }
+
+  /**
+   * Same as {@link #getQueries(Map, int)}, but if keptLabel is set, every aggregation in the
+   * queries also groups by that label. This allows to query several universes at once and split
+   * the results by node_prefix.
+   */
+  public Map<String, String> getQueries(
+      Map<String, String> additionalFilters, int queryRangeSecs, String keptLabel) {
     MetricConfig metricConfig = getConfig();
     if (metricConfig.metric == null) {
       throw new RuntimeException("Invalid MetricConfig: metric attribute is required");
@@ -97,11 +121,12 @@ public class MetricConfig extends Model {
     // Note: contains takes actual chars, while split takes a regex, hence the escape \\ there.
     if (metricConfig.metric.contains("|")) {
       for (String m : metricConfig.metric.split("\\|")) {
-        output.put(m, getQuery(m, additionalFilters, queryRangeSecs));
+        output.put(m, getQuery(m, additionalFilters, queryRangeSecs, keptLabel));
       }
     } else {
       output.put(
-          metricConfig.metric, getQuery(metricConfig.metric, additionalFilters, queryRangeSecs));
+          metricConfig.metric,
+          getQuery(metricConfig.metric, additionalFilters, queryRangeSecs, keptLabel));
     }
     return output;
   }
@@ -120,21 +145,30 @@ public class MetricConfig extends Model {
    * @return, a valid prometheus query string
    */
   public String getQuery(String metric, Map<String, String> additionalFilters, int queryRangeSecs) {
+    return getQuery(metric, additionalFilters, queryRangeSecs, null);
+  }
+
+  private String getQuery(
+      String metric, Map<String, String> additionalFilters, int queryRangeSecs, String keptLabel) {
     // Special case searchs for .avg to convert into the respective ratio of
     // avg(irate(metric_sum)) / avg(irate(metric_count))
     if (metric.endsWith(".avg")) {
       String metricPrefix = metric.substring(0, metric.length() - 4);
-      String sumQuery = getQuery(metricPrefix + "_sum", additionalFilters, queryRangeSecs);
-      String countQuery = getQuery(metricPrefix + "_count", additionalFilters, queryRangeSecs);
+      String sumQuery =
+          getQuery(metricPrefix + "_sum", additionalFilters, queryRangeSecs, keptLabel);
+      String countQuery =
+          getQuery(metricPrefix + "_count", additionalFilters, queryRangeSecs, keptLabel);
       return "(" + sumQuery + ") / (" + countQuery + ")";
     } else if (metric.contains("/")) {
       String[] metricNames = metric.split("/");
       MetricConfig numerator = get(metricNames[0]);
       MetricConfig denominator = get(metricNames[1]);
       String numQuery =
-          numerator.getQuery(numerator.getConfig().metric, additionalFilters, queryRangeSecs);
+          numerator.getQuery(
+              numerator.getConfig().metric, additionalFilters, queryRangeSecs, keptLabel);
       String denomQuery =
-          denominator.getQuery(denominator.getConfig().metric, additionalFilters, queryRangeSecs);
+          denominator.getQuery(
+              denominator.getConfig().metric, additionalFilters, queryRangeSecs, keptLabel);
       return String.format("((%s)/(%s))*100", numQuery, denomQuery);
     }
 
@@ -181,19 +215,25 @@ public class MetricConfig extends Model {
       Scenario 2:
         function: rate
         query str: rate(metric{memory="used"}[30m]). */
-      if (metricConfig.function.contains("|")) {
-        // We need to split the multiple functions and form the query string
-        String[] functions = metricConfig.function.split("\\|");
-        for (String functionName : functions) {
-          queryStr = String.format("%s(%s)", functionName, queryStr);
+      // We need to split the multiple functions and form the query string
+      String[] functions = metricConfig.function.split("\\|");
+      for (int i = 0; i < functions.length; i++) {
+        String functionName = functions[i];
+        // The outermost aggregation is grouped by the group_by labels, if those are set.
+        boolean outermostGrouped = i == functions.length - 1 && metricConfig.group_by != null;
+        if (keptLabel != null && !outermostGrouped) {
+          functionName = keepLabelInAggregation(functionName, keptLabel);
         }
-      } else {
-        queryStr = String.format("%s(%s)", metricConfig.function, queryStr);
+        queryStr = String.format("%s(%s)", functionName, queryStr);
       }
     }
 
     if (getConfig().group_by != null) {
-      queryStr = String.format("%s by (%s)", queryStr, metricConfig.group_by);
+      String groupBy = metricConfig.group_by;
+      if (keptLabel != null) {
+        groupBy = addLabel(groupBy, keptLabel);
+      }
+      queryStr = String.format("%s by (%s)", queryStr, groupBy);
     }
     if (getConfig().operator != null) {
       queryStr = String.format("%s %s", queryStr, metricConfig.operator);
@@ -201,6 +241,57 @@ public class MetricConfig extends Model {
     return queryStr;
   }
 
+  private static String keepLabelInAggregation(String function, String label) {
+    if (AGGREGATION_OPERATORS.contains(function.trim())) {
+      return String.format("%s by (%s)", function.trim(), label);
+    }
+    Matcher matcher = AGGREGATION_BY_PATTERN.matcher(function);
+    if (matcher.matches()) {
+      return String.format("%s by (%s)", matcher.group(1), addLabel(matcher.group(2), label));
+    }
+    // Non aggregating functions and aggregations "without" keep all other labels.
+    return function;
+  }
+
+  private static List<String> splitLabels(String labels) {
+    return Arrays.stream(labels.split(",")).map(String::trim).collect(Collectors.toList());
+  }
+
+  private static String addLabel(String labels, String label) {
+    return splitLabels(labels).contains(label) ? labels : labels + ", " + label;
+  }
+
+  /**
+   * Checks if results of the metric queries have the given label without the label being kept
+   * explicitly. Tells if the label has to be removed from the results after splitting them by
+   * that label, so that the results are the same as of the query without the label kept.
+   */
+  public boolean hasLabelInResults(String label) {
+    MetricConfig metricConfig = getConfig();
+    if (metricConfig.metric != null && metricConfig.metric.contains("/")) {
+      // Division keeps labels of the numerator.
+      MetricConfig numerator = get(metricConfig.metric.split("/")[0]);
+      return numerator == null || numerator.hasLabelInResults(label);
+    }
+    if (metricConfig.group_by != null) {
+      return splitLabels(metricConfig.group_by).contains(label);
+    }
+    if (metricConfig.function == null) {
+      return true;
+    }
+    String[] functions = metricConfig.function.split("\\|");
+    String outermost = functions.length == 0 ? "" : functions[functions.length - 1];
+    Matcher byMatcher = AGGREGATION_BY_PATTERN.matcher(outermost);
+    if (byMatcher.matches()) {
+      return splitLabels(byMatcher.group(2)).contains(label);
+    }
+    Matcher withoutMatcher = AGGREGATION_WITHOUT_PATTERN.matcher(outermost);
+    if (withoutMatcher.matches()) {
+      return !splitLabels(withoutMatcher.group(1)).contains(label);
+    }
+    return !AGGREGATION_OPERATORS.contains(outermost.trim());
+  }
+
   /**
    * filtersToString method converts a map to a string with quotes around the value. The reason we
    * have to do this way is because prometheus expects the json key to have no quote, and just value
@@ -9,32 +9,41 @@ import static play.mvc.Http.Status.BAD_REQUEST;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import com.yugabyte.yw.commissioner.UserTaskDetails;
 import com.yugabyte.yw.commissioner.UserTaskDetails.SubTaskDetails;
 import com.yugabyte.yw.commissioner.UserTaskDetails.SubTaskGroupType;
 import com.yugabyte.yw.common.PlatformServiceException;
+import com.yugabyte.yw.models.helpers.CommonUtils;
 import com.yugabyte.yw.models.helpers.TaskType;
+import io.ebean.Ebean;
 import io.ebean.ExpressionList;
 import io.ebean.FetchGroup;
 import io.ebean.Finder;
 import io.ebean.Model;
 import io.ebean.Query;
+import io.ebean.SqlRow;
 import io.ebean.annotation.CreatedTimestamp;
 import io.ebean.annotation.DbJson;
 import io.ebean.annotation.EnumValue;
 import io.ebean.annotation.UpdatedTimestamp;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -298,61 +307,175 @@ public class TaskInfo extends Model {
    *     subTaskGroups.
    */
   public UserTaskDetails getUserTaskDetails() {
+    return getUserTaskDetails(getSubTasksSummary());
+  }
+
+  /**
+   * Same as getUserTaskDetails(), but uses previously loaded subtasks summary of this task.
+   *
+   * @param summary subtasks summary of this task.
+   * @return UserTaskDetails object for this TaskInfo.
+   */
+  public UserTaskDetails getUserTaskDetails(SubTasksSummary summary) {
     UserTaskDetails taskDetails = new UserTaskDetails();
-    List<TaskInfo> result = getSubTasks();
-    Map<SubTaskGroupType, SubTaskDetails> userTasksMap = new HashMap<>();
     boolean customerTaskFailure = TaskInfo.ERROR_STATES.contains(taskState);
-    for (TaskInfo taskInfo : result) {
-      SubTaskGroupType subTaskGroupType = taskInfo.getSubTaskGroupType();
+    for (SubTaskGroupType subTaskGroupType : summary.getGroupTypes()) {
       if (subTaskGroupType == SubTaskGroupType.Invalid) {
         continue;
       }
-      SubTaskDetails subTask = userTasksMap.get(subTaskGroupType);
-      if (subTask == null) {
-        subTask = createSubTask(subTaskGroupType);
-        taskDetails.add(subTask);
-      } else {
-        if (TaskInfo.ERROR_STATES.contains(subTask.getState())) {
-          // If error is set, report the error.
-          continue;
-        }
-        if (State.Running.equals(subTask.getState())) {
-          // If no error but at least one them is running, report running.
-          continue;
-        }
-      }
-      State subTaskState = taskInfo.getTaskState();
-      if (State.Created.equals(subTaskState)) {
+      SubTaskDetails subTask = createSubTask(subTaskGroupType);
+      State groupState = summary.getGroupState(subTaskGroupType);
+      if (State.Created.equals(groupState)) {
         subTask.setState(customerTaskFailure ? State.Unknown : State.Created);
-      } else if (!State.Success.equals(subTaskState)) {
-        subTask.setState(subTaskState);
+      } else if (groupState != null) {
+        subTask.setState(groupState);
       }
-      userTasksMap.put(subTaskGroupType, subTask);
+      taskDetails.add(subTask);
     }
     return taskDetails;
   }
 
   /**
-   * Returns the aggregate percentage completion across all the subtasks.
+   * Retrieve the percentage of subtasks of this task, which completed successfully.
    *
-   * @return a number between 0.0 and 100.0.
+   * @return percentage of successfully completed subtasks.
    */
   public double getPercentCompleted() {
-    int numSubtasks = TaskInfo.find.query().where().eq("parent_uuid", getTaskUUID()).findCount();
+    return getPercentCompleted(getSubTasksSummary());
+  }
+
+  /**
+   * Same as getPercentCompleted(), but uses previously loaded subtasks summary of this task.
+   *
+   * @param summary subtasks summary of this task.
+   * @return percentage of successfully completed subtasks.
+   */
+  public double getPercentCompleted(SubTasksSummary summary) {
+    int numSubtasks = summary.getTotalCount();
     if (numSubtasks == 0) {
       if (TaskInfo.COMPLETED_STATES.contains(getTaskState())) {
         return 100.0;
       }
       return 0.0;
     }
-    int numSubtasksCompleted =
-        TaskInfo.find
-            .query()
-            .where()
-            .eq("parent_uuid", getTaskUUID())
-            .eq("task_state", TaskInfo.State.Success)
-            .findCount();
-    return numSubtasksCompleted * 100.0 / numSubtasks;
+    return summary.getCount(State.Success) * 100.0 / numSubtasks;
+  }
+
+  public SubTasksSummary getSubTasksSummary() {
+    return getSubTasksSummary(Collections.singleton(getTaskUUID())).get(getTaskUUID());
+  }
+
+  /**
+   * Loads subtask counts for the given parent tasks with a single aggregating query per batch of
+   * parents, instead of loading each subtask.
+   *
+   * @param parentUUIDs parent task UUIDs.
+   * @return subtasks summary for each of the passed parent task UUIDs.
+   */
+  public static Map<UUID, SubTasksSummary> getSubTasksSummary(Collection<UUID> parentUUIDs) {
+    Map<UUID, SubTasksSummary> result = new HashMap<>();
+    for (UUID parentUUID : parentUUIDs) {
+      result.put(parentUUID, new SubTasksSummary());
+    }
+    String query =
+        "SELECT parent_uuid, sub_task_group_type, task_state, count(*) AS num_tasks,"
+            + " min(position) AS min_position, max(position) AS max_position"
+            + " FROM task_info WHERE parent_uuid IN (:parentUUIDs)"
+            + " GROUP BY parent_uuid, sub_task_group_type, task_state";
+    for (List<UUID> batch :
+        Iterables.partition(result.keySet(), CommonUtils.DB_MAX_IN_CLAUSE_ITEMS)) {
+      List<SqlRow> rows =
+          Ebean.createSqlQuery(query).setParameter("parentUUIDs", batch).findList();
+      for (SqlRow row : rows) {
+        String groupType = row.getString("sub_task_group_type");
+        result
+            .get(row.getUUID("parent_uuid"))
+            .add(
+                groupType != null ? SubTaskGroupType.valueOf(groupType) : null,
+                State.valueOf(row.getString("task_state")),
+                row.getInteger("num_tasks"),
+                row.getInteger("min_position"),
+                row.getInteger("max_position"));
+      }
+    }
+    return result;
+  }
+
+  /** Subtask counts of a parent task, aggregated by subtask group type and state. */
+  public static class SubTasksSummary {
+    private final Map<SubTaskGroupType, List<StateSummary>> groups = new HashMap<>();
+    private final Map<State, Integer> stateCounts = new EnumMap<>(State.class);
+    private int totalCount;
+
+    private static class StateSummary {
+      private final State state;
+      private final int minPosition;
+      private final int maxPosition;
+
+      private StateSummary(State state, int minPosition, int maxPosition) {
+        this.state = state;
+        this.minPosition = minPosition;
+        this.maxPosition = maxPosition;
+      }
+    }
+
+    void add(
+        SubTaskGroupType groupType, State state, int count, int minPosition, int maxPosition) {
+      totalCount += count;
+      stateCounts.merge(state, count, Integer::sum);
+      if (groupType != null) {
+        groups
+            .computeIfAbsent(groupType, k -> new ArrayList<>())
+            .add(new StateSummary(state, minPosition, maxPosition));
+      }
+    }
+
+    public int getTotalCount() {
+      return totalCount;
+    }
+
+    public int getCount(State state) {
+      return stateCounts.getOrDefault(state, 0);
+    }
+
+    /** @return subtask group types, ordered by position of the first subtask in the group. */
+    public List<SubTaskGroupType> getGroupTypes() {
+      return groups
+          .entrySet()
+          .stream()
+          .sorted(
+              Comparator.comparingInt(
+                      (Map.Entry<SubTaskGroupType, List<StateSummary>> e) ->
+                          e.getValue().stream().mapToInt(s -> s.minPosition).min().orElse(0))
+                  .thenComparing(Map.Entry::getKey))
+          .map(Map.Entry::getKey)
+          .collect(Collectors.toList());
+    }
+
+    /**
+     * Group state, as reported to the user. The earliest error or running subtask defines the
+     * state of the group. Otherwise it is the state of the latest subtask which has not succeeded
+     * yet, or null if all the subtasks in the group succeeded.
+     */
+    State getGroupState(SubTaskGroupType groupType) {
+      List<StateSummary> states = groups.getOrDefault(groupType, Collections.emptyList());
+      Optional<StateSummary> firstSticky =
+          states
+              .stream()
+              .filter(s -> ERROR_STATES.contains(s.state) || s.state == State.Running)
+              .min(
+                  Comparator.comparingInt((StateSummary s) -> s.minPosition)
+                      .thenComparing(s -> s.state == State.Running));
+      if (firstSticky.isPresent()) {
+        return firstSticky.get().state;
+      }
+      return states
+          .stream()
+          .filter(s -> s.state != State.Success)
+          .max(Comparator.comparingInt(s -> s.maxPosition))
+          .map(s -> s.state)
+          .orElse(null);
+    }
   }
 
   public static List<TaskInfo> findDuplicateDeleteBackupTasks(UUID customerUUID, UUID backupUUID) {
@@ -8,7 +8,6 @@ import static com.yugabyte.yw.models.helpers.CustomerConfigConsts.BACKUP_LOCATIO
 import static com.yugabyte.yw.models.helpers.CustomerConfigConsts.REGION_LOCATION_FIELDNAME;
 import static play.mvc.Http.Status.CONFLICT;
 
-import com.amazonaws.SDKGlobalConfiguration;
 import com.amazonaws.SdkClientException;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSCredentialsProvider;
@@ -263,56 +262,45 @@ public class CustomerConfigValidator {
           throwBeanValidatorError(fieldNames.get(0), exceptionMsg);
         }
 
-        try {
-          // Disable cert checking while connecting with s3
-          // Enabling it can potentially fail when s3 compatible storages like
-          // Dell ECS are provided and custom certs are needed to connect
-          // Reference: https://yugabyte.atlassian.net/browse/PLAT-2497
-          System.setProperty(SDKGlobalConfiguration.DISABLE_CERT_CHECKING_SYSTEM_PROPERTY, "true");
-
-          // Check each field.
-          for (Pair<String, String> item : toCheck) {
-            String fieldName = item.getFirst();
-            String s3UriPath = item.getSecond();
-            String s3Uri = s3UriPath;
-            // Assuming bucket name will always start with s3:// otherwise that will be
-            // invalid
-            if (s3UriPath.length() < 5 || !s3UriPath.startsWith("s3://")) {
-              exceptionMsg = "Invalid s3UriPath format: " + s3UriPath;
-              throwBeanValidatorError(fieldName, exceptionMsg);
-            } else {
-              try {
-                s3UriPath = s3UriPath.substring(5);
-                String[] bucketSplit = s3UriPath.split("/", 2);
-                String bucketName = bucketSplit.length > 0 ? bucketSplit[0] : "";
-                String prefix = bucketSplit.length > 1 ? bucketSplit[1] : "";
-
-                // Only the bucket has been given, with no subdir.
-                if (bucketSplit.length == 1) {
-                  if (!s3Client.doesBucketExistV2(bucketName)) {
-                    exceptionMsg = "S3 URI path " + s3Uri + " doesn't exist";
-                    throwBeanValidatorError(fieldName, exceptionMsg);
-                  }
-                } else {
-                  ListObjectsV2Result result = s3Client.listObjectsV2(bucketName, prefix);
-                  if (result.getKeyCount() == 0) {
-                    exceptionMsg = "S3 URI path " + s3Uri + " doesn't exist";
-                    throwBeanValidatorError(fieldName, exceptionMsg);
-                  }
+        // Check each field.
+        for (Pair<String, String> item : toCheck) {
+          String fieldName = item.getFirst();
+          String s3UriPath = item.getSecond();
+          String s3Uri = s3UriPath;
+          // Assuming bucket name will always start with s3:// otherwise that will be
+          // invalid
+          if (s3UriPath.length() < 5 || !s3UriPath.startsWith("s3://")) {
+            exceptionMsg = "Invalid s3UriPath format: " + s3UriPath;
+            throwBeanValidatorError(fieldName, exceptionMsg);
+          } else {
+            try {
+              s3UriPath = s3UriPath.substring(5);
+              String[] bucketSplit = s3UriPath.split("/", 2);
+              String bucketName = bucketSplit.length > 0 ? bucketSplit[0] : "";
+              String prefix = bucketSplit.length > 1 ? bucketSplit[1] : "";
+
+              // Only the bucket has been given, with no subdir.
+              if (bucketSplit.length == 1) {
+                if (!s3Client.doesBucketExistV2(bucketName)) {
+                  exceptionMsg = "S3 URI path " + s3Uri + " doesn't exist";
+                  throwBeanValidatorError(fieldName, exceptionMsg);
+                }
+              } else {
+                ListObjectsV2Result result = s3Client.listObjectsV2(bucketName, prefix);
+                if (result.getKeyCount() == 0) {
+                  exceptionMsg = "S3 URI path " + s3Uri + " doesn't exist";
+                  throwBeanValidatorError(fieldName, exceptionMsg);
                 }
-              } catch (AmazonS3Exception s3Exception) {
-                exceptionMsg = s3Exception.getErrorMessage();
-                if (exceptionMsg.contains("Denied") || exceptionMsg.contains("bucket"))
-                  exceptionMsg += " " + s3Uri;
-                throwBeanValidatorError(fieldName, exceptionMsg);
-              } catch (SdkClientException e) {
-                throwBeanValidatorError(fieldName, e.getMessage());
               }
+            } catch (AmazonS3Exception s3Exception) {
+              exceptionMsg = s3Exception.getErrorMessage();
+              if (exceptionMsg.contains("Denied") || exceptionMsg.contains("bucket"))
+                exceptionMsg += " " + s3Uri;
+              throwBeanValidatorError(fieldName, exceptionMsg);
+            } catch (SdkClientException e) {
+              throwBeanValidatorError(fieldName, e.getMessage());
             }
           }
-        } finally {
-          // Re-enable cert checking as it applies globally
-          System.setProperty(SDKGlobalConfiguration.DISABLE_CERT_CHECKING_SYSTEM_PROPERTY, "false");
         }
       }
     }
@@ -702,8 +690,10 @@ public class CustomerConfigValidator {
   }
 
   // TODO: move this out to some common util file.
+  // Cert checking is disabled as s3 compatible storages like Dell ECS can use custom certs, see
+  // https://yugabyte.atlassian.net/browse/PLAT-2497
   protected AmazonS3 create(JsonNode data) {
-    return AWSUtil.createS3Client(data);
+    return AWSUtil.createS3Client(data, true);
   }
 
   protected Storage createGcpStorage(String gcpCredentials)
@@ -4,22 +4,36 @@ package com.yugabyte.yw.queries;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.typesafe.config.Config;
+import com.yugabyte.yw.common.PlatformExecutorFactory;
 import com.yugabyte.yw.common.YsqlQueryExecutor;
 import com.yugabyte.yw.forms.RunQueryFormData;
 import com.yugabyte.yw.models.Universe;
 import com.yugabyte.yw.models.helpers.NodeDetails;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import play.libs.Json;
@@ -27,7 +41,9 @@ import play.libs.Json;
 @Singleton
 public class QueryHelper {
   public static final Logger LOG = LoggerFactory.getLogger(QueryHelper.class);
-  public static final Integer QUERY_EXECUTOR_THREAD_POOL = 5;
+  private static final String QUERY_STATS_POOL = "query_stats";
+  private static final String NODE_TIMEOUT = "yb.query_stats.node_timeout";
+  private static final String CACHE_TTL = "yb.query_stats.cache_ttl";
 
   private static final String SLOW_QUERY_STATS_SQL =
       "SELECT a.rolname, t.datname, t.queryid, "
@@ -44,6 +60,21 @@ public class QueryHelper {
 
   @Inject YsqlQueryExecutor ysqlQueryExecutor;
 
+  private final ExecutorService executor;
+  private final long nodeTimeoutMs;
+  private final Cache<QueryCacheKey, JsonNode> queryCache;
+
+  @Inject
+  public QueryHelper(Config config, PlatformExecutorFactory platformExecutorFactory) {
+    ThreadFactory namedThreadFactory =
+        new ThreadFactoryBuilder().setNameFormat("QueryStats-%d").setDaemon(true).build();
+    this.executor = platformExecutorFactory.createExecutor(QUERY_STATS_POOL, namedThreadFactory);
+    this.nodeTimeoutMs = config.getDuration(NODE_TIMEOUT, TimeUnit.MILLISECONDS);
+    long cacheTtlMs = config.getDuration(CACHE_TTL, TimeUnit.MILLISECONDS);
+    this.queryCache =
+        CacheBuilder.newBuilder().expireAfterWrite(cacheTtlMs, TimeUnit.MILLISECONDS).build();
+  }
+
   public JsonNode liveQueries(Universe universe) {
     return query(universe, false, null, null);
   }
@@ -57,14 +88,30 @@ public class QueryHelper {
     RunQueryFormData ysqlQuery = new RunQueryFormData();
     ysqlQuery.query = "SELECT pg_stat_statements_reset()";
     ysqlQuery.db_name = "postgres";
-    return ysqlQueryExecutor.executeQuery(universe, ysqlQuery);
+    JsonNode result = ysqlQueryExecutor.executeQuery(universe, ysqlQuery);
+    queryCache.asMap().keySet().removeIf(key -> key.universeUUID.equals(universe.universeUUID));
+    return result;
   }
 
   public JsonNode query(
       Universe universe, boolean fetchSlowQueries, String username, String password)
       throws IllegalArgumentException {
-    ExecutorService threadPool = Executors.newFixedThreadPool(QUERY_EXECUTOR_THREAD_POOL);
-    Set<Future<JsonNode>> futures = new HashSet<>();
+    QueryCacheKey key =
+        new QueryCacheKey(universe.universeUUID, fetchSlowQueries, username, password);
+    try {
+      // Concurrent viewers of the same universe share a single fan-out to the nodes.
+      return queryCache.get(key, () -> doQuery(universe, fetchSlowQueries, username, password));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  private JsonNode doQuery(
+      Universe universe, boolean fetchSlowQueries, String username, String password)
+      throws IllegalArgumentException {
+    CompletionService<JsonNode> completionService = new ExecutorCompletionService<>(executor);
+    Map<Future<JsonNode>, String> pending = new HashMap<>();
     ObjectNode responseJson = Json.newObject();
     ObjectNode ysqlJson = Json.newObject();
     ysqlJson.put("errorCount", 0);
@@ -84,27 +131,44 @@ public class QueryHelper {
           callable =
               new SlowQueryExecutor(
                   ip, node.ysqlServerRpcPort, universe, SLOW_QUERY_STATS_SQL, username, password);
-          Future<JsonNode> future = threadPool.submit(callable);
-          futures.add(future);
+          pending.put(completionService.submit(callable), "ysql");
         } else {
           callable =
               new LiveQueryExecutor(node.nodeName, ip, node.ysqlServerHttpPort, QueryApi.YSQL);
-
-          Future<JsonNode> future = threadPool.submit(callable);
-          futures.add(future);
+          pending.put(completionService.submit(callable), "ysql");
 
           callable =
               new LiveQueryExecutor(node.nodeName, ip, node.yqlServerHttpPort, QueryApi.YCQL);
-          future = threadPool.submit(callable);
-          futures.add(future);
+          pending.put(completionService.submit(callable), "ycql");
         }
       }
     }
 
+    // Responses are merged as nodes reply, nodes which didn't reply before the deadline are
+    // counted as errors and the rest of the results is returned.
+    long deadline = System.currentTimeMillis() + nodeTimeoutMs;
+    Map<String, JsonNode> queryMap = new HashMap<>();
     try {
-      Map<String, JsonNode> queryMap = new HashMap<>();
-      for (Future<JsonNode> future : futures) {
-        JsonNode response = future.get();
+      while (!pending.isEmpty()) {
+        long remaining = deadline - System.currentTimeMillis();
+        Future<JsonNode> future =
+            remaining > 0 ? completionService.poll(remaining, TimeUnit.MILLISECONDS) : null;
+        if (future == null) {
+          LOG.warn(
+              "{} query requests to universe {} timed out",
+              pending.size(),
+              universe.universeUUID);
+          break;
+        }
+        String type = pending.remove(future);
+        JsonNode response;
+        try {
+          response = future.get();
+        } catch (ExecutionException e) {
+          LOG.error("Error fetching query data", e);
+          incrementErrorCount("ysql".equals(type) ? ysqlJson : ycqlJson);
+          continue;
+        }
         if (response.has("error")) {
           String errorMessage = response.get("error").toString();
           // If Login Credentials are incorrect we receive
@@ -112,105 +176,120 @@ public class QueryHelper {
           if (errorMessage.startsWith("\"FATAL: password authentication failed")) {
             throw new IllegalArgumentException("Incorrect Username or Password");
           }
-          String type = response.get("type").asText();
-          if ("ysql".equals(type)) {
-            ysqlJson.put("errorCount", ysqlJson.get("errorCount").asInt() + 1);
-          } else if ("ycql".equals(type)) {
-            ycqlJson.put("errorCount", ycqlJson.get("errorCount").asInt() + 1);
-          }
-        } else {
-          if (fetchSlowQueries) {
-            JsonNode ysqlResponse = response.get("result");
-            for (JsonNode queryObject : ysqlResponse) {
-              String queryStatement = queryObject.get("query").asText();
-              if (!EXCLUDED_QUERY_STATEMENTS.contains(queryStatement)) {
-                if (queryMap.containsKey(queryStatement)) {
-                  // Calculate new query stats
-                  ObjectNode previousQueryObj = (ObjectNode) queryMap.get(queryStatement);
-                  // Defining values to reuse
-                  double X_a = previousQueryObj.get("mean_time").asDouble();
-                  double X_b = queryObject.get("mean_time").asDouble();
-                  int n_a = previousQueryObj.get("calls").asInt();
-                  int n_b = queryObject.get("calls").asInt();
-                  double S_a = previousQueryObj.get("stddev_time").asDouble();
-                  double S_b = queryObject.get("stddev_time").asDouble();
-
-                  double totalTime =
-                      previousQueryObj.get("total_time").asDouble()
-                          + queryObject.get("total_time").asDouble();
-                  int totalCalls = n_a + n_b;
-                  int rows = previousQueryObj.get("rows").asInt() + queryObject.get("rows").asInt();
-                  double minTime =
-                      Math.min(
-                          previousQueryObj.get("min_time").asDouble(),
-                          queryObject.get("min_time").asDouble());
-                  double maxTime =
-                      Math.max(
-                          previousQueryObj.get("max_time").asDouble(),
-                          queryObject.get("max_time").asDouble());
-                  int tmpTables =
-                      previousQueryObj.get("local_blks_written").asInt()
-                          + queryObject.get("local_blks_written").asInt();
-                  /*
-                   * Formula to calculate std dev of two samples: Let mean, std dev, and size of
-                   * sample A be X_a, S_a, n_a respectively; and mean, std dev, and size of sample B
-                   * be X_b, S_b, n_b respectively. Then mean of combined sample X is given by n_a
-                   * X_a + n_b X_b X = ----------------- n_a + n_b
-                   *
-                   * <p>The std dev of combined sample S is n_a ( S_a^2 + (X_a - X)^2) + n_b(S_b^2 +
-                   * (X_b - X)^2) S = ----------------------------------------------------- n_a +
-                   * n_b
-                   */
-                  double averageTime = (n_a * X_a + n_b * X_b) / totalCalls;
-                  double stdDevTime =
-                      (n_a * (Math.pow(S_a, 2) + Math.pow(X_a - averageTime, 2))
-                              + n_b * (Math.pow(S_b, 2) + Math.pow(X_b - averageTime, 2)))
-                          / totalCalls;
-                  previousQueryObj.put("total_time", totalTime);
-                  previousQueryObj.put("calls", totalCalls);
-                  previousQueryObj.put("rows", rows);
-                  previousQueryObj.put("min_time", minTime);
-                  previousQueryObj.put("max_time", maxTime);
-                  previousQueryObj.put("mean_time", averageTime);
-                  previousQueryObj.put("local_blks_written", tmpTables);
-                  previousQueryObj.put("stddev_time", stdDevTime);
-                } else {
-                  queryMap.put(queryStatement, queryObject);
-                }
-              }
-            }
-            ArrayNode queryArr = Json.newArray();
-            ysqlJson.set("queries", queryArr.addAll(queryMap.values()));
-          } else {
-            if (response.has("ysql")) {
-              ArrayNode arr = (ArrayNode) ysqlJson.get("queries");
-              concatArrayNodes(arr, response.get("ysql"));
-            } else if (response.has("ycql")) {
-              ArrayNode arr = (ArrayNode) ycqlJson.get("queries");
-              concatArrayNodes(arr, response.get("ycql"));
-            }
-          }
+          incrementErrorCount("ysql".equals(type) ? ysqlJson : ycqlJson);
+        } else if (fetchSlowQueries) {
+          mergeSlowQueries(queryMap, response);
+        } else if (response.has("ysql")) {
+          concatArrayNodes((ArrayNode) ysqlJson.get("queries"), response.get("ysql"));
+        } else if (response.has("ycql")) {
+          concatArrayNodes((ArrayNode) ycqlJson.get("queries"), response.get("ycql"));
         }
       }
+      for (String type : pending.values()) {
+        incrementErrorCount("ysql".equals(type) ? ysqlJson : ycqlJson);
+      }
     } catch (InterruptedException e) {
-      LOG.error("Error fetching live query data", e);
-    } catch (ExecutionException e) {
-      LOG.error("Error fetching live query data", e);
-      e.printStackTrace();
+      Thread.currentThread().interrupt();
+      LOG.error("Interrupted while fetching query data", e);
     } finally {
-      threadPool.shutdown();
+      pending.keySet().forEach(future -> future.cancel(true));
+    }
+    if (fetchSlowQueries) {
+      ArrayNode queryArr = Json.newArray();
+      ysqlJson.set("queries", queryArr.addAll(queryMap.values()));
     }
 
     responseJson.set("ysql", ysqlJson);
     responseJson.set("ycql", ycqlJson);
-
-    threadPool.shutdown();
     return responseJson;
   }
 
+  private void mergeSlowQueries(Map<String, JsonNode> queryMap, JsonNode response) {
+    JsonNode ysqlResponse = response.get("result");
+    for (JsonNode queryObject : ysqlResponse) {
+      String queryStatement = queryObject.get("query").asText();
+      if (!EXCLUDED_QUERY_STATEMENTS.contains(queryStatement)) {
+        if (queryMap.containsKey(queryStatement)) {
+          // Calculate new query stats
+          ObjectNode previousQueryObj = (ObjectNode) queryMap.get(queryStatement);
+          // Defining values to reuse
+          double X_a = previousQueryObj.get("mean_time").asDouble();
+          double X_b = queryObject.get("mean_time").asDouble();
+          int n_a = previousQueryObj.get("calls").asInt();
+          int n_b = queryObject.get("calls").asInt();
+          double S_a = previousQueryObj.get("stddev_time").asDouble();
+          double S_b = queryObject.get("stddev_time").asDouble();
+
+          double totalTime =
+              previousQueryObj.get("total_time").asDouble()
+                  + queryObject.get("total_time").asDouble();
+          int totalCalls = n_a + n_b;
+          int rows = previousQueryObj.get("rows").asInt() + queryObject.get("rows").asInt();
+          double minTime =
+              Math.min(
+                  previousQueryObj.get("min_time").asDouble(),
+                  queryObject.get("min_time").asDouble());
+          double maxTime =
+              Math.max(
+                  previousQueryObj.get("max_time").asDouble(),
+                  queryObject.get("max_time").asDouble());
+          int tmpTables =
+              previousQueryObj.get("local_blks_written").asInt()
+                  + queryObject.get("local_blks_written").asInt();
+          /*
+           * Formula to calculate std dev of two samples: Let mean, std dev, and size of
+           * sample A be X_a, S_a, n_a respectively; and mean, std dev, and size of sample B
+           * be X_b, S_b, n_b respectively. Then mean of combined sample X is given by n_a
+           * X_a + n_b X_b X = ----------------- n_a + n_b
+           *
+           * <p>The std dev of combined sample S is n_a ( S_a^2 + (X_a - X)^2) + n_b(S_b^2 +
+           * (X_b - X)^2) S = ----------------------------------------------------- n_a +
+           * n_b
+           */
+          double averageTime = (n_a * X_a + n_b * X_b) / totalCalls;
+          double stdDevTime =
+              (n_a * (Math.pow(S_a, 2) + Math.pow(X_a - averageTime, 2))
+                      + n_b * (Math.pow(S_b, 2) + Math.pow(X_b - averageTime, 2)))
+                  / totalCalls;
+          previousQueryObj.put("total_time", totalTime);
+          previousQueryObj.put("calls", totalCalls);
+          previousQueryObj.put("rows", rows);
+          previousQueryObj.put("min_time", minTime);
+          previousQueryObj.put("max_time", maxTime);
+          previousQueryObj.put("mean_time", averageTime);
+          previousQueryObj.put("local_blks_written", tmpTables);
+          previousQueryObj.put("stddev_time", stdDevTime);
+        } else {
+          queryMap.put(queryStatement, queryObject);
+        }
+      }
+    }
+  }
+
+  private void incrementErrorCount(ObjectNode json) {
+    json.put("errorCount", json.get("errorCount").asInt() + 1);
+  }
+
   private void concatArrayNodes(ArrayNode destination, JsonNode source) {
     for (JsonNode node : source) {
       destination.add(node);
     }
   }
+
+  @EqualsAndHashCode
+  private static class QueryCacheKey {
+    private final UUID universeUUID;
+    private final boolean slowQueries;
+    private final String credentialsDigest;
+
+    private QueryCacheKey(
+        UUID universeUUID, boolean slowQueries, String username, String password) {
+      this.universeUUID = universeUUID;
+      this.slowQueries = slowQueries;
+      this.credentialsDigest =
+          Hashing.sha256()
+              .hashString(username + "\0" + password, StandardCharsets.UTF_8)
+              .toString();
+    }
+  }
 }
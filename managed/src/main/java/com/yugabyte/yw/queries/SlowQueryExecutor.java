@@ -7,10 +7,10 @@ import static play.libs.Json.toJson;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.yugabyte.yw.common.ApiHelper;
+import com.yugabyte.yw.common.DbConnectionPools;
+import com.yugabyte.yw.common.DbConnectionPools.PooledYsqlConnection;
 import com.yugabyte.yw.forms.UniverseDefinitionTaskParams;
 import com.yugabyte.yw.models.Universe;
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -30,6 +30,7 @@ public class SlowQueryExecutor implements Callable<JsonNode> {
   public static final Logger LOG = LoggerFactory.getLogger(LiveQueryExecutor.class);
 
   private final ApiHelper apiHelper;
+  private final DbConnectionPools dbConnectionPools;
   // hostname can be either IP address or DNS
   private String hostName;
   private int port;
@@ -55,6 +56,7 @@ public class SlowQueryExecutor implements Callable<JsonNode> {
     this.username = username == null ? DEFAULT_DB_USER : username;
     this.password = password == null ? DEFAULT_DB_PASSWORD : password;
     this.apiHelper = Play.current().injector().instanceOf(ApiHelper.class);
+    this.dbConnectionPools = Play.current().injector().instanceOf(DbConnectionPools.class);
   }
 
   private List<Map<String, Object>> resultSetToMap(ResultSet result) throws SQLException {
@@ -89,17 +91,14 @@ public class SlowQueryExecutor implements Callable<JsonNode> {
       connInfo.put("ssl", "true");
       connInfo.put("sslmode", "require");
     }
-    try (Connection conn = DriverManager.getConnection(connectString, connInfo)) {
-      if (conn == null) {
-        response.put("error", "Unable to connect to DB");
-      } else {
-        PreparedStatement p = conn.prepareStatement(query);
-        boolean hasResult = p.execute();
-        if (hasResult) {
-          ResultSet result = p.getResultSet();
-          List<Map<String, Object>> rows = resultSetToMap(result);
-          response.put("result", toJson(rows));
-        }
+    try (PooledYsqlConnection pooled =
+            dbConnectionPools.getYsqlConnection(universe.universeUUID, connectString, connInfo);
+        PreparedStatement p = pooled.getConnection().prepareStatement(query)) {
+      boolean hasResult = p.execute();
+      if (hasResult) {
+        ResultSet result = p.getResultSet();
+        List<Map<String, Object>> rows = resultSetToMap(result);
+        response.put("result", toJson(rows));
       }
     } catch (SQLException e) {
       response.put("error", e.getMessage());
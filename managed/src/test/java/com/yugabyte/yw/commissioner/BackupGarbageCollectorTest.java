@@ -3,8 +3,10 @@
 package com.yugabyte.yw.commissioner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.doNothing;
@@ -13,12 +15,14 @@ import static play.mvc.Http.Status.BAD_REQUEST;
 
 import akka.actor.ActorSystem;
 import akka.actor.Scheduler;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.yugabyte.yw.common.AWSUtil;
 import com.yugabyte.yw.common.GCPUtil;
 import com.yugabyte.yw.common.AZUtil;
 import com.yugabyte.yw.common.BackupUtil;
 import com.yugabyte.yw.common.FakeDBApplication;
 import com.yugabyte.yw.common.ModelFactory;
+import com.yugabyte.yw.common.PlatformExecutorFactory;
 import com.yugabyte.yw.common.PlatformServiceException;
 import com.yugabyte.yw.common.ShellResponse;
 import com.yugabyte.yw.common.TableManagerYb;
@@ -31,6 +35,8 @@ import com.yugabyte.yw.models.Universe;
 import com.yugabyte.yw.models.Backup.BackupState;
 import com.yugabyte.yw.models.CustomerConfig.ConfigState;
 import com.yugabyte.yw.common.config.RuntimeConfigFactory;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import org.junit.After;
 import org.junit.Before;
@@ -53,6 +59,8 @@ public class BackupGarbageCollectorTest extends FakeDBApplication {
 
   @Mock RuntimeConfigFactory mockRuntimeConfigFactory;
 
+  @Mock PlatformExecutorFactory mockPlatformExecutorFactory;
+
   MockedStatic<AWSUtil> mockAWSUtil;
 
   MockedStatic<GCPUtil> mockGCPUtil;
@@ -76,6 +84,10 @@ public class BackupGarbageCollectorTest extends FakeDBApplication {
     mockGCPUtil = Mockito.mockStatic(GCPUtil.class);
     mockAZUtil = Mockito.mockStatic(AZUtil.class);
     mockBackupUtil = mock(BackupUtil.class);
+    when(mockRuntimeConfigFactory.staticApplicationConf()).thenReturn(app.config());
+    // Static mocks of the storage utils are only visible to the test thread.
+    when(mockPlatformExecutorFactory.createExecutor(any(), any()))
+        .thenReturn(MoreExecutors.newDirectExecutorService());
     backupGC =
         new BackupGarbageCollector(
             mockExecutionContext,
@@ -83,7 +95,8 @@ public class BackupGarbageCollectorTest extends FakeDBApplication {
             customerConfigService,
             mockRuntimeConfigFactory,
             tableManagerYb,
-            mockBackupUtil);
+            mockBackupUtil,
+            mockPlatformExecutorFactory);
   }
 
   @After
@@ -107,6 +120,41 @@ public class BackupGarbageCollectorTest extends FakeDBApplication {
         () -> Backup.getOrBadRequest(defaultCustomer.uuid, backup.backupUUID));
   }
 
+  @Test
+  public void testDeleteMultipleBackups() {
+    CustomerConfig customerConfig = ModelFactory.createS3StorageConfig(defaultCustomer, "TEST12");
+    Customer otherCustomer = ModelFactory.testCustomer("tc2", "Test Customer 2");
+    CustomerConfig otherConfig = ModelFactory.createS3StorageConfig(otherCustomer, "TEST13");
+    List<Backup> backups = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      BackupTableParams bp = new BackupTableParams();
+      Customer customer = i % 2 == 0 ? defaultCustomer : otherCustomer;
+      bp.storageConfigUUID = i % 2 == 0 ? customerConfig.configUUID : otherConfig.configUUID;
+      bp.universeUUID = UUID.randomUUID();
+      Backup backup = Backup.create(customer.uuid, bp);
+      backup.transitionState(BackupState.QueuedForDeletion);
+      backups.add(backup);
+    }
+    backupGC.scheduleRunner();
+    for (Backup backup : backups) {
+      assertFalse(Backup.maybeGet(backup.customerUUID, backup.backupUUID).isPresent());
+    }
+  }
+
+  @Test
+  public void testResumeInterruptedDeletion() {
+    CustomerConfig customerConfig = ModelFactory.createS3StorageConfig(defaultCustomer, "TEST14");
+    BackupTableParams bp = new BackupTableParams();
+    bp.storageConfigUUID = customerConfig.configUUID;
+    bp.universeUUID = UUID.randomUUID();
+    Backup backup = Backup.create(defaultCustomer.uuid, bp);
+    backup.transitionState(BackupState.QueuedForDeletion);
+    // Platform was restarted while the backup was being deleted.
+    backup.transitionState(BackupState.DeleteInProgress);
+    backupGC.scheduleRunner();
+    assertFalse(Backup.maybeGet(defaultCustomer.uuid, backup.backupUUID).isPresent());
+  }
+
   @Test
   public void testDeleteGCSBackupSuccess() {
     CustomerConfig customerConfig = ModelFactory.createGcsStorageConfig(defaultCustomer, "TEST2");
@@ -178,7 +226,7 @@ public class BackupGarbageCollectorTest extends FakeDBApplication {
     backup.transitionState(BackupState.QueuedForDeletion);
     doThrow(new PlatformServiceException(BAD_REQUEST, "error"))
         .when(mockBackupUtil)
-        .validateStorageConfig(any());
+        .validateStorageConfig(any(), eq(true));
     backupGC.scheduleRunner();
     backup = Backup.getOrBadRequest(defaultCustomer.uuid, backup.backupUUID);
     assertEquals(BackupState.FailedToDelete, backup.state);
@@ -210,7 +258,7 @@ public class BackupGarbageCollectorTest extends FakeDBApplication {
     Backup backup = Backup.create(defaultCustomer.uuid, bp);
     backup.transitionState(BackupState.QueuedForDeletion);
     mockAWSUtil
-        .when(() -> AWSUtil.deleteKeyIfExists(any(), any()))
+        .when(() -> AWSUtil.deleteKeyIfExists(any(), any(), eq(true)))
         .thenThrow(new RuntimeException());
     backupGC.scheduleRunner();
     backup = Backup.getOrBadRequest(defaultCustomer.uuid, backup.backupUUID);
@@ -274,7 +322,7 @@ public class BackupGarbageCollectorTest extends FakeDBApplication {
     backup.transitionState(BackupState.QueuedForDeletion);
     doThrow(new PlatformServiceException(BAD_REQUEST, "error"))
         .when(mockBackupUtil)
-        .validateStorageConfig(any());
+        .validateStorageConfig(any(), eq(true));
     customerConfig.setState(ConfigState.QueuedForDeletion);
     backupGC.scheduleRunner();
     assertThrows(
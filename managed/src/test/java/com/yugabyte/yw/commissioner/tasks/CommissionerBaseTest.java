@@ -3,6 +3,9 @@
 package com.yugabyte.yw.commissioner.tasks;
 
 import static com.yugabyte.yw.common.TestHelper.testDatabase;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static play.inject.Bindings.bind;
@@ -144,6 +147,7 @@ public abstract class CommissionerBaseTest extends PlatformGuiceApplicationBaseT
     mockTableManager = mock(TableManager.class);
     mockTableManagerYb = mock(TableManagerYb.class);
     mockKubernetesManager = mock(ShellKubernetesManager.class);
+    mockKubernetesWaits();
     mockSwamperHelper = mock(SwamperHelper.class);
     mockCallHome = mock(CallHome.class);
     mockCallbackController = mock(CallbackController.class);
@@ -193,6 +197,18 @@ public abstract class CommissionerBaseTest extends PlatformGuiceApplicationBaseT
         .build();
   }
 
+  // The pod waits poll the mocked pod status and pod list.
+  private void mockKubernetesWaits() {
+    try {
+      doCallRealMethod().when(mockKubernetesManager).waitForPodReady(any(), any(), any(), any());
+      doCallRealMethod()
+          .when(mockKubernetesManager)
+          .waitForPodCount(any(), any(), any(), anyInt(), any());
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   public void mockWaits(YBClient mockClient) {
     mockWaits(mockClient, 1);
   }
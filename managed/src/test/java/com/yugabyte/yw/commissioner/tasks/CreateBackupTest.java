@@ -8,8 +8,10 @@ import static com.yugabyte.yw.models.TaskInfo.State.Success;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -201,6 +203,48 @@ public class CreateBackupTest extends CommissionerBaseTest {
     assertEquals(Success, taskInfo.getTaskState());
   }
 
+  @Test
+  public void testBackupPartRetried() {
+    Map<String, String> config = new HashMap<>();
+    config.put(Universe.TAKE_BACKUPS, "true");
+    defaultUniverse.updateConfig(config);
+    ShellResponse failedResponse = new ShellResponse();
+    failedResponse.message = "Snapshot creation failed";
+    failedResponse.code = 1;
+    ShellResponse shellResponse = new ShellResponse();
+    shellResponse.message = "{\"snapshot_url\": \"/tmp/backup\", \"backup_size_in_bytes\": 340}";
+    shellResponse.code = 0;
+    when(mockTableManagerYb.createBackup(any())).thenReturn(failedResponse, shellResponse);
+
+    TaskInfo taskInfo = submitTask(TableType.YQL_TABLE_TYPE);
+    verify(mockTableManagerYb, times(2)).createBackup(any());
+    assertEquals(Success, taskInfo.getTaskState());
+    List<Backup> backupList = Backup.fetchAllBackupsByTaskUUID(taskInfo.getTaskUUID());
+    assertEquals(1, backupList.size());
+    Backup backup = backupList.get(0);
+    assertEquals(BackupState.Completed, backup.state);
+    assertTrue(backup.isBackupPartCompleted(0));
+    assertEquals(340L, backup.getBackupInfo().backupSizeInBytes);
+  }
+
+  @Test
+  public void testBackupPartAttemptsExhausted() {
+    Map<String, String> config = new HashMap<>();
+    config.put(Universe.TAKE_BACKUPS, "true");
+    defaultUniverse.updateConfig(config);
+    ShellResponse failedResponse = new ShellResponse();
+    failedResponse.message = "Snapshot creation failed";
+    failedResponse.code = 1;
+    when(mockTableManagerYb.createBackup(any())).thenReturn(failedResponse);
+
+    TaskInfo taskInfo = submitTask(TableType.YQL_TABLE_TYPE);
+    verify(mockTableManagerYb, times(2)).createBackup(any());
+    List<Backup> backupList = Backup.fetchAllBackupsByTaskUUID(taskInfo.getTaskUUID());
+    assertEquals(1, backupList.size());
+    assertEquals(BackupState.Failed, backupList.get(0).state);
+    assertFalse(backupList.get(0).isBackupPartCompleted(0));
+  }
+
   @Test
   public void testBackupKeyspaceListYsql() {
     Map<String, String> config = new HashMap<>();
@@ -8,12 +8,15 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.mock;
 
 import com.yugabyte.yw.commissioner.tasks.params.SupportBundleTaskParams;
+import com.yugabyte.yw.common.ApiUtils;
 import com.yugabyte.yw.common.config.RuntimeConfigFactory;
 import com.yugabyte.yw.common.ModelFactory;
 import com.yugabyte.yw.common.supportbundle.SupportBundleComponent;
@@ -23,16 +26,26 @@ import com.yugabyte.yw.models.Customer;
 import com.yugabyte.yw.models.SupportBundle;
 import com.yugabyte.yw.models.helpers.BundleDetails;
 import com.yugabyte.yw.models.helpers.BundleDetails.ComponentType;
+import com.yugabyte.yw.models.helpers.NodeDetails;
 import com.yugabyte.yw.models.TaskInfo;
 import com.yugabyte.yw.models.Universe;
 import com.yugabyte.yw.models.helpers.TaskType;
 import java.util.UUID;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.ParseException;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.junit.Before;
 import org.junit.After;
 import org.junit.Test;
@@ -193,4 +206,55 @@ public class CreateSupportBundleTest extends CommissionerBaseTest {
     File bundleFile = new File(supportBundleList.get(0).getPath());
     assertTrue(bundleFile.isFile());
   }
+
+  @Test
+  public void testCreateSupportBundleNodeComponents() throws IOException, ParseException {
+    universe = Universe.saveDetails(universe.universeUUID, ApiUtils.mockUniverseUpdater());
+    when(mockSupportBundleComponentFactory.getComponent(any()))
+        .thenReturn(mockSupportBundleComponent);
+    when(mockSupportBundleComponent.isNodeComponent()).thenReturn(true);
+    doAnswer(
+            invocation -> {
+              NodeDetails node = invocation.getArgument(2);
+              Path bundlePath = invocation.getArgument(3);
+              Path nodeFile = bundlePath.resolve("universe_logs").resolve(node.nodeName);
+              Files.createDirectories(nodeFile.getParent());
+              Files.write(nodeFile, node.nodeName.getBytes());
+              return null;
+            })
+        .when(mockSupportBundleComponent)
+        .downloadNodeComponentBetweenDates(any(), any(), any(), any(), any(), any());
+
+    // Check if task succeeded
+    TaskInfo taskInfo = submitTask(null, null);
+    assertEquals(Success, taskInfo.getTaskState());
+
+    // Check if all components are downloaded from every node
+    int numComponents = EnumSet.allOf(ComponentType.class).size();
+    int numNodes = universe.getNodes().size();
+    verify(mockSupportBundleComponent, times(numComponents * numNodes))
+        .downloadNodeComponentBetweenDates(any(), any(), any(), any(), any(), any());
+    verify(mockSupportBundleComponent, never())
+        .downloadComponentBetweenDates(any(), any(), any(), any(), any());
+
+    // Check if the downloaded node files are in the bundle
+    List<SupportBundle> supportBundleList = SupportBundle.getAll();
+    assertEquals(supportBundleList.size(), 1);
+    Set<String> entryNames = new HashSet<>();
+    try (TarArchiveInputStream tarIS =
+        new TarArchiveInputStream(
+            new GZIPInputStream(new FileInputStream(supportBundleList.get(0).getPath())))) {
+      TarArchiveEntry entry;
+      while ((entry = tarIS.getNextTarEntry()) != null) {
+        entryNames.add(entry.getName().substring(entry.getName().indexOf('/') + 1));
+      }
+    }
+    Set<String> expectedEntryNames =
+        universe
+            .getNodes()
+            .stream()
+            .map(node -> "universe_logs/" + node.nodeName)
+            .collect(Collectors.toSet());
+    assertEquals(expectedEntryNames, entryNames);
+  }
 }
@@ -0,0 +1,91 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.ConfigFactory;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BackupConcurrencyLimiterTest {
+
+  private BackupConcurrencyLimiter limiter;
+  private UUID universeUUID;
+  private UUID storageConfigUUID;
+
+  @Before
+  public void setUp() {
+    limiter =
+        new BackupConcurrencyLimiter(
+            ConfigFactory.parseMap(
+                ImmutableMap.of(
+                    BackupConcurrencyLimiter.MAX_PARTS_PER_UNIVERSE, 1,
+                    BackupConcurrencyLimiter.MAX_PARTS_PER_STORAGE_CONFIG, 2)));
+    universeUUID = UUID.randomUUID();
+    storageConfigUUID = UUID.randomUUID();
+  }
+
+  @Test
+  public void testPermitsReleased() throws InterruptedException {
+    try (BackupConcurrencyLimiter.Permit permit =
+        limiter.acquire(universeUUID, storageConfigUUID)) {
+      assertEquals(0, limiter.getAvailableUniversePermits(universeUUID));
+      assertEquals(1, limiter.getAvailableStorageConfigPermits(storageConfigUUID));
+      // Closing the permit twice does not release extra slots.
+      permit.close();
+    }
+    assertEquals(1, limiter.getAvailableUniversePermits(universeUUID));
+    assertEquals(2, limiter.getAvailableStorageConfigPermits(storageConfigUUID));
+  }
+
+  @Test
+  public void testUniverseLimit() throws InterruptedException {
+    CountDownLatch acquired = new CountDownLatch(1);
+    BackupConcurrencyLimiter.Permit permit = limiter.acquire(universeUUID, storageConfigUUID);
+    Thread waiter =
+        new Thread(
+            () -> {
+              try (BackupConcurrencyLimiter.Permit other =
+                  limiter.acquire(universeUUID, storageConfigUUID)) {
+                acquired.countDown();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    waiter.start();
+    assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+
+    // Waiting part doesn't hold the storage config slot while it waits for the universe one.
+    assertEquals(1, limiter.getAvailableStorageConfigPermits(storageConfigUUID));
+    UUID otherStorageUniverseUUID = UUID.randomUUID();
+    try (BackupConcurrencyLimiter.Permit other =
+        limiter.acquire(otherStorageUniverseUUID, storageConfigUUID)) {
+      assertEquals(0, limiter.getAvailableStorageConfigPermits(storageConfigUUID));
+    }
+    // Other universe is not blocked by the first one.
+    UUID otherUniverseUUID = UUID.randomUUID();
+    try (BackupConcurrencyLimiter.Permit other =
+        limiter.acquire(otherUniverseUUID, UUID.randomUUID())) {
+      assertEquals(0, limiter.getAvailableUniversePermits(otherUniverseUUID));
+    }
+
+    permit.close();
+    assertTrue(acquired.await(5, TimeUnit.SECONDS));
+    waiter.join();
+  }
+
+  @Test
+  public void testNoStorageConfig() throws InterruptedException {
+    try (BackupConcurrencyLimiter.Permit permit = limiter.acquire(universeUUID, null)) {
+      assertEquals(0, limiter.getAvailableUniversePermits(universeUUID));
+    }
+    assertEquals(1, limiter.getAvailableUniversePermits(universeUUID));
+  }
+}
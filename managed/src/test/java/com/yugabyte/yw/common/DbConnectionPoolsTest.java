@@ -0,0 +1,287 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Session;
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.yugabyte.yw.common.DbConnectionPools.PooledYsqlConnection;
+import com.yugabyte.yw.common.DbConnectionPools.YcqlSessionLease;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool.PoolInitializationException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import play.inject.ApplicationLifecycle;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DbConnectionPoolsTest {
+
+  private static final String URL = "jdbc:postgresql://127.0.0.1:5433/yugabyte";
+
+  @Mock ApplicationLifecycle lifecycle;
+
+  private DbConnectionPools dbConnectionPools;
+  private UUID universeUUID;
+  private Properties props;
+  private final List<HikariConfig> hikariConfigs = new ArrayList<>();
+  private final List<HikariDataSource> dataSources = new ArrayList<>();
+
+  private DbConnectionPools createPools(String idleTimeout, String maxLifetime) {
+    Config config =
+        ConfigFactory.parseMap(
+            ImmutableMap.of(
+                DbConnectionPools.YSQL_MAX_POOL_SIZE, 2,
+                DbConnectionPools.IDLE_TIMEOUT, idleTimeout,
+                DbConnectionPools.MAX_LIFETIME, maxLifetime,
+                DbConnectionPools.CONNECTION_TIMEOUT, "30 s"));
+    DbConnectionPools pools = spy(new DbConnectionPools(config, lifecycle));
+    doAnswer(
+            invocation -> {
+              hikariConfigs.add(invocation.getArgument(0));
+              HikariDataSource dataSource = mock(HikariDataSource.class);
+              when(dataSource.getConnection()).thenAnswer(i -> mockConnection());
+              dataSources.add(dataSource);
+              return dataSource;
+            })
+        .when(pools)
+        .createDataSource(any(HikariConfig.class));
+    return pools;
+  }
+
+  private Connection mockConnection() throws SQLException {
+    Connection connection = mock(Connection.class);
+    when(connection.getAutoCommit()).thenReturn(true);
+    when(connection.createStatement()).thenReturn(mock(Statement.class));
+    return connection;
+  }
+
+  private Cluster mockCluster(Session session) {
+    Cluster cluster = mock(Cluster.class);
+    when(cluster.connect()).thenReturn(session);
+    return cluster;
+  }
+
+  @Before
+  public void setUp() {
+    dbConnectionPools = createPools("5 minutes", "5 minutes");
+    universeUUID = UUID.randomUUID();
+    props = new Properties();
+    props.put("user", "yugabyte");
+    props.put("password", "yugabyte");
+  }
+
+  @Test
+  public void testYsqlPoolReused() throws SQLException {
+    try (PooledYsqlConnection pooled =
+        dbConnectionPools.getYsqlConnection(universeUUID, URL, props)) {}
+    try (PooledYsqlConnection pooled =
+        dbConnectionPools.getYsqlConnection(universeUUID, URL, props)) {}
+    assertEquals(1, dataSources.size());
+    assertEquals(1, dbConnectionPools.getYsqlPoolCount(universeUUID));
+    verify(dataSources.get(0), times(2)).getConnection();
+
+    HikariConfig hikariConfig = hikariConfigs.get(0);
+    assertEquals(URL, hikariConfig.getJdbcUrl());
+    assertEquals(props, hikariConfig.getDataSourceProperties());
+    assertEquals(0, hikariConfig.getMinimumIdle());
+    assertEquals(2, hikariConfig.getMaximumPoolSize());
+    assertEquals(300000, hikariConfig.getMaxLifetime());
+  }
+
+  @Test
+  public void testYsqlPoolPerCredentials() throws SQLException {
+    Properties otherProps = new Properties();
+    otherProps.put("user", "yugabyte");
+    otherProps.put("password", "other");
+    try (PooledYsqlConnection pooled =
+            dbConnectionPools.getYsqlConnection(universeUUID, URL, props);
+        PooledYsqlConnection other =
+            dbConnectionPools.getYsqlConnection(universeUUID, URL, otherProps)) {
+      assertNotSame(pooled.getConnection(), other.getConnection());
+    }
+    assertEquals(2, dataSources.size());
+    assertEquals(2, dbConnectionPools.getYsqlPoolCount(universeUUID));
+  }
+
+  @Test
+  public void testYsqlConnectionReset() throws SQLException {
+    Connection connection;
+    Statement statement = mock(Statement.class);
+    try (PooledYsqlConnection pooled =
+        dbConnectionPools.getYsqlConnection(universeUUID, URL, props)) {
+      connection = pooled.getConnection();
+      when(connection.createStatement()).thenReturn(statement);
+    }
+    verify(statement).execute("DISCARD ALL");
+    verify(connection).close();
+    verify(dataSources.get(0), never()).evictConnection(any());
+  }
+
+  @Test
+  public void testYsqlBrokenConnectionEvicted() throws SQLException {
+    Connection connection;
+    try (PooledYsqlConnection pooled =
+        dbConnectionPools.getYsqlConnection(universeUUID, URL, props)) {
+      connection = pooled.getConnection();
+      when(connection.createStatement()).thenThrow(new SQLException("Connection reset"));
+    }
+    verify(dataSources.get(0)).evictConnection(connection);
+  }
+
+  @Test
+  public void testYsqlConnectionError() {
+    SQLException error = new SQLException("FATAL: password authentication failed");
+    doAnswer(
+            invocation -> {
+              throw new PoolInitializationException(error);
+            })
+        .when(dbConnectionPools)
+        .createDataSource(any(HikariConfig.class));
+    try {
+      dbConnectionPools.getYsqlConnection(universeUUID, URL, props);
+      fail("SQLException expected");
+    } catch (SQLException e) {
+      assertSame(error, e);
+    }
+    assertEquals(0, dbConnectionPools.getYsqlPoolCount(universeUUID));
+  }
+
+  @Test
+  public void testIdleConnectionsEvicted() throws Exception {
+    dbConnectionPools = createPools("1 ms", "5 minutes");
+    try (PooledYsqlConnection pooled =
+        dbConnectionPools.getYsqlConnection(universeUUID, URL, props)) {}
+    Session session = mock(Session.class);
+    Cluster cluster = mockCluster(session);
+    try (YcqlSessionLease lease =
+        dbConnectionPools.getYcqlSession(
+            universeUUID, "cassandra", "cassandra", null, () -> cluster)) {}
+    Thread.sleep(10);
+
+    dbConnectionPools.evictIdleConnections();
+    assertEquals(0, dbConnectionPools.getYsqlPoolCount(universeUUID));
+    assertEquals(0, dbConnectionPools.getYcqlSessionCount(universeUUID));
+    verify(dataSources.get(0)).close();
+    verify(session).close();
+    verify(cluster).close();
+  }
+
+  @Test
+  public void testUsedConnectionsNotEvicted() throws Exception {
+    dbConnectionPools = createPools("1 ms", "5 minutes");
+    Session session = mock(Session.class);
+    Cluster cluster = mockCluster(session);
+    try (PooledYsqlConnection pooled =
+            dbConnectionPools.getYsqlConnection(universeUUID, URL, props);
+        YcqlSessionLease lease =
+            dbConnectionPools.getYcqlSession(
+                universeUUID, "cassandra", "cassandra", null, () -> cluster)) {
+      Thread.sleep(10);
+      dbConnectionPools.evictIdleConnections();
+      assertEquals(1, dbConnectionPools.getYsqlPoolCount(universeUUID));
+      assertEquals(1, dbConnectionPools.getYcqlSessionCount(universeUUID));
+    }
+    verify(dataSources.get(0), never()).close();
+    verify(cluster, never()).close();
+  }
+
+  @Test
+  public void testYcqlSessionReused() {
+    Session session = mock(Session.class);
+    Cluster cluster = mockCluster(session);
+    try (YcqlSessionLease lease =
+        dbConnectionPools.getYcqlSession(
+            universeUUID, "cassandra", "cassandra", null, () -> cluster)) {
+      assertSame(session, lease.getSession());
+    }
+    try (YcqlSessionLease lease =
+        dbConnectionPools.getYcqlSession(
+            universeUUID,
+            "cassandra",
+            "cassandra",
+            null,
+            () -> {
+              throw new AssertionError("Cached session expected");
+            })) {
+      assertSame(session, lease.getSession());
+    }
+    verify(cluster, times(1)).connect();
+  }
+
+  @Test
+  public void testYcqlSessionReplacedAfterMaxLifetime() throws Exception {
+    dbConnectionPools = createPools("5 minutes", "1 ms");
+    Session session = mock(Session.class);
+    Cluster cluster = mockCluster(session);
+    YcqlSessionLease lease =
+        dbConnectionPools.getYcqlSession(
+            universeUUID, "cassandra", "cassandra", null, () -> cluster);
+    Thread.sleep(10);
+    Session newSession = mock(Session.class);
+    Cluster newCluster = mockCluster(newSession);
+    try (YcqlSessionLease newLease =
+        dbConnectionPools.getYcqlSession(
+            universeUUID, "cassandra", "cassandra", null, () -> newCluster)) {
+      assertSame(newSession, newLease.getSession());
+    }
+    // Expired session is still used by the first lease.
+    verify(cluster, never()).close();
+    lease.close();
+    verify(cluster).close();
+    assertEquals(1, dbConnectionPools.getYcqlSessionCount(universeUUID));
+  }
+
+  @Test
+  public void testCloseUniverseConnections() throws SQLException {
+    UUID otherUniverseUUID = UUID.randomUUID();
+    try (PooledYsqlConnection pooled =
+        dbConnectionPools.getYsqlConnection(otherUniverseUUID, URL, props)) {}
+    PooledYsqlConnection pooled = dbConnectionPools.getYsqlConnection(universeUUID, URL, props);
+    Session session = mock(Session.class);
+    Cluster cluster = mockCluster(session);
+    YcqlSessionLease lease =
+        dbConnectionPools.getYcqlSession(universeUUID, null, null, null, () -> cluster);
+
+    dbConnectionPools.closeUniverseConnections(universeUUID);
+    assertEquals(0, dbConnectionPools.getYsqlPoolCount(universeUUID));
+    assertEquals(0, dbConnectionPools.getYcqlSessionCount(universeUUID));
+    assertEquals(1, dbConnectionPools.getYsqlPoolCount(otherUniverseUUID));
+    // Running queries are not interrupted.
+    verify(dataSources.get(1), never()).close();
+    verify(cluster, never()).close();
+
+    pooled.close();
+    lease.close();
+    verify(dataSources.get(1)).close();
+    verify(cluster).close();
+    verify(dataSources.get(0), never()).close();
+    assertTrue(dbConnectionPools.getYsqlPoolCount(otherUniverseUUID) > 0);
+  }
+}
@@ -4,6 +4,8 @@ package com.yugabyte.yw.common;
 
 import static com.yugabyte.yw.common.TestHelper.createTempFile;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyList;
 import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyString;
@@ -15,9 +17,14 @@ import com.yugabyte.yw.commissioner.Common;
 import com.yugabyte.yw.commissioner.tasks.subtasks.KubernetesCommandExecutor;
 import com.yugabyte.yw.models.Customer;
 import com.yugabyte.yw.models.Provider;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodStatus;
+import io.fabric8.kubernetes.api.model.PodStatusBuilder;
 import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.commons.io.FileUtils;
@@ -403,4 +410,39 @@ public class KubernetesManagerTest extends FakeDBApplication {
     assertEquals(
         ImmutableList.of("kubectl", "get", "secret", "pull-sec", "-o", "json"), command.getValue());
   }
+
+  private static PodStatus podStatus(String phase, String conditionStatus) {
+    return new PodStatusBuilder()
+        .withPhase(phase)
+        .addNewCondition()
+        .withStatus(conditionStatus)
+        .endCondition()
+        .build();
+  }
+
+  @Test
+  public void testWaitForPodReadyPolls() throws InterruptedException {
+    ShellKubernetesManager manager = Mockito.spy(kubernetesManager);
+    Mockito.doReturn(Duration.ofMillis(1)).when(manager).getPodPollInterval();
+    Mockito.doReturn(podStatus("Pending", "False"), podStatus("Running", "True"))
+        .when(manager)
+        .getPodStatus(configProvider, "demo-namespace", "yb-master-0");
+    assertTrue(
+        manager.waitForPodReady(
+            configProvider, "demo-namespace", "yb-master-0", Duration.ofMinutes(1)));
+    Mockito.verify(manager, times(2))
+        .getPodStatus(configProvider, "demo-namespace", "yb-master-0");
+  }
+
+  @Test
+  public void testWaitForPodCountTimeout() throws InterruptedException {
+    ShellKubernetesManager manager = Mockito.spy(kubernetesManager);
+    Mockito.doReturn(Duration.ofMillis(1)).when(manager).getPodPollInterval();
+    Mockito.doReturn(Collections.singletonList(new Pod()))
+        .when(manager)
+        .getPodInfos(configProvider, "demo-universe", "demo-namespace");
+    assertFalse(
+        manager.waitForPodCount(
+            configProvider, "demo-universe", "demo-namespace", 3, Duration.ofMillis(50)));
+  }
 }
@@ -0,0 +1,192 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Indexer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class KubernetesPodInformersTest {
+
+  @Mock KubernetesClient client;
+
+  @Mock SharedIndexInformer<Pod> sharedInformer;
+
+  @Mock Indexer<Pod> indexer;
+
+  private final List<Pod> pods = new CopyOnWriteArrayList<>();
+  private KubernetesPodInformers.PodInformer podInformer;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    when(sharedInformer.hasSynced()).thenReturn(true);
+    when(sharedInformer.getIndexer()).thenReturn(indexer);
+    when(indexer.list()).thenReturn(pods);
+    podInformer = new KubernetesPodInformers.PodInformer();
+    podInformer.setStarted(client, sharedInformer);
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private Pod readyPod(String name) {
+    return new PodBuilder()
+        .withNewMetadata()
+        .withName(name)
+        .endMetadata()
+        .withNewStatus()
+        .withPhase("Running")
+        .addNewCondition()
+        .withStatus("True")
+        .endCondition()
+        .endStatus()
+        .build();
+  }
+
+  @Test
+  public void testAwaitWokenUpByPodChange() throws Exception {
+    Future<Boolean> ready =
+        executor.submit(
+            () ->
+                podInformer.await(
+                    podList ->
+                        podList.stream().anyMatch(p -> KubernetesManager.isPodReady(p.getStatus())),
+                    Duration.ofMinutes(1)));
+    Thread.sleep(100);
+    assertFalse(ready.isDone());
+
+    Pod pod = readyPod("yb-master-0");
+    pods.add(pod);
+    podInformer.onAdd(pod);
+    // Waiter is notified right away, not after the re-check interval.
+    assertTrue(ready.get(2, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testAwaitTimeout() throws InterruptedException {
+    assertFalse(podInformer.await(podList -> podList.size() == 3, Duration.ofMillis(100)));
+  }
+
+  @Test
+  public void testAwaitNotSynced() throws InterruptedException {
+    when(sharedInformer.hasSynced()).thenReturn(false);
+    assertFalse(podInformer.await(podList -> true, Duration.ofMillis(100)));
+  }
+
+  @Test
+  public void testStopClosesClient() {
+    podInformer.stop();
+    verify(sharedInformer).stop();
+    verify(client).close();
+  }
+
+  @Test
+  public void testInformerStartedOutsideLock() throws Exception {
+    KubernetesPodInformers podInformers = new KubernetesPodInformers();
+    CountDownLatch connecting = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<Boolean> slow =
+        executor.submit(
+            () ->
+                podInformers.awaitPods(
+                    null,
+                    "slow-namespace",
+                    () -> {
+                      connecting.countDown();
+                      awaitUninterruptibly(release);
+                      throw new KubernetesClientException("API server not reachable");
+                    },
+                    podList -> true,
+                    Duration.ofMinutes(1)));
+    assertTrue(connecting.await(2, TimeUnit.SECONDS));
+
+    // Other namespace is not blocked by the slow API server.
+    Future<Boolean> other =
+        executor.submit(
+            () ->
+                podInformers.awaitPods(
+                    null,
+                    "other-namespace",
+                    () -> {
+                      throw new KubernetesClientException("Forbidden");
+                    },
+                    podList -> true,
+                    Duration.ofMinutes(1)));
+    ExecutionException e = assertThrows(ExecutionException.class, () -> other.get(2, SECONDS));
+    assertTrue(e.getCause() instanceof KubernetesClientException);
+
+    release.countDown();
+    assertThrows(ExecutionException.class, () -> slow.get(2, SECONDS));
+  }
+
+  @Test
+  public void testFailedInformerNotReused() {
+    KubernetesPodInformers podInformers = new KubernetesPodInformers();
+    AtomicInteger attempts = new AtomicInteger();
+    Supplier<KubernetesClient> failingSupplier =
+        () -> {
+          attempts.incrementAndGet();
+          throw new KubernetesClientException("Forbidden");
+        };
+    for (int i = 0; i < 2; i++) {
+      assertThrows(
+          KubernetesClientException.class,
+          () ->
+              podInformers.awaitPods(
+                  null, "namespace", failingSupplier, podList -> true, Duration.ofMinutes(1)));
+    }
+    assertEquals(2, attempts.get());
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  public void testIsPodReady() {
+    assertTrue(KubernetesManager.isPodReady(readyPod("yb-tserver-0").getStatus()));
+    Pod notReady = readyPod("yb-tserver-1");
+    notReady.getStatus().getConditions().get(0).setStatus("False");
+    assertFalse(KubernetesManager.isPodReady(notReady.getStatus()));
+    notReady.getStatus().setPhase("Pending");
+    assertFalse(KubernetesManager.isPodReady(notReady.getStatus()));
+    assertFalse(KubernetesManager.isPodReady(null));
+  }
+}
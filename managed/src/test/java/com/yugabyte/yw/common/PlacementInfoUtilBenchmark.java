@@ -0,0 +1,189 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common;
+
+import com.yugabyte.yw.commissioner.Common.CloudType;
+import com.yugabyte.yw.forms.UniverseDefinitionTaskParams;
+import com.yugabyte.yw.forms.UniverseDefinitionTaskParams.Cluster;
+import com.yugabyte.yw.forms.UniverseDefinitionTaskParams.ClusterType;
+import com.yugabyte.yw.forms.UniverseDefinitionTaskParams.UserIntent;
+import com.yugabyte.yw.models.Universe;
+import com.yugabyte.yw.models.helpers.CloudSpecificInfo;
+import com.yugabyte.yw.models.helpers.NodeDetails;
+import com.yugabyte.yw.models.helpers.NodeDetails.NodeState;
+import com.yugabyte.yw.models.helpers.PlacementInfo;
+import com.yugabyte.yw.models.helpers.PlacementInfo.PlacementAZ;
+import com.yugabyte.yw.models.helpers.PlacementInfo.PlacementCloud;
+import com.yugabyte.yw.models.helpers.PlacementInfo.PlacementRegion;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the placement computations done for every "configure" call of the edit universe
+ * page, on universes with many nodes and zones. Run with "sbt placementBenchmark", or pass JMH
+ * arguments with "sbt 'Test/runMain com.yugabyte.yw.common.PlacementInfoUtilBenchmark <args>'".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlacementInfoUtilBenchmark {
+
+  private static final int AZS_PER_REGION = 3;
+
+  @Param({"30", "300", "900"})
+  public int numNodes;
+
+  @Param({"3", "15", "45"})
+  public int numZones;
+
+  private List<NodeDetails> nodes;
+  private PlacementInfo placementInfo;
+  private Cluster editCluster;
+  private Universe universe;
+
+  // Fresh copy of the nodes for each edit, as the edit changes them.
+  private Set<NodeDetails> nodesToEdit;
+
+  @Setup(Level.Trial)
+  public void setUpTopology() {
+    UserIntent userIntent = new UserIntent();
+    userIntent.providerType = CloudType.aws;
+    userIntent.instanceType = "c5.large";
+    userIntent.numNodes = numNodes;
+    userIntent.replicationFactor = 3;
+    Cluster cluster = new Cluster(ClusterType.PRIMARY, userIntent);
+    placementInfo = createPlacementInfo();
+    cluster.placementInfo = placementInfo;
+
+    nodes = new ArrayList<>();
+    List<PlacementAZ> zones = getZones(placementInfo);
+    for (int idx = 0; idx < numNodes; idx++) {
+      PlacementAZ az = zones.get(idx % zones.size());
+      nodes.add(createNode(cluster.uuid, az, idx + 1));
+    }
+    PlacementInfoUtil.selectMasters(null, nodes, userIntent.replicationFactor);
+
+    UniverseDefinitionTaskParams details = new UniverseDefinitionTaskParams();
+    details.clusters.add(cluster);
+    details.nodeDetailsSet = new HashSet<>();
+    nodes.forEach(node -> details.nodeDetailsSet.add(node.clone()));
+    universe = new Universe();
+    universe.universeUUID = UUID.randomUUID();
+    universe.setUniverseDetails(details);
+
+    // Edit moves one node from every odd zone to the preceding even zone.
+    editCluster = new Cluster(ClusterType.PRIMARY, userIntent);
+    editCluster.uuid = cluster.uuid;
+    editCluster.placementInfo = createPlacementInfo();
+    List<PlacementAZ> editZones = getZones(editCluster.placementInfo);
+    for (int i = 0; i + 1 < editZones.size(); i += 2) {
+      if (editZones.get(i + 1).numNodesInAZ > 1) {
+        editZones.get(i).numNodesInAZ++;
+        editZones.get(i + 1).numNodesInAZ--;
+      }
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void copyNodes() {
+    nodesToEdit = new HashSet<>();
+    nodes.forEach(node -> nodesToEdit.add(node.clone()));
+  }
+
+  private PlacementInfo createPlacementInfo() {
+    PlacementInfo result = new PlacementInfo();
+    PlacementCloud cloud = new PlacementCloud();
+    cloud.uuid = UUID.nameUUIDFromBytes("cloud".getBytes());
+    cloud.code = "aws";
+    result.cloudList.add(cloud);
+    int numRegions = (numZones + AZS_PER_REGION - 1) / AZS_PER_REGION;
+    for (int r = 0; r < numRegions; r++) {
+      PlacementRegion region = new PlacementRegion();
+      region.uuid = UUID.nameUUIDFromBytes(("region-" + r).getBytes());
+      region.code = "region-" + r;
+      region.name = region.code;
+      cloud.regionList.add(region);
+    }
+    for (int z = 0; z < numZones; z++) {
+      PlacementAZ az = new PlacementAZ();
+      az.uuid = UUID.nameUUIDFromBytes(("az-" + z).getBytes());
+      az.name = "region-" + (z / AZS_PER_REGION) + "-az-" + z;
+      az.numNodesInAZ = numNodes / numZones + (z < numNodes % numZones ? 1 : 0);
+      az.replicationFactor = 1;
+      cloud.regionList.get(z / AZS_PER_REGION).azList.add(az);
+    }
+    return result;
+  }
+
+  private static List<PlacementAZ> getZones(PlacementInfo placementInfo) {
+    List<PlacementAZ> zones = new ArrayList<>();
+    for (PlacementCloud cloud : placementInfo.cloudList) {
+      for (PlacementRegion region : cloud.regionList) {
+        zones.addAll(region.azList);
+      }
+    }
+    return zones;
+  }
+
+  private NodeDetails createNode(UUID placementUuid, PlacementAZ az, int nodeIdx) {
+    NodeDetails node = new NodeDetails();
+    node.nodeIdx = nodeIdx;
+    node.nodeName = "yb-bench-n" + nodeIdx;
+    node.placementUuid = placementUuid;
+    node.azUuid = az.uuid;
+    node.state = NodeState.Live;
+    node.isTserver = true;
+    node.cloudInfo = new CloudSpecificInfo();
+    node.cloudInfo.cloud = "aws";
+    node.cloudInfo.region = az.name.substring(0, az.name.indexOf("-az-"));
+    node.cloudInfo.az = az.name;
+    node.cloudInfo.private_ip = "10.0." + (nodeIdx / 256) + "." + (nodeIdx % 256);
+    return node;
+  }
+
+  @Benchmark
+  public Set<NodeDetails> configureNodeEdit() {
+    PlacementInfoUtil.configureNodesUsingPlacementInfo(editCluster, nodesToEdit, universe);
+    return nodesToEdit;
+  }
+
+  @Benchmark
+  public PlacementInfoUtil.SelectMastersResult selectMasters() {
+    return PlacementInfoUtil.selectMasters(null, nodes, 5, null, false /* applySelection */);
+  }
+
+  @Benchmark
+  public Map<UUID, Integer> getAzUuidToNumNodes() {
+    return PlacementInfoUtil.getAzUuidToNumNodes(nodes);
+  }
+
+  @Benchmark
+  public List<PlacementAZ> getAZsSortedByNumNodes() {
+    return PlacementInfoUtil.getAZsSortedByNumNodes(placementInfo.cloudList);
+  }
+
+  public static void main(String[] args) throws Exception {
+    org.openjdk.jmh.Main.main(
+        args.length > 0 ? args : new String[] {PlacementInfoUtilBenchmark.class.getSimpleName()});
+  }
+}
@@ -0,0 +1,81 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.yugabyte.yw.models.helpers.NodeDetails;
+import com.yugabyte.yw.models.helpers.NodeDetails.NodeState;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PlacementNodeIndexTest {
+
+  private final UUID az1 = UUID.randomUUID();
+  private final UUID az2 = UUID.randomUUID();
+  private List<NodeDetails> nodes;
+
+  private static NodeDetails createNode(
+      UUID azUuid, int nodeIdx, boolean isMaster, boolean isTserver) {
+    NodeDetails node = new NodeDetails();
+    node.azUuid = azUuid;
+    node.nodeIdx = nodeIdx;
+    node.nodeName = "host-n" + nodeIdx;
+    node.isMaster = isMaster;
+    node.isTserver = isTserver;
+    node.state = NodeState.Live;
+    return node;
+  }
+
+  @Before
+  public void setUp() {
+    nodes = new ArrayList<>();
+    nodes.add(createNode(az1, 1, true, true));
+    nodes.add(createNode(az1, 2, false, true));
+    nodes.add(createNode(az1, 3, false, true));
+    nodes.add(createNode(az1, 4, true, false));
+    nodes.add(createNode(az2, 5, true, true));
+  }
+
+  @Test
+  public void testCounters() {
+    PlacementNodeIndex index = new PlacementNodeIndex(nodes);
+    // Master-only node is not counted.
+    assertEquals(ImmutableMap.of(az1, 3, az2, 1), index.getAzUuidToNumNodes(false));
+    assertEquals(PlacementInfoUtil.getAzUuidToNumNodes(nodes), index.getAzUuidToNumNodes(false));
+    assertEquals(2, index.getNumActiveTserverOnlyNodes(az1));
+    assertEquals(0, index.getNumActiveTserverOnlyNodes(az2));
+
+    index.setState(nodes.get(1), NodeState.ToBeRemoved);
+    assertEquals(ImmutableMap.of(az1, 2, az2, 1), index.getAzUuidToNumNodes(true));
+    assertEquals(ImmutableMap.of(az1, 3, az2, 1), index.getAzUuidToNumNodes(false));
+    assertEquals(1, index.getNumActiveTserverOnlyNodes(az1));
+
+    index.remove(nodes.get(4));
+    assertEquals(ImmutableMap.of(az1, 3), index.getAzUuidToNumNodes(false));
+    assertTrue(index.getNodesInAz(az2).isEmpty());
+  }
+
+  @Test
+  public void testFindNodeInAz() {
+    PlacementNodeIndex index = new PlacementNodeIndex(nodes);
+    for (boolean mastersPreferable : new boolean[] {false, true}) {
+      assertSame(
+          PlacementInfoUtil.findNodeInAz(NodeDetails::isActive, nodes, az1, mastersPreferable),
+          index.findNodeInAz(NodeDetails::isActive, az1, mastersPreferable));
+    }
+    assertEquals(3, index.findNodeInAz(NodeDetails::isActive, az1, false).nodeIdx);
+    assertEquals(4, index.findNodeInAz(NodeDetails::isActive, az1, true).nodeIdx);
+
+    index.setState(nodes.get(2), NodeState.ToBeRemoved);
+    assertEquals(2, index.findNodeInAz(NodeDetails::isActive, az1, false).nodeIdx);
+    assertNull(index.findNodeInAz(NodeDetails::isActive, UUID.randomUUID(), false));
+  }
+}
@@ -3,57 +3,68 @@
 package com.yugabyte.yw.common;
 
 import static com.yugabyte.yw.common.ShellProcessHandler.YB_LOGS_MAX_MSG_SIZE;
+import static com.yugabyte.yw.common.ShellProcessHandler.YB_LOGS_MAX_OUTPUT_SIZE;
 import static org.hamcrest.CoreMatchers.allOf;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.endsWith;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.startsWith;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
-import com.typesafe.config.Config;
-import com.yugabyte.yw.common.config.RuntimeConfigFactory;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import junit.framework.TestCase;
 import org.apache.commons.io.FileUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ShellProcessHandlerTest extends TestCase {
-  @InjectMocks ShellProcessHandler shellProcessHandler;
+  ShellProcessHandler shellProcessHandler;
 
   @Mock play.Configuration appConfig;
 
-  @Mock RuntimeConfigFactory mockRuntimeConfigFactory;
+  @Mock PlatformExecutorFactory platformExecutorFactory;
 
-  @Mock Config mockConfig;
+  ExecutorService outputReaderExecutor;
 
   static String TMP_STORAGE_PATH = "/tmp/yugaware_tests/spht_certs";
-  static final String COMMAND_OUTPUT_LOGS_DELETE = "yb.logs.cmdOutputDelete";
 
   @Before
   public void beforeTest() {
     new File(TMP_STORAGE_PATH).mkdirs();
     when(appConfig.getString("yb.devops.home")).thenReturn(TMP_STORAGE_PATH);
-    when(mockRuntimeConfigFactory.globalRuntimeConf()).thenReturn(mockConfig);
-    when(mockConfig.getBoolean(COMMAND_OUTPUT_LOGS_DELETE)).thenReturn(true);
     when(appConfig.getBytes(YB_LOGS_MAX_MSG_SIZE)).thenReturn(2000L);
+    when(appConfig.getBytes(YB_LOGS_MAX_OUTPUT_SIZE)).thenReturn(2000L);
+    outputReaderExecutor = Executors.newCachedThreadPool();
+    when(platformExecutorFactory.createExecutor(eq("shell_output_reader"), any()))
+        .thenReturn(outputReaderExecutor);
+    shellProcessHandler = new ShellProcessHandler(appConfig, platformExecutorFactory);
   }
 
   @After
   public void tearDown() throws IOException {
+    outputReaderExecutor.shutdownNow();
     FileUtils.deleteDirectory(new File(TMP_STORAGE_PATH));
   }
 
@@ -105,6 +116,93 @@ public class ShellProcessHandlerTest extends TestCase {
     assertThat(response.message.trim(), allOf(notNullValue(), equalTo("error")));
   }
 
+  @Test
+  public void testRunWithLargeOutput() throws IOException {
+    String testCmd =
+        "echo first; for i in $(seq 1 1000); do echo line$i; done; echo last; "
+            + "for i in $(seq 1 1000); do >&2 echo error$i; done; exit 1";
+    String fileName = createTestShellScript(testCmd);
+    List<String> command = new ArrayList<String>();
+    command.add(fileName);
+    ShellResponse response = shellProcessHandler.run(command, new HashMap<>());
+    assertEquals(1, response.code);
+    // Only the end of stderr is retained.
+    assertThat(
+        response.message,
+        allOf(
+            startsWith("... skipped "),
+            endsWith("error1000"),
+            not(containsString("error1\n"))));
+    assertTrue(response.message.length() <= 2100);
+  }
+
+  @Test
+  public void testRunWithLargeOutputSuccess() throws IOException {
+    String testCmd = "echo first; for i in $(seq 1 1000); do echo line$i; done; echo last";
+    String fileName = createTestShellScript(testCmd);
+    List<String> command = new ArrayList<String>();
+    command.add(fileName);
+    ShellResponse response = shellProcessHandler.run(command, new HashMap<>());
+    assertEquals(0, response.code);
+    // The beginning and the end of stdout are retained, with a marker in place of the middle.
+    assertThat(
+        response.message,
+        allOf(
+            startsWith("first\nline1\n"),
+            containsString("\n... skipped "),
+            endsWith("line1000\nlast"),
+            not(containsString("\nline500\n"))));
+    assertTrue(response.message.length() <= 2100);
+  }
+
+  @Test
+  public void testGetLiveOutput() throws Exception {
+    UUID uuid = UUID.randomUUID();
+    String testCmd = "echo line1; echo line2; echo line3; sleep 60";
+    String fileName = createTestShellScript(testCmd);
+    List<String> command = new ArrayList<String>();
+    command.add(fileName);
+    Thread runner = new Thread(() -> shellProcessHandler.run(command, new HashMap<>(), uuid));
+    runner.start();
+    try {
+      List<String> lines = Collections.emptyList();
+      for (int i = 0; i < 100 && lines.size() < 2; i++) {
+        Thread.sleep(100);
+        lines = shellProcessHandler.getLiveOutput(uuid, 2);
+      }
+      assertEquals(Arrays.asList("line2", "line3"), lines);
+    } finally {
+      runner.interrupt();
+      runner.join();
+      Util.removeProcess(uuid);
+    }
+    assertTrue(shellProcessHandler.getLiveOutput(uuid, 2).isEmpty());
+  }
+
+  @Test
+  public void testRunWithOutputWithinLimit() throws IOException {
+    String testCmd = "for i in $(seq 1 100); do echo line$i; done";
+    String fileName = createTestShellScript(testCmd);
+    List<String> command = new ArrayList<String>();
+    command.add(fileName);
+    ShellResponse response = shellProcessHandler.run(command, new HashMap<>());
+    assertEquals(0, response.code);
+    assertThat(response.message, allOf(startsWith("line1\nline2\n"), endsWith("line99\nline100")));
+  }
+
+  @Test
+  public void testRunWithLongErrorLine() throws IOException {
+    String testCmd = ">&2 echo first; >&2 printf 'x%.0s' $(seq 1 5000); >&2 echo end; exit 1";
+    String fileName = createTestShellScript(testCmd);
+    List<String> command = new ArrayList<String>();
+    command.add(fileName);
+    ShellResponse response = shellProcessHandler.run(command, new HashMap<>());
+    assertEquals(1, response.code);
+    // End of the line longer than the limit is kept.
+    assertThat(response.message, allOf(endsWith("xxxend"), not(containsString("first"))));
+    assertTrue(response.message.length() < 2100);
+  }
+
   private String createTestShellScript(String cmd) throws IOException {
     Path fileName = Files.createTempFile(Paths.get(TMP_STORAGE_PATH), "yw_test", ".sh");
     Files.write(fileName, ("#/bin/bash\n" + cmd).getBytes());
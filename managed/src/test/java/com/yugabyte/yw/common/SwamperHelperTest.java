@@ -138,6 +138,30 @@ public class SwamperHelperTest extends FakeDBApplication {
     swamperHelper.writeUniverseTargetJson(u.universeUUID);
   }
 
+  @Test
+  public void testUniverseTargetWriteAfterFailure() throws IOException {
+    when(appConfig.getString("yb.swamper.targetPath")).thenReturn(SWAMPER_TMP_PATH);
+    Universe u = createUniverse(defaultCustomer.getCustomerId());
+    u = Universe.saveDetails(u.universeUUID, ApiUtils.mockUniverseUpdater());
+    String yugabyteFilePath = SWAMPER_TMP_PATH + "yugabyte." + u.universeUUID + ".json";
+    // Non-empty directory in place of the file makes the write fail.
+    new File(yugabyteFilePath).mkdir();
+    new File(yugabyteFilePath, "file").createNewFile();
+    try {
+      swamperHelper.writeUniverseTargetJson(u.universeUUID);
+      assertTrue(false);
+    } catch (RuntimeException e) {
+      // Expected.
+    }
+
+    // Failed writer doesn't leave the universe busy, so both a later write and remove go through.
+    FileUtils.deleteDirectory(new File(yugabyteFilePath));
+    swamperHelper.writeUniverseTargetJson(u.universeUUID);
+    assertTrue(new File(yugabyteFilePath).isFile());
+    swamperHelper.removeUniverseTargetJson(u.universeUUID);
+    assertFalse(new File(yugabyteFilePath).exists());
+  }
+
   public void testUniverseTargetWithoutTargetPath() {
     when(appConfig.getString("yb.swamper.targetPath")).thenReturn("");
     Universe u = createUniverse();
@@ -168,6 +192,37 @@ public class SwamperHelperTest extends FakeDBApplication {
     assertThat(fileContent, equalTo(expectedContent));
   }
 
+  @Test
+  public void testWriteAlertDefinitionUnchanged() {
+    when(appConfig.getString("yb.swamper.rulesPath")).thenReturn(SWAMPER_TMP_PATH);
+    Universe universe = createUniverse(defaultCustomer.getCustomerId());
+    AlertConfiguration configuration = createAlertConfiguration(defaultCustomer, universe);
+    AlertDefinition definition = createAlertDefinition(defaultCustomer, universe, configuration);
+
+    assertTrue(swamperHelper.writeAlertDefinition(configuration, definition));
+    assertFalse(swamperHelper.writeAlertDefinition(configuration, definition));
+
+    // Helper restart - should hash existing file instead of rewriting it.
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    Environment env = new Environment(new File("."), classLoader, Mode.TEST);
+    SwamperHelper restartedHelper = new SwamperHelper(appConfig, env);
+    assertFalse(restartedHelper.writeAlertDefinition(configuration, definition));
+
+    new File(generateRulesFileName(definition.getUuid().toString())).delete();
+    assertTrue(restartedHelper.writeAlertDefinition(configuration, definition));
+  }
+
+  @Test
+  public void testWriteFileIfChanged() throws IOException {
+    String filePath = SWAMPER_TMP_PATH + "test.json";
+    assertTrue(swamperHelper.writeFileIfChanged(filePath, "[ ]"));
+    assertFalse(swamperHelper.writeFileIfChanged(filePath, "[ ]"));
+    assertTrue(swamperHelper.writeFileIfChanged(filePath, "[ 1 ]"));
+    assertThat(FileUtils.readFileToString(new File(filePath)), equalTo("[ 1 ]"));
+    // No temporary files left behind.
+    assertThat(new File(SWAMPER_TMP_PATH).list().length, equalTo(1));
+  }
+
   @Test
   public void testRemoveAlertDefinition() throws IOException {
     when(appConfig.getString("yb.swamper.rulesPath")).thenReturn(SWAMPER_TMP_PATH);
@@ -197,6 +252,29 @@ public class SwamperHelperTest extends FakeDBApplication {
     assertThat(configUuids, containsInAnyOrder(definitionUuid, definition2Uuid));
   }
 
+  @Test
+  public void testAlertDefinitionConfigUuidsIndex() throws IOException {
+    when(appConfig.getString("yb.swamper.rulesPath")).thenReturn(SWAMPER_TMP_PATH);
+    UUID existingUuid = UUID.randomUUID();
+    new File(generateRulesFileName(existingUuid.toString())).createNewFile();
+    // Directory is listed once, picking up the files generated before.
+    assertThat(swamperHelper.getAlertDefinitionConfigUuids(), containsInAnyOrder(existingUuid));
+
+    // Later writes and removals keep the index up to date.
+    Universe universe = createUniverse(defaultCustomer.getCustomerId());
+    AlertConfiguration configuration = createAlertConfiguration(defaultCustomer, universe);
+    AlertDefinition definition = createAlertDefinition(defaultCustomer, universe, configuration);
+    swamperHelper.writeAlertDefinition(configuration, definition);
+    assertThat(
+        swamperHelper.getAlertDefinitionConfigUuids(),
+        containsInAnyOrder(existingUuid, definition.getUuid()));
+
+    swamperHelper.removeAlertDefinition(existingUuid);
+    assertThat(
+        swamperHelper.getAlertDefinitionConfigUuids(), containsInAnyOrder(definition.getUuid()));
+    assertFalse(new File(generateRulesFileName(existingUuid.toString())).exists());
+  }
+
   private String generateRulesFileName(String definitionUuid) {
     return SWAMPER_TMP_PATH + SwamperHelper.ALERT_CONFIG_FILE_PREFIX + definitionUuid + ".yml";
   }
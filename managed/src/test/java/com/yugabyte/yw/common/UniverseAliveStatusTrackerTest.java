@@ -0,0 +1,126 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common;
+
+import static com.yugabyte.yw.common.PlacementInfoUtil.UNIVERSE_ALIVE_METRIC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import akka.actor.ActorSystem;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.yugabyte.yw.metrics.MetricQueryHelper;
+import com.yugabyte.yw.metrics.MetricQueryResponse;
+import com.yugabyte.yw.models.Universe;
+import com.yugabyte.yw.models.helpers.NodeDetails;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.Before;
+import org.junit.Test;
+import play.libs.Json;
+import scala.concurrent.ExecutionContext;
+
+public class UniverseAliveStatusTrackerTest extends FakeDBApplication {
+
+  private MetricQueryHelper queryHelper;
+  private UniverseAliveStatusTracker tracker;
+  private Universe universe;
+
+  @Before
+  public void setUp() {
+    queryHelper = mock(MetricQueryHelper.class);
+    tracker =
+        new UniverseAliveStatusTracker(
+            mock(ActorSystem.class), mock(ExecutionContext.class), queryHelper, app.config());
+    universe = ModelFactory.createUniverse();
+    universe =
+        Universe.saveDetails(universe.universeUUID, ApiUtils.mockUniverseUpdater("yb-test"));
+  }
+
+  private MetricQueryResponse.Entry upEntry(String nodePrefix, String instance, double value) {
+    MetricQueryResponse.Entry entry = new MetricQueryResponse.Entry();
+    entry.labels = new HashMap<>();
+    entry.labels.put("node_prefix", nodePrefix);
+    entry.labels.put("instance", instance);
+    entry.values = new ArrayList<>();
+    entry.values.add(new ImmutablePair<>(1.0, value));
+    return entry;
+  }
+
+  @Test
+  public void testStatusServedFromCache() {
+    NodeDetails deadNode = universe.getNodes().iterator().next();
+    List<MetricQueryResponse.Entry> entries = new ArrayList<>();
+    for (NodeDetails node : universe.getNodes()) {
+      double up = node == deadNode ? 0 : 1;
+      entries.add(upEntry("yb-test", node.cloudInfo.private_ip + ":" + node.masterHttpPort, up));
+      entries.add(upEntry("yb-test", node.cloudInfo.private_ip + ":" + node.tserverHttpPort, up));
+    }
+    entries.add(upEntry("yb-other", deadNode.cloudInfo.private_ip + ":7000", 1));
+    when(queryHelper.queryDirect(UniverseAliveStatusTracker.ALIVE_STATUS_QUERY))
+        .thenReturn(new ArrayList<>(entries));
+    tracker.scheduleRunner();
+
+    for (int i = 0; i < 3; i++) {
+      JsonNode result = tracker.getUniverseAliveStatus(universe);
+      assertEquals(universe.universeUUID.toString(), result.get("universe_uuid").asText());
+      for (NodeDetails node : universe.getNodes()) {
+        JsonNode nodeStatus = result.get(node.nodeName);
+        boolean alive = node != deadNode;
+        assertEquals(alive, nodeStatus.get("master_alive").asBoolean());
+        assertEquals(alive, nodeStatus.get("tserver_alive").asBoolean());
+        assertEquals(
+            alive ? "Live" : NodeDetails.NodeState.Unreachable.toString(),
+            nodeStatus.get("node_status").asText());
+      }
+    }
+    verify(queryHelper, times(1)).queryDirect(UniverseAliveStatusTracker.ALIVE_STATUS_QUERY);
+    verify(queryHelper, never()).query(anyList(), anyMap());
+  }
+
+  @Test
+  public void testUnknownUniverseQueried() {
+    // Universe was created after the last refresh.
+    when(queryHelper.queryDirect(UniverseAliveStatusTracker.ALIVE_STATUS_QUERY))
+        .thenReturn(Collections.singletonList(upEntry("yb-other", "1:7000", 1)));
+    when(queryHelper.query(anyList(), anyMap()))
+        .thenReturn(Json.newObject().set(UNIVERSE_ALIVE_METRIC, Json.newObject()));
+    tracker.scheduleRunner();
+
+    JsonNode result = tracker.getUniverseAliveStatus(universe);
+    assertEquals(universe.universeUUID.toString(), result.get("universe_uuid").asText());
+    verify(queryHelper, times(1)).query(anyList(), anyMap());
+  }
+
+  @Test
+  public void testNotRefreshedQueriesUniverse() {
+    when(queryHelper.queryDirect(UniverseAliveStatusTracker.ALIVE_STATUS_QUERY))
+        .thenThrow(new RuntimeException("Prometheus is down"));
+    when(queryHelper.query(anyList(), anyMap()))
+        .thenReturn(Json.newObject().put("error", "Prometheus is down"));
+    tracker.scheduleRunner();
+
+    JsonNode result = tracker.getUniverseAliveStatus(universe);
+    assertTrue(result.has("error"));
+    verify(queryHelper, times(1)).query(anyList(), anyMap());
+  }
+
+  @Test
+  public void testDirectQueryStatus() {
+    when(queryHelper.query(anyList(), anyMap()))
+        .thenReturn(Json.newObject().set(UNIVERSE_ALIVE_METRIC, Json.newObject()));
+
+    JsonNode result = tracker.getUniverseAliveStatus(universe);
+    assertEquals(universe.universeUUID.toString(), result.get("universe_uuid").asText());
+    verify(queryHelper, times(1)).query(anyList(), anyMap());
+  }
+}
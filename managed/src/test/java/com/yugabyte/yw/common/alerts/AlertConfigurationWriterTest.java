@@ -85,6 +85,7 @@ public class AlertConfigurationWriterTest extends FakeDBApplication {
     when(globalConfig.getInt(AlertConfigurationWriter.CONFIG_SYNC_INTERVAL_PARAM)).thenReturn(1);
     when(configFactory.globalRuntimeConf()).thenReturn(globalConfig);
     when(actorSystem.dispatcher()).thenReturn(mock(Dispatcher.class));
+    when(swamperHelper.writeAlertDefinition(any(), any())).thenReturn(true);
     maintenanceService = app.injector().instanceOf(MaintenanceService.class);
     configurationWriter =
         new AlertConfigurationWriter(
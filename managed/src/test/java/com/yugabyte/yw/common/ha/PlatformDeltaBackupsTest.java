@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 YugaByte, Inc. and Contributors
+ *
+ * Licensed under the Polyform Free Trial License 1.0.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * https://github.com/YugaByte/yugabyte-db/blob/master/licenses/POLYFORM-FREE-TRIAL-LICENSE-1.0.0.txt
+ */
+
+package com.yugabyte.yw.common.ha;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PlatformDeltaBackupsTest {
+
+  private static final Map<String, String> BASE_VERSIONS =
+      ImmutableMap.of("schema_version", "10", "universe", "5", "customer", "1");
+
+  private Path tmpDir;
+
+  @Before
+  public void setUp() throws IOException {
+    tmpDir = Files.createTempDirectory("platform_delta_test");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(tmpDir.toFile());
+  }
+
+  private File createFile(String name) throws IOException {
+    return Files.createFile(tmpDir.resolve(name)).toFile();
+  }
+
+  @Test
+  public void testGetChangedTables() {
+    Map<String, String> versions =
+        ImmutableMap.of("schema_version", "10", "universe", "7", "customer", "1", "users", "1");
+    assertEquals(
+        ImmutableSet.of("universe", "users"),
+        PlatformDeltaBackups.getChangedTables(BASE_VERSIONS, versions));
+    assertTrue(PlatformDeltaBackups.getChangedTables(BASE_VERSIONS, BASE_VERSIONS).isEmpty());
+  }
+
+  @Test
+  public void testRequiresFullBackup() {
+    assertFalse(
+        PlatformDeltaBackups.requiresFullBackup(
+            BASE_VERSIONS,
+            ImmutableMap.of("schema_version", "10", "universe", "8", "customer", "2")));
+    // Migration was applied.
+    assertTrue(
+        PlatformDeltaBackups.requiresFullBackup(
+            BASE_VERSIONS,
+            ImmutableMap.of("schema_version", "11", "universe", "5", "customer", "1")));
+    // New table was created.
+    assertTrue(
+        PlatformDeltaBackups.requiresFullBackup(
+            BASE_VERSIONS,
+            ImmutableMap.of(
+                "schema_version", "10", "universe", "5", "customer", "1", "users", "0")));
+  }
+
+  @Test
+  public void testListDeltas() throws IOException {
+    createFile("delta_backup_1_300.zip");
+    createFile("delta_backup_1_200.zip");
+    createFile("delta_backup_2_100.zip");
+    createFile("backup_1.tgz");
+
+    List<File> deltas = PlatformDeltaBackups.listDeltas(tmpDir, "backup_1.tgz");
+    assertEquals(2, deltas.size());
+    assertEquals("delta_backup_1_200.zip", deltas.get(0).getName());
+    assertEquals("delta_backup_1_300.zip", deltas.get(1).getName());
+  }
+
+  @Test
+  public void testCleanupDeltas() throws IOException {
+    File retainedDelta = createFile("delta_backup_2_200.zip");
+    File staleDelta = createFile("delta_backup_1_100.zip");
+    File retainedBackup = createFile("backup_2.tgz");
+
+    PlatformDeltaBackups.cleanupDeltas(tmpDir, Collections.singletonList(retainedBackup));
+    assertTrue(retainedDelta.exists());
+    assertFalse(staleDelta.exists());
+
+    PlatformDeltaBackups.cleanupDeltas(tmpDir, Collections.emptyList());
+    assertFalse(retainedDelta.exists());
+    assertTrue(retainedBackup.exists());
+  }
+
+  private File createDelta(String name, String manifest, String... tables) throws IOException {
+    File delta = tmpDir.resolve(name).toFile();
+    try (ZipOutputStream zipOut = new ZipOutputStream(new FileOutputStream(delta))) {
+      if (manifest != null) {
+        zipOut.putNextEntry(new ZipEntry("manifest.json"));
+        zipOut.write(manifest.getBytes(StandardCharsets.UTF_8));
+        zipOut.closeEntry();
+      }
+      for (String table : tables) {
+        zipOut.putNextEntry(new ZipEntry("tables/" + table));
+        zipOut.closeEntry();
+      }
+    }
+    return delta;
+  }
+
+  @Test
+  public void testValidateDeltas() throws IOException {
+    String manifest = "{\"base\":\"backup_1.tgz\",\"tables\":[\"universe\"],\"sequences\":{}}";
+    File valid = createDelta("delta_backup_1_100.zip", manifest, "universe");
+    PlatformDeltaBackups.validateDeltas(Collections.singletonList(valid));
+
+    File missingTable = createDelta("delta_backup_1_200.zip", manifest);
+    assertThrows(
+        IOException.class,
+        () -> PlatformDeltaBackups.validateDeltas(Arrays.asList(valid, missingTable)));
+    File missingManifest = createDelta("delta_backup_1_300.zip", null, "universe");
+    assertThrows(
+        IOException.class,
+        () -> PlatformDeltaBackups.validateDeltas(Collections.singletonList(missingManifest)));
+  }
+
+  @Test
+  public void testQuoteIdentifier() {
+    assertEquals("\"universe\"", PlatformDeltaBackups.quoteIdentifier("universe"));
+    assertEquals("\"a\"\"b\"", PlatformDeltaBackups.quoteIdentifier("a\"b"));
+  }
+}
@@ -4,6 +4,7 @@ package com.yugabyte.yw.controllers;
 
 import static com.yugabyte.yw.common.AssertHelper.assertAuditEntry;
 import static com.yugabyte.yw.common.AssertHelper.assertBadRequest;
+import static com.yugabyte.yw.common.AssertHelper.assertPlatformException;
 import static com.yugabyte.yw.common.AssertHelper.assertValue;
 import static com.yugabyte.yw.common.ModelFactory.createUniverse;
 import static com.yugabyte.yw.models.helpers.CommonUtils.datePlus;
@@ -15,10 +16,14 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyList;
 import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static play.mvc.Http.Status.FORBIDDEN;
@@ -33,6 +38,7 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.yugabyte.yw.commissioner.Common;
 import com.yugabyte.yw.common.ApiUtils;
 import com.yugabyte.yw.common.CallHomeManager.CollectionLevel;
@@ -54,7 +60,9 @@ import com.yugabyte.yw.models.Users;
 import com.yugabyte.yw.models.Users.Role;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
@@ -532,6 +540,116 @@ public class CustomerControllerTest extends FakeDBApplication {
     assertAuditEntry(1, customer.uuid);
   }
 
+  @Test
+  public void testCustomerMetricsColumnar() {
+    String authToken = user.createAuthToken();
+    ObjectNode params = Json.newObject();
+    params.set("metrics", Json.toJson(ImmutableList.of("metrics")));
+    params.put("start", "1479281737000");
+    params.put("version", 2);
+    params.put("deltaEncoded", true);
+
+    ObjectNode response = Json.newObject();
+    response.put("foo", "bar");
+    ArgumentCaptor<Map> queryParams = ArgumentCaptor.forClass(Map.class);
+    when(mockMetricQueryHelper.queryColumnar(anyList(), queryParams.capture(), anyMap(), eq(true)))
+        .thenReturn(response);
+    Result result =
+        FakeApiHelper.doRequestWithAuthTokenAndBody(
+            "POST", baseRoute + customer.uuid + "/metrics", authToken, params);
+    assertEquals(OK, result.status());
+    assertThat(
+        contentAsString(result), allOf(notNullValue(), containsString("{\"foo\":\"bar\"}")));
+    assertFalse(queryParams.getValue().containsKey("version"));
+    verify(mockMetricQueryHelper, never()).query(anyList(), anyMap(), anyMap());
+    assertAuditEntry(1, customer.uuid);
+  }
+
+  @Test
+  public void testCustomerMetricsColumnarWithRecharts() {
+    String authToken = user.createAuthToken();
+    ObjectNode params = Json.newObject();
+    params.set("metrics", Json.toJson(ImmutableList.of("metrics")));
+    params.put("start", "1479281737000");
+    params.put("version", 2);
+    params.put("isRecharts", true);
+    Result result =
+        assertPlatformException(
+            () ->
+                FakeApiHelper.doRequestWithAuthTokenAndBody(
+                    "POST", baseRoute + customer.uuid + "/metrics", authToken, params));
+    assertBadRequest(result, "Recharts format is not supported with columnar response.");
+    assertAuditEntry(0, customer.uuid);
+  }
+
+  @Test
+  public void testCustomerMetricsBatch() {
+    String authToken = user.createAuthToken();
+    Universe u1 = createUniverse("demo-1", customer.getCustomerId());
+    Universe u2 = createUniverse("demo-2", customer.getCustomerId());
+    ArrayNode queries = Json.newArray();
+    queries
+        .addObject()
+        .put("universeUUID", u1.universeUUID.toString())
+        .put("start", 1479281737L)
+        .set("metrics", Json.toJson(ImmutableList.of("metric1")));
+    queries
+        .addObject()
+        .put("universeUUID", u2.universeUUID.toString())
+        .put("start", 1479281737L)
+        .set("metrics", Json.toJson(ImmutableList.of("metric1")));
+    queries
+        .addObject()
+        .put("universeUUID", u1.universeUUID.toString())
+        .put("start", 1479280000L)
+        .set("metrics", Json.toJson(ImmutableList.of("metric1")));
+    ObjectNode params = Json.newObject();
+    params.set("queries", queries);
+
+    when(mockMetricQueryHelper.queryBatch(anyList(), anyMap(), any(), anyMap()))
+        .thenReturn(
+            ImmutableMap.<String, JsonNode>of(
+                "demo-1", Json.newObject().put("foo", "bar1"),
+                "demo-2", Json.newObject().put("foo", "bar2")));
+    Result result =
+        FakeApiHelper.doRequestWithAuthTokenAndBody(
+            "POST", baseRoute + customer.uuid + "/metrics/batch", authToken, params);
+    assertEquals(OK, result.status());
+    // Universes with the same metrics and time range are queried together.
+    ArgumentCaptor<Collection> nodePrefixes = ArgumentCaptor.forClass(Collection.class);
+    verify(mockMetricQueryHelper, times(2))
+        .queryBatch(anyList(), anyMap(), nodePrefixes.capture(), anyMap());
+    assertEquals(
+        ImmutableSet.of(ImmutableSet.of("demo-1", "demo-2"), ImmutableSet.of("demo-1")),
+        new HashSet<>(nodePrefixes.getAllValues()));
+    JsonNode json = Json.parse(contentAsString(result));
+    assertEquals(3, json.size());
+    assertEquals("bar1", json.get(0).get("foo").asText());
+    assertEquals("bar2", json.get(1).get("foo").asText());
+    assertEquals("bar1", json.get(2).get("foo").asText());
+    assertAuditEntry(1, customer.uuid);
+  }
+
+  @Test
+  public void testCustomerMetricsBatchWithContainerMetrics() {
+    String authToken = user.createAuthToken();
+    Universe u1 = createUniverse("demo-1", customer.getCustomerId());
+    ObjectNode params = Json.newObject();
+    params
+        .putArray("queries")
+        .addObject()
+        .put("universeUUID", u1.universeUUID.toString())
+        .put("start", 1479281737L)
+        .set("metrics", Json.toJson(ImmutableList.of("container_metrics")));
+    Result result =
+        assertPlatformException(
+            () ->
+                FakeApiHelper.doRequestWithAuthTokenAndBody(
+                    "POST", baseRoute + customer.uuid + "/metrics/batch", authToken, params));
+    assertBadRequest(result, "Container metrics are not supported in batch requests.");
+    assertAuditEntry(0, customer.uuid);
+  }
+
   @Test
   public void testCustomerMetricsForContainerMetricsMultiAZ() {
     String authToken = user.createAuthToken();
@@ -19,9 +19,11 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static play.mvc.Http.Status.BAD_REQUEST;
 import static play.mvc.Http.Status.FORBIDDEN;
+import static play.mvc.Http.Status.NOT_MODIFIED;
 import static play.mvc.Http.Status.OK;
 import static play.test.Helpers.contentAsString;
 import static play.test.Helpers.fakeRequest;
@@ -44,6 +46,8 @@ import com.yugabyte.yw.models.Users;
 import com.yugabyte.yw.models.helpers.TaskType;
 import io.ebean.Model;
 import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
@@ -55,6 +59,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import play.libs.Json;
+import play.mvc.Http;
 import play.mvc.Result;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -113,7 +118,8 @@ public class CustomerTaskControllerTest extends FakeDBApplication {
             percentComplete,
             responseJson);
     TaskInfo taskInfo = TaskInfo.getOrBadRequest(task.getTaskUUID());
-    when(mockCommissioner.buildTaskStatus(task, taskInfo)).thenReturn(Optional.of(responseJson));
+    when(mockCommissioner.buildTaskStatus(eq(task), eq(taskInfo), any()))
+        .thenReturn(Optional.of(responseJson));
     return task.getTaskUUID();
   }
 
@@ -397,6 +403,38 @@ public class CustomerTaskControllerTest extends FakeDBApplication {
     assertAuditEntry(0, customer.uuid);
   }
 
+  @Test
+  public void testTasksListNotModified() {
+    String authToken = user.createAuthToken();
+
+    UUID providerUUID = UUID.randomUUID();
+    createTaskWithStatus(
+        providerUUID,
+        CustomerTask.TargetType.Provider,
+        Update,
+        TaskType.UpgradeUniverse,
+        "Foo",
+        "Running",
+        10.0);
+
+    String url = "/api/customers/" + customer.uuid + "/tasks_list";
+    Result result = FakeApiHelper.doRequestWithAuthToken("GET", url, authToken);
+    assertThat(result.status(), is(OK));
+    String eTag = result.header(Http.HeaderNames.ETAG).get();
+
+    Map<String, String> headers = new HashMap<>();
+    headers.put("X-AUTH-TOKEN", authToken);
+    headers.put(Http.HeaderNames.IF_NONE_MATCH, eTag);
+    result = FakeApiHelper.doRequestWithCustomHeaders("GET", url, headers);
+    assertThat(result.status(), is(NOT_MODIFIED));
+    assertThat(result.header(Http.HeaderNames.ETAG).get(), equalTo(eTag));
+
+    headers.put(Http.HeaderNames.IF_NONE_MATCH, "\"outdated\"");
+    result = FakeApiHelper.doRequestWithCustomHeaders("GET", url, headers);
+    assertThat(result.status(), is(OK));
+    assertThat(Json.parse(contentAsString(result)).size(), is(1));
+  }
+
   @Test
   public void testTaskListWithUniverseUUID() {
     String authToken = user.createAuthToken();
@@ -663,7 +701,8 @@ public class CustomerTaskControllerTest extends FakeDBApplication {
         99.0,
         "TLS Toggle ON",
         responseJson);
-    when(mockCommissioner.buildTaskStatus(any(), any())).thenReturn(Optional.of(responseJson));
+    when(mockCommissioner.buildTaskStatus(any(), any(), any()))
+        .thenReturn(Optional.of(responseJson));
     Result result =
         FakeApiHelper.doRequestWithAuthToken(
             "GET", "/api/customers/" + customer.uuid + "/tasks", authToken);
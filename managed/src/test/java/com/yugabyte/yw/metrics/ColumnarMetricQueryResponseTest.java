@@ -0,0 +1,106 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.metrics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.yugabyte.yw.models.MetricConfig;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Test;
+import play.libs.Json;
+
+public class ColumnarMetricQueryResponseTest {
+
+  private static final String MATRIX_RESPONSE =
+      "{\"status\":\"success\",\"warnings\":[\"ignored\"],\"data\":{\"resultType\":\"matrix\","
+          + "\"result\":[{\"metric\":{\"memory\":\"used\"},\"values\":[[1479278137,\"0.5\"],"
+          + "[1479278147,\"NaN\"],[1479278157,\"2\"]]},{\"values\":[[1479278137,\"1\"]],"
+          + "\"metric\":{\"memory\":\"free\"}}]}}";
+
+  private static ColumnarMetricQueryResponse parse(String response) throws IOException {
+    return ColumnarMetricQueryResponse.parse(
+        Json.mapper()
+            .getFactory()
+            .createParser(
+                new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8))));
+  }
+
+  @Test
+  public void testParseMatrix() throws IOException {
+    ColumnarMetricQueryResponse response = parse(MATRIX_RESPONSE);
+    assertEquals("success", response.status);
+    assertEquals("matrix", response.resultType);
+    assertNull(response.error);
+    assertEquals(2, response.result.size());
+    assertEquals(3, response.result.get(0).size());
+
+    MetricConfig.Layout layout = new MetricConfig.Layout();
+    layout.yaxis = new MetricConfig.Layout.Axis();
+    layout.yaxis.alias.put("used", "Used");
+    List<MetricSeriesData> data = response.getSeriesData("memory", layout, false);
+    assertEquals(2, data.size());
+    assertEquals("Used", data.get(0).name);
+    assertEquals("scatter", data.get(0).type);
+    assertArrayEquals(
+        new long[] {1479278137000L, 1479278147000L, 1479278157000L}, data.get(0).x);
+    assertArrayEquals(new double[] {0.5, 0, 2}, data.get(0).y, 0);
+    assertEquals("free", data.get(1).name);
+    assertArrayEquals(new long[] {1479278137000L}, data.get(1).x);
+
+    // Same names and points as in the graph data.
+    MetricQueryResponse treeResponse =
+        Json.fromJson(Json.parse(MATRIX_RESPONSE), MetricQueryResponse.class);
+    List<MetricGraphData> graphData = treeResponse.getGraphData("memory", layout);
+    for (int i = 0; i < data.size(); i++) {
+      assertEquals(graphData.get(i).name, data.get(i).name);
+      for (int j = 0; j < data.get(i).x.length; j++) {
+        assertEquals(graphData.get(i).x.get(j).asLong(), data.get(i).x[j]);
+        assertEquals(graphData.get(i).y.get(j).asDouble(), data.get(i).y[j], 0);
+      }
+    }
+  }
+
+  @Test
+  public void testDeltaEncoding() throws IOException {
+    ColumnarMetricQueryResponse response = parse(MATRIX_RESPONSE);
+    List<MetricSeriesData> data =
+        response.getSeriesData("memory", new MetricConfig.Layout(), true /* deltaEncoded */);
+    assertArrayEquals(new long[] {1479278137000L, 10000L, 10000L}, data.get(0).x);
+
+    JsonNode json = Json.toJson(data.get(0));
+    assertEquals(3, json.get("x").size());
+    assertEquals(10000L, json.get("x").get(2).asLong());
+    assertEquals(2.0, json.get("y").get(2).asDouble(), 0);
+  }
+
+  @Test
+  public void testParseVectorAndRemoveLabel() throws IOException {
+    ColumnarMetricQueryResponse response =
+        parse(
+            "{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":[{\"metric\":"
+                + "{\"node_prefix\":\"yb-test\"},\"value\":[1479278137.5,\"+Inf\"]}]}}");
+    List<MetricSeriesData> data = response.getSeriesData("cpu", new MetricConfig.Layout(), false);
+    assertEquals("yb-test", data.get(0).name);
+
+    response.removeLabel("node_prefix");
+    data = response.getSeriesData("cpu", new MetricConfig.Layout(), false);
+    assertEquals("cpu", data.get(0).name);
+    assertArrayEquals(new long[] {1479278137000L}, data.get(0).x);
+    assertArrayEquals(new double[] {0}, data.get(0).y, 0);
+  }
+
+  @Test
+  public void testParseError() throws IOException {
+    ColumnarMetricQueryResponse response =
+        parse("{\"status\":\"error\",\"errorType\":\"bad_data\",\"error\":\"parse error\"}");
+    assertEquals("bad_data", response.errorType);
+    assertEquals("parse error", response.error);
+    assertEquals(0, response.result.size());
+  }
+}
@@ -4,6 +4,7 @@ package com.yugabyte.yw.metrics;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
@@ -11,9 +12,12 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableMap;
 import com.yugabyte.yw.common.ApiHelper;
 import com.yugabyte.yw.common.FakeDBApplication;
 import com.yugabyte.yw.models.MetricConfig;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import org.hamcrest.core.AllOf;
@@ -36,6 +40,8 @@ public class MetricQueryExecutorTest extends FakeDBApplication {
 
   @Mock YBMetricQueryComponent mockYBMetricQueryComponent;
 
+  @Mock MetricRollups mockMetricRollups;
+
   private MetricConfig validMetric;
 
   @Before
@@ -106,6 +112,74 @@ public class MetricQueryExecutorTest extends FakeDBApplication {
         AllOf.allOf(IsNull.notNullValue(), IsEqual.equalTo("date")));
   }
 
+  @Test
+  public void testWithColumnarOutput() throws Exception {
+    HashMap<String, String> params = new HashMap<>();
+    params.put("start", "1479281737");
+    params.put("end", "1479281757");
+    params.put("step", "10");
+    params.put("queryKey", "valid_metric");
+    MetricQueryExecutor qe =
+        new MetricQueryExecutor(
+            mockAppConfig, mockApiHelper, params, new HashMap<>(), mockYBMetricQueryComponent);
+    qe.setColumnarOutput(true /* deltaEncoded */);
+
+    String response =
+        "{\"status\":\"success\",\"data\":{\"resultType\":\"matrix\",\"result\":[{\"metric\":"
+            + "{\"cpu\":\"system\"},\"values\":[[1479281737,\"0.5\"],[1479281747,\"1.5\"]]}]}}";
+    when(mockApiHelper.getRequestAsStream(eq("foo://bar/query_range"), anyMap(), anyMap()))
+        .thenReturn(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)));
+
+    JsonNode result = Json.parse(Json.stringify(qe.call()));
+    assertEquals(MetricQueryExecutor.COLUMNAR_FORMAT_VERSION, result.get("version").asInt());
+    assertTrue(result.get("deltaEncoded").asBoolean());
+    JsonNode data = result.get("data");
+    assertEquals(1, data.size());
+    assertEquals("system", data.get(0).get("name").asText());
+    assertEquals(Json.parse("[1479281737000,10000]"), data.get(0).get("x"));
+    assertEquals(Json.parse("[0.5,1.5]"), data.get(0).get("y"));
+  }
+
+  @Test
+  public void testWithRollupQueries() throws Exception {
+    HashMap<String, String> params = new HashMap<>();
+    params.put("start", "1479281737");
+    params.put("end", "1479381737");
+    params.put("step", "1000");
+    params.put("queryKey", "valid_metric");
+    Map<String, String> filters = ImmutableMap.of("node_prefix", "yb-test");
+    String rollupQuery =
+        "avg_over_time(yb_rollup_5m:valid_metric:our_valid_metric:avg"
+            + "{node_prefix=~\"yb-test\"}[1000s])";
+    when(mockMetricRollups.getQueries(eq("valid_metric"), anyMap(), eq(filters), eq(false)))
+        .thenReturn(ImmutableMap.of("our_valid_metric", rollupQuery));
+    MetricQueryExecutor qe =
+        new MetricQueryExecutor(
+            mockAppConfig,
+            mockApiHelper,
+            params,
+            filters,
+            mockYBMetricQueryComponent,
+            false,
+            null,
+            mockMetricRollups);
+
+    JsonNode responseJson =
+        Json.parse(
+            "{\"status\":\"success\",\"data\":{\"resultType\":\"matrix\",\"result\":[{\"metric\":\n"
+                + " {\"node_prefix\":\"yb-test\"},\"values\":[[1479281737,\"0.5\"]]}]}}");
+    ArgumentCaptor<Map> queryParams = ArgumentCaptor.forClass(Map.class);
+    when(mockApiHelper.getRequest(eq("foo://bar/query_range"), anyMap(), queryParams.capture()))
+        .thenReturn(responseJson);
+
+    JsonNode result = qe.call();
+    assertEquals(rollupQuery, queryParams.getValue().get("query"));
+    // Rollups keep node_prefix, which is not in the results of the raw metric query.
+    JsonNode data = result.get("data");
+    assertEquals(1, data.size());
+    assertEquals("our_valid_metric", data.get(0).get("name").asText());
+  }
+
   @Test
   public void testWithInvalidMetric() throws Exception {
     HashMap<String, String> params = new HashMap<>();
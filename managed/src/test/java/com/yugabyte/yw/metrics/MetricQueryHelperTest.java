@@ -20,6 +20,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.yugabyte.yw.common.FakeDBApplication;
+import com.yugabyte.yw.common.PlatformExecutorFactory;
 import com.yugabyte.yw.common.PlatformServiceException;
 import com.yugabyte.yw.common.TestUtils;
 import com.yugabyte.yw.metrics.data.AlertData;
@@ -61,6 +62,8 @@ public class MetricQueryHelperTest extends FakeDBApplication {
     validMetric = MetricConfig.create("valid_metric", configJson);
     validMetric.save();
     when(mockAppConfig.getString("yb.metrics.url")).thenReturn("foo://bar");
+    metricQueryHelper.platformExecutorFactory =
+        app.injector().instanceOf(PlatformExecutorFactory.class);
   }
 
   @Test
@@ -166,6 +169,44 @@ public class MetricQueryHelperTest extends FakeDBApplication {
     assertThat(Integer.parseInt(graphQueryParam.get("step")), allOf(notNullValue(), equalTo(6)));
   }
 
+  @Test
+  public void testQueryBatch() {
+    long endTimestamp = DateTime.now().getMillis() / 1000;
+    HashMap<String, String> params = new HashMap<>();
+    params.put("start", Long.toString(endTimestamp - 600));
+    params.put("end", Long.toString(endTimestamp));
+    JsonNode responseJson =
+        Json.parse(
+            "{\"status\":\"success\",\"data\":{\"resultType\":\"matrix\",\"result\":["
+                + "{\"metric\":{\"node_prefix\":\"yb-1\"},\"values\":[[1479278137,\"1\"]]},"
+                + "{\"metric\":{\"node_prefix\":\"yb-2\"},\"values\":[[1479278137,\"2\"]]}]}}");
+
+    ArgumentCaptor<Map> queryParam = ArgumentCaptor.forClass(Map.class);
+    when(mockApiHelper.getRequest(anyString(), anyMap(), anyMap())).thenReturn(responseJson);
+    Map<String, JsonNode> responses =
+        metricQueryHelper.queryBatch(
+            ImmutableList.of("valid_metric"),
+            params,
+            ImmutableList.of("yb-1", "yb-2", "yb-3"),
+            Collections.emptyMap());
+    // Single query for all the universes.
+    verify(mockApiHelper, times(1))
+        .getRequest(anyString(), anyMap(), (Map<String, String>) queryParam.capture());
+    assertEquals(
+        "sum by (node_prefix)(my_valid_metric{node_prefix=~\"yb-1|yb-2|yb-3\"})",
+        queryParam.getValue().get("query"));
+
+    assertEquals(3, responses.size());
+    for (int i = 1; i <= 2; i++) {
+      JsonNode data = responses.get("yb-" + i).get("valid_metric").get("data");
+      assertEquals(1, data.size());
+      // Results are the same as of the single universe query.
+      assertEquals("my_valid_metric", data.get(0).get("name").asText());
+      assertEquals(i, data.get(0).get("y").get(0).asInt());
+    }
+    assertEquals(0, responses.get("yb-3").get("valid_metric").get("data").size());
+  }
+
   @Test
   public void testDirectQuerySingleValue() {
 
@@ -0,0 +1,252 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigValueFactory;
+import com.yugabyte.yw.common.ApiHelper;
+import com.yugabyte.yw.common.FakeDBApplication;
+import com.yugabyte.yw.common.SwamperHelper;
+import com.yugabyte.yw.models.MetricConfig;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.yaml.snakeyaml.Yaml;
+import play.libs.Json;
+
+public class MetricRollupsTest extends FakeDBApplication {
+
+  private static final long RULES_WRITTEN_SECS = 1600000000L;
+
+  private SwamperHelper swamperHelper;
+  private ApiHelper apiHelper;
+  private MetricRollups metricRollups;
+  private MetricConfig metricConfig;
+
+  @Before
+  public void setUp() {
+    swamperHelper = mock(SwamperHelper.class);
+    apiHelper = mock(ApiHelper.class);
+    metricRollups = new MetricRollups(app.config(), swamperHelper, apiHelper);
+    JsonNode configJson =
+        Json.parse(
+            "{\"metric\": \"rpc_latency_count\", \"function\": \"rate|sum\", \"range\": \"true\","
+                + " \"filters\": {\"export_type\": \"tserver_export\"}}");
+    metricConfig = MetricConfig.create("tserver_rpcs", configJson);
+    metricConfig.save();
+  }
+
+  private static Map<String, String> queryParams(long startSecs, int stepSecs) {
+    return ImmutableMap.of(
+        "start", Long.toString(startSecs),
+        "end", Long.toString(startSecs + 100 * stepSecs),
+        "step", Integer.toString(stepSecs));
+  }
+
+  // Prometheus response to the probe of the rollups, with the series found per node prefix.
+  private static JsonNode probeResponse(String... nodePrefixes) {
+    StringBuilder result = new StringBuilder();
+    for (String nodePrefix : nodePrefixes) {
+      if (result.length() > 0) {
+        result.append(",");
+      }
+      result.append(
+          String.format(
+              "{\"metric\": {\"node_prefix\": \"%s\"}, \"value\": [0, \"2\"]}", nodePrefix));
+    }
+    return Json.parse(
+        "{\"status\": \"success\", \"data\": {\"resultType\": \"vector\", \"result\": ["
+            + result
+            + "]}}");
+  }
+
+  private void mockProbe(JsonNode response) {
+    when(apiHelper.getRequest(anyString(), anyMap(), anyMap())).thenReturn(response);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBuildRules() {
+    Map<String, String> baseNames = new HashMap<>();
+    String rules = metricRollups.buildRules(metricConfig, baseNames);
+    assertEquals(ImmutableMap.of("rpc_latency_count", "tserver_rpcs:rpc_latency_count"), baseNames);
+
+    Map<String, List<Map<String, Object>>> parsed = new Yaml().load(rules);
+    List<Map<String, Object>> groups = parsed.get("groups");
+    assertEquals(2, groups.size());
+    assertEquals("5m", groups.get(0).get("interval"));
+    assertEquals("1h", groups.get(1).get("interval"));
+
+    List<Map<String, String>> fiveMinuteRules =
+        (List<Map<String, String>>) groups.get(0).get("rules");
+    assertEquals(1, fiveMinuteRules.size());
+    assertEquals(
+        "yb_rollup_5m:tserver_rpcs:rpc_latency_count:avg", fiveMinuteRules.get(0).get("record"));
+    assertEquals(
+        "avg_over_time((sum by (node_prefix)(rate(rpc_latency_count"
+            + "{export_type=\"tserver_export\"}[80s])))[5m:60s])",
+        fiveMinuteRules.get(0).get("expr"));
+
+    List<Map<String, String>> oneHourRules =
+        (List<Map<String, String>>) groups.get(1).get("rules");
+    assertEquals(1, oneHourRules.size());
+    assertEquals(
+        "yb_rollup_1h:tserver_rpcs:rpc_latency_count:avg", oneHourRules.get(0).get("record"));
+    assertEquals(
+        "avg_over_time(yb_rollup_5m:tserver_rpcs:rpc_latency_count:avg[1h])",
+        oneHourRules.get(0).get("expr"));
+  }
+
+  @Test
+  public void testWriteRulesRemovesStaleRules() {
+    when(swamperHelper.getMetricRollupRuleNames())
+        .thenReturn(ImmutableList.of("tserver_rpcs", "removed_metric"));
+    metricRollups.writeRules();
+    verify(swamperHelper).writeMetricRollupRules(eq("tserver_rpcs"), anyString());
+    verify(swamperHelper).removeMetricRollupRules("removed_metric");
+    verify(swamperHelper, never()).removeMetricRollupRules("tserver_rpcs");
+  }
+
+  @Test
+  public void testWriteRulesDisabled() {
+    Config config =
+        app.config().withValue(MetricRollups.ENABLED, ConfigValueFactory.fromAnyRef(false));
+    metricRollups = new MetricRollups(config, swamperHelper, apiHelper);
+    when(swamperHelper.getMetricRollupRuleNames()).thenReturn(ImmutableList.of("tserver_rpcs"));
+    metricRollups.writeRules();
+    verify(swamperHelper, never()).writeMetricRollupRules(anyString(), anyString());
+    verify(swamperHelper).removeMetricRollupRules("tserver_rpcs");
+    assertNull(
+        metricRollups.getQueries(
+            "tserver_rpcs",
+            queryParams(RULES_WRITTEN_SECS + 86400, 3600),
+            ImmutableMap.of("node_prefix", "yb-test"),
+            false));
+  }
+
+  @Test
+  public void testGetQueries() {
+    when(swamperHelper.getMetricRollupRulesModifiedTime("tserver_rpcs"))
+        .thenReturn(RULES_WRITTEN_SECS * 1000);
+    metricRollups.writeRules();
+    mockProbe(probeResponse("yb-test", "yb-other"));
+
+    Map<String, String> filters = ImmutableMap.of("node_prefix", "yb-test");
+    long start = RULES_WRITTEN_SECS + 86400;
+    assertEquals(
+        ImmutableMap.of(
+            "rpc_latency_count",
+            "avg_over_time(yb_rollup_5m:tserver_rpcs:rpc_latency_count:avg"
+                + "{node_prefix=~\"yb-test\"}[600s])"),
+        metricRollups.getQueries("tserver_rpcs", queryParams(start, 600), filters, false));
+    assertEquals(
+        ImmutableMap.of(
+            "rpc_latency_count",
+            "avg_over_time(yb_rollup_1h:tserver_rpcs:rpc_latency_count:avg"
+                + "{node_prefix=~\"yb-test|yb-other\"}[3600s])"),
+        metricRollups.getQueries(
+            "tserver_rpcs",
+            queryParams(start, 3600),
+            ImmutableMap.of("node_prefix", "yb-test|yb-other"),
+            true));
+
+    // Short step.
+    assertNull(metricRollups.getQueries("tserver_rpcs", queryParams(start, 60), filters, false));
+    // Range starts before the rollups are recorded.
+    assertNull(
+        metricRollups.getQueries(
+            "tserver_rpcs", queryParams(RULES_WRITTEN_SECS + 3600, 3600), filters, false));
+    // Other filters.
+    assertNull(
+        metricRollups.getQueries(
+            "tserver_rpcs",
+            queryParams(start, 600),
+            ImmutableMap.of("node_prefix", "yb-test", "exported_instance", "yb-test-n1"),
+            false));
+    // Several universes without split.
+    assertNull(
+        metricRollups.getQueries(
+            "tserver_rpcs",
+            queryParams(start, 600),
+            ImmutableMap.of("node_prefix", "yb-test|yb-other"),
+            false));
+    // Instant query.
+    assertNull(
+        metricRollups.getQueries(
+            "tserver_rpcs",
+            ImmutableMap.of("time", Long.toString(start), "step", "600"),
+            filters,
+            false));
+    assertNull(metricRollups.getQueries("other", queryParams(start, 600), filters, false));
+  }
+
+  @Test
+  public void testGetQueriesProbesRollups() {
+    when(swamperHelper.getMetricRollupRulesModifiedTime("tserver_rpcs"))
+        .thenReturn(RULES_WRITTEN_SECS * 1000);
+    metricRollups.writeRules();
+    Map<String, String> filters = ImmutableMap.of("node_prefix", "yb-test");
+    long start = RULES_WRITTEN_SECS + 86400;
+
+    // Prometheus lost the rollups, for ex. it was replaced.
+    mockProbe(probeResponse());
+    assertNull(metricRollups.getQueries("tserver_rpcs", queryParams(start, 600), filters, false));
+    // Prometheus is not reachable.
+    mockProbe(Json.parse("{\"error\": \"connection refused\"}"));
+    assertNull(metricRollups.getQueries("tserver_rpcs", queryParams(start, 600), filters, false));
+    // Rollups are missing for one of the universes.
+    mockProbe(probeResponse("yb-test"));
+    assertNull(
+        metricRollups.getQueries(
+            "tserver_rpcs",
+            queryParams(start, 600),
+            ImmutableMap.of("node_prefix", "yb-test|yb-other"),
+            true));
+    verify(apiHelper, times(3))
+        .getRequest(
+            anyString(),
+            anyMap(),
+            argThat(
+                params ->
+                    params
+                            .get("query")
+                            .startsWith(
+                                "count by (node_prefix) (count_over_time("
+                                    + "yb_rollup_5m:tserver_rpcs:rpc_latency_count:avg")
+                        && params.get("time").equals(Long.toString(start + 600))));
+
+    // Found rollups aren't probed again for the later ranges.
+    mockProbe(probeResponse("yb-test"));
+    assertEquals(
+        1,
+        metricRollups.getQueries("tserver_rpcs", queryParams(start, 600), filters, false).size());
+    assertEquals(
+        1,
+        metricRollups
+            .getQueries("tserver_rpcs", queryParams(start + 3600, 600), filters, false)
+            .size());
+    verify(apiHelper, times(4)).getRequest(anyString(), anyMap(), anyMap());
+    // Earlier ranges are probed.
+    mockProbe(probeResponse());
+    assertNull(
+        metricRollups.getQueries("tserver_rpcs", queryParams(start - 3600, 600), filters, false));
+    verify(apiHelper, times(5)).getRequest(anyString(), anyMap(), anyMap());
+  }
+}
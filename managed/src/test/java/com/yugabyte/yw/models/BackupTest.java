@@ -19,6 +19,7 @@ import com.yugabyte.yw.common.RegexMatcher;
 import com.yugabyte.yw.forms.BackupTableParams;
 import io.ebean.Ebean;
 import io.ebean.SqlUpdate;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -78,6 +79,23 @@ public class BackupTest extends FakeDBApplication {
     assertEquals(InProgress, b.state);
   }
 
+  @Test
+  public void testCreateResetsBackupPartCompleted() {
+    UUID universeUUID = UUID.randomUUID();
+    BackupTableParams params = new BackupTableParams();
+    params.storageConfigUUID = s3StorageConfig.configUUID;
+    params.universeUUID = universeUUID;
+    BackupTableParams part = new BackupTableParams();
+    part.storageConfigUUID = s3StorageConfig.configUUID;
+    part.universeUUID = universeUUID;
+    part.setKeyspace("foo");
+    part.backupPartCompleted = true;
+    params.backupList = Collections.singletonList(part);
+    Backup b = Backup.create(defaultCustomer.uuid, params);
+    assertFalse(b.isBackupPartCompleted(0));
+    assertFalse(Backup.get(defaultCustomer.uuid, b.backupUUID).isBackupPartCompleted(0));
+  }
+
   @Test
   public void testCreateWithNonS3StorageUUID() {
     JsonNode formData = Json.parse("{\"name\": \"FILE\", \"type\": \"STORAGE\", \"data\": {}}");
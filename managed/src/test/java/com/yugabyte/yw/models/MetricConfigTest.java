@@ -6,7 +6,9 @@ import static org.hamcrest.CoreMatchers.allOf;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 
@@ -162,6 +164,60 @@ public class MetricConfigTest extends FakeDBApplication {
     }
   }
 
+  private void assertQueryWithKeptLabel(
+      String function, String groupBy, String expectedQuery, boolean hasLabelInResults) {
+    ObjectNode configJson = Json.newObject();
+    configJson.put("metric", "metric");
+    configJson.put("function", function);
+    if (function.startsWith("rate")) {
+      configJson.put("range", true);
+    }
+    if (groupBy != null) {
+      configJson.put("group_by", groupBy);
+    }
+    MetricConfig metricConfig = MetricConfig.create("metric", configJson);
+    Map<String, String> queries = metricConfig.getQueries(new HashMap<>(), 30, "node_prefix");
+    assertEquals(expectedQuery, queries.get("metric"));
+    assertEquals(hasLabelInResults, metricConfig.hasLabelInResults("node_prefix"));
+    // Query without kept label doesn't change.
+    assertFalse(metricConfig.getQuery(new HashMap<>(), 30).contains("node_prefix"));
+  }
+
+  @Test
+  public void testQueriesWithKeptLabel() {
+    assertQueryWithKeptLabel("rate", null, "rate(metric[30s])", true);
+    assertQueryWithKeptLabel("rate|sum", null, "sum by (node_prefix)(rate(metric[30s]))", false);
+    assertQueryWithKeptLabel(
+        "rate|sum without (device)|avg",
+        null,
+        "avg by (node_prefix)(sum without (device)(rate(metric[30s])))",
+        false);
+    assertQueryWithKeptLabel(
+        "rate|sum by (exported_instance)|avg",
+        "saved_name",
+        "avg(sum by (exported_instance, node_prefix)(rate(metric[30s]))) "
+            + "by (saved_name, node_prefix)",
+        false);
+    assertQueryWithKeptLabel(
+        "max by (exported_instance, saved_name)",
+        null,
+        "max by (exported_instance, saved_name, node_prefix)(metric)",
+        false);
+  }
+
+  @Test
+  public void testQueriesWithKeptLabelInGroupBy() {
+    JsonNode configJson =
+        Json.parse(
+            "{\"metric\": \"metric\", \"function\": \"avg\","
+                + "\"group_by\": \"service_method, node_prefix\"}");
+    MetricConfig metricConfig = MetricConfig.create("metric", configJson);
+    metricConfig.save();
+    Map<String, String> queries = metricConfig.getQueries(new HashMap<>(), 30, "node_prefix");
+    assertEquals("avg(metric) by (service_method, node_prefix)", queries.get("metric"));
+    assertTrue(metricConfig.hasLabelInResults("node_prefix"));
+  }
+
   @Test
   public void testQueryFailure() {
     MetricConfig metricConfig = MetricConfig.create("metric", Json.newObject());
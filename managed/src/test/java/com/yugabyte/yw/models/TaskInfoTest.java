@@ -0,0 +1,121 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.models;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.yugabyte.yw.commissioner.UserTaskDetails;
+import com.yugabyte.yw.commissioner.UserTaskDetails.SubTaskDetails;
+import com.yugabyte.yw.commissioner.UserTaskDetails.SubTaskGroupType;
+import com.yugabyte.yw.common.FakeDBApplication;
+import com.yugabyte.yw.models.TaskInfo.State;
+import com.yugabyte.yw.models.TaskInfo.SubTasksSummary;
+import com.yugabyte.yw.models.helpers.TaskType;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import play.libs.Json;
+
+public class TaskInfoTest extends FakeDBApplication {
+
+  private TaskInfo createTask(
+      UUID parentUUID, int position, SubTaskGroupType groupType, State state) {
+    TaskInfo taskInfo = new TaskInfo(TaskType.AnsibleSetupServer);
+    taskInfo.setTaskUUID(UUID.randomUUID());
+    taskInfo.setTaskDetails(Json.newObject());
+    taskInfo.setOwner("");
+    taskInfo.setParentUuid(parentUUID);
+    taskInfo.setPosition(position);
+    taskInfo.setSubTaskGroupType(groupType);
+    taskInfo.setTaskState(state);
+    taskInfo.save();
+    return taskInfo;
+  }
+
+  private TaskInfo createParentTask(State state) {
+    TaskInfo taskInfo = new TaskInfo(TaskType.CreateUniverse);
+    taskInfo.setTaskUUID(UUID.randomUUID());
+    taskInfo.setTaskDetails(Json.newObject());
+    taskInfo.setOwner("");
+    taskInfo.setTaskState(state);
+    taskInfo.save();
+    return taskInfo;
+  }
+
+  @Test
+  public void testUserTaskDetails() {
+    TaskInfo parent = createParentTask(State.Running);
+    UUID parentUUID = parent.getTaskUUID();
+    createTask(parentUUID, 0, SubTaskGroupType.Provisioning, State.Success);
+    createTask(parentUUID, 0, SubTaskGroupType.Provisioning, State.Success);
+    createTask(parentUUID, 1, SubTaskGroupType.ConfigureUniverse, State.Success);
+    createTask(parentUUID, 2, SubTaskGroupType.ConfigureUniverse, State.Running);
+    createTask(parentUUID, 3, SubTaskGroupType.ConfigureUniverse, State.Created);
+    createTask(parentUUID, 4, SubTaskGroupType.StartingMasterProcess, State.Created);
+    createTask(parentUUID, 5, SubTaskGroupType.Invalid, State.Created);
+
+    UserTaskDetails details = parent.getUserTaskDetails();
+    assertThat(
+        details
+            .taskDetails
+            .stream()
+            .map(SubTaskDetails::getState)
+            .collect(Collectors.toList()),
+        equalTo(ImmutableList.of(State.Unknown, State.Running, State.Created)));
+    assertThat(
+        details
+            .taskDetails
+            .stream()
+            .map(SubTaskDetails::getTitle)
+            .collect(Collectors.toList()),
+        equalTo(
+            ImmutableList.of(
+                UserTaskDetails.createSubTask(SubTaskGroupType.Provisioning).getTitle(),
+                UserTaskDetails.createSubTask(SubTaskGroupType.ConfigureUniverse).getTitle(),
+                UserTaskDetails.createSubTask(SubTaskGroupType.StartingMasterProcess)
+                    .getTitle())));
+    assertThat(parent.getPercentCompleted(), equalTo(3 * 100.0 / 7));
+  }
+
+  @Test
+  public void testUserTaskDetailsFailedTask() {
+    TaskInfo parent = createParentTask(State.Failure);
+    UUID parentUUID = parent.getTaskUUID();
+    createTask(parentUUID, 0, SubTaskGroupType.Provisioning, State.Failure);
+    createTask(parentUUID, 1, SubTaskGroupType.Provisioning, State.Running);
+    createTask(parentUUID, 2, SubTaskGroupType.ConfigureUniverse, State.Created);
+
+    UserTaskDetails details = parent.getUserTaskDetails();
+    assertThat(
+        details
+            .taskDetails
+            .stream()
+            .map(SubTaskDetails::getState)
+            .collect(Collectors.toList()),
+        equalTo(ImmutableList.of(State.Failure, State.Unknown)));
+    assertThat(parent.getPercentCompleted(), equalTo(0.0));
+  }
+
+  @Test
+  public void testSubTasksSummaryForManyTasks() {
+    TaskInfo parent1 = createParentTask(State.Running);
+    TaskInfo parent2 = createParentTask(State.Success);
+    TaskInfo parent3 = createParentTask(State.Success);
+    createTask(parent1.getTaskUUID(), 0, SubTaskGroupType.Provisioning, State.Success);
+    createTask(parent1.getTaskUUID(), 1, SubTaskGroupType.Provisioning, State.Running);
+    createTask(parent2.getTaskUUID(), 0, SubTaskGroupType.Provisioning, State.Success);
+
+    Map<UUID, SubTasksSummary> summaries =
+        TaskInfo.getSubTasksSummary(
+            ImmutableList.of(
+                parent1.getTaskUUID(), parent2.getTaskUUID(), parent3.getTaskUUID()));
+    assertThat(summaries.size(), equalTo(3));
+    assertThat(parent1.getPercentCompleted(summaries.get(parent1.getTaskUUID())), equalTo(50.0));
+    assertThat(parent2.getPercentCompleted(summaries.get(parent2.getTaskUUID())), equalTo(100.0));
+    // No subtasks and parent completed.
+    assertThat(parent3.getPercentCompleted(summaries.get(parent3.getTaskUUID())), equalTo(100.0));
+  }
+}
@@ -0,0 +1,89 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.queries;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableMap;
+import com.yugabyte.yw.common.ApiUtils;
+import com.yugabyte.yw.common.FakeDBApplication;
+import com.yugabyte.yw.common.ModelFactory;
+import com.yugabyte.yw.models.Customer;
+import com.yugabyte.yw.models.Universe;
+import org.junit.Before;
+import org.junit.Test;
+import play.Application;
+import play.libs.Json;
+
+public class QueryHelperTest extends FakeDBApplication {
+
+  private QueryHelper queryHelper;
+  private Universe universe;
+
+  @Override
+  protected Application provideApplication() {
+    return provideApplication(
+        ImmutableMap.of(
+            "yb.query_stats.node_timeout", "2 s", "yb.query_stats.cache_ttl", "1 minute"));
+  }
+
+  @Before
+  public void setUp() {
+    Customer customer = ModelFactory.testCustomer();
+    universe = ModelFactory.createUniverse(customer.getCustomerId());
+    universe = Universe.saveDetails(universe.universeUUID, ApiUtils.mockUniverseUpdater());
+    queryHelper = app.injector().instanceOf(QueryHelper.class);
+  }
+
+  private JsonNode ysqlConnections(String query) {
+    ObjectNode connection = Json.newObject();
+    connection.put("backend_type", "client backend");
+    connection.put("backend_status", "active");
+    connection.put("db_name", "yugabyte");
+    connection.put("query", query);
+    ObjectNode response = Json.newObject();
+    response.putArray("connections").add(connection);
+    return response;
+  }
+
+  @Test
+  public void testLiveQueriesPartialResults() {
+    int nodeCount = universe.getNodes().size();
+    when(mockApiHelper.getRequest(anyString()))
+        .thenAnswer(
+            invocation -> {
+              String url = invocation.getArgument(0);
+              if (url.contains("10.0.0.1:")) {
+                // Node does not reply within the timeout.
+                Thread.sleep(5000);
+              }
+              if (url.endsWith(":13000/rpcz")) {
+                return ysqlConnections("SELECT 1");
+              }
+              return Json.newObject();
+            });
+
+    JsonNode result = queryHelper.liveQueries(universe);
+    assertEquals(nodeCount - 1, result.get("ysql").get("queries").size());
+    assertEquals(1, result.get("ysql").get("errorCount").asInt());
+    assertEquals(1, result.get("ycql").get("errorCount").asInt());
+  }
+
+  @Test
+  public void testLiveQueriesCached() {
+    int nodeCount = universe.getNodes().size();
+    when(mockApiHelper.getRequest(anyString())).thenReturn(ysqlConnections("SELECT 1"));
+
+    JsonNode result = queryHelper.liveQueries(universe);
+    JsonNode cached = queryHelper.liveQueries(universe);
+    assertEquals(result, cached);
+    // Each node is queried for YSQL and YCQL connections, second request is served from cache.
+    verify(mockApiHelper, times(nodeCount * 2)).getRequest(anyString());
+  }
+}